@@ -0,0 +1,249 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.aptclientgenerator;
+
+import com.github.jknack.handlebars.*;
+import com.github.jknack.handlebars.context.FieldValueResolver;
+import com.github.jknack.handlebars.context.JavaBeanValueResolver;
+import com.github.jknack.handlebars.context.MapValueResolver;
+import com.github.jknack.handlebars.io.URLTemplateSource;
+import com.google.auto.service.AutoService;
+import java.io.IOError;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.stream.Collectors;
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a {@code feign.GeneratedApi} for each interface with {@code feign.RequestLine} methods,
+ * so that {@code Feign.Builder} can bind the interface without a reflective proxy. The generated
+ * class of {@code example.Outer.Api} is {@code example.Outer_ApiGeneratedApi}.
+ *
+ * <p>
+ * Interfaces that cannot be implemented by a plain class (generic interfaces, generic methods or
+ * private types) are skipped and keep using the reflective proxy.
+ * </p>
+ */
+@SupportedAnnotationTypes("*")
+@AutoService(Processor.class)
+public class GenerateClientAPT extends AbstractProcessor {
+
+  private static final String REQUEST_LINE = "feign.RequestLine";
+  private static final String SUFFIX = "GeneratedApi";
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    final Set<TypeElement> clientsToGenerate = new LinkedHashSet<>();
+    collectInterfaces(roundEnv.getRootElements(), clientsToGenerate);
+    if (clientsToGenerate.isEmpty()) {
+      return false;
+    }
+
+    final Handlebars handlebars = new Handlebars();
+
+    final URLTemplateSource source =
+        new URLTemplateSource("client.mustache", getClass().getResource("/client.mustache"));
+    Template template;
+    try {
+      template = handlebars.with(EscapingStrategy.NOOP).compile(source);
+    } catch (final IOException e) {
+      throw new IOError(e);
+    }
+
+    clientsToGenerate.forEach(type -> {
+      try {
+        final String jPackage = readPackage(type);
+        final String className = flattenedName(type, jPackage);
+
+        final ClientDefinition client = new ClientDefinition(
+            jPackage,
+            className,
+            type.getQualifiedName().toString());
+
+        final List<MethodDefinition> methods = toMethodDefinitions(type);
+
+        final Context context = Context.newBuilder(template)
+            .combine("client", client)
+            .combine("methods", methods)
+            .resolver(JavaBeanValueResolver.INSTANCE, MapValueResolver.INSTANCE,
+                FieldValueResolver.INSTANCE)
+            .build();
+        final String clientSource = template.apply(context);
+
+        final JavaFileObject clientFile = processingEnv.getFiler()
+            .createSourceFile(jPackage + "." + className + SUFFIX, type);
+        try (Writer writer = clientFile.openWriter()) {
+          writer.append(clientSource);
+        }
+      } catch (final Exception e) {
+        processingEnv.getMessager().printMessage(Kind.ERROR,
+            "Unable to generate client for " + type + ": " + e.getMessage(), type);
+      }
+    });
+
+    return false;
+  }
+
+  /**
+   * Finds all interfaces, including nested ones, with at least one {@code RequestLine} method,
+   * declared or inherited.
+   */
+  private void collectInterfaces(Collection<? extends Element> elements, Set<TypeElement> result) {
+    for (final TypeElement type : ElementFilter.typesIn(elements)) {
+      if (type.getKind() == ElementKind.INTERFACE
+          && isImplementable(type)
+          && abstractMethods(type).stream().anyMatch(this::hasRequestLine)) {
+        result.add(type);
+      }
+      collectInterfaces(type.getEnclosedElements(), result);
+    }
+  }
+
+  private boolean isImplementable(TypeElement type) {
+    if (!type.getTypeParameters().isEmpty()
+        || processingEnv.getElementUtils().getPackageOf(type).isUnnamed()) {
+      return false;
+    }
+    for (Element element = type; element.getKind() != ElementKind.PACKAGE; element =
+        element.getEnclosingElement()) {
+      if (element.getModifiers().contains(Modifier.PRIVATE)) {
+        return false;
+      }
+    }
+    return abstractMethods(type).stream()
+        .allMatch(method -> method.getTypeParameters().isEmpty());
+  }
+
+  private boolean hasRequestLine(ExecutableElement method) {
+    return method.getAnnotationMirrors().stream()
+        .map(annotation -> annotation.getAnnotationType().asElement())
+        .map(TypeElement.class::cast)
+        .anyMatch(annotation -> annotation.getQualifiedName().contentEquals(REQUEST_LINE));
+  }
+
+  private List<ExecutableElement> abstractMethods(TypeElement type) {
+    final Elements elements = processingEnv.getElementUtils();
+    return ElementFilter.methodsIn(elements.getAllMembers(type))
+        .stream()
+        .filter(method -> method.getModifiers().contains(Modifier.ABSTRACT))
+        .filter(method -> method.getEnclosingElement().getKind() == ElementKind.INTERFACE)
+        .collect(Collectors.toList());
+  }
+
+  private List<MethodDefinition> toMethodDefinitions(TypeElement type) {
+    final Types types = processingEnv.getTypeUtils();
+    final List<ExecutableElement> executables = abstractMethods(type);
+
+    final Map<String, Long> overloads = executables.stream()
+        .collect(Collectors.groupingBy(method -> method.getSimpleName().toString(),
+            Collectors.counting()));
+
+    final List<MethodDefinition> methods = new ArrayList<>();
+    for (final ExecutableElement method : executables) {
+      final String methodName = method.getSimpleName().toString();
+      final String fieldName = overloads.get(methodName) > 1
+          ? methodName + methods.size()
+          : methodName;
+
+      /* resolve inherited generic signatures against the interface being implemented */
+      final ExecutableType resolved =
+          (ExecutableType) types.asMemberOf((DeclaredType) type.asType(), method);
+
+      final List<ArgumentDefinition> args = new ArrayList<>();
+      for (int i = 0; i < method.getParameters().size(); i++) {
+        String argType = resolved.getParameterTypes().get(i).toString();
+        if (method.isVarArgs() && i == method.getParameters().size() - 1) {
+          argType = argType.substring(0, argType.length() - 2) + "...";
+        }
+        args.add(new ArgumentDefinition("arg" + i, argType,
+            types.erasure(method.getParameters().get(i).asType()).toString()));
+      }
+
+      final List<? extends TypeMirror> thrownTypes = checkedExceptions(resolved.getThrownTypes());
+      final boolean rethrowsAll = thrownTypes.stream()
+          .anyMatch(thrown -> thrown.toString().equals(Throwable.class.getName()));
+
+      methods.add(new MethodDefinition(
+          methodName,
+          fieldName,
+          resolved.getReturnType().toString(),
+          resolved.getReturnType().getKind() == TypeKind.VOID,
+          args,
+          thrownTypes.stream().map(TypeMirror::toString).collect(Collectors.toList()),
+          rethrowsAll));
+    }
+    return methods;
+  }
+
+  /**
+   * Declared exceptions that need their own catch clause: unchecked exceptions are always rethrown,
+   * and subtypes of another declared exception are already covered by it.
+   */
+  private List<? extends TypeMirror> checkedExceptions(List<? extends TypeMirror> thrownTypes) {
+    final Types types = processingEnv.getTypeUtils();
+    final Elements elements = processingEnv.getElementUtils();
+    final TypeMirror runtimeException =
+        elements.getTypeElement(RuntimeException.class.getName()).asType();
+    final TypeMirror error = elements.getTypeElement(Error.class.getName()).asType();
+
+    return thrownTypes.stream()
+        .filter(thrown -> !types.isSubtype(thrown, runtimeException)
+            && !types.isSubtype(thrown, error))
+        .filter(thrown -> thrownTypes.stream()
+            .noneMatch(other -> other != thrown
+                && !types.isSameType(other, thrown)
+                && types.isSubtype(thrown, other)))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * The binary name of the type without its package, with nested types joined by an underscore, ex.
+   * {@code Outer_Inner}: nested interfaces of the same name don't share a generated class. Must
+   * match {@code feign.GeneratedApi}.
+   */
+  private String flattenedName(TypeElement type, String jPackage) {
+    final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+    return binaryName.substring(jPackage.length() + 1).replace('$', '_');
+  }
+
+  private String readPackage(Element type) {
+    if (type.getKind() == ElementKind.PACKAGE) {
+      return type.toString();
+    }
+
+    if (type.getKind().isClass() || type.getKind().isInterface()) {
+      return readPackage(type.getEnclosingElement());
+    }
+
+    return null;
+  }
+
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.aptclientgenerator;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class MethodDefinition {
+
+  public final String name;
+  /* unique per generated class, as interface methods may be overloaded */
+  public final String fieldName;
+  public final String returnType;
+  public final boolean isVoid;
+  public final List<ArgumentDefinition> args;
+  /* arguments as passed to the method handler */
+  public final String argv;
+  /* checked exceptions that are rethrown as is */
+  public final List<String> thrown;
+  public final boolean rethrowsAll;
+
+  public MethodDefinition(String name, String fieldName, String returnType, boolean isVoid,
+      List<ArgumentDefinition> args, List<String> thrown, boolean rethrowsAll) {
+    super();
+    this.name = name;
+    this.fieldName = fieldName;
+    this.returnType = returnType;
+    this.isVoid = isVoid;
+    this.args = args;
+    this.argv = args.isEmpty()
+        ? "NO_ARGS"
+        : args.stream()
+            .map(arg -> arg.name)
+            .collect(Collectors.joining(", ", "new Object[] {", "}"));
+    this.thrown = thrown;
+    this.rethrowsAll = rethrowsAll;
+  }
+
+}
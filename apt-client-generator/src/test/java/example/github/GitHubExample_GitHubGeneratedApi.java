@@ -0,0 +1,88 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package example.github;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Map;
+import feign.GeneratedApi;
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Target;
+
+@SuppressWarnings("unchecked")
+public final class GitHubExample_GitHubGeneratedApi extends GeneratedApi
+    implements example.github.GitHubExample.GitHub {
+
+  private static final Method reposMethod =
+      method(example.github.GitHubExample.GitHub.class, "repos", java.lang.String.class);
+  private static final Method contributorsMethod =
+      method(example.github.GitHubExample.GitHub.class, "contributors", java.lang.String.class,
+          java.lang.String.class);
+  private static final Method createIssueMethod =
+      method(example.github.GitHubExample.GitHub.class, "createIssue",
+          example.github.GitHubExample.GitHub.Issue.class, java.lang.String.class,
+          java.lang.String.class);
+
+  private final MethodHandler reposHandler;
+  private final MethodHandler contributorsHandler;
+  private final MethodHandler createIssueHandler;
+
+  public GitHubExample_GitHubGeneratedApi(Target<?> target, Map<Method, MethodHandler> dispatch) {
+    super(target);
+    this.reposHandler = handler(dispatch, reposMethod);
+    this.contributorsHandler = handler(dispatch, contributorsMethod);
+    this.createIssueHandler = handler(dispatch, createIssueMethod);
+  }
+
+  @Override
+  public java.util.List<example.github.GitHubExample.GitHub.Repository> repos(
+                                                                              java.lang.String arg0) {
+    try {
+      return (java.util.List<example.github.GitHubExample.GitHub.Repository>) reposHandler
+          .invoke(new Object[] {arg0});
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new UndeclaredThrowableException(e);
+    }
+  }
+
+  @Override
+  public java.util.List<example.github.GitHubExample.GitHub.Contributor> contributors(
+                                                                                      java.lang.String arg0,
+                                                                                      java.lang.String arg1) {
+    try {
+      return (java.util.List<example.github.GitHubExample.GitHub.Contributor>) contributorsHandler
+          .invoke(new Object[] {arg0, arg1});
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new UndeclaredThrowableException(e);
+    }
+  }
+
+  @Override
+  public void createIssue(example.github.GitHubExample.GitHub.Issue arg0,
+                          java.lang.String arg1,
+                          java.lang.String arg2) {
+    try {
+      createIssueHandler.invoke(new Object[] {arg0, arg1, arg2});
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new UndeclaredThrowableException(e);
+    }
+  }
+
+}
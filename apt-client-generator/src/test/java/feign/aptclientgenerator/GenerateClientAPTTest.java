@@ -0,0 +1,137 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.aptclientgenerator;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.Assert.assertTrue;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import org.junit.Test;
+import java.io.File;
+
+/**
+ * Test for {@link GenerateClientAPT}
+ */
+public class GenerateClientAPTTest {
+
+  private final File main = new File("../example-github/src/main/java/").getAbsoluteFile();
+
+  @Test
+  public void test() throws Exception {
+    final Compilation compilation =
+        javac()
+            .withProcessors(new GenerateClientAPT())
+            .compile(JavaFileObjects.forResource(
+                new File(main, "example/github/GitHubExample.java")
+                    .toURI()
+                    .toURL()));
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("example.github.GitHubExample_GitHubGeneratedApi")
+        .hasSourceEquivalentTo(JavaFileObjects.forResource(
+            new File("src/test/java/example/github/GitHubExample_GitHubGeneratedApi.java")
+                .toURI()
+                .toURL()));
+  }
+
+  @Test
+  public void skipsGenericInterfaces() throws Exception {
+    final Compilation compilation =
+        javac()
+            .withProcessors(new GenerateClientAPT())
+            .compile(JavaFileObjects.forSourceLines("example.Generic",
+                "package example;",
+                "public interface Generic<T> {",
+                "  @feign.RequestLine(\"GET /\")",
+                "  T get();",
+                "}"));
+    assertThat(compilation).succeeded();
+    assertTrue(compilation.generatedSourceFiles().isEmpty());
+  }
+
+  @Test
+  public void namesNestedInterfacesAfterTheirEnclosingTypes() throws Exception {
+    final Compilation compilation =
+        javac()
+            .withProcessors(new GenerateClientAPT())
+            .compile(
+                JavaFileObjects.forSourceLines("example.Users",
+                    "package example;",
+                    "public class Users {",
+                    "  public interface Api {",
+                    "    @feign.RequestLine(\"GET /users\")",
+                    "    String list();",
+                    "  }",
+                    "}"),
+                JavaFileObjects.forSourceLines("example.Orders",
+                    "package example;",
+                    "public class Orders {",
+                    "  public interface Api {",
+                    "    @feign.RequestLine(\"GET /orders\")",
+                    "    String list();",
+                    "  }",
+                    "}"));
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("example.Users_ApiGeneratedApi")
+        .contentsAsUtf8String()
+        .contains("implements example.Users.Api");
+    assertThat(compilation)
+        .generatedSourceFile("example.Orders_ApiGeneratedApi")
+        .contentsAsUtf8String()
+        .contains("implements example.Orders.Api");
+  }
+
+  @Test
+  public void implementsInheritedAndThrowingMethods() throws Exception {
+    final Compilation compilation =
+        javac()
+            .withProcessors(new GenerateClientAPT())
+            .compile(
+                JavaFileObjects.forSourceLines("example.Base",
+                    "package example;",
+                    "public interface Base<K, V> {",
+                    "  @feign.RequestLine(\"GET /{key}\")",
+                    "  V get(@feign.Param(\"key\") K key) throws java.io.IOException;",
+                    "}"),
+                JavaFileObjects.forSourceLines("example.Api",
+                    "package example;",
+                    "public interface Api extends Base<String, Integer> {",
+                    "  @feign.RequestLine(\"GET /\")",
+                    "  int count() throws Exception, java.io.IOException;",
+                    "  @feign.RequestLine(\"POST /\")",
+                    "  void post(String... values);",
+                    "}"));
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("example.ApiGeneratedApi")
+        .contentsAsUtf8String()
+        .contains("public java.lang.Integer get(java.lang.String arg0)"
+            + " throws java.io.IOException");
+    assertThat(compilation)
+        .generatedSourceFile("example.ApiGeneratedApi")
+        .contentsAsUtf8String()
+        .contains("method(example.Api.class, \"get\", java.lang.Object.class)");
+    assertThat(compilation)
+        .generatedSourceFile("example.ApiGeneratedApi")
+        .contentsAsUtf8String()
+        .contains("public int count() throws java.lang.Exception");
+    assertThat(compilation)
+        .generatedSourceFile("example.ApiGeneratedApi")
+        .contentsAsUtf8String()
+        .contains("public void post(java.lang.String... arg0)");
+  }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import feign.AsyncClient;
+import feign.AsyncFeign;
+import feign.Client;
+import feign.RequestLine;
+import feign.Response;
+
+/**
+ * Keeps {@link #IN_FLIGHT} calls in flight against a blocking client with a fixed latency, running
+ * each call either on a platform thread of an unbounded pool, or on its own virtual thread. The
+ * {@code virtual} executor needs Java 21+.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class AsyncConcurrencyBenchmarks {
+
+  static final int IN_FLIGHT = 10_000;
+  static final long LATENCY_MILLIS = 10;
+
+  public interface Api {
+
+    @RequestLine("GET /")
+    CompletableFuture<Void> call();
+  }
+
+  @Param({"platform", "virtual"})
+  private String executor;
+
+  private ExecutorService platformThreads;
+  private Api api;
+
+  @Setup
+  public void setup() throws NoSuchMethodException {
+    Client slowClient = (request, options) -> {
+      try {
+        Thread.sleep(LATENCY_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return Response.builder()
+          .status(200)
+          .headers(Collections.emptyMap())
+          .request(request)
+          .build();
+    };
+    AsyncClient<Void> client;
+    if ("virtual".equals(executor)) {
+      /* fail rather than silently measuring the fallback pool */
+      Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      client = AsyncClient.Default.virtualThreadPerRequest(slowClient);
+    } else {
+      platformThreads = Executors.newCachedThreadPool();
+      client = new AsyncClient.Default<>(slowClient, platformThreads);
+    }
+    api = AsyncFeign.<Void>asyncBuilder().client(client).target(Api.class, "http://localhost");
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (platformThreads != null) {
+      platformThreads.shutdownNow();
+    }
+  }
+
+  /**
+   * How many bursts of {@link #IN_FLIGHT} concurrent calls complete per second?
+   */
+  @Benchmark
+  public void burst() {
+    CompletableFuture<?>[] calls = new CompletableFuture<?>[IN_FLIGHT];
+    for (int i = 0; i < IN_FLIGHT; i++) {
+      calls[i] = api.call();
+    }
+    CompletableFuture.allOf(calls).join();
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import feign.Util;
+import feign.template.BodyTemplate;
+
+/**
+ * Compares expanding a json {@code @Body} template to a String and then encoding it, with encoding
+ * it as it is expanded. Run with the gc profiler, ex. {@code -prof gc}, to compare the bytes
+ * allocated per body.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class BodyExpansionBenchmarks {
+
+  /* number of items in the expanded value */
+  @Param({"10", "10000"})
+  private int items;
+
+  private BodyTemplate template;
+  private Map<String, Object> variables;
+
+  @Setup
+  public void setup() {
+    template = BodyTemplate.create("%7B\"batch\": \"{batch}\", \"items\": [{items}]%7D");
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < items; i++) {
+      if (i > 0) {
+        value.append(',');
+      }
+      value.append("{\"id\": ").append(i).append(", \"name\": \"item ").append(i).append("\"}");
+    }
+    variables = new HashMap<>();
+    variables.put("batch", "2020-12-01");
+    variables.put("items", value.toString());
+  }
+
+  @Benchmark
+  public byte[] expandThenEncode() {
+    return template.expand(variables).getBytes(Util.UTF_8);
+  }
+
+  @Benchmark
+  public byte[] expandEncoded() {
+    return template.expand(variables, Util.UTF_8);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(BodyExpansionBenchmarks.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
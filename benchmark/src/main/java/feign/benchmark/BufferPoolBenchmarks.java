@@ -0,0 +1,162 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import feign.Feign;
+import feign.Logger;
+import feign.RequestLine;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Util;
+import feign.jackson.JacksonEncoder;
+
+/**
+ * Buffering of bodies, which borrows its buffers from a {@link feign.BufferPool}: reading a stream
+ * fully, rebuffering logged responses and encoding json. {@code byteArrayOutputStream} is how
+ * streams were read before, for reference. Run with the gc profiler, ex. {@code -prof gc}, to
+ * compare the bytes allocated.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class BufferPoolBenchmarks {
+
+  public interface Api {
+
+    @RequestLine("GET /")
+    void get();
+  }
+
+  public static class Item {
+
+    String name;
+    int quantity;
+    boolean available;
+
+    Item(int i) {
+      this.name = "item-" + i;
+      this.quantity = i;
+      this.available = i % 2 == 0;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getQuantity() {
+      return quantity;
+    }
+
+    public boolean isAvailable() {
+      return available;
+    }
+  }
+
+  /* size of the body, in bytes */
+  @Param({"1024", "16384", "262144"})
+  private int size;
+
+  private byte[] data;
+  private Api loggedApi;
+  private List<Item> items;
+  private final JacksonEncoder jacksonEncoder = new JacksonEncoder();
+
+  @Setup
+  public void setup() {
+    data = new byte[size];
+    for (int i = 0; i < size; i++) {
+      data[i] = (byte) ('a' + i % 26);
+    }
+    loggedApi = Feign.builder()
+        .logger(new Logger() {
+          @Override
+          protected void log(String configKey, String format, Object... args) {}
+        })
+        .logLevel(Logger.Level.HEADERS)
+        .client((request, options) -> Response.builder()
+            .status(200)
+            .reason("OK")
+            .headers(Collections.emptyMap())
+            .request(request)
+            .body(new ByteArrayInputStream(data), null)
+            .build())
+        .target(Api.class, "http://localhost");
+    /* about 50 bytes of json per item */
+    items = new ArrayList<>();
+    for (int i = 0; i < size / 50; i++) {
+      items.add(new Item(i));
+    }
+  }
+
+  @Benchmark
+  public byte[] toByteArray() throws IOException {
+    return Util.toByteArray(new ByteArrayInputStream(data));
+  }
+
+  @Benchmark
+  public byte[] byteArrayOutputStream() throws IOException {
+    InputStream in = new ByteArrayInputStream(data);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buf = new byte[0x800];
+    for (int r; (r = in.read(buf)) != -1;) {
+      out.write(buf, 0, r);
+    }
+    return out.toByteArray();
+  }
+
+  @Benchmark
+  public void loggedCall() {
+    loggedApi.get();
+  }
+
+  @Benchmark
+  public byte[] jacksonEncode() {
+    RequestTemplate template = new RequestTemplate();
+    jacksonEncoder.encode(items, List.class, template);
+    return template.body();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(BufferPoolBenchmarks.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
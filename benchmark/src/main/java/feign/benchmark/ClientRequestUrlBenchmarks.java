@@ -0,0 +1,156 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import io.netty.buffer.ByteBuf;
+import io.reactivex.netty.protocol.http.server.HttpServer;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.client.utils.URLEncodedUtils;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import feign.Client;
+import feign.Feign;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.RequestLine;
+import feign.Response;
+import feign.httpclient.ApacheHttpClient;
+import feign.okhttp.OkHttpClient;
+
+/**
+ * The cost of the url of a request with a long query, shared by all clients. {@code query} sends it
+ * through each client against a local server, the other benchmarks compare parsing it with
+ * {@link URL} or {@link URI}, as clients did, with reading the parts of
+ * {@link Request#requestUrl()}. Run with the gc profiler, ex. {@code -prof gc}, to compare the
+ * bytes allocated.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ClientRequestUrlBenchmarks {
+
+  private static final int SERVER_PORT = 8766;
+  private static final String URL = "http://localhost:" + SERVER_PORT
+      + "/v1/search/items?query=feign%20client&category=books&author=Jane%20Doe&language=en"
+      + "&sort=price&order=asc&page=3&size=50&minPrice=1000&maxPrice=5000&inStock=true";
+
+  public interface Api {
+
+    @RequestLine("GET /v1/search/items?query=feign%20client&category=books&author=Jane%20Doe"
+        + "&language=en&sort=price&order=asc&page=3&size=50&minPrice=1000&maxPrice=5000"
+        + "&inStock=true")
+    Response query();
+  }
+
+  @Param({"default", "apache", "okhttp"})
+  private String client;
+
+  private HttpServer<ByteBuf, ByteBuf> server;
+  private Api api;
+
+  @Setup
+  public void setup() {
+    server = HttpServer.newServer(SERVER_PORT)
+        .start((request, response) -> null);
+    api = Feign.builder()
+        .client(client())
+        .target(Api.class, "http://localhost:" + SERVER_PORT);
+  }
+
+  private Client client() {
+    switch (client) {
+      case "apache":
+        return new ApacheHttpClient();
+      case "okhttp":
+        return new OkHttpClient();
+      default:
+        return new Client.Default(null, null);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    server.shutdown();
+  }
+
+  private static Request request() {
+    return Request.create(HttpMethod.GET, URL, Collections.emptyMap(), Request.Body.empty(),
+        null);
+  }
+
+  @Benchmark
+  public boolean query() {
+    /* auto close the response */
+    try (Response ignored = api.query()) {
+      return true;
+    }
+  }
+
+  @Benchmark
+  public HttpUriRequest rebuildApacheQuery() throws URISyntaxException {
+    RequestBuilder requestBuilder = RequestBuilder.create("GET");
+    URI uri = new URIBuilder(request().url()).build();
+    requestBuilder.setUri(uri.getScheme() + "://" + uri.getAuthority() + uri.getRawPath());
+    for (NameValuePair queryParam : URLEncodedUtils.parse(uri, requestBuilder.getCharset())) {
+      requestBuilder.addParameter(queryParam);
+    }
+    return requestBuilder.build();
+  }
+
+  @Benchmark
+  public HttpUriRequest requestUrlApacheQuery() throws URISyntaxException {
+    return RequestBuilder.create("GET").setUri(request().requestUrl().toURI()).build();
+  }
+
+  @Benchmark
+  public String parseUriForHost() throws URISyntaxException {
+    return new URI(request().url()).getHost();
+  }
+
+  @Benchmark
+  public String requestUrlHost() {
+    return request().requestUrl().host();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(ClientRequestUrlBenchmarks.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
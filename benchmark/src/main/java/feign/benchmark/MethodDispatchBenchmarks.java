@@ -0,0 +1,106 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import feign.Client;
+import feign.Feign;
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Response;
+import feign.Target;
+
+/**
+ * Measures the per call cost of resolving the invoked method to its handler, comparing the
+ * {@link feign.DispatchTable} used by default with a lookup by name and in the dispatch map.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class MethodDispatchBenchmarks {
+
+  private FeignTestInterface cachedFakeApi;
+  private FeignTestInterface mapDispatchFakeApi;
+
+  @Setup
+  public void setup() {
+    Client fakeClient = (request, options) -> Response.builder()
+        .body((byte[]) null)
+        .status(200)
+        .headers(Collections.emptyMap())
+        .reason("ok")
+        .request(request)
+        .build();
+    cachedFakeApi = Feign.builder().client(fakeClient)
+        .target(FeignTestInterface.class, "http://localhost");
+    mapDispatchFakeApi = Feign.builder().client(fakeClient)
+        .invocationHandlerFactory(MapDispatchInvocationHandler::new)
+        .target(FeignTestInterface.class, "http://localhost");
+  }
+
+  /**
+   * Same as {@link WhatShouldWeCacheBenchmarks#buildAndQuery_fake_cachedApi()}.
+   */
+  @Benchmark
+  public Response buildAndQuery_fake_cachedApi() {
+    return cachedFakeApi.query();
+  }
+
+  /**
+   * The cached api, dispatching like Feign did before the dispatch table.
+   */
+  @Benchmark
+  public Response buildAndQuery_fake_cachedApi_mapDispatch() {
+    return mapDispatchFakeApi.query();
+  }
+
+  static class MapDispatchInvocationHandler implements InvocationHandler {
+
+    private final Target<?> target;
+    private final Map<Method, MethodHandler> dispatch;
+
+    MapDispatchInvocationHandler(Target<?> target, Map<Method, MethodHandler> dispatch) {
+      this.target = target;
+      this.dispatch = dispatch;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if ("equals".equals(method.getName())) {
+        return proxy == args[0];
+      } else if ("hashCode".equals(method.getName())) {
+        return target.hashCode();
+      } else if ("toString".equals(method.getName())) {
+        return target.toString();
+      }
+      return dispatch.get(method).invoke(args);
+    }
+  }
+}
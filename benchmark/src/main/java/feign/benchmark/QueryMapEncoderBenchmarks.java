@@ -0,0 +1,123 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import feign.Client;
+import feign.Feign;
+import feign.QueryMap;
+import feign.QueryMapEncoder;
+import feign.RequestLine;
+import feign.Response;
+import feign.querymap.FieldQueryMapEncoder;
+
+/**
+ * Compares invoking a method with a 20 field {@link QueryMap} object, encoded into a map, with
+ * writing its compiled {@link feign.querymap.QueryMapPlan plan} into the request. The client does
+ * no I/O, so the results are the cost of building the request.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class QueryMapEncoderBenchmarks {
+
+  public interface SearchApi {
+
+    @RequestLine("GET /search")
+    Response search(@QueryMap Filter filter);
+  }
+
+  public static class Filter {
+    String query = "feign clients";
+    String category = "books";
+    String author = "Jane Doe";
+    String publisher;
+    String language = "en";
+    String format = "paperback";
+    String sort = "price";
+    String order = "asc";
+    String currency = "EUR";
+    String region;
+    int page = 3;
+    int size = 50;
+    int minRating = 4;
+    long minPrice = 1000L;
+    long maxPrice = 5000L;
+    boolean inStock = true;
+    boolean used = false;
+    Integer edition;
+    List<String> tags = Arrays.asList("java", "http");
+    Long since = 1606780800000L;
+  }
+
+  private final Filter filter = new Filter();
+  private SearchApi mapBased;
+  private SearchApi planned;
+
+  @Setup
+  public void setup() {
+    Client client = (request, options) -> Response.builder()
+        .status(200)
+        .headers(Collections.emptyMap())
+        .request(request)
+        .build();
+    /* a subclass may override encode, so it is always asked for a map */
+    QueryMapEncoder mapEncoder = new FieldQueryMapEncoder() {};
+    mapBased = Feign.builder()
+        .client(client)
+        .queryMapEncoder(mapEncoder)
+        .target(SearchApi.class, "http://localhost");
+    planned = Feign.builder()
+        .client(client)
+        .queryMapEncoder(new FieldQueryMapEncoder())
+        .target(SearchApi.class, "http://localhost");
+  }
+
+  @Benchmark
+  public Response encodeToMap() {
+    return mapBased.search(filter);
+  }
+
+  @Benchmark
+  public Response writePlan() {
+    return planned.search(filter);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(QueryMapEncoderBenchmarks.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
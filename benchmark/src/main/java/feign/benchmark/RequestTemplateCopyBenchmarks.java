@@ -0,0 +1,74 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.util.concurrent.TimeUnit;
+import feign.Request.HttpMethod;
+import feign.RequestTemplate;
+
+/**
+ * Copies a template with 10 queries and 10 headers, as done for each call, and adds a header as an
+ * interceptor would. Run with the gc profiler, ex. {@code -prof gc}, to compare the bytes allocated
+ * per copy.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RequestTemplateCopyBenchmarks {
+
+  private RequestTemplate template;
+
+  @Setup
+  public void setup() {
+    template = new RequestTemplate().method(HttpMethod.GET).uri("/api/items");
+    for (int i = 0; i < 10; i++) {
+      template.query("q" + i, "{q" + i + "}");
+      template.header("X-Header-" + i, "{h" + i + "}");
+    }
+  }
+
+  @Benchmark
+  public RequestTemplate copy() {
+    return RequestTemplate.from(template);
+  }
+
+  @Benchmark
+  public RequestTemplate copyAndAddHeader() {
+    return RequestTemplate.from(template).header("X-Trace-Id", "abc");
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(RequestTemplateCopyBenchmarks.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import feign.Client;
+import feign.Feign;
+import feign.Param;
+import feign.RequestLine;
+import feign.Response;
+import feign.Util;
+
+/**
+ * Measures the garbage produced by a synchronous call, outside of the client and the codec. Run
+ * with the gc profiler, ex. {@code -prof gc}, and compare {@code gc.alloc.rate.norm}, the bytes
+ * allocated per operation.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SynchronousInvocationBenchmarks {
+
+  interface Api {
+
+    @RequestLine("GET /")
+    void literal();
+
+    @RequestLine("GET /users/{user}")
+    void expanded(@Param("user") String user);
+
+    @RequestLine("GET /")
+    String decoded();
+  }
+
+  private static final byte[] BODY = "ok".getBytes(Util.UTF_8);
+  private static final Map<String, Collection<String>> HEADERS = Collections.emptyMap();
+
+  private Api api;
+  private Api intercepted;
+
+  @Setup
+  public void setup() {
+    /* the client allocates as little as possible, so the Feign allocations stand out */
+    Client fakeClient = (request, options) -> Response.builder()
+        .status(200)
+        .headers(HEADERS)
+        .body(BODY)
+        .request(request)
+        .build();
+    api = Feign.builder().client(fakeClient).target(Api.class, "http://localhost");
+    intercepted = Feign.builder()
+        .client(fakeClient)
+        .requestInterceptor(template -> template.header("Authorization", "Bearer token"))
+        .target(Api.class, "http://localhost");
+  }
+
+  @Benchmark
+  public void literal() {
+    api.literal();
+  }
+
+  @Benchmark
+  public void literalIntercepted() {
+    intercepted.literal();
+  }
+
+  @Benchmark
+  public void expanded() {
+    api.expanded("denominator");
+  }
+
+  @Benchmark
+  public String decoded() {
+    return api.decoded();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(SynchronousInvocationBenchmarks.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import feign.Request.HttpMethod;
+import feign.RequestTemplate;
+
+/**
+ * Measures the expansion of a request with 10 parameters, spread over the path, the query and a
+ * header. Run with the gc profiler, ex. {@code -prof gc}, to compare the bytes allocated per
+ * request.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class TemplateExpansionBenchmarks {
+
+  private RequestTemplate template;
+  private Map<String, Object> variables;
+
+  @Setup
+  public void setup() {
+    template = new RequestTemplate()
+        .method(HttpMethod.GET)
+        .uri("/orgs/{org}/repos/{repo}/branches/{branch}/commits/{sha}")
+        .query("author", "{author}")
+        .query("since", "{since}")
+        .query("until", "{until}")
+        .query("path", "{path}")
+        .query("page", "{page}")
+        .header("X-Request-Id", "{requestId}");
+
+    variables = new LinkedHashMap<>();
+    variables.put("org", "OpenFeign");
+    variables.put("repo", "feign");
+    variables.put("branch", "release/10.x");
+    variables.put("sha", "6f1c2d3e4b5a");
+    variables.put("author", "denominator bot");
+    variables.put("since", "2020-01-01T00:00:00Z");
+    variables.put("until", "2020-12-31T23:59:59Z");
+    variables.put("path", "core/src/main/java");
+    variables.put("page", 3);
+    variables.put("requestId", "0f8fad5b-d9cb-469f-a165-70867728950e");
+  }
+
+  @Benchmark
+  public RequestTemplate resolve() {
+    return template.resolve(variables);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(TemplateExpansionBenchmarks.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
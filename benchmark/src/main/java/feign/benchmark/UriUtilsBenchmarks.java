@@ -0,0 +1,93 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.util.concurrent.TimeUnit;
+import feign.Util;
+import feign.template.UriUtils;
+
+/**
+ * Measures pct-encoding of typical path and query values. Run with the gc profiler, ex.
+ * {@code -prof gc}, to compare the bytes allocated per value.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class UriUtilsBenchmarks {
+
+  @Param({"id", "text", "unicode"})
+  private String kind;
+
+  private String value;
+  private final StringBuilder builder = new StringBuilder(256);
+
+  @Setup
+  public void setup() {
+    switch (kind) {
+      case "id":
+        value = "3f2c9a1e-user_42";
+        break;
+      case "text":
+        value = "Feign makes writing java http clients easier; see the README & examples "
+            + "(https://github.com/OpenFeign/feign) for more, 100% free!";
+        break;
+      case "unicode":
+        value = "\u00dcn\u00efc\u00f6d\u00e9 fa\u00e7ade \u2013 \u6771\u4eac\u90fd \ud83d\ude00";
+        break;
+      default:
+        throw new IllegalArgumentException(kind);
+    }
+  }
+
+  @Benchmark
+  public String encode() {
+    return UriUtils.encode(value, Util.UTF_8);
+  }
+
+  @Benchmark
+  public String encodeAllowReserved() {
+    return UriUtils.encode(value, Util.UTF_8, true);
+  }
+
+  @Benchmark
+  public StringBuilder encodeIntoBuilder() {
+    builder.setLength(0);
+    return UriUtils.encode(value, Util.UTF_8, builder);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(UriUtilsBenchmarks.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
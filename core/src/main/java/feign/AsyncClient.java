@@ -42,9 +42,26 @@ public interface AsyncClient<C> {
 
   class Default<C> implements AsyncClient<C> {
 
+    private static class LazyInitializedVirtualThreadExecutorService {
+
+      private static final ExecutorService instance =
+          VirtualThreads.newVirtualThreadPerTaskExecutor();
+    }
+
     private final Client client;
     private final ExecutorService executorService;
 
+    /**
+     * Executes each request of the blocking {@code client} on its own virtual thread, when the
+     * runtime supports them (Java 21+). Otherwise falls back to the shared, unbounded, thread pool
+     * used by default by {@link AsyncFeign}.
+     */
+    public static <C> Default<C> virtualThreadPerRequest(Client client) {
+      return new Default<>(client, VirtualThreads.isSupported()
+          ? LazyInitializedVirtualThreadExecutorService.instance
+          : AsyncFeign.LazyInitializedExecutorService.instance);
+    }
+
     public Default(Client client, ExecutorService executorService) {
       this.client = client;
       this.executorService = executorService;
@@ -57,7 +74,11 @@ public interface AsyncClient<C> {
       final CompletableFuture<Response> result = new CompletableFuture<>();
       final Future<?> future = executorService.submit(() -> {
         try {
-          result.complete(client.execute(request, options));
+          final Response response = client.execute(request, options);
+          if (!result.complete(response)) {
+            /* cancelled while executing, nobody else will close it */
+            Util.ensureClosed(response);
+          }
         } catch (final Exception e) {
           result.completeExceptionally(e);
         }
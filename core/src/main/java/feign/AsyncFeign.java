@@ -15,6 +15,8 @@ package feign;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.*;
 import java.util.function.Supplier;
@@ -48,9 +50,9 @@ public abstract class AsyncFeign<C> extends Feign {
     return new AsyncBuilder<>();
   }
 
-  private static class LazyInitializedExecutorService {
+  static class LazyInitializedExecutorService {
 
-    private static final ExecutorService instance = Executors.newCachedThreadPool(r -> {
+    static final ExecutorService instance = Executors.newCachedThreadPool(r -> {
       final Thread result = new Thread(r);
       result.setDaemon(true);
       return result;
@@ -70,6 +72,8 @@ public abstract class AsyncFeign<C> extends Feign {
     private ErrorDecoder errorDecoder = new ErrorDecoder.Default();
     private boolean decode404;
     private boolean closeAfterDecode = true;
+    private boolean virtualThreads;
+    private final List<Capability> capabilities = new ArrayList<>();
 
     public AsyncBuilder() {
       super();
@@ -86,6 +90,17 @@ public abstract class AsyncFeign<C> extends Feign {
       return this;
     }
 
+    /**
+     * Unless a {@link #client(AsyncClient) client} is set, executes each request on its own virtual
+     * thread instead of on an unbounded thread pool, when the runtime supports them (Java 21+).
+     *
+     * @see AsyncClient.Default#virtualThreadPerRequest(Client)
+     */
+    public AsyncBuilder<C> virtualThreads() {
+      this.virtualThreads = true;
+      return this;
+    }
+
     /**
      * @see Builder#mapAndDecode(ResponseMapper, Decoder)
      */
@@ -140,7 +155,9 @@ public abstract class AsyncFeign<C> extends Feign {
     }
 
     private AsyncBuilder<C> lazyInits() {
-      if (client == null) {
+      if (client == null && virtualThreads) {
+        client = AsyncClient.Default.virtualThreadPerRequest(new Client.Default(null, null));
+      } else if (client == null) {
         client = new AsyncClient.Default<>(new Client.Default(null, null),
             LazyInitializedExecutorService.instance);
       }
@@ -152,6 +169,15 @@ public abstract class AsyncFeign<C> extends Feign {
       return new ReflectiveAsyncFeign<>(lazyInits());
     }
 
+    /**
+     * Adds a capability enriching the {@link AsyncClient}. Other components are not enriched, as
+     * the async builder replaces the synchronous client and decoder with its own.
+     */
+    public AsyncBuilder<C> addCapability(Capability capability) {
+      this.capabilities.add(capability);
+      return this;
+    }
+
     // start of builder delgates
 
     /**
@@ -244,7 +270,7 @@ public abstract class AsyncFeign<C> extends Feign {
     this.activeContext = new ThreadLocal<>();
 
     this.defaultContextSupplier = asyncBuilder.defaultContextSupplier;
-    this.client = asyncBuilder.client;
+    this.client = Capability.enrich(asyncBuilder.client, asyncBuilder.capabilities);
 
     this.logLevel = asyncBuilder.logLevel;
     this.logger = asyncBuilder.logger;
@@ -16,6 +16,7 @@ package feign;
 import static feign.FeignException.errorReading;
 import static feign.Util.ensureClosed;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.util.concurrent.CompletableFuture;
 import feign.Logger.Level;
@@ -60,54 +61,95 @@ class AsyncResponseHandler {
                       Response response,
                       Type returnType,
                       long elapsedTime) {
+    try {
+      resultFuture.complete(handleResponse(configKey, response, returnType, elapsedTime));
+    } catch (final Exception e) {
+      resultFuture.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Handles the response on the calling thread.
+   *
+   * @return the decoded result.
+   * @throws Exception the error decoded from the response, or raised while decoding it.
+   */
+  Object handleResponse(String configKey,
+                        Response response,
+                        Type returnType,
+                        long elapsedTime)
+      throws Exception {
     // copied fairly liberally from SynchronousMethodHandler
     boolean shouldClose = true;
+    final Exception error;
 
     try {
       if (logLevel != Level.NONE) {
+        if (Response.class != returnType && closeAfterDecode) {
+          response = pooled(response);
+        }
         response = logger.logAndRebufferResponse(configKey, logLevel, response,
             elapsedTime);
       }
       if (Response.class == returnType) {
         if (response.body() == null) {
-          resultFuture.complete(response);
+          return response;
         } else if (response.body().length() == null
             || response.body().length() > MAX_RESPONSE_BUFFER_SIZE) {
           shouldClose = false;
-          resultFuture.complete(response);
+          return response;
         } else {
           // Ensure the response body is disconnected
           final byte[] bodyData = Util.toByteArray(response.body().asInputStream());
-          resultFuture.complete(response.toBuilder().body(bodyData).build());
+          return response.toBuilder().body(bodyData).build();
         }
       } else if (response.status() >= 200 && response.status() < 300) {
         if (isVoidType(returnType)) {
-          resultFuture.complete(null);
+          return null;
         } else {
           final Object result = decode(response, returnType);
           shouldClose = closeAfterDecode;
-          resultFuture.complete(result);
+          return result;
         }
       } else if (decode404 && response.status() == 404 && !isVoidType(returnType)) {
         final Object result = decode(response, returnType);
         shouldClose = closeAfterDecode;
-        resultFuture.complete(result);
+        return result;
       } else {
-        resultFuture.completeExceptionally(errorDecoder.decode(configKey, response));
+        error = errorDecoder.decode(configKey, response);
       }
     } catch (final IOException e) {
       if (logLevel != Level.NONE) {
         logger.logIOException(configKey, logLevel, e, elapsedTime);
       }
-      resultFuture.completeExceptionally(errorReading(response.request(), response, e));
-    } catch (final Exception e) {
-      resultFuture.completeExceptionally(e);
+      throw errorReading(response.request(), response, e);
     } finally {
       if (shouldClose) {
         ensureClosed(response.body());
       }
     }
+    throw error;
+  }
 
+  /**
+   * Buffers the body of a response decoded, then closed, here: nothing reads it after it is closed,
+   * so its buffers can be borrowed from the pool, and given back on close.
+   */
+  private static Response pooled(Response response) throws IOException {
+    if (response.body() == null || response.body().isRepeatable()) {
+      return response;
+    }
+    PooledOutputStream buffer = new PooledOutputStream();
+    InputStream in = response.body().asInputStream();
+    try {
+      buffer.readFrom(in);
+    } catch (IOException | RuntimeException e) {
+      buffer.close();
+      throw e;
+    } finally {
+      ensureClosed(in);
+    }
+    return response.toBuilder().body(buffer.toResponseBody()).build();
   }
 
   Object decode(Response response, Type type) throws IOException {
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkArgument;
+import java.util.ServiceLoader;
+
+/**
+ * Lends byte arrays, so that buffering bodies doesn't allocate fresh ones for every call. Used by
+ * {@link PooledOutputStream}, which backs {@link Util#toByteArray(java.io.InputStream)}, the bodies
+ * of logged responses Feign decodes then closes, and the jackson encoder.
+ *
+ * <p>
+ * The {@link #shared() shared} pool is the first implementation registered as a
+ * {@link ServiceLoader service}, in {@code META-INF/services/feign.BufferPool}, or else a
+ * {@link Default} one.
+ * </p>
+ */
+@Experimental
+public interface BufferPool {
+
+  /**
+   * @return a buffer of at least {@code minCapacity} bytes, whose content is undefined.
+   */
+  byte[] acquire(int minCapacity);
+
+  /**
+   * Gives back a buffer returned by {@link #acquire(int)}, which the caller must no longer use.
+   */
+  void release(byte[] buffer);
+
+  /**
+   * @return the pool used by Feign.
+   */
+  static BufferPool shared() {
+    return SharedBufferPool.INSTANCE;
+  }
+
+  /**
+   * Keeps, for each thread, one buffer per power of two between 1 KiB and a maximum size. Larger
+   * buffers aren't pooled. Needs no locking, at the cost of buffers released by another thread than
+   * the one that acquired them changing threads.
+   */
+  class Default implements BufferPool {
+
+    private static final int MIN_SHIFT = 10;
+
+    private final int maxShift;
+    private final ThreadLocal<byte[][]> buffers;
+
+    /**
+     * Pools buffers of up to 64 KiB, so at most 127 KiB per thread.
+     */
+    public Default() {
+      this(64 * 1024);
+    }
+
+    /**
+     * @param maxPooledSize largest buffer kept, rounded up to a power of two.
+     */
+    public Default(int maxPooledSize) {
+      checkArgument(maxPooledSize >= 1 << MIN_SHIFT && maxPooledSize <= 1 << 30,
+          "maxPooledSize must be between 1 KiB and 1 GiB, was %s", maxPooledSize);
+      this.maxShift = shift(maxPooledSize);
+      int sizeClasses = maxShift - MIN_SHIFT + 1;
+      this.buffers = ThreadLocal.withInitial(() -> new byte[sizeClasses][]);
+    }
+
+    @Override
+    public byte[] acquire(int minCapacity) {
+      checkArgument(minCapacity >= 0, "minCapacity must be positive, was %s", minCapacity);
+      int shift = Math.max(shift(minCapacity), MIN_SHIFT);
+      if (shift > maxShift) {
+        return new byte[minCapacity];
+      }
+      byte[][] pooled = buffers.get();
+      byte[] buffer = pooled[shift - MIN_SHIFT];
+      if (buffer == null) {
+        return new byte[1 << shift];
+      }
+      pooled[shift - MIN_SHIFT] = null;
+      return buffer;
+    }
+
+    @Override
+    public void release(byte[] buffer) {
+      int length = buffer.length;
+      if (Integer.bitCount(length) != 1) {
+        /* not one of ours */
+        return;
+      }
+      int shift = Integer.numberOfTrailingZeros(length);
+      if (shift < MIN_SHIFT || shift > maxShift) {
+        return;
+      }
+      byte[][] pooled = buffers.get();
+      if (pooled[shift - MIN_SHIFT] == null) {
+        pooled[shift - MIN_SHIFT] = buffer;
+      }
+    }
+
+    /* the smallest power of two at least size */
+    private static int shift(int size) {
+      return size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+  }
+}
@@ -72,6 +72,10 @@ public interface Capability {
     return client;
   }
 
+  default <C> AsyncClient<C> enrich(AsyncClient<C> client) {
+    return client;
+  }
+
   default Retryer enrich(Retryer retryer) {
     return retryer;
   }
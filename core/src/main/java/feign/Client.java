@@ -31,7 +31,6 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.zip.DeflaterOutputStream;
@@ -113,11 +112,11 @@ public interface Client {
             connection.getRequestMethod(), connection.getURL()));
       }
 
-      Map<String, Collection<String>> headers = new LinkedHashMap<>();
+      HttpHeaders.Builder headers = HttpHeaders.builder().lowerCaseNames().sortedNames();
       for (Map.Entry<String, List<String>> field : connection.getHeaderFields().entrySet()) {
         // response message
         if (field.getKey() != null) {
-          headers.put(field.getKey(), field.getValue());
+          headers.add(field.getKey(), field.getValue());
         }
       }
 
@@ -134,7 +133,7 @@ public interface Client {
       return Response.builder()
           .status(status)
           .reason(reason)
-          .headers(headers)
+          .headers(headers.build())
           .request(request)
           .body(stream, length)
           .build();
@@ -162,36 +161,34 @@ public interface Client {
       connection.setInstanceFollowRedirects(options.isFollowRedirects());
       connection.setRequestMethod(request.httpMethod().name());
 
-      Collection<String> contentEncodingValues = request.headers().get(CONTENT_ENCODING);
+      HttpHeaders headers = request.httpHeaders();
+      Collection<String> contentEncodingValues = headers.get(CONTENT_ENCODING);
       boolean gzipEncodedRequest =
           contentEncodingValues != null && contentEncodingValues.contains(ENCODING_GZIP);
       boolean deflateEncodedRequest =
           contentEncodingValues != null && contentEncodingValues.contains(ENCODING_DEFLATE);
 
-      boolean hasAcceptHeader = false;
-      Integer contentLength = null;
-      for (String field : request.headers().keySet()) {
-        if (field.equalsIgnoreCase("Accept")) {
-          hasAcceptHeader = true;
+      boolean hasAcceptHeader = headers.containsKey("Accept");
+      String contentLengthValue = headers.firstValue(CONTENT_LENGTH);
+      boolean sendContentLength = !gzipEncodedRequest && !deflateEncodedRequest;
+      Long contentLength =
+          sendContentLength && contentLengthValue != null ? Long.valueOf(contentLengthValue)
+              : null;
+      headers.forEachValue((field, value) -> {
+        if (sendContentLength || !field.equalsIgnoreCase(CONTENT_LENGTH)) {
+          connection.addRequestProperty(field, value);
         }
-        for (String value : request.headers().get(field)) {
-          if (field.equals(CONTENT_LENGTH)) {
-            if (!gzipEncodedRequest && !deflateEncodedRequest) {
-              contentLength = Integer.valueOf(value);
-              connection.addRequestProperty(field, value);
-            }
-          } else {
-            connection.addRequestProperty(field, value);
-          }
-        }
-      }
+      });
       // Some servers choke on the default accept string.
       if (!hasAcceptHeader) {
         connection.addRequestProperty("Accept", "*/*");
       }
 
-      if (request.body() != null) {
-        if (disableRequestBuffering) {
+      Request.Body body = request.requestBody();
+      boolean streaming = body != null && body.isStreaming();
+      if (request.body() != null || streaming) {
+        /* a streaming body is never buffered, that would defeat its purpose */
+        if (disableRequestBuffering || streaming) {
           if (contentLength != null) {
             connection.setFixedLengthStreamingMode(contentLength);
           } else {
@@ -206,7 +203,7 @@ public interface Client {
           out = new DeflaterOutputStream(out);
         }
         try {
-          out.write(request.body());
+          body.writeTo(out);
         } finally {
           try {
             out.close();
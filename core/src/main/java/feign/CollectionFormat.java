@@ -44,6 +44,15 @@ public enum CollectionFormat {
     this.separator = separator;
   }
 
+  /**
+   * The separator placed between values.
+   *
+   * @return the separator, or {@literal null} if the parameter name is repeated for each value.
+   */
+  public String separator() {
+    return separator;
+  }
+
   /**
    * Joins the field and possibly multiple values with the given separator.
    *
@@ -74,7 +83,7 @@ public enum CollectionFormat {
       if (separator == null) {
         // exploded
         builder.append(valueCount++ == 0 ? "" : "&");
-        builder.append(UriUtils.encode(field, charset));
+        UriUtils.encode(field, charset, builder);
         if (value != null) {
           builder.append('=');
           builder.append(value);
@@ -82,12 +91,16 @@ public enum CollectionFormat {
       } else {
         // delimited with a separator character
         if (builder.length() == 0) {
-          builder.append(UriUtils.encode(field, charset));
+          UriUtils.encode(field, charset, builder);
         }
         if (value == null) {
           continue;
         }
-        builder.append(valueCount++ == 0 ? "=" : UriUtils.encode(separator, charset));
+        if (valueCount++ == 0) {
+          builder.append('=');
+        } else {
+          UriUtils.encode(separator, charset, builder);
+        }
         builder.append(value);
       }
     }
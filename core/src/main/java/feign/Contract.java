@@ -15,9 +15,11 @@ package feign;
 
 import static feign.Util.checkState;
 import static feign.Util.emptyToNull;
+import java.io.File;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -115,6 +117,12 @@ public interface Contract {
           data.ignoreParamater(i);
         }
 
+        if (data.downloadToIndex() == null) {
+          checkState(!isAnnotationPresent(parameterAnnotations[i], DownloadTo.class),
+              "DownloadTo is not supported by %s: %s", getClass().getName(),
+              data.configKey());
+        }
+
         if (parameterTypes[i] == URI.class) {
           data.urlIndex(i);
         } else if (!isHttpAnnotation && parameterTypes[i] != Request.Options.class) {
@@ -143,9 +151,27 @@ public interface Contract {
         }
       }
 
+      if (data.downloadToIndex() != null) {
+        Class<?> type = parameterTypes[data.downloadToIndex()];
+        checkState(type == Path.class || type == File.class,
+            "DownloadTo parameter must be a Path or File: %s", type);
+        checkState(data.returnType() == Path.class,
+            "Method with a DownloadTo parameter must return a Path: %s", data.configKey());
+      }
+
       return data;
     }
 
+    private static boolean isAnnotationPresent(Annotation[] annotations,
+                                               Class<? extends Annotation> annotationType) {
+      for (Annotation annotation : annotations) {
+        if (annotation.annotationType() == annotationType) {
+          return true;
+        }
+      }
+      return false;
+    }
+
     private static void checkMapString(String name, Class<?> type, Type genericType) {
       checkState(Map.class.isAssignableFrom(type),
           "%s parameter must be a Map: %s", name, type);
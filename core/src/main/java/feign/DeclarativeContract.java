@@ -13,6 +13,7 @@
  */
 package feign;
 
+import static feign.Util.checkState;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
@@ -32,6 +33,18 @@ public abstract class DeclarativeContract extends BaseContract {
   private final Map<Class<Annotation>, DeclarativeContract.ParameterAnnotationProcessor<Annotation>> parameterAnnotationProcessors =
       new HashMap<>();
 
+  /**
+   * Registers the annotations every contract understands, ex. {@link DownloadTo}.
+   */
+  protected DeclarativeContract() {
+    registerParameterAnnotation(DownloadTo.class, (downloadTo, data, paramIndex) -> {
+      checkState(data.downloadToIndex() == null,
+          "DownloadTo annotation was present on multiple parameters.");
+      data.downloadToIndex(paramIndex);
+      data.downloadSync(downloadTo.sync());
+    });
+  }
+
   @Override
   public final List<MethodMetadata> parseAndValidateMetadata(Class<?> targetType) {
     // any implementations must register processors
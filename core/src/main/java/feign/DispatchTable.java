@@ -0,0 +1,173 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkNotNull;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import feign.InvocationHandlerFactory.MethodHandler;
+
+/**
+ * Resolves the {@link Method} passed to an {@link java.lang.reflect.InvocationHandler} to a slot,
+ * an index into arrays the handler precomputes when the api is created. The methods declared by
+ * {@link Object}, which proxies route to their handler, are resolved to the negative slots
+ * {@link #EQUALS}, {@link #HASH_CODE} and {@link #TO_STRING}.
+ *
+ * <p>
+ * Proxies pass the same {@link Method} instances on every call, so after the first call a method is
+ * found by identity, without comparing names or parameter types.
+ * </p>
+ */
+public final class DispatchTable {
+
+  public static final int EQUALS = -1;
+  public static final int HASH_CODE = -2;
+  public static final int TO_STRING = -3;
+
+  private static final Method[] OBJECT_METHODS;
+
+  static {
+    try {
+      OBJECT_METHODS = new Method[] {
+          Object.class.getMethod("equals", Object.class),
+          Object.class.getMethod("hashCode"),
+          Object.class.getMethod("toString")};
+    } catch (NoSuchMethodException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private final Method[] methods;
+  private final Map<Method, Integer> slotsByMethod;
+  private final int maxLearned;
+  private volatile IdentityIndex identityIndex;
+
+  private DispatchTable(Method[] methods) {
+    this.methods = methods;
+    this.slotsByMethod = new HashMap<>(methods.length + OBJECT_METHODS.length, 1);
+    for (int i = 0; i < methods.length; i++) {
+      slotsByMethod.put(methods[i], i);
+    }
+    for (int i = 0; i < OBJECT_METHODS.length; i++) {
+      slotsByMethod.putIfAbsent(OBJECT_METHODS[i], -1 - i);
+    }
+    /* bound the cache, in case callers pass a fresh copy of the method on each call */
+    this.maxLearned = 2 * slotsByMethod.size();
+    this.identityIndex = new IdentityIndex(maxLearned);
+  }
+
+  /**
+   * Creates a table for the {@code methods}, which get slots in iteration order.
+   */
+  public static DispatchTable of(Collection<Method> methods) {
+    return new DispatchTable(methods.toArray(new Method[0]));
+  }
+
+  /**
+   * Returns the handlers of the {@code dispatch} map, indexed by slot.
+   */
+  public static MethodHandler[] handlers(DispatchTable table, Map<Method, MethodHandler> dispatch) {
+    MethodHandler[] handlers = new MethodHandler[table.size()];
+    for (int i = 0; i < handlers.length; i++) {
+      handlers[i] = dispatch.get(table.method(i));
+    }
+    return handlers;
+  }
+
+  /**
+   * Number of slots, excluding the ones of {@link Object} methods.
+   */
+  public int size() {
+    return methods.length;
+  }
+
+  public Method method(int slot) {
+    return methods[slot];
+  }
+
+  /**
+   * Returns the slot of {@code method}, or one of the negative {@link Object} method slots.
+   *
+   * @throws IllegalArgumentException if the method is not part of this table.
+   */
+  public int slot(Method method) {
+    IdentityIndex index = identityIndex;
+    int slot = index.get(method);
+    if (slot != IdentityIndex.ABSENT) {
+      return slot;
+    }
+    Integer resolved = slotsByMethod.get(checkNotNull(method, "method"));
+    if (resolved == null) {
+      throw new IllegalArgumentException("No dispatch for " + method);
+    }
+    if (index.size < maxLearned) {
+      /* copy on write, a lost update only costs another lookup by signature */
+      identityIndex = index.with(method, resolved);
+    }
+    return resolved;
+  }
+
+  /**
+   * Immutable open addressing table keyed by {@link Method} identity.
+   */
+  private static final class IdentityIndex {
+
+    static final int ABSENT = Integer.MIN_VALUE;
+
+    private final Method[] keys;
+    private final int[] slots;
+    private final int size;
+
+    IdentityIndex(int maxSize) {
+      this(new Method[Integer.highestOneBit(Math.max(maxSize, 1)) << 2],
+          new int[Integer.highestOneBit(Math.max(maxSize, 1)) << 2], 0);
+    }
+
+    private IdentityIndex(Method[] keys, int[] slots, int size) {
+      this.keys = keys;
+      this.slots = slots;
+      this.size = size;
+    }
+
+    int get(Method method) {
+      int mask = keys.length - 1;
+      for (int i = System.identityHashCode(method) & mask;; i = (i + 1) & mask) {
+        Method key = keys[i];
+        if (key == method) {
+          return slots[i];
+        } else if (key == null) {
+          return ABSENT;
+        }
+      }
+    }
+
+    IdentityIndex with(Method method, int slot) {
+      Method[] keys = this.keys.clone();
+      int[] slots = this.slots.clone();
+      int mask = keys.length - 1;
+      int i = System.identityHashCode(method) & mask;
+      while (keys[i] != null) {
+        if (keys[i] == method) {
+          return this;
+        }
+        i = (i + 1) & mask;
+      }
+      keys[i] = method;
+      slots[i] = slot;
+      return new IdentityIndex(keys, slots, size + 1);
+    }
+  }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.lang.annotation.Retention;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * A {@link java.nio.file.Path} or {@link java.io.File} parameter the response body is written to,
+ * by the {@link feign.codec.Decoder.Default default decoder}. The method must return the
+ * {@link java.nio.file.Path} written. <br>
+ * <br>
+ *
+ * <pre>
+ * &#64;RequestLine("GET /artifacts/{name}")
+ * Path download(&#64;Param("name") String name, &#64;DownloadTo Path file);
+ * </pre>
+ *
+ * The body is streamed through a small buffer, so the heap used doesn't depend on its size. Methods
+ * returning a {@link java.nio.file.Path} without this parameter download to a temporary file. Note
+ * that {@link Logger.Level#FULL full} logging reads the whole body in memory.
+ */
+@Experimental
+@Retention(RUNTIME)
+@java.lang.annotation.Target(PARAMETER)
+public @interface DownloadTo {
+
+  /**
+   * Forces the file to the storage device before returning, see
+   * {@link java.nio.channels.FileChannel#force(boolean)}.
+   */
+  boolean sync() default false;
+}
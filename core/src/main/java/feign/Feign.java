@@ -92,15 +92,23 @@ public abstract class Feign {
   /**
    * Returns a new instance of an HTTP API, defined by annotations in the {@link Feign Contract},
    * for the specified {@code target}. You should cache this result.
+   *
+   * <p>
+   * The api is only parsed once per {@link Contract}, so binding it to many targets, ex. one per
+   * tenant, only costs the creation of a handler per method.
+   * </p>
    */
   public abstract <T> T newInstance(Target<T> target);
 
   public static class Builder {
 
+    /* shared, so clients built with the default contract share parsed metadata */
+    private static final Contract DEFAULT_CONTRACT = new Contract.Default();
+
     private final List<RequestInterceptor> requestInterceptors =
         new ArrayList<RequestInterceptor>();
     private Logger.Level logLevel = Logger.Level.NONE;
-    private Contract contract = new Contract.Default();
+    private Contract contract = DEFAULT_CONTRACT;
     private Client client = new Client.Default(null, null);
     private Retryer retryer = new Retryer.Default();
     private Logger logger = new NoOpLogger();
@@ -115,6 +123,7 @@ public abstract class Feign {
     private boolean closeAfterDecode = true;
     private ExceptionPropagationPolicy propagationPolicy = NONE;
     private boolean forceDecoding = false;
+    private boolean lazyMethodHandlers = false;
     private List<Capability> capabilities = new ArrayList<>();
 
     public Builder logLevel(Logger.Level logLevel) {
@@ -218,7 +227,8 @@ public abstract class Feign {
     }
 
     /**
-     * Allows you to override how reflective dispatch works inside of Feign.
+     * Allows you to override how reflective dispatch works inside of Feign. Setting a custom
+     * factory disables {@link GeneratedApi build time generated} implementations.
      */
     public Builder invocationHandlerFactory(InvocationHandlerFactory invocationHandlerFactory) {
       this.invocationHandlerFactory = invocationHandlerFactory;
@@ -243,6 +253,20 @@ public abstract class Feign {
       return this;
     }
 
+    /**
+     * Creates the handler of each method on its first invocation, instead of when the api is built.
+     * Useful for apis with many methods, of which only a few are used: start up time and retained
+     * heap then scale with the methods called, not with the size of the interface. Note that
+     * errors, such as a {@link Param.Expander} that can't be instantiated, are also deferred to the
+     * first invocation.
+     *
+     * @since 10.12
+     */
+    public Builder lazyMethodHandlers() {
+      this.lazyMethodHandlers = true;
+      return this;
+    }
+
     public Builder exceptionPropagationPolicy(ExceptionPropagationPolicy propagationPolicy) {
       this.propagationPolicy = propagationPolicy;
       return this;
@@ -289,7 +313,7 @@ public abstract class Feign {
               logLevel, decode404, closeAfterDecode, propagationPolicy, forceDecoding);
       ParseHandlersByName handlersByName =
           new ParseHandlersByName(contract, options, encoder, decoder, queryMapEncoder,
-              errorDecoder, synchronousMethodHandlerFactory);
+              errorDecoder, synchronousMethodHandlerFactory, lazyMethodHandlers);
       return new ReflectiveFeign(handlersByName, invocationHandlerFactory, queryMapEncoder);
     }
   }
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkNotNull;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import feign.InvocationHandlerFactory.MethodHandler;
+
+/**
+ * Base class for api implementations generated at build time, for example by the
+ * {@code feign-apt-client-generator} annotation processor. A generated implementation of
+ * {@code example.GitHub} is named {@code example.GitHubGeneratedApi}, one of a nested
+ * {@code example.Outer.GitHub} {@code example.Outer_GitHubGeneratedApi}. It implements each method
+ * of the interface by calling its {@link MethodHandler} directly, avoiding the
+ * {@link java.lang.reflect.Proxy} and the per call {@link Method} lookup.
+ *
+ * <p>
+ * When present on the classpath, generated implementations are picked up by {@link ReflectiveFeign}
+ * unless a custom {@link InvocationHandlerFactory} is in use.
+ * </p>
+ */
+@Experimental
+public abstract class GeneratedApi {
+
+  static final String SUFFIX = "GeneratedApi";
+
+  /* arguments passed to handlers of methods without parameters */
+  protected static final Object[] NO_ARGS = new Object[0];
+
+  private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+    @Override
+    protected Constructor<?> computeValue(Class<?> type) {
+      return findConstructor(type);
+    }
+  };
+
+  private final Target<?> target;
+
+  protected GeneratedApi(Target<?> target) {
+    this.target = checkNotNull(target, "target");
+  }
+
+  /**
+   * Resolves an interface method once, when the generated class is initialized.
+   */
+  protected static Method method(Class<?> type, String name, Class<?>... parameterTypes) {
+    try {
+      return type.getMethod(name, parameterTypes);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("Generated api is out of date with " + type.getName(), e);
+    }
+  }
+
+  /**
+   * Binds a method to its handler, when the generated class is instantiated.
+   */
+  protected static MethodHandler handler(Map<Method, MethodHandler> dispatch, Method method) {
+    return checkNotNull(dispatch.get(method), "no handler for %s", method);
+  }
+
+  /**
+   * Creates the generated implementation for the {@code target}, if one is present.
+   *
+   * @return the generated api, or {@literal null} if no implementation was generated.
+   */
+  static <T> T newInstance(Target<T> target, Map<Method, MethodHandler> dispatch) {
+    Constructor<?> constructor = CONSTRUCTORS.get(target.type());
+    if (constructor == null) {
+      return null;
+    }
+    try {
+      return target.type().cast(constructor.newInstance(target, dispatch));
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    } catch (InstantiationException | IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static boolean isPresent(Class<?> type) {
+    return CONSTRUCTORS.get(type) != null;
+  }
+
+  private static Constructor<?> findConstructor(Class<?> type) {
+    if (!type.isInterface()) {
+      return null;
+    }
+    try {
+      Class<?> generated =
+          Class.forName(generatedName(type), false, type.getClassLoader());
+      if (!GeneratedApi.class.isAssignableFrom(generated) || !type.isAssignableFrom(generated)) {
+        /* a class that happens to share the name, ignore it */
+        return null;
+      }
+      return generated.getConstructor(Target.class, Map.class);
+    } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+      return null;
+    }
+  }
+
+  /**
+   * The binary name, with nested types joined by an underscore, ex. {@code example.Outer_Api} for
+   * {@code example.Outer.Api}, followed by {@link #SUFFIX}.
+   */
+  static String generatedName(Class<?> type) {
+    String name = type.getName();
+    int simpleName = name.lastIndexOf('.') + 1;
+    return name.substring(0, simpleName) + name.substring(simpleName).replace('$', '_') + SUFFIX;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof GeneratedApi && obj.getClass() == getClass()) {
+      return target.equals(((GeneratedApi) obj).target);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return target.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return target.toString();
+  }
+}
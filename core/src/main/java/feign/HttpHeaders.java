@@ -0,0 +1,511 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkNotNull;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable, case-insensitive mapping of header names to their values, used by both
+ * {@link Request} and {@link Response}.
+ *
+ * <p>
+ * Names and values are kept in flat arrays, with a header of a single value stored as the value
+ * itself. Lookups hash the name ignoring case, so {@link #get(Object)} is constant time whatever
+ * the case of the name asked for. Well-known names, such as {@code Content-Type}, are interned and
+ * their case-insensitive hashes computed once: looking one up by a constant uses the cached
+ * {@link String#hashCode()} instead.
+ * </p>
+ *
+ * <p>
+ * The {@link Map} view is kept for compatibility: the collections it returns are created on access.
+ * Prefer {@link #firstValue(String)} and {@link #forEachValue(BiConsumer)}, which don't allocate.
+ * </p>
+ */
+public final class HttpHeaders extends AbstractMap<String, Collection<String>> {
+
+  private static final String[] WELL_KNOWN_NAMES = {
+      "Accept", "Accept-Charset", "Accept-Encoding", "Accept-Language", "Accept-Ranges", "Age",
+      "Allow", "Authorization", "Cache-Control", "Connection", "Content-Disposition",
+      "Content-Encoding", "Content-Language", "Content-Length", "Content-Location",
+      "Content-Range", "Content-Type", "Cookie", "Date", "ETag", "Expect", "Expires", "Host",
+      "If-Match", "If-Modified-Since", "If-None-Match", "If-Unmodified-Since", "Keep-Alive",
+      "Last-Modified", "Link", "Location", "Origin", "Pragma", "Proxy-Authenticate",
+      "Proxy-Authorization", "Range", "Referer", "Retry-After", "Server", "Set-Cookie",
+      "Strict-Transport-Security", "Transfer-Encoding", "Upgrade", "User-Agent", "Vary", "Via",
+      "WWW-Authenticate", "X-Forwarded-For", "X-Forwarded-Host", "X-Forwarded-Proto",
+      "X-Requested-With"};
+
+  /* well-known names, as written and lower cased, indexed by String#hashCode */
+  private static final String[] INTERNED = new String[256];
+  private static final int[] INTERNED_HASHES = new int[INTERNED.length];
+
+  static {
+    for (String name : WELL_KNOWN_NAMES) {
+      intern(name);
+      intern(name.toLowerCase(Locale.ROOT).intern());
+    }
+  }
+
+  private static final String[] NO_VALUES = new String[0];
+
+  private static final HttpHeaders EMPTY =
+      new HttpHeaders(new String[0], new int[0], new Object[0], 0, true, true);
+
+  private final String[] names;
+  private final int[] hashes;
+  /* a String when the header has one value, otherwise a String[] */
+  private final Object[] values;
+  private final int size;
+  /* positions of the headers, plus one, by hash of their name */
+  private final int[] table;
+  private final boolean lowerCaseNames;
+  private final boolean sortedNames;
+
+  private HttpHeaders(String[] names, int[] hashes, Object[] values, int size,
+      boolean lowerCaseNames, boolean sortedNames) {
+    this.names = names;
+    this.hashes = hashes;
+    this.values = values;
+    this.size = size;
+    this.lowerCaseNames = lowerCaseNames;
+    this.sortedNames = sortedNames;
+    this.table = new int[tableSize(size)];
+    int mask = table.length - 1;
+    for (int i = 0; i < size; i++) {
+      int slot = spread(hashes[i]) & mask;
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = i + 1;
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static HttpHeaders empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns {@code headers} if they are already {@link HttpHeaders}, otherwise a copy of them,
+   * keeping their order. Names differing only by case are merged.
+   */
+  public static HttpHeaders of(Map<String, ? extends Collection<String>> headers) {
+    if (headers instanceof HttpHeaders) {
+      return (HttpHeaders) headers;
+    }
+    checkNotNull(headers, "headers");
+    return headers.isEmpty() ? EMPTY : new Builder().addAll(headers).build();
+  }
+
+  /**
+   * The first value of the header, ignoring the case of its {@code name}.
+   *
+   * @return the value, or {@literal null} if the header is absent or has no values.
+   */
+  public String firstValue(String name) {
+    int index = indexOf(name);
+    if (index < 0) {
+      return null;
+    }
+    Object value = values[index];
+    if (value instanceof String) {
+      return (String) value;
+    }
+    String[] multiple = (String[]) value;
+    return multiple.length == 0 ? null : multiple[0];
+  }
+
+  /**
+   * Calls {@code action} with the name and value of each header value, in order.
+   */
+  public void forEachValue(BiConsumer<String, String> action) {
+    for (int i = 0; i < size; i++) {
+      Object value = values[i];
+      if (value instanceof String) {
+        action.accept(names[i], (String) value);
+      } else {
+        for (String each : (String[]) value) {
+          action.accept(names[i], each);
+        }
+      }
+    }
+  }
+
+  @Override
+  public Collection<String> get(Object name) {
+    int index = indexOf(name);
+    return index < 0 ? null : valuesAt(index);
+  }
+
+  @Override
+  public boolean containsKey(Object name) {
+    return indexOf(name) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super String, ? super Collection<String>> action) {
+    for (int i = 0; i < size; i++) {
+      action.accept(names[i], valuesAt(i));
+    }
+  }
+
+  @Override
+  public Set<Entry<String, Collection<String>>> entrySet() {
+    return new AbstractSet<Entry<String, Collection<String>>>() {
+      @Override
+      public Iterator<Entry<String, Collection<String>>> iterator() {
+        return new Iterator<Entry<String, Collection<String>>>() {
+          private int next;
+
+          @Override
+          public boolean hasNext() {
+            return next < size;
+          }
+
+          @Override
+          public Entry<String, Collection<String>> next() {
+            if (next >= size) {
+              throw new NoSuchElementException();
+            }
+            int index = next++;
+            return new SimpleImmutableEntry<>(names[index], valuesAt(index));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /**
+   * Whether the names are lower cased and sorted, as {@link Response#headers()} presents them.
+   */
+  boolean hasLowerCaseSortedNames() {
+    return lowerCaseNames && sortedNames;
+  }
+
+  private List<String> valuesAt(int index) {
+    Object value = values[index];
+    if (value instanceof String) {
+      return Collections.singletonList((String) value);
+    }
+    return Collections.unmodifiableList(Arrays.asList((String[]) value));
+  }
+
+  private int indexOf(Object key) {
+    if (size == 0 || !(key instanceof String)) {
+      return -1;
+    }
+    String name = (String) key;
+    int hash = hash(name);
+    int mask = table.length - 1;
+    for (int slot = spread(hash) & mask;; slot = (slot + 1) & mask) {
+      int index = table[slot] - 1;
+      if (index < 0) {
+        return -1;
+      }
+      if (hashes[index] == hash
+          && (names[index] == name || names[index].equalsIgnoreCase(name))) {
+        return index;
+      }
+    }
+  }
+
+  private static void intern(String name) {
+    int mask = INTERNED.length - 1;
+    int slot = spread(name.hashCode()) & mask;
+    while (INTERNED[slot] != null) {
+      if (INTERNED[slot].equals(name)) {
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    INTERNED[slot] = name;
+    INTERNED_HASHES[slot] = caseInsensitiveHash(name);
+  }
+
+  /**
+   * The slot of {@code name} in the table of well-known names, or -1.
+   */
+  private static int internedSlot(String name) {
+    int mask = INTERNED.length - 1;
+    for (int slot = spread(name.hashCode()) & mask;; slot = (slot + 1) & mask) {
+      String interned = INTERNED[slot];
+      if (interned == null) {
+        return -1;
+      }
+      if (interned == name || interned.equals(name)) {
+        return slot;
+      }
+    }
+  }
+
+  private static int hash(String name) {
+    int slot = internedSlot(name);
+    return slot < 0 ? caseInsensitiveHash(name) : INTERNED_HASHES[slot];
+  }
+
+  /* consistent with String#equalsIgnoreCase, which compares characters as upper then lower case */
+  private static int caseInsensitiveHash(String name) {
+    int hash = 0;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c < 0x80) {
+        if (c >= 'A' && c <= 'Z') {
+          c += 'a' - 'A';
+        }
+      } else {
+        c = Character.toLowerCase(Character.toUpperCase(c));
+      }
+      hash = 31 * hash + c;
+    }
+    return hash;
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static int tableSize(int size) {
+    int tableSize = 2;
+    while (tableSize < size * 2) {
+      tableSize <<= 1;
+    }
+    return tableSize;
+  }
+
+  public static final class Builder {
+
+    private String[] names = new String[8];
+    private int[] hashes = new int[8];
+    /* a String when the header has one value, otherwise a List<String> */
+    private Object[] values = new Object[8];
+    private int size;
+    private boolean lowerCaseNames;
+    private boolean sortedNames;
+
+    Builder() {}
+
+    /**
+     * Lower cases the names of headers added after this call, as {@link Response#headers()} does.
+     */
+    public Builder lowerCaseNames() {
+      this.lowerCaseNames = true;
+      return this;
+    }
+
+    /**
+     * Sorts the headers by name, ignoring case, instead of keeping the order they were added in.
+     */
+    public Builder sortedNames() {
+      this.sortedNames = true;
+      return this;
+    }
+
+    /**
+     * Adds a value to the header, merging it with the values of a header already added under the
+     * same name, ignoring case.
+     */
+    public Builder add(String name, String value) {
+      int index = indexOrAdd(name);
+      Object existing = values[index];
+      if (existing == null) {
+        values[index] = value != null ? value : listOf(value);
+      } else {
+        listAt(index).add(value);
+      }
+      return this;
+    }
+
+    /**
+     * Adds the values to the header. A header added with no values is kept, but has none.
+     */
+    public Builder add(String name, Iterable<String> values) {
+      int index = indexOrAdd(name);
+      if (values == null) {
+        if (this.values[index] == null) {
+          this.values[index] = new ArrayList<String>(0);
+        }
+        return this;
+      }
+      Iterator<String> iterator = values.iterator();
+      if (this.values[index] == null) {
+        this.values[index] = new ArrayList<String>(0);
+        if (!iterator.hasNext()) {
+          return this;
+        }
+        String first = iterator.next();
+        if (!iterator.hasNext() && first != null) {
+          this.values[index] = first;
+          return this;
+        }
+        listAt(index).add(first);
+      }
+      List<String> list = listAt(index);
+      while (iterator.hasNext()) {
+        list.add(iterator.next());
+      }
+      return this;
+    }
+
+    public Builder addAll(Map<String, ? extends Collection<String>> headers) {
+      for (Map.Entry<String, ? extends Collection<String>> header : headers.entrySet()) {
+        add(header.getKey(), header.getValue());
+      }
+      return this;
+    }
+
+    /**
+     * Replaces the values of the header, if present, with {@code value}.
+     */
+    public Builder set(String name, String value) {
+      remove(name);
+      return add(name, value);
+    }
+
+    public Builder remove(String name) {
+      int index = indexOf(name, hash(name));
+      if (index >= 0) {
+        System.arraycopy(names, index + 1, names, index, size - index - 1);
+        System.arraycopy(hashes, index + 1, hashes, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        names[size] = null;
+        values[size] = null;
+      }
+      return this;
+    }
+
+    public HttpHeaders build() {
+      if (size == 0) {
+        return EMPTY;
+      }
+      String[] names = new String[size];
+      int[] hashes = new int[size];
+      Object[] values = new Object[size];
+      int[] order = new int[size];
+      for (int i = 0; i < size; i++) {
+        order[i] = i;
+      }
+      if (sortedNames) {
+        /* insertion sort, as there are few headers; stable, so merged names keep their order */
+        for (int i = 1; i < size; i++) {
+          int index = order[i];
+          int j = i - 1;
+          while (j >= 0 && String.CASE_INSENSITIVE_ORDER
+              .compare(this.names[order[j]], this.names[index]) > 0) {
+            order[j + 1] = order[j];
+            j--;
+          }
+          order[j + 1] = index;
+        }
+      }
+      for (int i = 0; i < size; i++) {
+        int index = order[i];
+        names[i] = this.names[index];
+        hashes[i] = this.hashes[index];
+        Object value = this.values[index];
+        if (value instanceof List) {
+          List<?> list = (List<?>) value;
+          value = list.isEmpty() ? NO_VALUES : list.toArray(new String[0]);
+        }
+        values[i] = value;
+      }
+      return new HttpHeaders(names, hashes, values, size, lowerCaseNames, sortedNames);
+    }
+
+    private int indexOrAdd(String name) {
+      checkNotNull(name, "header name");
+      if (lowerCaseNames) {
+        name = name.toLowerCase(Locale.ROOT);
+      }
+      int slot = internedSlot(name);
+      int hash;
+      if (slot >= 0) {
+        name = INTERNED[slot];
+        hash = INTERNED_HASHES[slot];
+      } else {
+        hash = caseInsensitiveHash(name);
+      }
+      int index = indexOf(name, hash);
+      if (index >= 0) {
+        return index;
+      }
+      if (size == names.length) {
+        names = Arrays.copyOf(names, size * 2);
+        hashes = Arrays.copyOf(hashes, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      names[size] = name;
+      hashes[size] = hash;
+      return size++;
+    }
+
+    /* linear, as there are few headers and the table is only built once */
+    private int indexOf(String name, int hash) {
+      for (int i = 0; i < size; i++) {
+        if (hashes[i] == hash && (names[i] == name || names[i].equalsIgnoreCase(name))) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> listAt(int index) {
+      Object value = values[index];
+      if (value instanceof String) {
+        List<String> list = listOf((String) value);
+        values[index] = list;
+        return list;
+      }
+      return (List<String>) value;
+    }
+
+    private static List<String> listOf(String value) {
+      List<String> list = new ArrayList<>(2);
+      list.add(value);
+      return list;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.util.function.Supplier;
+import feign.InvocationHandlerFactory.MethodHandler;
+
+/**
+ * Creates the handler of a method on its first invocation, so that apis with many methods only pay
+ * for the methods in use. The handler is published safely, and created at most once.
+ */
+final class LazyMethodHandler implements MethodHandler {
+
+  // released once the handler is created, so it can be collected with what it references
+  private Supplier<MethodHandler> factory;
+  private volatile MethodHandler delegate;
+
+  LazyMethodHandler(Supplier<MethodHandler> factory) {
+    this.factory = factory;
+  }
+
+  @Override
+  public Object invoke(Object[] argv) throws Throwable {
+    MethodHandler handler = delegate;
+    if (handler == null) {
+      handler = initialize();
+    }
+    return handler.invoke(argv);
+  }
+
+  private synchronized MethodHandler initialize() {
+    if (delegate == null) {
+      delegate = factory.get();
+      factory = null;
+    }
+    return delegate;
+  }
+
+  /**
+   * Whether the handler was created, ex. for tests.
+   */
+  boolean isInitialized() {
+    return delegate != null;
+  }
+}
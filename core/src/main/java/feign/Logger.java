@@ -45,14 +45,18 @@ public abstract class Logger {
     log(configKey, "---> %s %s HTTP/1.1", request.httpMethod().name(), request.url());
     if (logLevel.ordinal() >= Level.HEADERS.ordinal()) {
 
-      for (String field : request.headers().keySet()) {
-        for (String value : valuesOrEmpty(request.headers(), field)) {
-          log(configKey, "%s: %s", field, value);
-        }
-      }
+      request.httpHeaders().forEachValue((field, value) -> log(configKey, "%s: %s", field, value));
 
-      int bodyLength = 0;
-      if (request.body() != null) {
+      Object bodyLength = 0;
+      if (request.requestBody() != null && request.requestBody().isStreaming()) {
+        /* written to the connection, it can't be read here */
+        long contentLength = request.requestBody().contentLength();
+        bodyLength = contentLength >= 0 ? contentLength : "unknown";
+        if (logLevel.ordinal() >= Level.FULL.ordinal()) {
+          log(configKey, ""); // CRLF
+          log(configKey, "%s", "Streaming data");
+        }
+      } else if (request.body() != null) {
         bodyLength = request.length();
         if (logLevel.ordinal() >= Level.FULL.ordinal()) {
           String bodyText =
@@ -83,11 +87,7 @@ public abstract class Logger {
     log(configKey, "<--- HTTP/1.1 %s%s (%sms)", status, reason, elapsedTime);
     if (logLevel.ordinal() >= Level.HEADERS.ordinal()) {
 
-      for (String field : response.headers().keySet()) {
-        for (String value : valuesOrEmpty(response.headers(), field)) {
-          log(configKey, "%s: %s", field, value);
-        }
-      }
+      response.httpHeaders().forEachValue((field, value) -> log(configKey, "%s: %s", field, value));
 
       int bodyLength = 0;
       if (response.body() != null && !(status == 204 || status == 205)) {
@@ -96,13 +96,19 @@ public abstract class Logger {
         if (logLevel.ordinal() >= Level.FULL.ordinal()) {
           log(configKey, ""); // CRLF
         }
-        byte[] bodyData = Util.toByteArray(response.body().asInputStream());
-        bodyLength = bodyData.length;
+        Response.Body body = response.body();
+        /* a repeatable body, ex. already buffered, is read again rather than copied */
+        boolean rebuffer = !body.isRepeatable();
+        byte[] bodyData = rebuffer || body.length() == null
+            || logLevel.ordinal() >= Level.FULL.ordinal()
+                ? Util.toByteArray(body.asInputStream())
+                : null;
+        bodyLength = bodyData != null ? bodyData.length : body.length();
         if (logLevel.ordinal() >= Level.FULL.ordinal() && bodyLength > 0) {
           log(configKey, "%s", decodeOrDefault(bodyData, UTF_8, "Binary data"));
         }
         log(configKey, "<--- END HTTP (%s-byte body)", bodyLength);
-        return response.toBuilder().body(bodyData).build();
+        return rebuffer ? response.toBuilder().body(bodyData).build() : response;
       } else {
         log(configKey, "<--- END HTTP (%s-byte body)", bodyLength);
       }
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.WeakHashMap;
+import feign.Param.Expander;
+
+/**
+ * Process wide cache of the methods parsed by a {@link Contract}, keyed by the api type and the
+ * contract instance. Clients built for many {@link Target targets} of the same api only parse its
+ * annotations and instantiate its {@link Expander expanders} once.
+ *
+ * <p>
+ * Entries are attached to the api type with a {@link ClassValue}, and hold contracts weakly: they
+ * go away with the api's class loader, or with the contract that parsed them.
+ * </p>
+ */
+final class MetadataCache {
+
+  private static final ClassValue<Map<Contract, List<ParsedMethod>>> CACHE =
+      new ClassValue<Map<Contract, List<ParsedMethod>>>() {
+        @Override
+        protected Map<Contract, List<ParsedMethod>> computeValue(Class<?> type) {
+          return Collections.synchronizedMap(new WeakHashMap<>());
+        }
+      };
+
+  private MetadataCache() {}
+
+  /**
+   * Parses the {@code type} with the {@code contract}, or returns what a previous call parsed.
+   */
+  static List<ParsedMethod> parse(Contract contract, Class<?> type) {
+    Map<Contract, List<ParsedMethod>> byContract = CACHE.get(type);
+    List<ParsedMethod> result = byContract.get(contract);
+    if (result == null) {
+      /* parse outside of computeIfAbsent, contracts may recurse into the cache */
+      List<ParsedMethod> parsed = new ArrayList<>();
+      for (MethodMetadata md : contract.parseAndValidateMetadata(type)) {
+        md.template().freeze();
+        parsed.add(new ParsedMethod(md));
+      }
+      List<ParsedMethod> existing =
+          byContract.putIfAbsent(contract, result = Collections.unmodifiableList(parsed));
+      if (existing != null) {
+        result = existing;
+      }
+    }
+    return result;
+  }
+
+  private static Map<Integer, Expander> expanders(MethodMetadata metadata) {
+    if (metadata.indexToExpander() != null) {
+      return Collections.unmodifiableMap(new LinkedHashMap<>(metadata.indexToExpander()));
+    }
+    if (metadata.indexToExpanderClass().isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<Integer, Expander> indexToExpander = new LinkedHashMap<Integer, Expander>();
+    for (Entry<Integer, Class<? extends Expander>> indexToExpanderClass : metadata
+        .indexToExpanderClass().entrySet()) {
+      try {
+        indexToExpander
+            .put(indexToExpanderClass.getKey(), indexToExpanderClass.getValue().newInstance());
+      } catch (InstantiationException e) {
+        throw new IllegalStateException(e);
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return Collections.unmodifiableMap(indexToExpander);
+  }
+
+  /**
+   * A method as parsed by the contract, with its expanders instantiated on first use. Shared by
+   * every client of the api, so neither part may be mutated.
+   */
+  static final class ParsedMethod {
+
+    final MethodMetadata metadata;
+    private volatile Map<Integer, Expander> indexToExpander;
+
+    ParsedMethod(MethodMetadata metadata) {
+      this.metadata = metadata;
+    }
+
+    Map<Integer, Expander> indexToExpander() {
+      Map<Integer, Expander> result = indexToExpander;
+      if (result == null) {
+        synchronized (this) {
+          if ((result = indexToExpander) == null) {
+            indexToExpander = result = expanders(metadata);
+          }
+        }
+      }
+      return result;
+    }
+  }
+}
@@ -30,6 +30,8 @@ public final class MethodMetadata implements Serializable {
   private Integer headerMapIndex;
   private Integer queryMapIndex;
   private boolean queryMapEncoded;
+  private Integer downloadToIndex;
+  private boolean downloadSync;
   private transient Type bodyType;
   private final RequestTemplate template = new RequestTemplate();
   private final List<String> formParams = new ArrayList<String>();
@@ -109,6 +111,34 @@ public final class MethodMetadata implements Serializable {
     return this;
   }
 
+  /**
+   * Index of the {@link DownloadTo} parameter.
+   */
+  @Experimental
+  public Integer downloadToIndex() {
+    return downloadToIndex;
+  }
+
+  @Experimental
+  public MethodMetadata downloadToIndex(Integer downloadToIndex) {
+    this.downloadToIndex = downloadToIndex;
+    return this;
+  }
+
+  /**
+   * @see DownloadTo#sync()
+   */
+  @Experimental
+  public boolean downloadSync() {
+    return downloadSync;
+  }
+
+  @Experimental
+  public MethodMetadata downloadSync(boolean downloadSync) {
+    this.downloadSync = downloadSync;
+    return this;
+  }
+
   public boolean queryMapEncoded() {
     return queryMapEncoded;
   }
@@ -205,6 +235,7 @@ public final class MethodMetadata implements Serializable {
         || index.equals(bodyIndex)
         || index.equals(headerMapIndex)
         || index.equals(queryMapIndex)
+        || index.equals(downloadToIndex)
         || indexToName.containsKey(index)
         || indexToExpanderClass.containsKey(index)
         || indexToEncoded.containsKey(index)
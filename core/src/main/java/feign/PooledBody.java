@@ -0,0 +1,205 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.UTF_8;
+import static feign.Util.checkNotNull;
+import static feign.Util.decodeOrDefault;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A response body buffered in pooled buffers, given back when it is closed. Reads after that fail,
+ * rather than see the data of whoever borrowed the buffers next.
+ */
+final class PooledBody implements Response.Body {
+
+  private final BufferPool pool;
+  private final int length;
+  private volatile byte[][] chunks;
+
+  PooledBody(BufferPool pool, byte[][] chunks, int length) {
+    this.pool = pool;
+    this.chunks = chunks;
+    this.length = length;
+  }
+
+  /**
+   * Copies the first {@code length} bytes held by {@code chunks} into {@code dest}.
+   */
+  static void copy(byte[][] chunks, int length, byte[] dest) {
+    int copied = 0;
+    for (int i = 0; copied < length; i++) {
+      int n = Math.min(chunks[i].length, length - copied);
+      System.arraycopy(chunks[i], 0, dest, copied, n);
+      copied += n;
+    }
+  }
+
+  @Override
+  public Integer length() {
+    return length;
+  }
+
+  @Override
+  public boolean isRepeatable() {
+    return true;
+  }
+
+  @Override
+  public InputStream asInputStream() throws IOException {
+    chunks();
+    return new PooledInputStream();
+  }
+
+  @Override
+  public Reader asReader(Charset charset) throws IOException {
+    checkNotNull(charset, "charset should not be null");
+    return new InputStreamReader(asInputStream(), charset);
+  }
+
+  /* a copy, as the buffers go back to the pool when the body is closed */
+  @Override
+  public ByteBuffer asByteBuffer() throws IOException {
+    return ByteBuffer.wrap(toByteArray());
+  }
+
+  /**
+   * @return a copy of the body, which outlives it.
+   */
+  byte[] toByteArray() throws IOException {
+    byte[] result = new byte[length];
+    copy(chunks(), length, result);
+    return result;
+  }
+
+  @Override
+  public synchronized void close() {
+    byte[][] released = chunks;
+    if (released != null) {
+      chunks = null;
+      for (byte[] chunk : released) {
+        pool.release(chunk);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    try {
+      return decodeOrDefault(toByteArray(), UTF_8, "Binary data");
+    } catch (IOException e) {
+      return "Closed body";
+    }
+  }
+
+  private byte[][] chunks() throws IOException {
+    byte[][] data = chunks;
+    if (data == null) {
+      throw new IOException("Response body is closed");
+    }
+    return data;
+  }
+
+  private final class PooledInputStream extends InputStream {
+
+    /* absolute position, and where it is in the chunks */
+    private int position;
+    private int chunk;
+    private int offset;
+    private int mark;
+
+    @Override
+    public int read() throws IOException {
+      byte[][] data = chunks();
+      if (position >= length) {
+        return -1;
+      }
+      if (offset == data[chunk].length) {
+        chunk++;
+        offset = 0;
+      }
+      position++;
+      return data[chunk][offset++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (off < 0 || len < 0 || off > b.length - len) {
+        throw new IndexOutOfBoundsException();
+      }
+      byte[][] data = chunks();
+      if (position >= length) {
+        return len == 0 ? 0 : -1;
+      }
+      int read = 0;
+      len = Math.min(len, length - position);
+      while (read < len) {
+        if (offset == data[chunk].length) {
+          chunk++;
+          offset = 0;
+        }
+        int n = Math.min(len - read, data[chunk].length - offset);
+        System.arraycopy(data[chunk], offset, b, off + read, n);
+        offset += n;
+        read += n;
+      }
+      position += read;
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      chunks();
+      long skipped = Math.max(0, Math.min(n, length - position));
+      seek(position + (int) skipped);
+      return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+      chunks();
+      return length - position;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return true;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+      mark = position;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+      seek(mark);
+    }
+
+    private void seek(int target) throws IOException {
+      byte[][] data = chunks();
+      position = target;
+      chunk = 0;
+      while (target > data[chunk].length) {
+        target -= data[chunk++].length;
+      }
+      offset = target;
+    }
+  }
+}
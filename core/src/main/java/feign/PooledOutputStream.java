@@ -0,0 +1,191 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkNotNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A {@link java.io.ByteArrayOutputStream} whose buffers are borrowed from a {@link BufferPool}, and
+ * given back when it is closed. Rather than copied into a larger buffer, a full one is kept and
+ * followed by one twice its size, so only the result of {@link #toByteArray()} is allocated, or
+ * nothing when handed over as a {@link #toResponseBody() response body}.
+ */
+@Experimental
+public final class PooledOutputStream extends OutputStream {
+
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int MAX_CHUNK_SIZE = 1 << 30;
+
+  private final BufferPool pool;
+  private byte[][] chunks = new byte[4][];
+  private int chunkCount;
+  private byte[] current;
+  private int position;
+  private int count;
+
+  public PooledOutputStream() {
+    this(BufferPool.shared(), INITIAL_CAPACITY);
+  }
+
+  /**
+   * @param pool to borrow buffers from.
+   * @param expectedSize of the content, to start with a single buffer that fits it.
+   */
+  public PooledOutputStream(BufferPool pool, int expectedSize) {
+    this.pool = checkNotNull(pool, "pool");
+    addChunk(Math.max(expectedSize, INITIAL_CAPACITY));
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureRemaining();
+    current[position++] = (byte) b;
+    count++;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || off > b.length - len) {
+      throw new IndexOutOfBoundsException();
+    }
+    while (len > 0) {
+      ensureRemaining();
+      int written = Math.min(len, current.length - position);
+      System.arraycopy(b, off, current, position, written);
+      position += written;
+      count += written;
+      off += written;
+      len -= written;
+    }
+  }
+
+  /**
+   * Reads {@code in} until its end, directly into the buffers.
+   *
+   * @return the number of bytes read.
+   */
+  public long readFrom(InputStream in) throws IOException {
+    return readFrom(in, Long.MAX_VALUE);
+  }
+
+  /**
+   * Reads {@code in} until its end, or until {@code limit} bytes were read, leaving the rest of it
+   * unread.
+   *
+   * @return the number of bytes read.
+   */
+  public long readFrom(InputStream in, long limit) throws IOException {
+    long total = 0;
+    while (total < limit) {
+      if (current != null && position == current.length) {
+        /* don't borrow another buffer when the content fits exactly */
+        int next = in.read();
+        if (next == -1) {
+          return total;
+        }
+        write(next);
+        total++;
+      }
+      if (total == limit) {
+        return total;
+      }
+      ensureRemaining();
+      int read =
+          in.read(current, position, (int) Math.min(current.length - position, limit - total));
+      if (read == -1) {
+        return total;
+      }
+      position += read;
+      count += read;
+      total += read;
+    }
+    return total;
+  }
+
+  /**
+   * @return the number of bytes written.
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * @return a copy of the bytes written.
+   */
+  public byte[] toByteArray() {
+    checkOpen();
+    byte[] result = new byte[count];
+    PooledBody.copy(chunks, count, result);
+    return result;
+  }
+
+  /**
+   * Hands the buffers over to a repeatable response body, which gives them back to the pool when
+   * {@link Response.Body#close() closed}. The body can't be read afterwards, so it must not outlive
+   * the response, ex. by being returned to callers. This stream is closed.
+   */
+  public Response.Body toResponseBody() {
+    checkOpen();
+    Response.Body body = new PooledBody(pool, Arrays.copyOf(chunks, chunkCount), count);
+    chunks = null;
+    current = null;
+    return body;
+  }
+
+  /**
+   * Gives the buffers back to the pool, unless they were handed over.
+   */
+  @Override
+  public void close() {
+    byte[][] released = chunks;
+    if (released != null) {
+      chunks = null;
+      current = null;
+      for (int i = 0; i < chunkCount; i++) {
+        pool.release(released[i]);
+      }
+    }
+  }
+
+  private void ensureRemaining() throws IOException {
+    if (current == null) {
+      throw new IOException("Stream closed");
+    }
+    if (position == current.length) {
+      if (count > Integer.MAX_VALUE - current.length) {
+        throw new OutOfMemoryError("Required array size too large");
+      }
+      addChunk(current.length < MAX_CHUNK_SIZE ? current.length << 1 : MAX_CHUNK_SIZE);
+    }
+  }
+
+  private void addChunk(int minCapacity) {
+    if (chunkCount == chunks.length) {
+      chunks = Arrays.copyOf(chunks, chunkCount << 1);
+    }
+    current = pool.acquire(minCapacity);
+    chunks[chunkCount++] = current;
+    position = 0;
+  }
+
+  private void checkOpen() {
+    if (current == null) {
+      throw new IllegalStateException("Stream closed");
+    }
+  }
+}
@@ -14,48 +14,52 @@
 package feign;
 
 import java.lang.reflect.*;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Experimental
 public class ReflectiveAsyncFeign<C> extends AsyncFeign<C> {
 
   private class AsyncFeignInvocationHandler<T> implements InvocationHandler {
 
-    private final Map<Method, MethodInfo> methodInfoLookup = new ConcurrentHashMap<>();
+    private final DispatchTable table;
+    private final MethodInfo[] methodInfos;
 
-    private final Class<T> type;
     private final T instance;
     private final C context;
 
     AsyncFeignInvocationHandler(Class<T> type, T instance, C context) {
-      this.type = type;
+      this.table = DispatchTable.of(Arrays.asList(type.getMethods()));
+      this.methodInfos = new MethodInfo[table.size()];
+      for (int slot = 0; slot < methodInfos.length; slot++) {
+        methodInfos[slot] = new MethodInfo(type, table.method(slot));
+      }
       this.instance = instance;
       this.context = context;
     }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-      if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
-        try {
-          final Object otherHandler =
-              args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0])
-                  : null;
-          return equals(otherHandler);
-        } catch (final IllegalArgumentException e) {
-          return false;
-        }
-      } else if ("hashCode".equals(method.getName()) && method.getParameterCount() == 0) {
-        return hashCode();
-      } else if ("toString".equals(method.getName()) && method.getParameterCount() == 0) {
-        return toString();
+      final int slot = table.slot(method);
+      switch (slot) {
+        case DispatchTable.EQUALS:
+          try {
+            final Object otherHandler =
+                args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0])
+                    : null;
+            return equals(otherHandler);
+          } catch (final IllegalArgumentException e) {
+            return false;
+          }
+        case DispatchTable.HASH_CODE:
+          return hashCode();
+        case DispatchTable.TO_STRING:
+          return toString();
+        default:
+          break;
       }
 
-      final MethodInfo methodInfo =
-          methodInfoLookup.computeIfAbsent(method, m -> new MethodInfo(type, m));
-
-      setInvocationContext(new AsyncInvocation<C>(context, methodInfo));
+      setInvocationContext(new AsyncInvocation<C>(context, methodInfos[slot]));
       try {
         return method.invoke(instance, args);
       } catch (final InvocationTargetException e) {
@@ -15,15 +15,22 @@ package feign;
 
 import static feign.Util.checkArgument;
 import static feign.Util.checkNotNull;
+import java.io.File;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Function;
 import feign.InvocationHandlerFactory.MethodHandler;
+import feign.MetadataCache.ParsedMethod;
 import feign.Param.Expander;
 import feign.Request.Options;
 import feign.codec.*;
+import feign.querymap.BeanQueryMapEncoder;
+import feign.querymap.FieldQueryMapEncoder;
+import feign.querymap.QueryMapPlan;
 import feign.template.UriUtils;
 
 public class ReflectiveFeign extends Feign {
@@ -41,7 +48,8 @@ public class ReflectiveFeign extends Feign {
 
   /**
    * creates an api binding to the {@code target}. As this invokes reflection, care should be taken
-   * to cache the result.
+   * to cache the result. Metadata parsed by the contract is cached by {@link MetadataCache}, so
+   * rebinding the api to another target does not parse it again.
    */
   @SuppressWarnings("unchecked")
   @Override
@@ -50,10 +58,17 @@ public class ReflectiveFeign extends Feign {
     Map<Method, MethodHandler> methodToHandler = new LinkedHashMap<Method, MethodHandler>();
     List<DefaultMethodHandler> defaultMethodHandlers = new LinkedList<DefaultMethodHandler>();
 
+    /* build time generated implementations inherit default methods, no proxy is needed */
+    boolean generated = factory instanceof InvocationHandlerFactory.Default
+        && GeneratedApi.isPresent(target.type());
+
     for (Method method : target.type().getMethods()) {
       if (method.getDeclaringClass() == Object.class) {
         continue;
       } else if (Util.isDefault(method)) {
+        if (generated) {
+          continue;
+        }
         DefaultMethodHandler handler = new DefaultMethodHandler(method);
         defaultMethodHandlers.add(handler);
         methodToHandler.put(method, handler);
@@ -61,6 +76,9 @@ public class ReflectiveFeign extends Feign {
         methodToHandler.put(method, nameToHandler.get(Feign.configKey(target.type(), method)));
       }
     }
+    if (generated) {
+      return GeneratedApi.newInstance(target, methodToHandler);
+    }
     InvocationHandler handler = factory.create(target, methodToHandler);
     T proxy = (T) Proxy.newProxyInstance(target.type().getClassLoader(),
         new Class<?>[] {target.type()}, handler);
@@ -74,30 +92,35 @@ public class ReflectiveFeign extends Feign {
   static class FeignInvocationHandler implements InvocationHandler {
 
     private final Target target;
-    private final Map<Method, MethodHandler> dispatch;
+    private final DispatchTable table;
+    private final MethodHandler[] handlers;
 
     FeignInvocationHandler(Target target, Map<Method, MethodHandler> dispatch) {
       this.target = checkNotNull(target, "target");
-      this.dispatch = checkNotNull(dispatch, "dispatch for %s", target);
+      checkNotNull(dispatch, "dispatch for %s", target);
+      this.table = DispatchTable.of(dispatch.keySet());
+      this.handlers = DispatchTable.handlers(table, dispatch);
     }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-      if ("equals".equals(method.getName())) {
-        try {
-          Object otherHandler =
-              args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0]) : null;
-          return equals(otherHandler);
-        } catch (IllegalArgumentException e) {
-          return false;
-        }
-      } else if ("hashCode".equals(method.getName())) {
-        return hashCode();
-      } else if ("toString".equals(method.getName())) {
-        return toString();
+      int slot = table.slot(method);
+      switch (slot) {
+        case DispatchTable.EQUALS:
+          try {
+            Object otherHandler =
+                args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0]) : null;
+            return equals(otherHandler);
+          } catch (IllegalArgumentException e) {
+            return false;
+          }
+        case DispatchTable.HASH_CODE:
+          return hashCode();
+        case DispatchTable.TO_STRING:
+          return toString();
+        default:
+          return handlers[slot].invoke(args);
       }
-
-      return dispatch.get(method).invoke(args);
     }
 
     @Override
@@ -129,6 +152,7 @@ public class ReflectiveFeign extends Feign {
     private final ErrorDecoder errorDecoder;
     private final QueryMapEncoder queryMapEncoder;
     private final SynchronousMethodHandler.Factory factory;
+    private final boolean lazy;
 
     ParseHandlersByName(
         Contract contract,
@@ -137,8 +161,10 @@ public class ReflectiveFeign extends Feign {
         Decoder decoder,
         QueryMapEncoder queryMapEncoder,
         ErrorDecoder errorDecoder,
-        SynchronousMethodHandler.Factory factory) {
+        SynchronousMethodHandler.Factory factory,
+        boolean lazy) {
       this.contract = contract;
+      this.lazy = lazy;
       this.options = options;
       this.factory = factory;
       this.errorDecoder = errorDecoder;
@@ -148,62 +174,96 @@ public class ReflectiveFeign extends Feign {
     }
 
     public Map<String, MethodHandler> apply(Target target) {
-      List<MethodMetadata> metadata = contract.parseAndValidateMetadata(target.type());
+      List<ParsedMethod> methods = MetadataCache.parse(contract, target.type());
       Map<String, MethodHandler> result = new LinkedHashMap<String, MethodHandler>();
-      for (MethodMetadata md : metadata) {
-        BuildTemplateByResolvingArgs buildTemplate;
-        if (!md.formParams().isEmpty() && md.template().bodyTemplate() == null) {
-          buildTemplate =
-              new BuildFormEncodedTemplateFromArgs(md, encoder, queryMapEncoder, target);
-        } else if (md.bodyIndex() != null) {
-          buildTemplate = new BuildEncodedTemplateFromArgs(md, encoder, queryMapEncoder, target);
-        } else {
-          buildTemplate = new BuildTemplateByResolvingArgs(md, queryMapEncoder, target);
-        }
+      for (ParsedMethod method : methods) {
+        MethodMetadata md = method.metadata;
         if (md.isIgnored()) {
           result.put(md.configKey(), args -> {
             throw new IllegalStateException(md.configKey() + " is not a method handled by feign");
           });
+        } else if (lazy) {
+          result.put(md.configKey(), new LazyMethodHandler(() -> create(target, method)));
         } else {
-          result.put(md.configKey(),
-              factory.create(target, md, buildTemplate, options, decoder, errorDecoder));
+          result.put(md.configKey(), create(target, method));
         }
       }
       return result;
     }
+
+    private MethodHandler create(Target target, ParsedMethod method) {
+      MethodMetadata md = method.metadata;
+      BuildTemplateByResolvingArgs buildTemplate;
+      if (!md.formParams().isEmpty() && md.template().bodyTemplate() == null) {
+        buildTemplate = new BuildFormEncodedTemplateFromArgs(md, method.indexToExpander(),
+            encoder, queryMapEncoder, target);
+      } else if (md.bodyIndex() != null) {
+        buildTemplate = new BuildEncodedTemplateFromArgs(md, method.indexToExpander(), encoder,
+            queryMapEncoder, target);
+      } else {
+        buildTemplate =
+            new BuildTemplateByResolvingArgs(md, method.indexToExpander(), queryMapEncoder, target);
+      }
+      return factory.create(target, md, buildTemplate, buildTemplate.plan(), options, decoder,
+          errorDecoder);
+    }
+  }
+
+  static Object expandElements(Expander expander, Object value) {
+    if (value instanceof Iterable) {
+      return expandIterable(expander, (Iterable) value);
+    }
+    return expander.expand(value);
+  }
+
+  private static List<String> expandIterable(Expander expander, Iterable value) {
+    List<String> values = new ArrayList<String>();
+    for (Object element : value) {
+      if (element != null) {
+        values.add(expander.expand(element));
+      }
+    }
+    return values;
   }
 
   private static class BuildTemplateByResolvingArgs implements RequestTemplate.Factory {
 
     private final QueryMapEncoder queryMapEncoder;
+    private final Function<Class<?>, QueryMapPlan> queryMapPlans;
 
     protected final MethodMetadata metadata;
     protected final Target<?> target;
-    private final Map<Integer, Expander> indexToExpander = new LinkedHashMap<Integer, Expander>();
+    private final Map<Integer, Expander> indexToExpander;
 
-    private BuildTemplateByResolvingArgs(MethodMetadata metadata, QueryMapEncoder queryMapEncoder,
-        Target target) {
+    private BuildTemplateByResolvingArgs(MethodMetadata metadata,
+        Map<Integer, Expander> indexToExpander, QueryMapEncoder queryMapEncoder, Target target) {
       this.metadata = metadata;
+      this.indexToExpander = indexToExpander;
       this.target = target;
       this.queryMapEncoder = queryMapEncoder;
-      if (metadata.indexToExpander() != null) {
-        indexToExpander.putAll(metadata.indexToExpander());
-        return;
-      }
-      if (metadata.indexToExpanderClass().isEmpty()) {
-        return;
-      }
-      for (Entry<Integer, Class<? extends Expander>> indexToExpanderClass : metadata
-          .indexToExpanderClass().entrySet()) {
-        try {
-          indexToExpander
-              .put(indexToExpanderClass.getKey(), indexToExpanderClass.getValue().newInstance());
-        } catch (InstantiationException e) {
-          throw new IllegalStateException(e);
-        } catch (IllegalAccessException e) {
-          throw new IllegalStateException(e);
-        }
+      this.queryMapPlans = queryMapPlans(queryMapEncoder);
+    }
+
+    /**
+     * The plans equivalent to the built-in encoders. Subclasses may override {@code encode}, so
+     * they are used as is.
+     */
+    private static Function<Class<?>, QueryMapPlan> queryMapPlans(
+                                                                  QueryMapEncoder queryMapEncoder) {
+      Class<?> type = queryMapEncoder != null ? queryMapEncoder.getClass() : null;
+      if (type == FieldQueryMapEncoder.class || type == QueryMapEncoder.Default.class) {
+        return QueryMapPlan::ofFields;
+      } else if (type == BeanQueryMapEncoder.class) {
+        return QueryMapPlan::ofBeanProperties;
       }
+      return null;
+    }
+
+    /**
+     * Compiles the plan creating requests without this factory's template, if possible.
+     */
+    RequestPlan plan() {
+      return RequestPlan.compile(metadata, target, indexToExpander);
     }
 
     @Override
@@ -234,8 +294,14 @@ public class ReflectiveFeign extends Feign {
         // add query map parameters after initial resolve so that they take
         // precedence over any predefined values
         Object value = argv[metadata.queryMapIndex()];
-        Map<String, Object> queryMap = toQueryMap(value);
-        template = addQueryMapQueryParameters(queryMap, template);
+        if (queryMapPlans != null && value != null && !(value instanceof Map)
+            && !metadata.queryMapEncoded()) {
+          /* written straight into the template, names and values encoded as below */
+          template = addQueryMapQueryParameters(value, template);
+        } else {
+          Map<String, Object> queryMap = toQueryMap(value);
+          template = addQueryMapQueryParameters(queryMap, template);
+        }
       }
 
       if (metadata.headerMapIndex() != null) {
@@ -243,6 +309,11 @@ public class ReflectiveFeign extends Feign {
             addHeaderMapHeaders((Map<String, Object>) argv[metadata.headerMapIndex()], template);
       }
 
+      if (metadata.downloadToIndex() != null) {
+        Object file = argv[metadata.downloadToIndex()];
+        template.downloadTo(file instanceof File ? ((File) file).toPath() : (Path) file);
+      }
+
       return template;
     }
 
@@ -257,23 +328,6 @@ public class ReflectiveFeign extends Feign {
       }
     }
 
-    private Object expandElements(Expander expander, Object value) {
-      if (value instanceof Iterable) {
-        return expandIterable(expander, (Iterable) value);
-      }
-      return expander.expand(value);
-    }
-
-    private List<String> expandIterable(Expander expander, Iterable value) {
-      List<String> values = new ArrayList<String>();
-      for (Object element : value) {
-        if (element != null) {
-          values.add(expander.expand(element));
-        }
-      }
-      return values;
-    }
-
     @SuppressWarnings("unchecked")
     private RequestTemplate addHeaderMapHeaders(Map<String, Object> headerMap,
                                                 RequestTemplate mutable) {
@@ -296,6 +350,15 @@ public class ReflectiveFeign extends Feign {
       return mutable;
     }
 
+    private RequestTemplate addQueryMapQueryParameters(Object value, RequestTemplate mutable) {
+      try {
+        queryMapPlans.apply(value.getClass()).encode(value, mutable::appendEncodedQuery);
+      } catch (EncodeException e) {
+        throw new IllegalStateException(e);
+      }
+      return mutable;
+    }
+
     @SuppressWarnings("unchecked")
     private RequestTemplate addQueryMapQueryParameters(Map<String, Object> queryMap,
                                                        RequestTemplate mutable) {
@@ -338,9 +401,10 @@ public class ReflectiveFeign extends Feign {
 
     private final Encoder encoder;
 
-    private BuildFormEncodedTemplateFromArgs(MethodMetadata metadata, Encoder encoder,
-        QueryMapEncoder queryMapEncoder, Target target) {
-      super(metadata, queryMapEncoder, target);
+    private BuildFormEncodedTemplateFromArgs(MethodMetadata metadata,
+        Map<Integer, Expander> indexToExpander, Encoder encoder, QueryMapEncoder queryMapEncoder,
+        Target target) {
+      super(metadata, indexToExpander, queryMapEncoder, target);
       this.encoder = encoder;
     }
 
@@ -369,9 +433,10 @@ public class ReflectiveFeign extends Feign {
 
     private final Encoder encoder;
 
-    private BuildEncodedTemplateFromArgs(MethodMetadata metadata, Encoder encoder,
-        QueryMapEncoder queryMapEncoder, Target target) {
-      super(metadata, queryMapEncoder, target);
+    private BuildEncodedTemplateFromArgs(MethodMetadata metadata,
+        Map<Integer, Expander> indexToExpander, Encoder encoder, QueryMapEncoder queryMapEncoder,
+        Target target) {
+      super(metadata, indexToExpander, queryMapEncoder, target);
       this.encoder = encoder;
     }
 
@@ -13,16 +13,17 @@
  */
 package feign;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.nio.charset.Charset;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import static feign.Util.checkArgument;
 import static feign.Util.checkNotNull;
-import static feign.Util.valuesOrEmpty;
 
 /**
  * An immutable request to an http server.
@@ -107,9 +108,14 @@ public final class Request {
 
   private final HttpMethod httpMethod;
   private final String url;
-  private final Map<String, Collection<String>> headers;
+  private final HttpHeaders headers;
   private final Body body;
-  private final RequestTemplate requestTemplate;
+  private final Supplier<RequestTemplate> templateFactory; // Nullable
+  private volatile RequestTemplate requestTemplate;
+  /* known without the template when built from a plan */
+  private final MethodMetadata methodMetadata; // Nullable
+  /* parsed on first use, racy as equal instances may be parsed more than once */
+  private RequestUrl requestUrl;
 
   /**
    * Creates a new Request.
@@ -127,9 +133,55 @@ public final class Request {
       RequestTemplate requestTemplate) {
     this.httpMethod = checkNotNull(method, "httpMethod of %s", method.name());
     this.url = checkNotNull(url, "url");
-    this.headers = checkNotNull(headers, "headers of %s %s", method, url);
+    this.headers = HttpHeaders.of(checkNotNull(headers, "headers of %s %s", method, url));
     this.body = body;
     this.requestTemplate = requestTemplate;
+    this.templateFactory = null;
+    this.methodMetadata = null;
+  }
+
+  /**
+   * Creates a new Request, whose {@link #requestTemplate() template} is only created when asked
+   * for.
+   *
+   * @param methodMetadata of the method the request is built for.
+   * @param templateFactory creating the template this request would have been built from.
+   */
+  Request(HttpMethod method,
+      String url,
+      Map<String, Collection<String>> headers,
+      Body body,
+      MethodMetadata methodMetadata,
+      Supplier<RequestTemplate> templateFactory) {
+    this.httpMethod = checkNotNull(method, "httpMethod of %s", method.name());
+    this.url = checkNotNull(url, "url");
+    this.headers = HttpHeaders.of(checkNotNull(headers, "headers of %s %s", method, url));
+    this.body = body;
+    this.methodMetadata = methodMetadata;
+    this.templateFactory = checkNotNull(templateFactory, "templateFactory");
+  }
+
+  /**
+   * A request sharing the data of this one, with a template of its own. Used to share a literal
+   * request between the calls of its method, which may each change their template.
+   */
+  Request withTemplateFactory(Supplier<RequestTemplate> templateFactory) {
+    Request result = new Request(httpMethod, url, headers, body, methodMetadata, templateFactory);
+    result.requestUrl = requestUrl;
+    return result;
+  }
+
+  /**
+   * A copy of this request with other {@code headers}, ex. conditional ones. Unlike
+   * {@link #create(HttpMethod, String, Map, Body, RequestTemplate)}, doesn't create the
+   * {@link #requestTemplate() template} of a request built from a plan.
+   */
+  @Experimental
+  public Request withHeaders(Map<String, Collection<String>> headers) {
+    if (requestTemplate == null && templateFactory != null) {
+      return new Request(httpMethod, url, headers, body, methodMetadata, templateFactory);
+    }
+    return new Request(httpMethod, url, headers, body, requestTemplate);
   }
 
   /**
@@ -162,13 +214,36 @@ public final class Request {
     return url;
   }
 
+  /**
+   * URL for the request, split into its parts once, so that clients don't parse it again.
+   *
+   * @return the parsed URL.
+   */
+  @Experimental
+  public RequestUrl requestUrl() {
+    RequestUrl result = requestUrl;
+    if (result == null) {
+      requestUrl = result = RequestUrl.parse(url);
+    }
+    return result;
+  }
+
   /**
    * Request Headers.
    *
    * @return the request headers.
    */
   public Map<String, Collection<String>> headers() {
-    return Collections.unmodifiableMap(headers);
+    return headers;
+  }
+
+  /**
+   * Request Headers, with case-insensitive lookups that don't allocate.
+   *
+   * @return the request headers.
+   */
+  public HttpHeaders httpHeaders() {
+    return headers;
   }
 
   /**
@@ -194,6 +269,15 @@ public final class Request {
     return body.isBinary();
   }
 
+  /**
+   * The body of the request, which may be {@link Body#isStreaming() streamed} rather than held as
+   * {@link #body() data}.
+   */
+  @Experimental
+  public Body requestBody() {
+    return body;
+  }
+
   /**
    * Request Length.
    *
@@ -212,11 +296,8 @@ public final class Request {
   public String toString() {
     final StringBuilder builder = new StringBuilder();
     builder.append(httpMethod).append(' ').append(url).append(" HTTP/1.1\n");
-    for (final String field : headers.keySet()) {
-      for (final String value : valuesOrEmpty(headers, field)) {
-        builder.append(field).append(": ").append(value).append('\n');
-      }
-    }
+    headers.forEachValue(
+        (field, value) -> builder.append(field).append(": ").append(value).append('\n'));
     if (body != null) {
       builder.append('\n').append(body.asString());
     }
@@ -364,7 +445,31 @@ public final class Request {
 
   @Experimental
   public RequestTemplate requestTemplate() {
-    return this.requestTemplate;
+    RequestTemplate template = this.requestTemplate;
+    if (template == null && this.templateFactory != null) {
+      /* the request was built from a plan, materialize the template on first use */
+      synchronized (this) {
+        template = this.requestTemplate;
+        if (template == null) {
+          this.requestTemplate = template = this.templateFactory.get();
+        }
+      }
+    }
+    return template;
+  }
+
+  /**
+   * The metadata of the method this request was built for, if any. Unlike
+   * {@code requestTemplate().methodMetadata()}, doesn't create the template of a request built from
+   * a plan.
+   */
+  @Experimental
+  public MethodMetadata methodMetadata() {
+    if (methodMetadata != null) {
+      return methodMetadata;
+    }
+    RequestTemplate template = requestTemplate;
+    return template != null ? template.methodMetadata() : null;
   }
 
   /**
@@ -376,8 +481,23 @@ public final class Request {
   @Experimental
   public static class Body {
 
+    /**
+     * Writes a body directly to the connection, so that it is never held in memory as a whole.
+     */
+    @FunctionalInterface
+    public interface Writer {
+
+      /**
+       * Writes the body to {@code out}, which is closed by the client afterwards.
+       */
+      void writeTo(OutputStream out) throws IOException;
+    }
+
     private Charset encoding;
     private byte[] data;
+    private Writer writer;
+    private long streamingLength = -1;
+    private boolean replayable = true;
 
     private Body() {
       super();
@@ -392,15 +512,59 @@ public final class Request {
       this.encoding = encoding;
     }
 
+    private Body(Writer writer, long length, boolean replayable, Charset encoding) {
+      this.writer = writer;
+      this.streamingLength = length;
+      this.replayable = replayable;
+      this.encoding = encoding;
+    }
+
     public Optional<Charset> getEncoding() {
       return Optional.ofNullable(this.encoding);
     }
 
+    /**
+     * @return the length of the data, {@code 0} for a {@link #isStreaming() streaming} body.
+     * @see #contentLength()
+     */
     public int length() {
       /* calculate the content length based on the data provided */
       return data != null ? data.length : 0;
     }
 
+    /**
+     * @return the number of bytes to send, or {@code -1} for a streaming body of unknown length.
+     */
+    public long contentLength() {
+      return writer != null ? streamingLength : length();
+    }
+
+    /**
+     * @return true when the body is written by a {@link Writer}, instead of held as data.
+     */
+    public boolean isStreaming() {
+      return writer != null;
+    }
+
+    /**
+     * @return false when the body can only be written once, ex. when copied from an
+     *         {@link java.io.InputStream}. Such requests are not retried.
+     */
+    public boolean isReplayable() {
+      return replayable;
+    }
+
+    /**
+     * Writes the data, or the streaming body, to {@code out}.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+      if (writer != null) {
+        writer.writeTo(out);
+      } else if (data != null) {
+        out.write(data);
+      }
+    }
+
     public byte[] asBytes() {
       return data;
     }
@@ -446,6 +610,21 @@ public final class Request {
       return create(data, charset);
     }
 
+    /**
+     * Creates a body written to the connection by {@code writer}, when the request is sent.
+     *
+     * @param writer of the body.
+     * @param length of the body, or {@code -1} if unknown, in which case it is sent chunked.
+     * @param replayable false if {@code writer} can only be called once.
+     * @param charset of the body, or {@literal null} if binary.
+     */
+    @Experimental
+    public static Body streaming(Writer writer, long length, boolean replayable, Charset charset) {
+      checkNotNull(writer, "writer");
+      checkArgument(length >= -1, "length must be -1 when unknown, was %s", length);
+      return new Body(writer, length, replayable, charset);
+    }
+
     public static Body empty() {
       return new Body();
     }
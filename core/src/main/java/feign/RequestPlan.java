@@ -0,0 +1,389 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.CONTENT_LENGTH;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.function.Function;
+import feign.Param.Expander;
+import feign.Request.HttpMethod;
+import feign.Target.HardCodedTarget;
+import feign.template.BodyTemplate;
+import feign.template.HeaderTemplate;
+import feign.template.QueryTemplate;
+import feign.template.UriTemplate;
+
+/**
+ * A request compiled once per {@link MethodMetadata method}, which creates the {@link Request} for
+ * a set of arguments in a single pass. This produces the same request as resolving a copy of the
+ * method's {@link RequestTemplate} and applying it to the {@link Target}, without copying the
+ * template or re-parsing the resolved uri.
+ *
+ * <p>
+ * Only methods whose request is built from their templates alone are planned: a plan is not created
+ * when the method has a body or form parameters to encode, a {@link QueryMap}, {@link HeaderMap} or
+ * {@link java.net.URI} parameter, or when the target is not a plain {@link HardCodedTarget}.
+ * Callers must fall back to the {@link RequestTemplate} whenever {@link RequestInterceptor}s are
+ * present, as those may modify the template.
+ * </p>
+ *
+ * <p>
+ * The request of a {@link #isLiteral() literal} method, ex. {@code GET /health}, doesn't depend on
+ * the arguments: it is created once and shared by all calls, along with its template.
+ * </p>
+ */
+final class RequestPlan {
+
+  private final Target<?> target;
+  private final HttpMethod method;
+  private final String targetUrl;
+  private final String fragment;
+  private final Charset charset;
+  private final MethodMetadata metadata;
+  private final Request.Body body;
+  private final boolean decodeSlash;
+  private final CollectionFormat collectionFormat;
+  private final UriTemplate uriTemplate;
+  private final QueryTemplate[] queryTemplates;
+  private final HeaderTemplate[] headerTemplates;
+  private final BodyTemplate bodyTemplate;
+  private final Map<String, int[]> nameToIndexes = new HashMap<>();
+  private final Map<Integer, Expander> indexToExpander;
+  /* cleared if the literal request turns out to need the template */
+  private volatile boolean literal;
+  private volatile Request literalRequest;
+
+  private RequestPlan(MethodMetadata metadata, Target<?> target, String targetUrl,
+      String fragment, Map<Integer, Expander> indexToExpander) {
+    RequestTemplate template = metadata.template();
+    this.metadata = metadata;
+    this.target = target;
+    this.method = HttpMethod.valueOf(template.method());
+    this.targetUrl = targetUrl;
+    this.fragment = fragment;
+    this.charset = template.charset();
+    this.body = template.requestBody();
+    this.decodeSlash = template.decodeSlash();
+    this.collectionFormat = template.collectionFormat();
+    this.uriTemplate = template.uriTemplate();
+    this.queryTemplates = template.queryTemplates().toArray(new QueryTemplate[0]);
+    this.headerTemplates = template.headerTemplates().toArray(new HeaderTemplate[0]);
+    this.bodyTemplate = template.bodyTemplateInstance();
+    this.indexToExpander = indexToExpander;
+    this.literal = (uriTemplate == null || uriTemplate.isLiteral())
+        && Arrays.stream(queryTemplates).allMatch(query -> query.getVariables().isEmpty())
+        && Arrays.stream(headerTemplates).allMatch(HeaderTemplate::isLiteral)
+        && (bodyTemplate == null || bodyTemplate.isLiteral());
+
+    /* later arguments win when several are bound to the same name */
+    Map<String, List<Integer>> indexes = new HashMap<>();
+    for (Map.Entry<Integer, Collection<String>> entry : metadata.indexToName().entrySet()) {
+      for (String name : entry.getValue()) {
+        indexes.computeIfAbsent(name, key -> new ArrayList<>()).add(entry.getKey());
+      }
+    }
+    indexes.forEach((name, list) -> nameToIndexes.put(name,
+        list.stream().mapToInt(Integer::intValue).toArray()));
+  }
+
+  /**
+   * Compiles the request plan of a method.
+   *
+   * @return the plan, or {@literal null} if the request of this method can't be planned.
+   */
+  static RequestPlan compile(MethodMetadata metadata,
+                             Target<?> target,
+                             Map<Integer, Expander> indexToExpander) {
+    RequestTemplate template = metadata.template();
+    if (target == null || target.getClass() != HardCodedTarget.class
+        || metadata.urlIndex() != null
+        || metadata.bodyIndex() != null
+        || (!metadata.formParams().isEmpty() && template.bodyTemplate() == null)
+        || metadata.queryMapIndex() != null
+        || metadata.headerMapIndex() != null
+        || metadata.downloadToIndex() != null
+        || template.method() == null
+        || template.targetUrl() != null) {
+      return null;
+    }
+
+    /* mirrors RequestTemplate.target(String), which HardCodedTarget applies to each request */
+    String url = target.url();
+    if (!url.startsWith("http")) {
+      return null;
+    }
+    if (url.endsWith("/")) {
+      url = url.substring(0, url.length() - 1);
+    }
+    URI targetUri;
+    try {
+      targetUri = URI.create(url);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    if (Util.isNotBlank(targetUri.getRawQuery())) {
+      return null;
+    }
+    String fragment = targetUri.getFragment() != null
+        ? "#" + targetUri.getFragment()
+        : template.fragment();
+    return new RequestPlan(metadata, target,
+        targetUri.getScheme() + "://" + targetUri.getAuthority() + targetUri.getPath(),
+        fragment, indexToExpander);
+  }
+
+  /**
+   * Creates the request for the arguments.
+   *
+   * @param argv arguments of the invoked method.
+   * @param requestTemplate creating the equivalent template for the arguments, when
+   *        {@link Request#requestTemplate()} is called.
+   * @return the request, or {@literal null} if the arguments need the template to be resolved.
+   */
+  Request request(Object[] argv, Function<Object[], RequestTemplate> requestTemplate) {
+    if (!literal) {
+      return create(argv, requestTemplate);
+    }
+    Request request = literalRequest;
+    if (request == null) {
+      /* the arguments aren't used, don't keep these ones alive with the shared request */
+      request = create(argv != null ? new Object[argv.length] : null, requestTemplate);
+      if (request == null) {
+        literal = false;
+        return null;
+      }
+      literalRequest = request;
+    }
+    /* templates are mutable, so each call gets its own */
+    return request.withTemplateFactory(() -> requestTemplate.apply(argv));
+  }
+
+  /**
+   * Flag to indicate that the request doesn't depend on the arguments: none of the templates has
+   * any expression.
+   */
+  boolean isLiteral() {
+    return literal;
+  }
+
+  private Request create(Object[] argv, Function<Object[], RequestTemplate> requestTemplate) {
+    Map<String, Object> variables = new Variables(argv);
+
+    /* the path */
+    String path = uriTemplate != null ? uriTemplate.expand(variables) : null;
+    if (path == null) {
+      path = "";
+    } else if (!isUriSafe(path, true) || path.startsWith("http")) {
+      /* not a relative uri, let the template report it */
+      return null;
+    } else if (!path.isEmpty() && path.charAt(0) != '/' && path.charAt(0) != ';') {
+      path = "/" + path;
+    }
+
+    /* the query string, as it reads once the resolved uri is parsed again */
+    String queryLine = "";
+    if (queryTemplates.length != 0) {
+      List<String> names = new ArrayList<>(queryTemplates.length);
+      List<List<String>> values = new ArrayList<>(queryTemplates.length);
+      for (QueryTemplate queryTemplate : queryTemplates) {
+        String expanded = queryTemplate.expand(variables);
+        if (Util.isNotBlank(expanded)
+            && !collectQueries(expanded, names, values)) {
+          return null;
+        }
+      }
+      queryLine = queryLine(names, values);
+    }
+    StringBuilder url = new StringBuilder(targetUrl.length() + path.length()
+        + queryLine.length() + (fragment != null ? fragment.length() : 0));
+    url.append(targetUrl).append(path).append(queryLine);
+    if (fragment != null) {
+      url.append(fragment);
+    }
+
+    /* headers */
+    HttpHeaders.Builder headers = HttpHeaders.builder().sortedNames();
+    for (HeaderTemplate headerTemplate : headerTemplates) {
+      String header = headerTemplate.expand(variables);
+      if (!header.isEmpty()) {
+        String headerValues = header.substring(header.indexOf(" ") + 1);
+        if (!headerValues.isEmpty()) {
+          headers.add(headerTemplate.getName(), headerValues);
+        }
+      }
+    }
+
+    /* body */
+    Request.Body body = this.body;
+    if (bodyTemplate != null) {
+      byte[] expanded = bodyTemplate.expand(variables, charset);
+      if (expanded == null) {
+        return null;
+      }
+      body = Request.Body.create(expanded, charset);
+      headers.remove(CONTENT_LENGTH);
+      if (body.length() > 0) {
+        headers.add(CONTENT_LENGTH, String.valueOf(body.length()));
+      }
+    }
+
+    return new Request(method, url.toString(), headers.build(), body, metadata,
+        () -> requestTemplate.apply(argv));
+  }
+
+  Target<?> target() {
+    return target;
+  }
+
+  /**
+   * Splits an expanded query into name and value pairs, grouping the values by name.
+   *
+   * @return false if the query can't be handled without the template.
+   */
+  private static boolean collectQueries(String query,
+                                        List<String> names,
+                                        List<List<String>> values) {
+    int start = 0;
+    int length = query.length();
+    if (query.charAt(length - 1) == '&') {
+      return false;
+    }
+    while (start < length) {
+      int end = query.indexOf('&', start);
+      if (end == -1) {
+        end = length;
+      }
+      if (end == start) {
+        /* an empty name */
+        return false;
+      }
+      int eq = query.indexOf('=', start);
+      String name;
+      String value;
+      if (eq > start && eq < end) {
+        name = query.substring(start, eq);
+        value = query.substring(eq + 1, end);
+      } else {
+        name = query.substring(start, end);
+        value = null;
+      }
+      if (!isUriSafe(name, false) || (value != null && !isUriSafe(value, false))) {
+        return false;
+      }
+      int index = names.indexOf(name);
+      if (index == -1) {
+        names.add(name);
+        values.add(new ArrayList<>(1));
+        index = names.size() - 1;
+      }
+      if (Util.isNotBlank(value)) {
+        values.get(index).add(value);
+      }
+      start = end + 1;
+    }
+    return true;
+  }
+
+  private String queryLine(List<String> names, List<List<String>> values) {
+    StringBuilder queryLine = new StringBuilder();
+    for (int i = 0; i < names.size(); i++) {
+      queryLine.append(queryLine.length() == 0 ? '?' : '&');
+      if (values.get(i).isEmpty()) {
+        /* a pure parameter */
+        queryLine.append(names.get(i));
+      } else {
+        queryLine.append(collectionFormat.join(names.get(i), values.get(i), Util.UTF_8));
+      }
+    }
+    return queryLine.toString();
+  }
+
+  /**
+   * Checks if a resolved value reads the same once it is parsed and encoded again as a template
+   * literal: it only contains unreserved or reserved ascii characters, and valid pct-encoded
+   * sequences.
+   */
+  private static boolean isUriSafe(String value, boolean path) {
+    for (int i = 0, length = value.length(); i < length; i++) {
+      char c = value.charAt(i);
+      if (c == '%') {
+        if (i + 2 >= length || !isHex(value.charAt(i + 1)) || !isHex(value.charAt(i + 2))) {
+          return false;
+        }
+        i += 2;
+      } else if (path && (c == '?' || c == '#')) {
+        return false;
+      } else if (!isUnreservedOrReserved(c)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isHex(char c) {
+    return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+
+  private static boolean isUnreservedOrReserved(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+        || "-._~:/?#[]@!$&'()*+,;=".indexOf(c) != -1;
+  }
+
+  /**
+   * The template variables, read from the arguments as they are looked up.
+   */
+  private final class Variables extends AbstractMap<String, Object> {
+
+    private final Object[] argv;
+
+    Variables(Object[] argv) {
+      this.argv = argv;
+    }
+
+    @Override
+    public Object get(Object name) {
+      int[] indexes = nameToIndexes.get(name);
+      if (indexes == null) {
+        return null;
+      }
+      for (int i = indexes.length - 1; i >= 0; i--) {
+        Object value = argv[indexes[i]];
+        if (value != null) { // Null values are skipped.
+          Expander expander = indexToExpander.get(indexes[i]);
+          return expander != null ? ReflectiveFeign.expandElements(expander, value) : value;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+      return get(name) != null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      Map<String, Object> variables = new LinkedHashMap<>();
+      for (String name : nameToIndexes.keySet()) {
+        Object value = get(name);
+        if (value != null) {
+          variables.put(name, value);
+        }
+      }
+      return variables.entrySet();
+    }
+  }
+}
@@ -18,11 +18,10 @@ import feign.template.*;
 import java.io.Serializable;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import static feign.Util.*;
 
@@ -36,9 +35,11 @@ import static feign.Util.*;
 @SuppressWarnings("UnusedReturnValue")
 public final class RequestTemplate implements Serializable {
 
-  private static final Pattern QUERY_STRING_PATTERN = Pattern.compile("(?<!\\{)\\?");
-  private final Map<String, QueryTemplate> queries = new LinkedHashMap<>();
-  private final Map<String, HeaderTemplate> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+  /* shared with copies of a frozen template until either side changes them, see freeze */
+  private Map<String, QueryTemplate> queries = new LinkedHashMap<>();
+  private Map<String, HeaderTemplate> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+  private boolean sharedQueries;
+  private boolean sharedHeaders;
   private String target;
   private String fragment;
   private boolean resolved = false;
@@ -51,6 +52,7 @@ public final class RequestTemplate implements Serializable {
   private CollectionFormat collectionFormat = CollectionFormat.EXPLODED;
   private MethodMetadata methodMetadata;
   private Target<?> feignTarget;
+  private transient Path downloadTo;
 
   /**
    * Create a new Request Template.
@@ -120,13 +122,8 @@ public final class RequestTemplate implements Serializable {
             requestTemplate.methodMetadata,
             requestTemplate.feignTarget);
 
-    if (!requestTemplate.queries().isEmpty()) {
-      template.queries.putAll(requestTemplate.queries);
-    }
-
-    if (!requestTemplate.headers().isEmpty()) {
-      template.headers.putAll(requestTemplate.headers);
-    }
+    template.downloadTo = requestTemplate.downloadTo;
+    template.shareQueriesAndHeaders(requestTemplate);
     return template;
   }
 
@@ -142,8 +139,7 @@ public final class RequestTemplate implements Serializable {
     this.target = toCopy.target;
     this.fragment = toCopy.fragment;
     this.method = toCopy.method;
-    this.queries.putAll(toCopy.queries);
-    this.headers.putAll(toCopy.headers);
+    this.shareQueriesAndHeaders(toCopy);
     this.charset = toCopy.charset;
     this.body = toCopy.body;
     this.decodeSlash = toCopy.decodeSlash;
@@ -155,6 +151,76 @@ public final class RequestTemplate implements Serializable {
     this.methodMetadata = toCopy.methodMetadata;
     this.target = toCopy.target;
     this.feignTarget = toCopy.feignTarget;
+    this.downloadTo = toCopy.downloadTo;
+  }
+
+  /**
+   * Shares the queries and headers of {@code toCopy} when it is {@link #freeze() frozen}, instead
+   * of copying them. Never writes to {@code toCopy}, which other threads may be copying too.
+   */
+  private void shareQueriesAndHeaders(RequestTemplate toCopy) {
+    if (toCopy.sharedQueries) {
+      this.queries = toCopy.queries;
+      this.sharedQueries = true;
+    } else {
+      this.queries.putAll(toCopy.queries);
+    }
+    if (toCopy.sharedHeaders) {
+      this.headers = toCopy.headers;
+      this.sharedHeaders = true;
+    } else {
+      this.headers.putAll(toCopy.headers);
+    }
+  }
+
+  /**
+   * Lets copies of this template share its queries and headers until either side changes them. Must
+   * be called before the template is published to other threads, such as when caching it.
+   */
+  RequestTemplate freeze() {
+    this.sharedQueries = true;
+    this.sharedHeaders = true;
+    return this;
+  }
+
+  private Map<String, QueryTemplate> mutableQueries() {
+    if (this.sharedQueries) {
+      this.queries = new LinkedHashMap<>(this.queries);
+      this.sharedQueries = false;
+    }
+    return this.queries;
+  }
+
+  private Map<String, HeaderTemplate> mutableHeaders() {
+    if (this.sharedHeaders) {
+      Map<String, HeaderTemplate> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+      copy.putAll(this.headers);
+      this.headers = copy;
+      this.sharedHeaders = false;
+    }
+    return this.headers;
+  }
+
+  private void removeQuery(String name) {
+    if (this.queries.containsKey(name)) {
+      this.mutableQueries().remove(name);
+    }
+  }
+
+  private void removeHeaderTemplate(String name) {
+    if (this.headers.containsKey(name)) {
+      this.mutableHeaders().remove(name);
+    }
+  }
+
+  private void clearQueries() {
+    this.queries = new LinkedHashMap<>();
+    this.sharedQueries = false;
+  }
+
+  private void clearHeaders() {
+    this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    this.sharedHeaders = false;
   }
 
   /**
@@ -166,7 +232,8 @@ public final class RequestTemplate implements Serializable {
    */
   public RequestTemplate resolve(Map<String, ?> variables) {
 
-    StringBuilder uri = new StringBuilder();
+    /* the uri, queries and headers are all expanded into this buffer */
+    StringBuilder uri = new StringBuilder(128);
 
     /* create a new template form this one, but explicitly */
     RequestTemplate resolved = RequestTemplate.from(this);
@@ -176,10 +243,7 @@ public final class RequestTemplate implements Serializable {
       this.uriTemplate = UriTemplate.create("", !this.decodeSlash, this.charset);
     }
 
-    String expanded = this.uriTemplate.expand(variables);
-    if (expanded != null) {
-      uri.append(expanded);
-    }
+    this.uriTemplate.expand(variables, uri);
 
     /*
      * for simplicity, combine the queries into the uri and use the resulting uri to seed the
@@ -190,30 +254,28 @@ public final class RequestTemplate implements Serializable {
        * since we only want to keep resolved query values, reset any queries on the resolved copy
        */
       resolved.queries(Collections.emptyMap());
-      StringBuilder query = new StringBuilder();
+      int queryStart = uri.length();
+      if (indexOfDelimiter(uri, '?') >= 0) {
+        /* the uri already has a query, so any additional queries should be appended */
+        uri.append("&");
+      } else {
+        uri.append("?");
+      }
+      int queryMark = uri.length();
       Iterator<QueryTemplate> queryTemplates = this.queries.values().iterator();
 
       while (queryTemplates.hasNext()) {
         QueryTemplate queryTemplate = queryTemplates.next();
-        String queryExpanded = queryTemplate.expand(variables);
-        if (Util.isNotBlank(queryExpanded)) {
-          query.append(queryExpanded);
+        if (queryTemplate.expand(variables, uri)) {
           if (queryTemplates.hasNext()) {
-            query.append("&");
+            uri.append("&");
           }
         }
       }
 
-      String queryString = query.toString();
-      if (!queryString.isEmpty()) {
-        Matcher queryMatcher = QUERY_STRING_PATTERN.matcher(uri);
-        if (queryMatcher.find()) {
-          /* the uri already has a query, so any additional queries should be appended */
-          uri.append("&");
-        } else {
-          uri.append("?");
-        }
-        uri.append(queryString);
+      if (uri.length() == queryMark) {
+        /* all queries are unresolved */
+        uri.setLength(queryStart);
       }
     }
 
@@ -228,11 +290,11 @@ public final class RequestTemplate implements Serializable {
        */
       resolved.headers(Collections.emptyMap());
       for (HeaderTemplate headerTemplate : this.headers.values()) {
-        /* resolve the header */
-        String header = headerTemplate.expand(variables);
-        if (!header.isEmpty()) {
+        /* resolve the header, reusing the buffer */
+        uri.setLength(0);
+        if (headerTemplate.expand(variables, uri) && uri.length() > 0) {
           /* split off the header values and add it to the resolved template */
-          String headerValues = header.substring(header.indexOf(" ") + 1);
+          String headerValues = uri.substring(uri.indexOf(" ") + 1);
           if (!headerValues.isEmpty()) {
             /* append the header as a new literal as the value has already been expanded. */
             resolved.header(headerTemplate.getName(), Literal.create(headerValues));
@@ -242,7 +304,7 @@ public final class RequestTemplate implements Serializable {
     }
 
     if (this.bodyTemplate != null) {
-      resolved.body(this.bodyTemplate.expand(variables));
+      resolved.body(this.bodyTemplate.expand(variables, this.charset), this.charset);
     }
 
     /* mark the new template resolved */
@@ -330,7 +392,7 @@ public final class RequestTemplate implements Serializable {
     this.uriTemplate =
         UriTemplate.create(this.uriTemplate.toString(), !this.decodeSlash, this.charset);
     if (!this.queries.isEmpty()) {
-      this.queries.replaceAll((key, queryTemplate) -> QueryTemplate.create(
+      this.mutableQueries().replaceAll((key, queryTemplate) -> QueryTemplate.create(
           /* replace the current template with new ones honoring the decode value */
           queryTemplate.getName(), queryTemplate.getValues(), charset, collectionFormat,
           decodeSlash));
@@ -450,18 +512,18 @@ public final class RequestTemplate implements Serializable {
      * templates may provide query parameters. since we want to manage those explicity, we will need
      * to extract those out, leaving the uriTemplate with only the path to deal with.
      */
-    Matcher queryMatcher = QUERY_STRING_PATTERN.matcher(uri);
-    if (queryMatcher.find()) {
-      String queryString = uri.substring(queryMatcher.start() + 1);
+    int queryIndex = indexOfDelimiter(uri, '?');
+    if (queryIndex >= 0) {
+      String queryString = uri.substring(queryIndex + 1);
 
       /* parse the query string */
       this.extractQueryTemplates(queryString, append);
 
       /* reduce the uri to the path */
-      uri = uri.substring(0, queryMatcher.start());
+      uri = uri.substring(0, queryIndex);
     }
 
-    int fragmentIndex = uri.indexOf('#');
+    int fragmentIndex = indexOfDelimiter(uri, '#');
     if (fragmentIndex > -1) {
       fragment = uri.substring(fragmentIndex);
       uri = uri.substring(0, fragmentIndex);
@@ -638,12 +700,12 @@ public final class RequestTemplate implements Serializable {
                                       CollectionFormat collectionFormat) {
     if (!values.iterator().hasNext()) {
       /* empty value, clear the existing values */
-      this.queries.remove(name);
+      this.removeQuery(name);
       return this;
     }
 
     /* create a new query template out of the information here */
-    this.queries.compute(name, (key, queryTemplate) -> {
+    this.mutableQueries().compute(name, (key, queryTemplate) -> {
       if (queryTemplate == null) {
         return QueryTemplate.create(name, values, this.charset, collectionFormat, this.decodeSlash);
       } else {
@@ -653,6 +715,33 @@ public final class RequestTemplate implements Serializable {
     return this;
   }
 
+  /**
+   * Appends a query parameter whose name and values are already pct-encoded, taking them as
+   * literals instead of parsing them as templates. Empty values clear the parameter, as they do for
+   * {@link #query(String, Iterable)}.
+   *
+   * @param encodedName of the parameter.
+   * @param encodedValues for the parameter.
+   * @return a RequestTemplate for chaining.
+   */
+  RequestTemplate appendEncodedQuery(String encodedName, List<String> encodedValues) {
+    if (encodedValues.isEmpty()) {
+      this.removeQuery(encodedName);
+      return this;
+    }
+
+    this.mutableQueries().compute(encodedName, (key, queryTemplate) -> {
+      if (queryTemplate == null) {
+        return QueryTemplate.literal(encodedName, encodedValues, this.charset,
+            this.collectionFormat, this.decodeSlash);
+      } else {
+        return QueryTemplate.append(queryTemplate, encodedValues, this.collectionFormat,
+            this.decodeSlash);
+      }
+    });
+    return this;
+  }
+
   /**
    * Sets the Query Parameters.
    *
@@ -662,7 +751,7 @@ public final class RequestTemplate implements Serializable {
   @SuppressWarnings("unused")
   public RequestTemplate queries(Map<String, Collection<String>> queries) {
     if (queries == null || queries.isEmpty()) {
-      this.queries.clear();
+      this.clearQueries();
     } else {
       queries.forEach(this::query);
     }
@@ -736,7 +825,7 @@ public final class RequestTemplate implements Serializable {
     if (name == null || name.isEmpty()) {
       throw new IllegalArgumentException("name is required.");
     }
-    this.headers.remove(name);
+    this.removeHeaderTemplate(name);
     return this;
   }
 
@@ -750,18 +839,18 @@ public final class RequestTemplate implements Serializable {
   private RequestTemplate appendHeader(String name, Iterable<String> values) {
     if (!values.iterator().hasNext()) {
       /* empty value, clear the existing values */
-      this.headers.remove(name);
+      this.removeHeaderTemplate(name);
       return this;
     }
     if (name.equals("Content-Type")) {
       // a client can only produce content of one single type, so always override Content-Type and
       // only add a single type
-      this.headers.remove(name);
-      this.headers.put(name,
+      this.removeHeaderTemplate(name);
+      this.mutableHeaders().put(name,
           HeaderTemplate.create(name, Collections.singletonList(values.iterator().next())));
       return this;
     }
-    this.headers.compute(name, (headerName, headerTemplate) -> {
+    this.mutableHeaders().compute(name, (headerName, headerTemplate) -> {
       if (headerTemplate == null) {
         return HeaderTemplate.create(headerName, values);
       } else {
@@ -773,11 +862,11 @@ public final class RequestTemplate implements Serializable {
 
   private RequestTemplate appendHeader(String name, List<TemplateChunk> chunks) {
     if (chunks.isEmpty()) {
-      this.headers.remove(name);
+      this.removeHeaderTemplate(name);
       return this;
     }
 
-    this.headers.compute(name, (headerName, headerTemplate) -> {
+    this.mutableHeaders().compute(name, (headerName, headerTemplate) -> {
       if (headerTemplate == null) {
         return HeaderTemplate.from(name, chunks);
       } else {
@@ -797,7 +886,7 @@ public final class RequestTemplate implements Serializable {
     if (headers != null && !headers.isEmpty()) {
       headers.forEach(this::header);
     } else {
-      this.headers.clear();
+      this.clearHeaders();
     }
     return this;
   }
@@ -808,16 +897,17 @@ public final class RequestTemplate implements Serializable {
    * @return the currently applied headers.
    */
   public Map<String, Collection<String>> headers() {
-    Map<String, Collection<String>> headerMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    /* the templates are already sorted by name, ignoring case */
+    HttpHeaders.Builder headerMap = HttpHeaders.builder();
     this.headers.forEach((key, headerTemplate) -> {
-      List<String> values = new ArrayList<>(headerTemplate.getValues());
+      Collection<String> values = headerTemplate.getValues();
 
       /* add the expanded collection, but only if it has values */
       if (!values.isEmpty()) {
-        headerMap.put(key, Collections.unmodifiableList(values));
+        headerMap.add(key, values);
       }
     });
-    return Collections.unmodifiableMap(headerMap);
+    return headerMap.build();
   }
 
   /**
@@ -858,13 +948,28 @@ public final class RequestTemplate implements Serializable {
     this.bodyTemplate = null;
 
     header(CONTENT_LENGTH, Collections.emptyList());
-    if (body.length() > 0) {
-      header(CONTENT_LENGTH, String.valueOf(body.length()));
+    if (body.contentLength() > 0) {
+      header(CONTENT_LENGTH, String.valueOf(body.contentLength()));
     }
 
     return this;
   }
 
+  /**
+   * Set a Body written directly to the connection when the request is sent, instead of held in
+   * memory.
+   *
+   * @param writer of the body.
+   * @param length of the body, or {@code -1} if unknown.
+   * @param replayable false if {@code writer} can only be called once, the request is then never
+   *        retried.
+   * @return a RequestTemplate for chaining.
+   */
+  @Experimental
+  public RequestTemplate body(Request.Body.Writer writer, long length, boolean replayable) {
+    return body(Request.Body.streaming(writer, length, replayable, null));
+  }
+
   /**
    * Charset of the Request Body, if known.
    *
@@ -1006,10 +1111,53 @@ public final class RequestTemplate implements Serializable {
     return result;
   }
 
+  /**
+   * Finds a delimiter, ex. the {@code ?} starting the query string, that is not the operator of an
+   * expression such as {@code {?query}}.
+   *
+   * @return the index of the delimiter, or -1 if there is none.
+   */
+  private static int indexOfDelimiter(CharSequence uri, char delimiter) {
+    for (int i = 0, length = uri.length(); i < length; i++) {
+      if (uri.charAt(i) == delimiter && (i == 0 || uri.charAt(i - 1) != '{')) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Splits the query string on {@code &}, except within expressions such as {@code {&query}}.
+   */
+  private static List<String> splitQueryString(String queryString) {
+    List<String> pairs = new ArrayList<>();
+    int depth = 0;
+    int start = 0;
+    for (int i = 0; i < queryString.length(); i++) {
+      char c = queryString.charAt(i);
+      if (c == '{') {
+        depth++;
+      } else if (c == '}' && depth > 0) {
+        depth--;
+      } else if (c == '&' && depth == 0) {
+        pairs.add(queryString.substring(start, i));
+        start = i + 1;
+      }
+    }
+    pairs.add(queryString.substring(start));
+    if (pairs.size() > 1) {
+      /* drop trailing empty pairs, as String#split does */
+      while (!pairs.isEmpty() && pairs.get(pairs.size() - 1).isEmpty()) {
+        pairs.remove(pairs.size() - 1);
+      }
+    }
+    return pairs;
+  }
+
   private void extractQueryTemplates(String queryString, boolean append) {
     /* split the query string up into name value pairs */
     Map<String, List<String>> queryParameters =
-        Arrays.stream(queryString.split("&"))
+        splitQueryString(queryString).stream()
             .map(this::splitQueryParameter)
             .collect(Collectors.groupingBy(
                 SimpleImmutableEntry::getKey,
@@ -1019,7 +1167,7 @@ public final class RequestTemplate implements Serializable {
     /* add them to this template */
     if (!append) {
       /* clear the queries and use the new ones */
-      this.queries.clear();
+      this.clearQueries();
     }
     queryParameters.forEach(this::query);
   }
@@ -1053,6 +1201,62 @@ public final class RequestTemplate implements Serializable {
     return feignTarget;
   }
 
+  /**
+   * Sets the file the response body is written to, when decoded as a {@link Path}.
+   *
+   * @see DownloadTo
+   */
+  @Experimental
+  public RequestTemplate downloadTo(Path downloadTo) {
+    this.downloadTo = downloadTo;
+    return this;
+  }
+
+  @Experimental
+  public Path downloadTo() {
+    return downloadTo;
+  }
+
+  /* internal state read when compiling a RequestPlan */
+
+  UriTemplate uriTemplate() {
+    return uriTemplate;
+  }
+
+  Collection<QueryTemplate> queryTemplates() {
+    return Collections.unmodifiableCollection(queries.values());
+  }
+
+  Collection<HeaderTemplate> headerTemplates() {
+    return Collections.unmodifiableCollection(headers.values());
+  }
+
+  BodyTemplate bodyTemplateInstance() {
+    return bodyTemplate;
+  }
+
+  String targetUrl() {
+    return target;
+  }
+
+  String fragment() {
+    return fragment;
+  }
+
+  Charset charset() {
+    return charset;
+  }
+
+  /**
+   * Copies this template, keeping it resolved. Used to hand the template of a literal method,
+   * resolved once, to request interceptors.
+   */
+  RequestTemplate copyResolved() {
+    RequestTemplate copy = from(this);
+    copy.resolved = this.resolved;
+    return copy;
+  }
+
   /**
    * Factory for creating RequestTemplate.
    */
@@ -0,0 +1,259 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.checkNotNull;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+/**
+ * The parts of a {@link Request#url() request url}, split once and shared by whatever reads them:
+ * clients, load balancers and metrics. Parts are kept raw, that is pct-encoded as the template
+ * expanded them, so that clients can send them as is, without decoding and encoding them again.
+ *
+ * <p>
+ * Parsing is lenient: it only splits the url at its delimiters, as outlined in
+ * <a href="https://tools.ietf.org/html/rfc3986#section-3">RFC 3986 section 3</a>, without
+ * validating it. Invalid urls are reported by {@link #toURI()} and {@link #toURL()}, as they would
+ * be by {@link URI} and {@link URL}.
+ * </p>
+ */
+@Experimental
+public final class RequestUrl {
+
+  private final String url;
+  private final String scheme;
+  private final String userInfo;
+  private final String host;
+  private final int port;
+  private final String rawPath;
+  private final String rawQuery;
+  private final String rawFragment;
+  /* created on first use, equal instances may be created more than once */
+  private volatile URI uri;
+
+  private RequestUrl(String url, String scheme, String userInfo, String host, int port,
+      String rawPath, String rawQuery, String rawFragment) {
+    this.url = url;
+    this.scheme = scheme;
+    this.userInfo = userInfo;
+    this.host = host;
+    this.port = port;
+    this.rawPath = rawPath;
+    this.rawQuery = rawQuery;
+    this.rawFragment = rawFragment;
+  }
+
+  /**
+   * Splits {@code url} into its parts. A relative url, ex. {@code /path?query}, has no scheme nor
+   * host.
+   */
+  public static RequestUrl parse(String url) {
+    checkNotNull(url, "url");
+    int length = url.length();
+
+    int fragmentStart = url.indexOf('#');
+    int end = fragmentStart < 0 ? length : fragmentStart;
+    String rawFragment = fragmentStart < 0 ? null : url.substring(fragmentStart + 1);
+
+    int queryStart = url.indexOf('?');
+    if (queryStart > end) {
+      queryStart = -1;
+    }
+    String rawQuery = queryStart < 0 ? null : url.substring(queryStart + 1, end);
+    if (queryStart >= 0) {
+      end = queryStart;
+    }
+
+    int schemeEnd = schemeEnd(url, end);
+    if (schemeEnd < 0 || !url.startsWith("//", schemeEnd + 1)) {
+      /* relative, or without authority, ex. mailto: */
+      String scheme = schemeEnd < 0 ? null : url.substring(0, schemeEnd);
+      String rawPath = url.substring(schemeEnd + 1, end);
+      return new RequestUrl(url, scheme, null, null, -1, rawPath, rawQuery, rawFragment);
+    }
+
+    int authorityStart = schemeEnd + 3;
+    int pathStart = url.indexOf('/', authorityStart);
+    if (pathStart < 0 || pathStart > end) {
+      pathStart = end;
+    }
+
+    int hostStart = authorityStart;
+    int at = url.lastIndexOf('@', pathStart - 1);
+    String userInfo = null;
+    if (at >= authorityStart) {
+      userInfo = url.substring(authorityStart, at);
+      hostStart = at + 1;
+    }
+
+    /* an IPv6 address is in brackets, ex. [::1]:8080 */
+    int portStart = -1;
+    int bracket = url.lastIndexOf(']', pathStart - 1);
+    int colon = url.lastIndexOf(':', pathStart - 1);
+    if (colon >= hostStart && colon > bracket) {
+      portStart = colon + 1;
+    }
+    int hostEnd = portStart < 0 ? pathStart : portStart - 1;
+
+    int port = -1;
+    boolean validPort = true;
+    if (portStart >= 0 && portStart < pathStart) {
+      port = 0;
+      for (int i = portStart; i < pathStart && validPort; i++) {
+        char c = url.charAt(i);
+        port = port * 10 + (c - '0');
+        validPort = c >= '0' && c <= '9' && port <= 65535;
+      }
+      if (!validPort) {
+        port = -1;
+      }
+    }
+
+    return new RequestUrl(url, url.substring(0, schemeEnd), userInfo,
+        url.substring(hostStart, hostEnd), port, url.substring(pathStart, end),
+        rawQuery, rawFragment);
+  }
+
+  /* the index of the colon ending the scheme, or -1 if there is none */
+  private static int schemeEnd(String url, int end) {
+    for (int i = 0; i < end; i++) {
+      char c = url.charAt(i);
+      if (c == ':') {
+        return i > 0 ? i : -1;
+      }
+      boolean alpha = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+      if (!alpha && (i == 0 || !((c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.'))) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the scheme, ex. {@code https}, or {@literal null} if the url is relative.
+   */
+  public String scheme() {
+    return scheme;
+  }
+
+  /**
+   * @return the raw user information, or {@literal null} if there is none.
+   */
+  public String userInfo() {
+    return userInfo;
+  }
+
+  /**
+   * @return the host, IPv6 addresses in brackets, or {@literal null} if the url has no authority.
+   */
+  public String host() {
+    return host;
+  }
+
+  /**
+   * @return the port, or {@literal -1} if it isn't defined.
+   */
+  public int port() {
+    return port;
+  }
+
+  /**
+   * @return the raw path, empty if there is none.
+   */
+  public String rawPath() {
+    return rawPath;
+  }
+
+  /**
+   * @return the raw query, without the {@code ?}, or {@literal null} if there is none.
+   */
+  public String rawQuery() {
+    return rawQuery;
+  }
+
+  /**
+   * @return the raw fragment, without the {@code #}, or {@literal null} if there is none.
+   */
+  public String rawFragment() {
+    return rawFragment;
+  }
+
+  /**
+   * @return the raw path followed by the raw query, if any, as sent in a request line.
+   */
+  public String rawPathAndQuery() {
+    if (rawQuery == null) {
+      return rawPath;
+    }
+    return new StringBuilder(rawPath.length() + rawQuery.length() + 1)
+        .append(rawPath).append('?').append(rawQuery).toString();
+  }
+
+  /**
+   * The url as a {@link URI}, created once.
+   *
+   * @throws URISyntaxException if the url isn't a valid URI.
+   */
+  public URI toURI() throws URISyntaxException {
+    URI result = uri;
+    if (result == null) {
+      uri = result = new URI(url);
+    }
+    return result;
+  }
+
+  /**
+   * The url without its fragment as a {@link URI}, as sent by clients: the fragment is never part
+   * of a request.
+   *
+   * @throws URISyntaxException if the url isn't a valid URI.
+   */
+  public URI toURIWithoutFragment() throws URISyntaxException {
+    if (rawFragment == null) {
+      return toURI();
+    }
+    return new URI(url.substring(0, url.length() - rawFragment.length() - 1));
+  }
+
+  /**
+   * The url as a {@link URL}. {@link URL} parses faster than it can be created from parts, so this
+   * is a shortcut for {@code new URL(toString())}.
+   *
+   * @throws MalformedURLException if the url isn't a valid URL.
+   */
+  public URL toURL() throws MalformedURLException {
+    return new URL(url);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof RequestUrl && url.equals(((RequestUrl) obj).url);
+  }
+
+  @Override
+  public int hashCode() {
+    return url.hashCode();
+  }
+
+  /**
+   * @return the url, as given to {@link #parse(String)}.
+   */
+  @Override
+  public String toString() {
+    return url;
+  }
+}
@@ -15,6 +15,11 @@ package feign;
 
 import static feign.Util.*;
 import java.io.*;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
@@ -26,7 +31,7 @@ public final class Response implements Closeable {
 
   private final int status;
   private final String reason;
-  private final Map<String, Collection<String>> headers;
+  private final HttpHeaders headers;
   private final Body body;
   private final Request request;
 
@@ -36,16 +41,40 @@ public final class Response implements Closeable {
     this.request = builder.request;
     this.reason = builder.reason; // nullable
     this.headers = (builder.headers != null)
-        ? Collections.unmodifiableMap(caseInsensitiveCopyOf(builder.headers))
-        : new LinkedHashMap<>();
+        ? caseInsensitiveCopyOf(builder.headers)
+        : HttpHeaders.empty();
     this.body = builder.body; // nullable
 
   }
 
+  private Response(int status, String reason, HttpHeaders headers, Body body,
+      Request request) {
+    this.status = status;
+    this.reason = reason;
+    this.headers = headers;
+    this.body = body;
+    this.request = request;
+  }
+
   public Builder toBuilder() {
     return new Builder(this);
   }
 
+  /**
+   * Attaches the {@code request} to this response. Unlike {@link #toBuilder()}, the headers are not
+   * copied again.
+   *
+   * @return this response if it already refers to the request, otherwise a response sharing its
+   *         status, headers and body.
+   */
+  Response withRequest(Request request) {
+    checkNotNull(request, "request");
+    if (this.request == request) {
+      return this;
+    }
+    return new Response(status, reason, headers, body, request);
+  }
+
   public static Builder builder() {
     return new Builder();
   }
@@ -161,6 +190,13 @@ public final class Response implements Closeable {
     return headers;
   }
 
+  /**
+   * Returns the {@link #headers() headers}, with lookups that don't allocate.
+   */
+  public HttpHeaders httpHeaders() {
+    return headers;
+  }
+
   /**
    * if present, the response had a body
    */
@@ -181,11 +217,8 @@ public final class Response implements Closeable {
     if (reason != null)
       builder.append(' ').append(reason);
     builder.append('\n');
-    for (String field : headers.keySet()) {
-      for (String value : valuesOrEmpty(headers, field)) {
-        builder.append(field).append(": ").append(value).append('\n');
-      }
-    }
+    headers.forEachValue(
+        (field, value) -> builder.append(field).append(": ").append(value).append('\n'));
     if (body != null)
       builder.append('\n').append(body);
     return builder.toString();
@@ -233,10 +266,29 @@ public final class Response implements Closeable {
      * It is the responsibility of the caller to close the stream.
      */
     Reader asReader(Charset charset) throws IOException;
+
+    /**
+     * The whole body, for decoders that parse bytes. {@link #isRepeatable() Repeatable} bodies
+     * return a view of the data they hold, which must not be modified, nor used after the body is
+     * closed. Other bodies are read fully, so can't be read again.
+     */
+    default ByteBuffer asByteBuffer() throws IOException {
+      return ByteBuffer.wrap(toByteArray(asInputStream()));
+    }
+
+    /**
+     * It is the responsibility of the caller to close the channel.
+     */
+    default ReadableByteChannel asChannel() throws IOException {
+      return Channels.newChannel(asInputStream());
+    }
   }
 
   private static final class InputStreamBody implements Response.Body {
 
+    /* the largest buffer the default pool holds */
+    private static final int MAX_PRESIZED_LENGTH = 64 * 1024;
+
     private final InputStream inputStream;
     private final Integer length;
 
@@ -279,6 +331,33 @@ public final class Response implements Closeable {
       return new InputStreamReader(inputStream, charset);
     }
 
+    /*
+     * reads into an array of the known length, instead of growing one. The length comes from the
+     * server, so larger bodies grow as they're read.
+     */
+    @Override
+    public ByteBuffer asByteBuffer() throws IOException {
+      if (length == null || length > MAX_PRESIZED_LENGTH) {
+        return ByteBuffer.wrap(toByteArray(inputStream));
+      }
+      byte[] data = new byte[length];
+      int read = 0;
+      for (int n; read < length && (n = inputStream.read(data, read, length - read)) != -1;) {
+        read += n;
+      }
+      int next = read < length ? -1 : inputStream.read();
+      if (next == -1) {
+        return ByteBuffer.wrap(data, 0, read);
+      }
+      /* longer than its length claimed */
+      try (PooledOutputStream out = new PooledOutputStream(BufferPool.shared(), length + 1)) {
+        out.write(data, 0, read);
+        out.write(next);
+        out.readFrom(inputStream);
+        return ByteBuffer.wrap(out.toByteArray());
+      }
+    }
+
     @Override
     public void close() throws IOException {
       inputStream.close();
@@ -344,6 +423,16 @@ public final class Response implements Closeable {
       return new InputStreamReader(asInputStream(), charset);
     }
 
+    @Override
+    public ByteBuffer asByteBuffer() {
+      return ByteBuffer.wrap(data);
+    }
+
+    @Override
+    public ReadableByteChannel asChannel() {
+      return new ByteBufferChannel(ByteBuffer.wrap(data));
+    }
+
     @Override
     public void close() throws IOException {}
 
@@ -353,17 +442,54 @@ public final class Response implements Closeable {
     }
   }
 
-  private static Map<String, Collection<String>> caseInsensitiveCopyOf(Map<String, Collection<String>> headers) {
-    Map<String, Collection<String>> result =
-        new TreeMap<String, Collection<String>>(String.CASE_INSENSITIVE_ORDER);
+  /**
+   * Reads a buffer already in memory, without the intermediate copy of
+   * {@link Channels#newChannel(InputStream)}.
+   */
+  static final class ByteBufferChannel implements ReadableByteChannel {
+
+    private final ByteBuffer source;
+    private boolean open = true;
+
+    ByteBufferChannel(ByteBuffer source) {
+      this.source = source;
+    }
 
-    for (Map.Entry<String, Collection<String>> entry : headers.entrySet()) {
-      String headerName = entry.getKey();
-      if (!result.containsKey(headerName)) {
-        result.put(headerName.toLowerCase(Locale.ROOT), new LinkedList<String>());
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      if (!open) {
+        throw new ClosedChannelException();
       }
-      result.get(headerName).addAll(entry.getValue());
+      if (!source.hasRemaining()) {
+        return -1;
+      }
+      int read = Math.min(dst.remaining(), source.remaining());
+      /* through Buffer, as ByteBuffer only overrides these from java 9 */
+      ByteBuffer slice = source.duplicate();
+      ((Buffer) slice).limit(slice.position() + read);
+      dst.put(slice);
+      ((Buffer) source).position(source.position() + read);
+      return read;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void close() {
+      open = false;
+    }
+  }
+
+  /**
+   * Lower cases and sorts the header names, unless a client already built them that way.
+   */
+  private static HttpHeaders caseInsensitiveCopyOf(Map<String, Collection<String>> headers) {
+    if (headers instanceof HttpHeaders && ((HttpHeaders) headers).hasLowerCaseSortedNames()) {
+      return (HttpHeaders) headers;
     }
-    return result;
+    return HttpHeaders.builder().lowerCaseNames().sortedNames().addAll(headers).build();
   }
 }
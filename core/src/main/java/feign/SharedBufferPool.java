@@ -0,0 +1,41 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Holds the {@link BufferPool#shared() shared} pool, loaded once on first use.
+ */
+final class SharedBufferPool {
+
+  static final BufferPool INSTANCE = load();
+
+  private SharedBufferPool() {}
+
+  private static BufferPool load() {
+    try {
+      Iterator<BufferPool> services =
+          ServiceLoader.load(BufferPool.class, BufferPool.class.getClassLoader()).iterator();
+      if (services.hasNext()) {
+        return services.next();
+      }
+    } catch (ServiceConfigurationError e) {
+      /* a broken registration shouldn't break requests, use the default */
+    }
+    return new BufferPool.Default();
+  }
+}
@@ -15,10 +15,8 @@ package feign;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Stream;
+import java.util.function.Function;
 import feign.InvocationHandlerFactory.MethodHandler;
 import feign.Request.Options;
 import feign.codec.Decoder;
@@ -39,6 +37,11 @@ final class SynchronousMethodHandler implements MethodHandler {
   private final Logger logger;
   private final Logger.Level logLevel;
   private final RequestTemplate.Factory buildTemplateFromArgs;
+  private final RequestPlan requestPlan; // Nullable
+  private final Function<Object[], RequestTemplate> plannedTemplate = this::plannedTemplate;
+  /* literal methods with interceptors resolve their template once, then copy it */
+  private final boolean literal;
+  private volatile RequestTemplate literalTemplate;
   private final Options options;
   private final ExceptionPropagationPolicy propagationPolicy;
 
@@ -50,7 +53,7 @@ final class SynchronousMethodHandler implements MethodHandler {
   private SynchronousMethodHandler(Target<?> target, Client client, Retryer retryer,
       List<RequestInterceptor> requestInterceptors, Logger logger,
       Logger.Level logLevel, MethodMetadata metadata,
-      RequestTemplate.Factory buildTemplateFromArgs, Options options,
+      RequestTemplate.Factory buildTemplateFromArgs, RequestPlan requestPlan, Options options,
       Decoder decoder, ErrorDecoder errorDecoder, boolean decode404,
       boolean closeAfterDecode, ExceptionPropagationPolicy propagationPolicy,
       boolean forceDecoding) {
@@ -64,6 +67,9 @@ final class SynchronousMethodHandler implements MethodHandler {
     this.logLevel = checkNotNull(logLevel, "logLevel for %s", target);
     this.metadata = checkNotNull(metadata, "metadata for %s", target);
     this.buildTemplateFromArgs = checkNotNull(buildTemplateFromArgs, "metadata for %s", target);
+    /* interceptors may modify the template, so they need it to be resolved */
+    this.requestPlan = requestInterceptors.isEmpty() ? requestPlan : null;
+    this.literal = requestPlan != null && requestPlan.isLiteral() && this.requestPlan == null;
     this.options = checkNotNull(options, "options for %s", target);
     this.propagationPolicy = propagationPolicy;
 
@@ -81,13 +87,24 @@ final class SynchronousMethodHandler implements MethodHandler {
 
   @Override
   public Object invoke(Object[] argv) throws Throwable {
-    RequestTemplate template = buildTemplateFromArgs.create(argv);
+    Request request = requestPlan != null ? requestPlan.request(argv, plannedTemplate) : null;
+    RequestTemplate template = request == null ? createTemplate(argv) : null;
     Options options = findOptions(argv);
-    Retryer retryer = this.retryer.clone();
+    Retryer retryer = null;
     while (true) {
+      Request sent = request != null ? request : targetRequest(template);
       try {
-        return executeAndDecode(template, options);
+        return executeAndDecode(sent, options);
       } catch (RetryableException e) {
+        if (sent.requestBody() != null && !sent.requestBody().isReplayable()) {
+          /* the body was consumed, it can't be sent again */
+          Throwable cause = e.getCause();
+          throw propagationPolicy == UNWRAP && cause != null ? cause : e;
+        }
+        if (retryer == null) {
+          /* most calls never retry, only pay for the retryer state when they do */
+          retryer = this.retryer.clone();
+        }
         try {
           retryer.continueOrPropagate(e);
         } catch (RetryableException th) {
@@ -106,9 +123,7 @@ final class SynchronousMethodHandler implements MethodHandler {
     }
   }
 
-  Object executeAndDecode(RequestTemplate template, Options options) throws Throwable {
-    Request request = targetRequest(template);
-
+  Object executeAndDecode(Request request, Options options) throws Throwable {
     if (logLevel != Logger.Level.NONE) {
       logger.logRequest(metadata.configKey(), logLevel, request);
     }
@@ -116,12 +131,8 @@ final class SynchronousMethodHandler implements MethodHandler {
     Response response;
     long start = System.nanoTime();
     try {
-      response = client.execute(request, options);
       // ensure the request is set. TODO: remove in Feign 12
-      response = response.toBuilder()
-          .request(request)
-          .requestTemplate(template)
-          .build();
+      response = client.execute(request, options).withRequest(request);
     } catch (IOException e) {
       if (logLevel != Logger.Level.NONE) {
         logger.logIOException(metadata.configKey(), logLevel, e, elapsedTime(start));
@@ -134,28 +145,35 @@ final class SynchronousMethodHandler implements MethodHandler {
     if (decoder != null)
       return decoder.decode(response, metadata.returnType());
 
-    CompletableFuture<Object> resultFuture = new CompletableFuture<>();
-    asyncResponseHandler.handleResponse(resultFuture, metadata.configKey(), response,
-        metadata.returnType(),
-        elapsedTime);
-
-    try {
-      if (!resultFuture.isDone())
-        throw new IllegalStateException("Response handling not done");
-
-      return resultFuture.join();
-    } catch (CompletionException e) {
-      Throwable cause = e.getCause();
-      if (cause != null)
-        throw cause;
-      throw e;
-    }
+    return asyncResponseHandler.handleResponse(metadata.configKey(), response,
+        metadata.returnType(), elapsedTime);
   }
 
   long elapsedTime(long start) {
     return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
   }
 
+  /* the template a planned request would have been created from */
+  private RequestTemplate plannedTemplate(Object[] argv) {
+    RequestTemplate template = buildTemplateFromArgs.create(argv);
+    target.apply(template);
+    return template;
+  }
+
+  private RequestTemplate createTemplate(Object[] argv) {
+    if (!literal) {
+      return buildTemplateFromArgs.create(argv);
+    }
+    RequestTemplate template = literalTemplate;
+    if (template == null) {
+      /* the arguments aren't used, don't keep these ones alive with the shared template */
+      literalTemplate = template =
+          buildTemplateFromArgs.create(argv != null ? new Object[argv.length] : null).freeze();
+    }
+    /* interceptors modify the template they are given */
+    return template.copyResolved();
+  }
+
   Request targetRequest(RequestTemplate template) {
     for (RequestInterceptor interceptor : requestInterceptors) {
       interceptor.apply(template);
@@ -167,11 +185,12 @@ final class SynchronousMethodHandler implements MethodHandler {
     if (argv == null || argv.length == 0) {
       return this.options;
     }
-    return Stream.of(argv)
-        .filter(Options.class::isInstance)
-        .map(Options.class::cast)
-        .findFirst()
-        .orElse(this.options);
+    for (Object arg : argv) {
+      if (arg instanceof Options) {
+        return (Options) arg;
+      }
+    }
+    return this.options;
   }
 
   static class Factory {
@@ -203,11 +222,12 @@ final class SynchronousMethodHandler implements MethodHandler {
     public MethodHandler create(Target<?> target,
                                 MethodMetadata md,
                                 RequestTemplate.Factory buildTemplateFromArgs,
+                                RequestPlan requestPlan,
                                 Options options,
                                 Decoder decoder,
                                 ErrorDecoder errorDecoder) {
       return new SynchronousMethodHandler(target, client, retryer, requestInterceptors, logger,
-          logLevel, md, buildTemplateFromArgs, options, decoder,
+          logLevel, md, buildTemplateFromArgs, requestPlan, options, decoder,
           errorDecoder, decode404, closeAfterDecode, propagationPolicy, forceDecoding);
     }
   }
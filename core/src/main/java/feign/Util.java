@@ -13,7 +13,6 @@
  */
 package feign;
 
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
@@ -300,9 +299,8 @@ public class Util {
    */
   public static byte[] toByteArray(InputStream in) throws IOException {
     checkNotNull(in, "in");
-    try {
-      ByteArrayOutputStream out = new ByteArrayOutputStream();
-      copy(in, out);
+    try (PooledOutputStream out = new PooledOutputStream()) {
+      out.readFrom(in);
       return out.toByteArray();
     } finally {
       ensureClosed(in);
@@ -311,22 +309,29 @@ public class Util {
 
   /**
    * Adapted from {@code com.google.common.io.ByteStreams.copy()}.
+   *
+   * @return the number of bytes copied.
    */
-  private static long copy(InputStream from, OutputStream to)
+  public static long copy(InputStream from, OutputStream to)
       throws IOException {
     checkNotNull(from, "from");
     checkNotNull(to, "to");
-    byte[] buf = new byte[BUF_SIZE];
-    long total = 0;
-    while (true) {
-      int r = from.read(buf);
-      if (r == -1) {
-        break;
+    BufferPool pool = BufferPool.shared();
+    byte[] buf = pool.acquire(BUF_SIZE);
+    try {
+      long total = 0;
+      while (true) {
+        int r = from.read(buf);
+        if (r == -1) {
+          break;
+        }
+        to.write(buf, 0, r);
+        total += r;
       }
-      to.write(buf, 0, r);
-      total += r;
+      return total;
+    } finally {
+      pool.release(buf);
     }
-    return total;
   }
 
   public static String decodeOrDefault(byte[] data, Charset charset, String defaultValue) {
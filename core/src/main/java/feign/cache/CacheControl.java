@@ -0,0 +1,122 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The {@code Cache-Control} directives used by {@link ResponseCache}, of a request or a response.
+ * See <a href="https://tools.ietf.org/html/rfc7234#section-5.2">RFC 7234, section 5.2</a>.
+ */
+final class CacheControl {
+
+  static final CacheControl NONE = new CacheControl(false, false, -1, -1, false);
+
+  final boolean noStore;
+  final boolean noCache;
+  final long maxAgeSeconds;
+  final long minFreshSeconds;
+  /* public, s-maxage or must-revalidate, see RFC 7234, section 3.2 */
+  final boolean sharesAuthorized;
+
+  private CacheControl(boolean noStore, boolean noCache, long maxAgeSeconds,
+      long minFreshSeconds, boolean sharesAuthorized) {
+    this.noStore = noStore;
+    this.noCache = noCache;
+    this.maxAgeSeconds = maxAgeSeconds;
+    this.minFreshSeconds = minFreshSeconds;
+    this.sharesAuthorized = sharesAuthorized;
+  }
+
+  static CacheControl parse(Collection<String> values) {
+    if (values == null || values.isEmpty()) {
+      return NONE;
+    }
+    boolean noStore = false;
+    boolean noCache = false;
+    long maxAge = -1;
+    long minFresh = -1;
+    boolean sharesAuthorized = false;
+    for (String value : values) {
+      for (String directive : split(value)) {
+        int equals = directive.indexOf('=');
+        String name = (equals < 0 ? directive : directive.substring(0, equals)).trim()
+            .toLowerCase(Locale.US);
+        String argument = equals < 0 ? null : unquote(directive.substring(equals + 1).trim());
+        switch (name) {
+          case "no-store":
+            noStore = true;
+            break;
+          case "no-cache":
+            noCache = true;
+            break;
+          case "max-age":
+            maxAge = seconds(argument, maxAge);
+            break;
+          case "min-fresh":
+            minFresh = seconds(argument, minFresh);
+            break;
+          case "public":
+          case "s-maxage":
+          case "must-revalidate":
+            sharesAuthorized = true;
+            break;
+          default:
+            // other directives don't change what a private cache does here
+        }
+      }
+    }
+    return new CacheControl(noStore, noCache, maxAge, minFresh, sharesAuthorized);
+  }
+
+  /* splits on commas outside of quoted strings, ex. no-cache="Set-Cookie, Set-Cookie2" */
+  private static String[] split(String value) {
+    List<String> result = new ArrayList<>();
+    boolean quoted = false;
+    int start = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        quoted = !quoted;
+      } else if (c == ',' && !quoted) {
+        result.add(value.substring(start, i));
+        start = i + 1;
+      }
+    }
+    result.add(value.substring(start));
+    return result.toArray(new String[0]);
+  }
+
+  private static String unquote(String argument) {
+    if (argument.length() >= 2 && argument.startsWith("\"") && argument.endsWith("\"")) {
+      return argument.substring(1, argument.length() - 1);
+    }
+    return argument;
+  }
+
+  private static long seconds(String argument, long otherwise) {
+    if (argument == null) {
+      return otherwise;
+    }
+    try {
+      return Math.max(0, Long.parseLong(argument));
+    } catch (NumberFormatException e) {
+      // delta-seconds larger than a long are to be treated as 2^31, see section 1.2.1
+      return argument.matches("[0-9]+") ? Integer.MAX_VALUE : otherwise;
+    }
+  }
+}
@@ -0,0 +1,222 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import feign.HttpHeaders;
+import feign.Request;
+import feign.Response;
+
+/**
+ * A stored response, with what is needed to compute its age and to revalidate it. Immutable: a
+ * revalidation replaces the entry.
+ */
+final class CacheEntry {
+
+  final int status;
+  final String reason;
+  final Map<String, Collection<String>> headers;
+  final byte[] body;
+  /* values of the request headers named by Vary, when the response was stored */
+  final Map<String, Collection<String>> varyValues;
+  final long requestTimeMillis;
+  final long responseTimeMillis;
+  final long freshnessLifetimeMillis;
+  final boolean noCache;
+  /* whether it may be returned to requests with Authorization */
+  final boolean sharesAuthorized;
+  final String etag;
+  final String lastModified;
+  final long weight;
+  private final long correctedInitialAgeMillis;
+
+  CacheEntry(Response response, byte[] body, Map<String, Collection<String>> varyValues,
+      long requestTimeMillis, long responseTimeMillis) {
+    this(response.status(), response.reason(), response.headers(), body, varyValues,
+        requestTimeMillis, responseTimeMillis);
+  }
+
+  private CacheEntry(int status, String reason, Map<String, Collection<String>> headers,
+      byte[] body, Map<String, Collection<String>> varyValues, long requestTimeMillis,
+      long responseTimeMillis) {
+    this.status = status;
+    this.reason = reason;
+    this.headers = headers;
+    this.body = body;
+    this.varyValues = varyValues;
+    this.requestTimeMillis = requestTimeMillis;
+    this.responseTimeMillis = responseTimeMillis;
+
+    CacheControl cacheControl = CacheControl.parse(header(headers, "Cache-Control"));
+    long date = parseDate(first(headers, "Date"));
+    this.noCache = cacheControl.noCache;
+    this.sharesAuthorized = cacheControl.sharesAuthorized;
+    this.freshnessLifetimeMillis =
+        freshnessLifetime(cacheControl, first(headers, "Expires"), date, responseTimeMillis);
+    this.etag = first(headers, "ETag");
+    this.lastModified = first(headers, "Last-Modified");
+    this.correctedInitialAgeMillis =
+        correctedInitialAge(date, first(headers, "Age"), requestTimeMillis, responseTimeMillis);
+    this.weight = weight(headers, body);
+  }
+
+  /**
+   * @return the response headers, freshened by a {@code 304 Not Modified} response.
+   */
+  CacheEntry revalidated(Response notModified, long requestTimeMillis, long responseTimeMillis) {
+    Map<String, Collection<String>> merged = new LinkedHashMap<>(headers);
+    for (Entry<String, Collection<String>> header : notModified.headers().entrySet()) {
+      if (!header.getKey().equalsIgnoreCase("Content-Length")) {
+        merged.remove(header.getKey());
+        merged.put(header.getKey(), header.getValue());
+      }
+    }
+    return new CacheEntry(status, reason, Collections.unmodifiableMap(merged), body, varyValues,
+        requestTimeMillis, responseTimeMillis);
+  }
+
+  /**
+   * Whether the entry may be used without revalidation, see RFC 7234, section 4.2.
+   */
+  boolean isFresh(CacheControl request, long nowMillis) {
+    if (noCache || request.noCache || freshnessLifetimeMillis < 0) {
+      return false;
+    }
+    long age = currentAgeMillis(nowMillis);
+    if (request.maxAgeSeconds >= 0 && age > request.maxAgeSeconds * 1000) {
+      return false;
+    }
+    long minFresh = Math.max(0, request.minFreshSeconds) * 1000;
+    return freshnessLifetimeMillis - minFresh > age;
+  }
+
+  boolean hasValidators() {
+    return etag != null || lastModified != null;
+  }
+
+  boolean matchesVary(Request request) {
+    for (Entry<String, Collection<String>> vary : varyValues.entrySet()) {
+      if (!Objects.equals(vary.getValue(), header(request.headers(), vary.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  Response toResponse(Request request, long nowMillis) {
+    Map<String, Collection<String>> result = new LinkedHashMap<>(headers);
+    result.put("Age",
+        Collections.singletonList(String.valueOf(currentAgeMillis(nowMillis) / 1000)));
+    return Response.builder()
+        .status(status)
+        .reason(reason)
+        .headers(result)
+        .body(body)
+        .request(request)
+        .build();
+  }
+
+  /* see RFC 7234, section 4.2.3 */
+  long currentAgeMillis(long nowMillis) {
+    return correctedInitialAgeMillis + Math.max(0, nowMillis - responseTimeMillis);
+  }
+
+  private static long correctedInitialAge(long date,
+                                          String age,
+                                          long requestTimeMillis,
+                                          long responseTimeMillis) {
+    long apparentAge = date < 0 ? 0 : Math.max(0, responseTimeMillis - date);
+    long ageValue = 0;
+    if (age != null) {
+      try {
+        ageValue = Math.max(0, Long.parseLong(age.trim())) * 1000;
+      } catch (NumberFormatException ignored) {
+        // an invalid Age is ignored
+      }
+    }
+    long correctedAgeValue = ageValue + (responseTimeMillis - requestTimeMillis);
+    return Math.max(apparentAge, correctedAgeValue);
+  }
+
+  /* see RFC 7234, section 4.2.1. Heuristic freshness is not used: -1 means none. */
+  private static long freshnessLifetime(CacheControl cacheControl,
+                                        String expires,
+                                        long date,
+                                        long responseTimeMillis) {
+    if (cacheControl.maxAgeSeconds >= 0) {
+      return cacheControl.maxAgeSeconds * 1000;
+    }
+    if (expires == null) {
+      return -1;
+    }
+    long expiresMillis = parseDate(expires);
+    if (expiresMillis < 0) {
+      /* an invalid date, ex. "0", means already expired */
+      return 0;
+    }
+    return Math.max(0, expiresMillis - (date >= 0 ? date : responseTimeMillis));
+  }
+
+  private static long weight(Map<String, Collection<String>> headers, byte[] body) {
+    long result = body != null ? body.length : 0;
+    for (Entry<String, Collection<String>> header : headers.entrySet()) {
+      result += header.getKey().length();
+      for (String value : header.getValue()) {
+        result += value.length();
+      }
+    }
+    return result;
+  }
+
+  static long parseDate(String value) {
+    if (value == null) {
+      return -1;
+    }
+    try {
+      return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant()
+          .toEpochMilli();
+    } catch (DateTimeParseException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Looks up a header by name, ignoring case, as request headers may be case sensitive.
+   */
+  static Collection<String> header(Map<String, Collection<String>> headers, String name) {
+    Collection<String> values = headers.get(name);
+    if (values != null || headers instanceof HttpHeaders) {
+      return values;
+    }
+    for (Entry<String, Collection<String>> header : headers.entrySet()) {
+      if (name.equalsIgnoreCase(header.getKey())) {
+        return header.getValue();
+      }
+    }
+    return null;
+  }
+
+  static String first(Map<String, Collection<String>> headers, String name) {
+    Collection<String> values = header(headers, name);
+    return values == null || values.isEmpty() ? null : values.iterator().next();
+  }
+}
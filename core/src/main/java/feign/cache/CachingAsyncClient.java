@@ -0,0 +1,68 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import static feign.Util.checkNotNull;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import feign.AsyncClient;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * The {@link AsyncClient} counterpart of {@link CachingClient}. Fresh hits complete immediately, on
+ * the calling thread.
+ */
+public class CachingAsyncClient<C> implements AsyncClient<C> {
+
+  private final AsyncClient<C> delegate;
+  private final ResponseCache cache;
+
+  public CachingAsyncClient(AsyncClient<C> delegate, ResponseCache cache) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.cache = checkNotNull(cache, "cache");
+  }
+
+  @Override
+  public CompletableFuture<Response> execute(Request request,
+                                             Options options,
+                                             Optional<C> requestContext) {
+    ResponseCache.Lookup lookup = cache.lookup(request);
+    if (lookup.cached != null) {
+      return CompletableFuture.completedFuture(lookup.cached);
+    }
+    CompletableFuture<Response> network =
+        delegate.execute(lookup.networkRequest, options, requestContext);
+    CompletableFuture<Response> result = new CompletableFuture<>();
+    network.whenComplete((response, error) -> {
+      if (error != null) {
+        result.completeExceptionally(error);
+        return;
+      }
+      try {
+        result.complete(cache.update(lookup, response));
+      } catch (IOException | RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+    });
+    result.whenComplete((response, error) -> {
+      if (result.isCancelled()) {
+        network.cancel(true);
+      }
+    });
+    return result;
+  }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import static feign.Util.checkNotNull;
+import java.io.IOException;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * Serves requests of a {@link Client} from a {@link ResponseCache} when allowed by HTTP caching,
+ * and stores cacheable responses in it.
+ *
+ * <pre>
+ * ResponseCache cache = new ResponseCache(10 * 1024 * 1024);
+ * GitHub github = Feign.builder()
+ *     .client(new CachingClient(new Client.Default(null, null), cache))
+ *     .target(GitHub.class, "https://api.github.com");
+ * </pre>
+ */
+public class CachingClient implements Client {
+
+  private final Client delegate;
+  private final ResponseCache cache;
+
+  public CachingClient(Client delegate, ResponseCache cache) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.cache = checkNotNull(cache, "cache");
+  }
+
+  @Override
+  public Response execute(Request request, Options options) throws IOException {
+    ResponseCache.Lookup lookup = cache.lookup(request);
+    if (lookup.cached != null) {
+      return lookup.cached;
+    }
+    return cache.update(lookup, delegate.execute(lookup.networkRequest, options));
+  }
+}
@@ -0,0 +1,399 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import static feign.Util.checkArgument;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import feign.PooledOutputStream;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Response;
+import feign.Util;
+
+/**
+ * A bounded, in memory, private HTTP cache following
+ * <a href="https://tools.ietf.org/html/rfc7234">RFC 7234</a>, used by {@link CachingClient} and
+ * {@link CachingAsyncClient}. Can be shared by several clients.
+ *
+ * <p>
+ * {@code GET} responses are stored when they are explicitly fresh, per {@code Cache-Control:
+ * max-age} or {@code Expires}, or have a validator, {@code ETag} or {@code Last-Modified}. Fresh
+ * entries are returned without a network round-trip, stale ones are revalidated with
+ * {@code If-None-Match} and {@code If-Modified-Since}. {@code Vary} and {@code no-store} are
+ * honored, and unsafe requests, ex. {@code POST}, invalidate what is stored for their url.
+ * Responses to requests with {@code Authorization} are only stored, and returned to them, when
+ * marked {@code public}, {@code s-maxage} or {@code must-revalidate}.
+ * </p>
+ *
+ * <p>
+ * Entries are evicted least recently used first, once their total size, bodies and headers, exceeds
+ * {@code maxBytes}. A single entry may use at most a quarter of it.
+ * </p>
+ */
+public final class ResponseCache {
+
+  private static final int[] CACHEABLE_BY_DEFAULT =
+      {200, 203, 204, 300, 301, 404, 405, 410, 414, 501};
+
+  private final long maxBytes;
+  private final long maxEntryBytes;
+  private final Clock clock;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder revalidations = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public ResponseCache(long maxBytes) {
+    this(maxBytes, Clock.systemUTC());
+  }
+
+  ResponseCache(long maxBytes, Clock clock) {
+    checkArgument(maxBytes > 0, "maxBytes must be positive");
+    this.maxBytes = maxBytes;
+    /* entries are held in a byte array */
+    this.maxEntryBytes = Math.min(Math.max(1, maxBytes / 4), Integer.MAX_VALUE - 8);
+    this.clock = clock;
+  }
+
+  /**
+   * Responses returned from the cache, without a network round-trip.
+   */
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Cacheable requests sent to the network, excluding revalidations.
+   */
+  public long missCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Stale entries the server confirmed with {@code 304 Not Modified}.
+   */
+  public long revalidationCount() {
+    return revalidations.sum();
+  }
+
+  public long evictionCount() {
+    return evictions.sum();
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The size of the entries, bodies and headers, in bytes.
+   */
+  public long weight() {
+    lock.lock();
+    try {
+      return bytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void clear() {
+    lock.lock();
+    try {
+      entries.clear();
+      bytes = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Decides how to execute {@code request}: from the cache, conditionally, or unchanged.
+   */
+  Lookup lookup(Request request) {
+    long now = clock.millis();
+    if (request.httpMethod() != HttpMethod.GET || request.body() != null) {
+      return new Lookup(request, request, null, null, now, false);
+    }
+    CacheControl cacheControl =
+        CacheControl.parse(CacheEntry.header(request.headers(), "Cache-Control"));
+    if (cacheControl.noStore) {
+      return new Lookup(request, request, null, null, now, false);
+    }
+    CacheEntry entry = get(request.url());
+    if (entry != null && !isVariantOf(entry, request)) {
+      entry = null;
+    }
+    if (entry != null && entry.isFresh(cacheControl, now)) {
+      hits.increment();
+      return new Lookup(request, request, entry, entry.toResponse(request, now), now, true);
+    }
+    if (entry != null && entry.hasValidators()) {
+      return new Lookup(request, conditional(request, entry), entry, null, now, true);
+    }
+    misses.increment();
+    return new Lookup(request, request, null, null, now, true);
+  }
+
+  /**
+   * Stores, or revalidates, from the {@code response} to a request {@link #lookup(Request) looked
+   * up} before.
+   *
+   * @return the response to return to the caller.
+   */
+  Response update(Lookup lookup, Response response) throws IOException {
+    long now = clock.millis();
+    Request request = lookup.request;
+    if (!lookup.cacheable) {
+      if (!isSafe(request.httpMethod()) && response.status() < 400) {
+        remove(request.url());
+      }
+      return response;
+    }
+    if (response.status() == 304 && lookup.stale != null) {
+      Util.ensureClosed(response);
+      revalidations.increment();
+      CacheEntry revalidated = lookup.stale.revalidated(response, lookup.requestTimeMillis, now);
+      put(request.url(), revalidated);
+      return revalidated.toResponse(request, now);
+    }
+    if (lookup.stale != null) {
+      misses.increment();
+    }
+    if (!isCacheable(request, response)) {
+      /*
+       * only the variant this response replaces is invalid, not one for other request headers, and
+       * a 304 to the caller's own conditional request replaces nothing
+       */
+      if (lookup.stale != null) {
+        remove(request.url());
+      } else if (response.status() != 304) {
+        removeVariantOf(request);
+      }
+      return response;
+    }
+    if (!isStorable(request, response) || contentLength(response) > maxEntryBytes) {
+      return response;
+    }
+    byte[] body = null;
+    if (response.body() != null) {
+      InputStream in = response.body().asInputStream();
+      boolean passedThrough = false;
+      try (PooledOutputStream buffer = new PooledOutputStream()) {
+        if (buffer.readFrom(in, maxEntryBytes + 1) > maxEntryBytes) {
+          /* too large to store: the caller reads what was buffered, then the rest */
+          InputStream passThrough =
+              new SequenceInputStream(new ByteArrayInputStream(buffer.toByteArray()), in);
+          passedThrough = true;
+          return response.toBuilder().body(passThrough, response.body().length()).build();
+        }
+        body = buffer.toByteArray();
+      } finally {
+        if (!passedThrough) {
+          Util.ensureClosed(response);
+        }
+      }
+    }
+    put(request.url(),
+        new CacheEntry(response, body, varyValues(request, response), lookup.requestTimeMillis,
+            now));
+    return response.toBuilder().body(body).request(request).build();
+  }
+
+  /**
+   * Whether the headers allow storing the response: it must be explicitly fresh or have a
+   * validator, and to a request with {@code Authorization}, be shared, see RFC 7234, section 3.
+   */
+  private static boolean isStorable(Request request, Response response) {
+    Map<String, Collection<String>> headers = response.headers();
+    CacheControl cacheControl = CacheControl.parse(CacheEntry.header(headers, "Cache-Control"));
+    if (isAuthorized(request) && !cacheControl.sharesAuthorized) {
+      return false;
+    }
+    return cacheControl.maxAgeSeconds >= 0 || CacheEntry.first(headers, "Expires") != null
+        || CacheEntry.first(headers, "ETag") != null
+        || CacheEntry.first(headers, "Last-Modified") != null;
+  }
+
+  /**
+   * Whether {@code entry} may be returned to {@code request}: it was stored for the same values of
+   * the headers it varies on and, to a request with {@code Authorization}, is shared.
+   */
+  private static boolean isVariantOf(CacheEntry entry, Request request) {
+    return entry.matchesVary(request) && (!isAuthorized(request) || entry.sharesAuthorized);
+  }
+
+  private static boolean isAuthorized(Request request) {
+    return CacheEntry.header(request.headers(), "Authorization") != null;
+  }
+
+  private static long contentLength(Response response) {
+    String contentLength = CacheEntry.first(response.headers(), "Content-Length");
+    try {
+      return contentLength != null ? Long.parseLong(contentLength.trim()) : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private static boolean isSafe(HttpMethod method) {
+    return method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS
+        || method == HttpMethod.TRACE;
+  }
+
+  private static boolean isCacheable(Request request, Response response) {
+    boolean cacheableStatus = false;
+    for (int status : CACHEABLE_BY_DEFAULT) {
+      cacheableStatus |= status == response.status();
+    }
+    if (!cacheableStatus) {
+      return false;
+    }
+    if (CacheControl.parse(CacheEntry.header(response.headers(), "Cache-Control")).noStore) {
+      return false;
+    }
+    Collection<String> vary = CacheEntry.header(response.headers(), "Vary");
+    return vary == null || !vary.stream().anyMatch(value -> value.trim().equals("*"));
+  }
+
+  private static Map<String, Collection<String>> varyValues(Request request, Response response) {
+    Collection<String> vary = CacheEntry.header(response.headers(), "Vary");
+    if (vary == null) {
+      return Collections.emptyMap();
+    }
+    Map<String, Collection<String>> result = new LinkedHashMap<>();
+    for (String value : vary) {
+      for (String name : value.split(",")) {
+        name = name.trim().toLowerCase(Locale.US);
+        if (!name.isEmpty()) {
+          result.put(name, CacheEntry.header(request.headers(), name));
+        }
+      }
+    }
+    return result;
+  }
+
+  private static Request conditional(Request request, CacheEntry entry) {
+    Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+    if (entry.etag != null) {
+      headers.put("If-None-Match", Collections.singletonList(entry.etag));
+    }
+    if (entry.lastModified != null) {
+      headers.put("If-Modified-Since", Collections.singletonList(entry.lastModified));
+    }
+    return request.withHeaders(headers);
+  }
+
+  private CacheEntry get(String url) {
+    lock.lock();
+    try {
+      return entries.get(url);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void put(String url, CacheEntry entry) {
+    if (entry.weight > maxEntryBytes) {
+      remove(url);
+      return;
+    }
+    lock.lock();
+    try {
+      CacheEntry previous = entries.put(url, entry);
+      if (previous != null) {
+        bytes -= previous.weight;
+      }
+      bytes += entry.weight;
+      Iterator<CacheEntry> eldest = entries.values().iterator();
+      while (bytes > maxBytes && eldest.hasNext()) {
+        bytes -= eldest.next().weight;
+        eldest.remove();
+        evictions.increment();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void remove(String url) {
+    lock.lock();
+    try {
+      CacheEntry previous = entries.remove(url);
+      if (previous != null) {
+        bytes -= previous.weight;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void removeVariantOf(Request request) {
+    lock.lock();
+    try {
+      CacheEntry previous = entries.get(request.url());
+      if (previous != null && isVariantOf(previous, request)) {
+        entries.remove(request.url());
+        bytes -= previous.weight;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * How to execute a request, decided by {@link #lookup(Request)}.
+   */
+  static final class Lookup {
+
+    final Request request;
+    /* what to send, ex. with conditional headers */
+    final Request networkRequest;
+    /* the entry to revalidate, if any */
+    final CacheEntry stale;
+    final Response cached;
+    final long requestTimeMillis;
+    final boolean cacheable;
+
+    Lookup(Request request, Request networkRequest, CacheEntry entry, Response cached,
+        long requestTimeMillis, boolean cacheable) {
+      this.request = request;
+      this.networkRequest = networkRequest;
+      this.stale = cached == null ? entry : null;
+      this.cached = cached;
+      this.requestTimeMillis = requestTimeMillis;
+      this.cacheable = cacheable;
+    }
+  }
+}
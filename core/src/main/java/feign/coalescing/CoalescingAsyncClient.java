@@ -0,0 +1,47 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.coalescing;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import feign.AsyncClient;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * Coalesces identical requests in flight on an {@link AsyncClient}. The shared execution uses the
+ * options and context of the request that started it.
+ */
+final class CoalescingAsyncClient<C> implements AsyncClient<C> {
+
+  private final AsyncClient<C> delegate;
+  private final SingleFlight singleFlight;
+
+  CoalescingAsyncClient(AsyncClient<C> delegate, SingleFlight singleFlight) {
+    this.delegate = delegate;
+    this.singleFlight = singleFlight;
+  }
+
+  @Override
+  public CompletableFuture<Response> execute(Request request,
+                                             Options options,
+                                             Optional<C> requestContext) {
+    if (!SingleFlight.isCoalescable(request)) {
+      return delegate.execute(request, options, requestContext);
+    }
+    return singleFlight.execute(request,
+        () -> delegate.execute(request, options, requestContext));
+  }
+}
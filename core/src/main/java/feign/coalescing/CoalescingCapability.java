@@ -0,0 +1,51 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.coalescing;
+
+import feign.AsyncClient;
+import feign.Capability;
+import feign.Client;
+import feign.Experimental;
+
+/**
+ * Lets concurrent identical requests share one round-trip, ex. when a cache expires and many
+ * threads ask for the same resource at once. Requests are identical when their method, url and
+ * headers are. Only {@code GET} and {@code HEAD} requests without a body are coalesced.
+ *
+ * <pre>
+ * GitHub github = Feign.builder()
+ *     .addCapability(new CoalescingCapability())
+ *     .target(GitHub.class, "https://api.github.com");
+ * </pre>
+ *
+ * <p>
+ * The shared response is read into memory, and each caller gets its own repeatable copy of it, so
+ * that decoders run independently. Don't use it for apis streaming large responses.
+ * </p>
+ */
+@Experimental
+public class CoalescingCapability implements Capability {
+
+  private final SingleFlight singleFlight = new SingleFlight();
+
+  @Override
+  public Client enrich(Client client) {
+    return new CoalescingClient(client, singleFlight);
+  }
+
+  @Override
+  public <C> AsyncClient<C> enrich(AsyncClient<C> client) {
+    return new CoalescingAsyncClient<>(client, singleFlight);
+  }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.coalescing;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * Coalesces identical requests in flight on a blocking {@link Client}. The first caller executes
+ * the request on its own thread, the others wait for its response.
+ */
+final class CoalescingClient implements Client {
+
+  private final Client delegate;
+  private final SingleFlight singleFlight;
+
+  CoalescingClient(Client delegate, SingleFlight singleFlight) {
+    this.delegate = delegate;
+    this.singleFlight = singleFlight;
+  }
+
+  @Override
+  public Response execute(Request request, Options options) throws IOException {
+    if (!SingleFlight.isCoalescable(request)) {
+      return delegate.execute(request, options);
+    }
+    CompletableFuture<Response> response = singleFlight.execute(request, () -> {
+      CompletableFuture<Response> result = new CompletableFuture<>();
+      try {
+        result.complete(delegate.execute(request, options));
+      } catch (IOException | RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+      return result;
+    });
+    try {
+      return response.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for " + request.url(), e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+}
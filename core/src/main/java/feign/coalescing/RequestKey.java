@@ -0,0 +1,61 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.coalescing;
+
+import java.util.Collection;
+import java.util.Map;
+import feign.Request;
+
+/**
+ * Identifies requests that are interchangeable: same method, url and headers.
+ */
+final class RequestKey {
+
+  private final Request.HttpMethod method;
+  private final String url;
+  private final Map<String, Collection<String>> headers;
+  private final int hashCode;
+
+  RequestKey(Request request) {
+    this.method = request.httpMethod();
+    this.url = request.url();
+    this.headers = request.headers();
+    this.hashCode = 31 * (31 * method.hashCode() + url.hashCode()) + headers.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof RequestKey)) {
+      return false;
+    }
+    RequestKey other = (RequestKey) obj;
+    return hashCode == other.hashCode
+        && method == other.method
+        && url.equals(other.url)
+        && headers.equals(other.headers);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return method + " " + url;
+  }
+}
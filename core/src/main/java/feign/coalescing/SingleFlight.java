@@ -0,0 +1,133 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.coalescing;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+
+/**
+ * Shares one execution between concurrent identical requests. The response of the shared execution
+ * is read into memory, and each caller gets its own copy of it.
+ */
+final class SingleFlight {
+
+  private final ConcurrentMap<RequestKey, CompletableFuture<BufferedResponse>> inFlight =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Only requests without a body, that are safe to share, are coalesced.
+   */
+  static boolean isCoalescable(Request request) {
+    return (request.httpMethod() == Request.HttpMethod.GET
+        || request.httpMethod() == Request.HttpMethod.HEAD)
+        && request.body() == null
+        && !request.requestBody().isStreaming();
+  }
+
+  /**
+   * Joins the execution in flight for an identical request, or starts it with {@code execution}.
+   *
+   * @return the response, bound to {@code request}.
+   */
+  CompletableFuture<Response> execute(Request request,
+                                      Supplier<CompletableFuture<Response>> execution) {
+    RequestKey key = new RequestKey(request);
+    CompletableFuture<BufferedResponse> flight = new CompletableFuture<>();
+    CompletableFuture<BufferedResponse> existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      return copyFor(existing, request);
+    }
+    CompletableFuture<Response> started;
+    try {
+      started = execution.get();
+    } catch (RuntimeException e) {
+      started = new CompletableFuture<>();
+      started.completeExceptionally(e);
+    }
+    started.whenComplete((response, error) -> {
+      /* later requests start a new flight, as this response may already be stale for them */
+      inFlight.remove(key, flight);
+      if (error != null) {
+        flight.completeExceptionally(error);
+        return;
+      }
+      try {
+        flight.complete(BufferedResponse.read(response));
+      } catch (IOException | RuntimeException e) {
+        flight.completeExceptionally(e);
+      }
+    });
+    return copyFor(flight, request);
+  }
+
+  /* unlike thenApply, fails with the cause itself rather than a CompletionException */
+  private static CompletableFuture<Response> copyFor(CompletableFuture<BufferedResponse> flight,
+                                                     Request request) {
+    CompletableFuture<Response> result = new CompletableFuture<>();
+    flight.whenComplete((response, error) -> {
+      if (error != null) {
+        result.completeExceptionally(error);
+      } else {
+        result.complete(response.copy(request));
+      }
+    });
+    return result;
+  }
+
+  /**
+   * A response with its body read, so that it can be copied for each caller.
+   */
+  static final class BufferedResponse {
+
+    private final int status;
+    private final String reason;
+    private final Map<String, Collection<String>> headers;
+    private final byte[] body;
+
+    private BufferedResponse(Response response, byte[] body) {
+      this.status = response.status();
+      this.reason = response.reason();
+      this.headers = response.headers();
+      this.body = body;
+    }
+
+    static BufferedResponse read(Response response) throws IOException {
+      try {
+        byte[] body =
+            response.body() != null ? Util.toByteArray(response.body().asInputStream()) : null;
+        return new BufferedResponse(response, body);
+      } finally {
+        Util.ensureClosed(response);
+      }
+    }
+
+    Response copy(Request request) {
+      return Response.builder()
+          .status(status)
+          .reason(reason)
+          .headers(headers)
+          .body(body)
+          .request(request)
+          .build();
+    }
+  }
+}
@@ -14,11 +14,22 @@
 package feign.codec;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import feign.BufferPool;
+import feign.DownloadTo;
 import feign.Feign;
 import feign.FeignException;
+import feign.RequestTemplate;
 import feign.Response;
 import feign.Util;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 /**
  * Decodes an HTTP response into a single object of the given {@code type}. Invoked when
@@ -77,13 +88,22 @@ public interface Decoder {
    */
   Object decode(Response response, Type type) throws IOException, DecodeException, FeignException;
 
-  /** Default implementation of {@code Decoder}. */
+  /**
+   * Default implementation of {@code Decoder}. Besides strings and byte arrays, it decodes
+   * {@link Path} return types by writing the body to the {@link DownloadTo} file of the request, or
+   * else a temporary one.
+   */
   public class Default extends StringDecoder {
 
+    private static final int DOWNLOAD_BUFFER_SIZE = 8 * 1024;
+
     @Override
     public Object decode(Response response, Type type) throws IOException {
       if (response.status() == 404 || response.status() == 204)
         return Util.emptyValueOf(type);
+      if (Path.class.equals(type)) {
+        return download(response);
+      }
       if (response.body() == null)
         return null;
       if (byte[].class.equals(type)) {
@@ -91,5 +111,43 @@ public interface Decoder {
       }
       return super.decode(response, type);
     }
+
+    /* streams the body to the file through a buffer of fixed size, so any size fits in the heap */
+    private static Path download(Response response) throws IOException {
+      RequestTemplate template =
+          response.request() != null ? response.request().requestTemplate() : null;
+      Path file = template != null ? template.downloadTo() : null;
+      boolean temporary = file == null;
+      if (temporary) {
+        file = Files.createTempFile("feign-", ".download");
+      }
+      boolean sync = template != null && template.methodMetadata() != null
+          && template.methodMetadata().downloadSync();
+
+      BufferPool pool = BufferPool.shared();
+      byte[] buffer = pool.acquire(DOWNLOAD_BUFFER_SIZE);
+      boolean written = false;
+      try (FileChannel channel = FileChannel.open(file, CREATE, WRITE, TRUNCATE_EXISTING)) {
+        if (response.body() != null) {
+          InputStream in = response.body().asInputStream();
+          for (int read; (read = in.read(buffer)) != -1;) {
+            ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+            while (data.hasRemaining()) {
+              channel.write(data);
+            }
+          }
+        }
+        if (sync) {
+          channel.force(true);
+        }
+        written = true;
+      } finally {
+        pool.release(buffer);
+        if (!written && temporary) {
+          Files.deleteIfExists(file);
+        }
+      }
+      return file;
+    }
   }
 }
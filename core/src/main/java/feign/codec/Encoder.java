@@ -13,7 +13,18 @@
  */
 package feign.codec;
 
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import feign.RequestTemplate;
 import feign.Util;
 import static java.lang.String.format;
@@ -48,6 +59,15 @@ import static java.lang.String.format;
  * </pre>
  *
  * <p>
+ * <h3>Streaming</h3>
+ * <p>
+ * Large bodies can be written directly to the connection with
+ * {@link RequestTemplate#body(feign.Request.Body.Writer, long, boolean)}, instead of being held in
+ * memory. The default encoder streams {@link InputStream} bodies this way, as well as files given
+ * as a {@link Path}, {@link File} or {@link FileChannel}, whose size is sent as the Content-Length.
+ * Files are read again when the request is retried.
+ *
+ * <p>
  * <h3>Form encoding</h3>
  * <p>
  * If any parameters are found in {@link feign.MethodMetadata#formParams()}, they will be collected
@@ -89,10 +109,71 @@ public interface Encoder {
         template.body(object.toString());
       } else if (bodyType == byte[].class) {
         template.body((byte[]) object, null);
+      } else if (object instanceof InputStream) {
+        /* streamed to the connection, once, so the request isn't retried */
+        InputStream in = (InputStream) object;
+        template.body(out -> {
+          try {
+            Util.copy(in, out);
+          } finally {
+            Util.ensureClosed(in);
+          }
+        }, -1, false);
+      } else if (object instanceof Path) {
+        encodeFile((Path) object, template);
+      } else if (object instanceof File) {
+        encodeFile(((File) object).toPath(), template);
+      } else if (object instanceof FileChannel) {
+        encodeFile((FileChannel) object, template);
       } else if (object != null) {
         throw new EncodeException(
             format("%s is not a type supported by this encoder.", object.getClass()));
       }
     }
+
+    private static void encodeFile(Path file, RequestTemplate template) {
+      long length;
+      try {
+        length = Files.size(file);
+      } catch (IOException e) {
+        throw new EncodeException(e.getMessage(), e);
+      }
+      template.body(out -> {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+          transfer(channel, 0, length, out);
+        }
+      }, length, true);
+    }
+
+    /* the caller owns the channel, which is read from its current position, without moving it */
+    private static void encodeFile(FileChannel channel, RequestTemplate template) {
+      long position;
+      long length;
+      try {
+        position = channel.position();
+        length = Math.max(0, channel.size() - position);
+      } catch (IOException e) {
+        throw new EncodeException(e.getMessage(), e);
+      }
+      template.body(out -> transfer(channel, position, length, out), length, true);
+    }
+
+    /**
+     * None of the clients expose their socket, so the file is transferred to a channel over the
+     * connection's stream, which copies it through a small buffer instead of reading it whole.
+     */
+    private static void transfer(FileChannel channel, long position, long count, OutputStream out)
+        throws IOException {
+      /* not closed, as that would close the connection's stream */
+      WritableByteChannel target = Channels.newChannel(out);
+      while (count > 0) {
+        long sent = channel.transferTo(position, count, target);
+        if (sent <= 0) {
+          throw new EOFException("File is shorter than the Content-Length sent");
+        }
+        position += sent;
+        count -= sent;
+      }
+    }
   }
 }
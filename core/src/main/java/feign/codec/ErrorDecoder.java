@@ -148,12 +148,12 @@ public interface ErrorDecoder {
         long deltaMillis = SECONDS.toMillis(Long.parseLong(retryAfter));
         return new Date(currentTimeMillis() + deltaMillis);
       }
-      synchronized (rfc822Format) {
-        try {
-          return rfc822Format.parse(retryAfter);
-        } catch (ParseException ignored) {
-          return null;
-        }
+      // DateFormat isn't thread-safe. Parse with a copy instead of locking the shared instance,
+      // as a contended monitor pins the carrier of a virtual thread.
+      try {
+        return ((DateFormat) rfc822Format.clone()).parse(retryAfter);
+      } catch (ParseException ignored) {
+        return null;
       }
     }
   }
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.hedging;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import feign.AsyncClient;
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * Hedges the {@link Idempotent} requests of a blocking {@link Client}. Both attempts run on the
+ * executor while the calling thread waits for the first response.
+ */
+final class HedgedClient implements Client {
+
+  private final Client delegate;
+  private final AsyncClient<Void> async;
+  private final Hedger hedger;
+
+  HedgedClient(Client delegate, ExecutorService executor, Hedger hedger) {
+    this.delegate = delegate;
+    this.async = new AsyncClient.Default<>(delegate, executor);
+    this.hedger = hedger;
+  }
+
+  @Override
+  public Response execute(Request request, Options options) throws IOException {
+    MethodMetadata metadata = Hedger.idempotentMethod(request);
+    if (metadata == null) {
+      return delegate.execute(request, options);
+    }
+    CompletableFuture<Response> response =
+        hedger.execute(metadata, () -> async.execute(request, options, Optional.empty()));
+    try {
+      return response.get();
+    } catch (InterruptedException e) {
+      response.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for " + request.url(), e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+}
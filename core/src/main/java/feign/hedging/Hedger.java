@@ -0,0 +1,151 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.hedging;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+
+/**
+ * Races a primary attempt against a hedge, sent once the primary is slower than the hedging delay.
+ * Shared by the synchronous and asynchronous clients of a {@link HedgingCapability}.
+ */
+final class Hedger {
+
+  private final long delayNanos;
+  private final double percentile;
+  private final HedgingBudget budget;
+  private final ScheduledExecutorService scheduler;
+  private final ConcurrentMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+  Hedger(long delayNanos, double percentile, HedgingBudget budget,
+      ScheduledExecutorService scheduler) {
+    this.delayNanos = delayNanos;
+    this.percentile = percentile;
+    this.budget = budget;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * @return the metadata of the method that built the {@code request}, if it is {@link Idempotent}
+   *         and its body can be sent twice, or {@literal null} otherwise.
+   */
+  static MethodMetadata idempotentMethod(Request request) {
+    if (request.requestBody() != null && !request.requestBody().isReplayable()) {
+      return null;
+    }
+    MethodMetadata metadata = request.methodMetadata();
+    Method method = metadata != null ? metadata.method() : null;
+    return method != null && method.isAnnotationPresent(Idempotent.class) ? metadata : null;
+  }
+
+  CompletableFuture<Response> execute(MethodMetadata metadata,
+                                      Supplier<CompletableFuture<Response>> attempt) {
+    LatencyWindow window = percentile > 0
+        ? latencies.computeIfAbsent(metadata.configKey(), key -> new LatencyWindow(percentile))
+        : null;
+    budget.deposit();
+
+    Race race = new Race(window, attempt);
+    race.start();
+    long delay = delayNanos;
+    if (window != null && window.percentileNanos() >= 0) {
+      delay = window.percentileNanos();
+    }
+    ScheduledFuture<?> hedge = scheduler.schedule(() -> {
+      if (!race.result.isDone() && budget.tryWithdraw()) {
+        race.start();
+      }
+    }, delay, TimeUnit.NANOSECONDS);
+    race.result.whenComplete((response, error) -> hedge.cancel(false));
+    return race.result;
+  }
+
+  /**
+   * Completes with the first response. Fails only when every attempt started failed, with the first
+   * failure.
+   */
+  private static final class Race {
+
+    final CompletableFuture<Response> result = new CompletableFuture<>();
+    private final LatencyWindow window;
+    private final Supplier<CompletableFuture<Response>> attempt;
+    private final List<CompletableFuture<Response>> attempts = new CopyOnWriteArrayList<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+    Race(LatencyWindow window, Supplier<CompletableFuture<Response>> attempt) {
+      this.window = window;
+      this.attempt = attempt;
+      result.whenComplete((response, error) -> {
+        if (result.isCancelled()) {
+          attempts.forEach(started -> started.cancel(true));
+        }
+      });
+    }
+
+    void start() {
+      pending.incrementAndGet();
+      long start = System.nanoTime();
+      CompletableFuture<Response> started;
+      try {
+        started = attempt.get();
+      } catch (RuntimeException e) {
+        started = new CompletableFuture<>();
+        started.completeExceptionally(e);
+      }
+      attempts.add(started);
+      final CompletableFuture<Response> self = started;
+      started.whenComplete((response, error) -> {
+        if (error == null) {
+          if (window != null) {
+            window.record(System.nanoTime() - start);
+          }
+          if (result.complete(response)) {
+            cancelLosers(self);
+          } else {
+            /* lost the race */
+            Util.ensureClosed(response);
+          }
+        } else {
+          firstError.compareAndSet(null, error);
+          if (pending.decrementAndGet() == 0) {
+            result.completeExceptionally(firstError.get());
+          }
+        }
+      });
+    }
+
+    private void cancelLosers(CompletableFuture<Response> winner) {
+      for (CompletableFuture<Response> started : attempts) {
+        if (started != winner) {
+          started.cancel(true);
+        }
+      }
+    }
+  }
+}
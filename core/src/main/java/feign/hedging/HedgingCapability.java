@@ -0,0 +1,159 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.hedging;
+
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import feign.AsyncClient;
+import feign.Capability;
+import feign.Client;
+import feign.Experimental;
+
+/**
+ * Cuts tail latency by hedging: when a call of an {@link Idempotent} method is slower than a delay,
+ * the same request is sent again, and whichever response arrives first is used. The other attempt
+ * is cancelled, and its response closed.
+ *
+ * <pre>
+ * GitHub github = Feign.builder()
+ *     .addCapability(HedgingCapability.builder()
+ *         .delay(50, TimeUnit.MILLISECONDS)
+ *         .percentile(0.95)
+ *         .build())
+ *     .target(GitHub.class, "https://api.github.com");
+ * </pre>
+ *
+ * <p>
+ * The delay is either fixed, or the observed {@link Builder#percentile(double) percentile} of the
+ * latency of each method, ex. its p95. A {@link Builder#budget(double, int) budget} caps the share
+ * of calls hedged, so that a slow dependency does not amplify the load sent to it.
+ * </p>
+ */
+@Experimental
+public class HedgingCapability implements Capability {
+
+  private static class LazyInitializedExecutors {
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+      final Thread result = new Thread(r, "feign-hedging");
+      result.setDaemon(true);
+      return result;
+    });
+
+    private static final ScheduledExecutorService scheduler = newScheduler();
+
+    private static ScheduledExecutorService newScheduler() {
+      ScheduledThreadPoolExecutor result = new ScheduledThreadPoolExecutor(1, r -> {
+        final Thread thread = new Thread(r, "feign-hedging-scheduler");
+        thread.setDaemon(true);
+        return thread;
+      });
+      /* most hedges are cancelled, don't keep them queued until their delay */
+      result.setRemoveOnCancelPolicy(true);
+      return result;
+    }
+  }
+
+  private final Hedger hedger;
+  private final ExecutorService executor;
+
+  private HedgingCapability(Builder builder) {
+    this.hedger = new Hedger(builder.delayNanos, builder.percentile,
+        new HedgingBudget(builder.budgetRatio, builder.budgetMaxTokens),
+        builder.scheduler != null ? builder.scheduler : LazyInitializedExecutors.scheduler);
+    this.executor = builder.executor;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  public Client enrich(Client client) {
+    return new HedgedClient(client,
+        executor != null ? executor : LazyInitializedExecutors.executor, hedger);
+  }
+
+  @Override
+  public <C> AsyncClient<C> enrich(AsyncClient<C> client) {
+    return new HedgedAsyncClient<>(client, hedger);
+  }
+
+  public static class Builder {
+
+    private long delayNanos = TimeUnit.MILLISECONDS.toNanos(100);
+    private double percentile;
+    private double budgetRatio = 0.1;
+    private int budgetMaxTokens = 10;
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Hedges calls slower than {@code delay}. When a {@link #percentile(double) percentile} is set,
+     * only used until enough latencies of the method were observed. Defaults to 100ms.
+     */
+    public Builder delay(long delay, TimeUnit unit) {
+      checkArgument(delay >= 0, "delay must not be negative");
+      this.delayNanos = unit.toNanos(delay);
+      return this;
+    }
+
+    /**
+     * Hedges calls slower than this percentile of the recent latencies of their method, ex.
+     * {@code 0.95} for the p95.
+     */
+    public Builder percentile(double percentile) {
+      checkArgument(percentile > 0 && percentile < 1, "percentile must be between 0 and 1");
+      this.percentile = percentile;
+      return this;
+    }
+
+    /**
+     * Hedges at most {@code ratio} of the calls, ex. {@code 0.1} for 10%, allowing bursts of up to
+     * {@code maxTokens} hedges. Defaults to 10% and 10 hedges.
+     */
+    public Builder budget(double ratio, int maxTokens) {
+      checkArgument(ratio >= 0, "ratio must not be negative");
+      checkArgument(maxTokens >= 1, "maxTokens must be at least 1");
+      this.budgetRatio = ratio;
+      this.budgetMaxTokens = maxTokens;
+      return this;
+    }
+
+    /**
+     * Runs the attempts of a blocking {@link Client}. Defaults to a shared, unbounded, thread pool.
+     */
+    public Builder executor(ExecutorService executor) {
+      this.executor = checkNotNull(executor, "executor");
+      return this;
+    }
+
+    /**
+     * Schedules the hedges. Defaults to a shared single thread scheduler.
+     */
+    public Builder scheduler(ScheduledExecutorService scheduler) {
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      return this;
+    }
+
+    public HedgingCapability build() {
+      return new HedgingCapability(this);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The latencies of the most recent calls of a method, to hedge after a percentile of them.
+ */
+final class LatencyWindow {
+
+  static final int SIZE = 128;
+  /* percentiles of fewer samples aren't meaningful, the fixed delay is used until then */
+  static final int MINIMUM_SAMPLES = 16;
+  /* sorting the window on each call would cost more than hedging saves */
+  private static final int RECOMPUTE_EVERY = 16;
+
+  private final double percentile;
+  private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+  private final AtomicLong count = new AtomicLong();
+  private volatile long percentileNanos = -1;
+
+  LatencyWindow(double percentile) {
+    this.percentile = percentile;
+  }
+
+  void record(long nanos) {
+    long n = count.getAndIncrement();
+    samples.set((int) (n % SIZE), nanos);
+    if (n + 1 >= MINIMUM_SAMPLES && (n + 1) % RECOMPUTE_EVERY == 0) {
+      percentileNanos = compute((int) Math.min(n + 1, SIZE));
+    }
+  }
+
+  /**
+   * @return the latency at the percentile, or {@literal -1} when there are too few samples.
+   */
+  long percentileNanos() {
+    return percentileNanos;
+  }
+
+  private long compute(int size) {
+    long[] sorted = new long[size];
+    for (int i = 0; i < size; i++) {
+      sorted[i] = samples.get(i);
+    }
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(percentile * size) - 1;
+    return sorted[Math.max(0, Math.min(size - 1, index))];
+  }
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.partition;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks the collection parameter that {@link PartitioningCapability} may split across several
+ * requests, ex. the ids of a batch lookup. The parameter must be declared as an {@link Iterable},
+ * {@link java.util.Collection}, {@link java.util.List} or {@link java.util.Set}, and the method
+ * must return {@code void} or one of those types, so that the results can be merged.
+ */
+@Retention(RUNTIME)
+@Target(PARAMETER)
+public @interface Partitioned {
+}
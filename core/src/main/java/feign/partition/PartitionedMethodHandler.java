@@ -0,0 +1,162 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.partition;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import feign.InvocationHandlerFactory.MethodHandler;
+
+/**
+ * Invokes its delegate once per partition of a {@link Partitioned} collection, and merges the
+ * results.
+ */
+final class PartitionedMethodHandler implements MethodHandler {
+
+  private final MethodHandler delegate;
+  private final int index;
+  private final int maxSize;
+  private final boolean setArgument;
+  private final boolean setResult;
+  private final boolean voidResult;
+  private final ExecutorService executor;
+
+  PartitionedMethodHandler(Method method, int index, MethodHandler delegate, int maxSize,
+      ExecutorService executor) {
+    this.delegate = delegate;
+    this.index = index;
+    this.maxSize = maxSize;
+    this.setArgument = method.getParameterTypes()[index] == Set.class;
+    Class<?> returnType = method.getReturnType();
+    this.voidResult = returnType == void.class || returnType == Void.class;
+    this.setResult = returnType == Set.class;
+    this.executor = executor;
+  }
+
+  /**
+   * Finds the {@link Partitioned} parameter of {@code method}.
+   *
+   * @return its index, or {@literal -1} if the method has none.
+   * @throws IllegalStateException if the parameter or return type can't be partitioned.
+   */
+  static int partitionedIndex(Method method) {
+    Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+    for (int i = 0; i < parameterAnnotations.length; i++) {
+      for (Annotation annotation : parameterAnnotations[i]) {
+        if (annotation instanceof Partitioned) {
+          Class<?> parameterType = method.getParameterTypes()[i];
+          if (!isMergeable(parameterType)) {
+            throw new IllegalStateException("@Partitioned parameter of " + method
+                + " must be an Iterable, Collection, List or Set, not " + parameterType);
+          }
+          Class<?> returnType = method.getReturnType();
+          if (returnType != void.class && returnType != Void.class && !isMergeable(returnType)) {
+            throw new IllegalStateException("Results of " + method
+                + " can't be merged, return void, an Iterable, Collection, List or Set");
+          }
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isMergeable(Class<?> type) {
+    return type == Iterable.class || type == Collection.class || type == List.class
+        || type == Set.class;
+  }
+
+  @Override
+  public Object invoke(Object[] argv) throws Throwable {
+    Object values = argv[index];
+    if (!(values instanceof Collection) || ((Collection<?>) values).size() <= maxSize) {
+      /* an Iterable of unknown size is sent as is */
+      return delegate.invoke(argv);
+    }
+
+    List<Object[]> partitions = partition(argv, (Collection<?>) values);
+    List<Future<Object>> futures = new ArrayList<>(partitions.size() - 1);
+    try {
+      for (Object[] partition : partitions.subList(1, partitions.size())) {
+        futures.add(executor.submit(() -> {
+          try {
+            return delegate.invoke(partition);
+          } catch (Exception | Error e) {
+            throw e;
+          } catch (Throwable e) {
+            throw new ExecutionException(e);
+          }
+        }));
+      }
+      Collection<Object> merged = voidResult ? null
+          : setResult ? new LinkedHashSet<>() : new ArrayList<>();
+      merge(merged, delegate.invoke(partitions.get(0)));
+      for (Future<Object> future : futures) {
+        merge(merged, join(future));
+      }
+      return merged;
+    } finally {
+      /* a no-op for completed partitions, stops the others when one failed */
+      for (Future<Object> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  private List<Object[]> partition(Object[] argv, Collection<?> values) {
+    List<Object[]> partitions = new ArrayList<>((values.size() + maxSize - 1) / maxSize);
+    Iterator<?> iterator = values.iterator();
+    while (iterator.hasNext()) {
+      Collection<Object> partition =
+          setArgument ? new LinkedHashSet<>() : new ArrayList<>(maxSize);
+      for (int i = 0; i < maxSize && iterator.hasNext(); i++) {
+        partition.add(iterator.next());
+      }
+      Object[] partitionArgv = argv.clone();
+      partitionArgv[index] = partition;
+      partitions.add(partitionArgv);
+    }
+    return partitions;
+  }
+
+  private static void merge(Collection<Object> merged, Object result) {
+    if (merged == null || result == null) {
+      return;
+    }
+    for (Object element : (Iterable<?>) result) {
+      merged.add(element);
+    }
+  }
+
+  private static Object join(Future<Object> future) throws Throwable {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw e;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      /* unwraps the Throwable wrapped by the partition itself */
+      throw cause instanceof ExecutionException ? cause.getCause() : cause;
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.partition;
+
+import static feign.Util.checkArgument;
+import static feign.Util.checkNotNull;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import feign.Capability;
+import feign.Experimental;
+import feign.InvocationHandlerFactory;
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Target;
+
+/**
+ * Splits a {@link Partitioned} collection larger than a {@link Builder#maxSize(int) maximum size}
+ * into several calls of the same method, sent in parallel, and merges their decoded results, ex. to
+ * keep the query string of a batch lookup under the limits of servers and proxies.
+ *
+ * <pre>
+ * interface Catalog {
+ *   &#64;RequestLine("GET /items?id={ids}")
+ *   List&lt;Item&gt; items(&#64;Param("ids") &#64;Partitioned List&lt;Long&gt; ids);
+ * }
+ *
+ * Catalog catalog = Feign.builder()
+ *     .addCapability(PartitioningCapability.builder().maxSize(500).build())
+ *     .target(Catalog.class, "https://catalog.example.com");
+ * </pre>
+ *
+ * <p>
+ * Results are merged in the order of the partitions, a {@link java.util.Set} result into a
+ * {@link java.util.LinkedHashSet}, any other into an {@link java.util.ArrayList}. When a partition
+ * fails, the others are cancelled and its exception is thrown. Calls with at most {@code maxSize}
+ * elements are sent as is.
+ * </p>
+ *
+ * <p>
+ * As it wraps the {@link InvocationHandlerFactory}, apis are proxied even if a
+ * {@link feign.GeneratedApi build time generated} implementation is present.
+ * </p>
+ */
+@Experimental
+public class PartitioningCapability implements Capability {
+
+  private static class LazyInitializedExecutor {
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+      final Thread result = new Thread(r, "feign-partition");
+      result.setDaemon(true);
+      return result;
+    });
+  }
+
+  private final int maxSize;
+  private final ExecutorService executor;
+
+  private PartitioningCapability(Builder builder) {
+    this.maxSize = builder.maxSize;
+    this.executor = builder.executor;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  public InvocationHandlerFactory enrich(InvocationHandlerFactory invocationHandlerFactory) {
+    return new PartitioningInvocationHandlerFactory(invocationHandlerFactory);
+  }
+
+  private final class PartitioningInvocationHandlerFactory implements InvocationHandlerFactory {
+
+    private final InvocationHandlerFactory delegate;
+
+    PartitioningInvocationHandlerFactory(InvocationHandlerFactory delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public InvocationHandler create(Target target, Map<Method, MethodHandler> dispatch) {
+      Map<Method, MethodHandler> partitioned = new LinkedHashMap<>(dispatch);
+      for (Entry<Method, MethodHandler> entry : partitioned.entrySet()) {
+        int index = PartitionedMethodHandler.partitionedIndex(entry.getKey());
+        if (index >= 0) {
+          entry.setValue(new PartitionedMethodHandler(entry.getKey(), index, entry.getValue(),
+              maxSize, executor != null ? executor : LazyInitializedExecutor.executor));
+        }
+      }
+      return delegate.create(target, partitioned);
+    }
+  }
+
+  public static class Builder {
+
+    private int maxSize = 1000;
+    private ExecutorService executor;
+
+    /**
+     * Sends at most {@code maxSize} elements of a {@link Partitioned} collection per request.
+     * Defaults to 1000.
+     */
+    public Builder maxSize(int maxSize) {
+      checkArgument(maxSize >= 1, "maxSize must be at least 1");
+      this.maxSize = maxSize;
+      return this;
+    }
+
+    /**
+     * Runs the partitions after the first, which runs on the calling thread. Defaults to a shared,
+     * unbounded, thread pool.
+     */
+    public Builder executor(ExecutorService executor) {
+      this.executor = checkNotNull(executor, "executor");
+      return this;
+    }
+
+    public PartitioningCapability build() {
+      return new PartitioningCapability(this);
+    }
+  }
+}
@@ -0,0 +1,375 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.querymap;
+
+import static java.lang.invoke.MethodType.methodType;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import feign.Experimental;
+import feign.Param;
+import feign.codec.EncodeException;
+import feign.template.UriUtils;
+import org.jvnet.animal_sniffer.IgnoreJRERequirement;
+
+/**
+ * The query parameters of a class, compiled once: each property has a {@link MethodHandle} getter,
+ * its query parameter name and that name pct-encoded. Used by {@link FieldQueryMapEncoder} and
+ * {@link BeanQueryMapEncoder}, and by Feign itself to write the parameters of a
+ * {@link feign.QueryMap} straight into the request, without an intermediate map.
+ *
+ * <p>
+ * Primitive properties are never null, and {@code int}, {@code long} and {@code boolean} ones are
+ * formatted without boxing when {@link #encode(Object, Writer) written}. When several properties
+ * share a name, the value of the last one that isn't null is used, as the map of the encoders would
+ * keep it.
+ * </p>
+ */
+@Experimental
+public final class QueryMapPlan {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final ClassValue<QueryMapPlan> FIELDS = new ClassValue<QueryMapPlan>() {
+    @Override
+    protected QueryMapPlan computeValue(Class<?> type) {
+      return compileFields(type);
+    }
+  };
+
+  private static final ClassValue<QueryMapPlan> BEAN_PROPERTIES = new ClassValue<QueryMapPlan>() {
+    @Override
+    protected QueryMapPlan computeValue(Class<?> type) {
+      return compileBeanProperties(type);
+    }
+  };
+
+  /**
+   * Receives the query parameters of an object.
+   */
+  @FunctionalInterface
+  public interface Writer {
+
+    /**
+     * @param encodedName of the query parameter.
+     * @param encodedValues of the query parameter, pct-encoded, {@literal null} for null elements.
+     */
+    void query(String encodedName, List<String> encodedValues);
+  }
+
+  /* properties grouped by name, in declaration order */
+  private final Property[][] properties;
+
+  private QueryMapPlan(Property[][] properties) {
+    this.properties = properties;
+  }
+
+  /**
+   * The plan reading every field of {@code type} and its super classes, named after the field or
+   * its {@link Param} annotation.
+   */
+  public static QueryMapPlan ofFields(Class<?> type) {
+    return FIELDS.get(type);
+  }
+
+  /**
+   * The plan reading the java bean properties of {@code type} through their getters, named after
+   * the property or the {@link Param} annotation of its getter.
+   */
+  public static QueryMapPlan ofBeanProperties(Class<?> type) {
+    return BEAN_PROPERTIES.get(type);
+  }
+
+  /**
+   * Maps the name of each query parameter to its value, leaving out null values.
+   */
+  public Map<String, Object> toMap(Object object) throws EncodeException {
+    Map<String, Object> result = new LinkedHashMap<>();
+    for (Property[] named : properties) {
+      Object value = valueOf(named, object);
+      if (value != null) {
+        result.put(named[0].name, value);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Writes the query parameters of {@code object}, leaving out null values. Names and values are
+   * pct-encoded, as {@link UriUtils#encode(String)} does.
+   */
+  public void encode(Object object, Writer writer) throws EncodeException {
+    for (Property[] named : properties) {
+      Property property = named[0];
+      if (named.length == 1 && property instanceof PrimitiveProperty) {
+        writer.query(property.encodedName,
+            Collections.singletonList(((PrimitiveProperty) property).format(object)));
+        continue;
+      }
+      Object value = valueOf(named, object);
+      if (value != null) {
+        writer.query(property.encodedName, encodeValues(value));
+      }
+    }
+  }
+
+  /* the last value that isn't null, as a map filled in declaration order would keep */
+  private static Object valueOf(Property[] named, Object object) {
+    for (int i = named.length - 1; i >= 0; i--) {
+      Object value = named[i].get(object);
+      if (value != null && value != object) {
+        return value;
+      }
+    }
+    return null;
+  }
+
+  private static List<String> encodeValues(Object value) {
+    if (value instanceof Iterable<?>) {
+      List<String> values = new ArrayList<>();
+      for (Object element : (Iterable<?>) value) {
+        values.add(element == null ? null : UriUtils.encode(element.toString()));
+      }
+      return values;
+    } else if (value instanceof Object[]) {
+      Object[] elements = (Object[]) value;
+      List<String> values = new ArrayList<>(elements.length);
+      for (Object element : elements) {
+        values.add(element == null ? null : UriUtils.encode(element.toString()));
+      }
+      return values;
+    }
+    return Collections.singletonList(UriUtils.encode(value.toString()));
+  }
+
+  private static QueryMapPlan compileFields(Class<?> type) {
+    List<Property> properties = new ArrayList<>();
+    for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+      for (Field field : current.getDeclaredFields()) {
+        if (field.isSynthetic()) {
+          continue;
+        }
+        field.setAccessible(true);
+        Param alias = field.getAnnotation(Param.class);
+        MethodHandle getter;
+        try {
+          getter = LOOKUP.unreflectGetter(field);
+        } catch (IllegalAccessException e) {
+          throw new EncodeException("Failure encoding object into query map", e);
+        }
+        if (Modifier.isStatic(field.getModifiers())) {
+          getter = MethodHandles.dropArguments(getter, 0, Object.class);
+        }
+        properties.add(Property.create(alias != null ? alias.value() : field.getName(), getter));
+      }
+    }
+    return new QueryMapPlan(groupByName(properties));
+  }
+
+  private static QueryMapPlan compileBeanProperties(Class<?> type) {
+    List<Property> properties = new ArrayList<>();
+    try {
+      for (PropertyDescriptor pd : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+        Method method = pd.getReadMethod();
+        if (method == null || "class".equals(pd.getName())) {
+          continue;
+        }
+        Param alias = method.getAnnotation(Param.class);
+        properties.add(Property.create(alias != null ? alias.value() : pd.getName(),
+            LOOKUP.unreflect(method)));
+      }
+    } catch (IntrospectionException | IllegalAccessException e) {
+      throw new EncodeException("Failure encoding object into query map", e);
+    }
+    return new QueryMapPlan(groupByName(properties));
+  }
+
+  private static Property[][] groupByName(List<Property> properties) {
+    Map<String, List<Property>> byName = new LinkedHashMap<>();
+    for (Property property : properties) {
+      byName.computeIfAbsent(property.name, name -> new ArrayList<>()).add(property);
+    }
+    return byName.values().stream()
+        .map(named -> named.toArray(new Property[0]))
+        .toArray(Property[][]::new);
+  }
+
+  /**
+   * Reads a property. Primitive properties have a getter of their own type, so that they can be
+   * formatted without boxing. Subclasses are exempt from the JRE signature check, which doesn't
+   * know the signature polymorphic {@link MethodHandle#invokeExact}.
+   */
+  private abstract static class Property {
+
+    final String name;
+    final String encodedName;
+
+    Property(String name) {
+      this.name = name;
+      this.encodedName = UriUtils.encode(name);
+    }
+
+    static Property create(String name, MethodHandle getter) {
+      Class<?> type = getter.type().returnType();
+      if (type == int.class) {
+        return new IntProperty(name, getter.asType(methodType(int.class, Object.class)));
+      } else if (type == long.class) {
+        return new LongProperty(name, getter.asType(methodType(long.class, Object.class)));
+      } else if (type == boolean.class) {
+        return new BooleanProperty(name, getter.asType(methodType(boolean.class, Object.class)));
+      }
+      return new ObjectProperty(name, getter.asType(methodType(Object.class, Object.class)));
+    }
+
+    abstract Object get(Object object);
+
+    static EncodeException failure(Throwable cause) {
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      return new EncodeException("Failure encoding object into query map", cause);
+    }
+  }
+
+  /**
+   * A property of a primitive type, never null, formatted without boxing.
+   */
+  private abstract static class PrimitiveProperty extends Property {
+
+    PrimitiveProperty(String name) {
+      super(name);
+    }
+
+    /* the pct-encoded value */
+    abstract String format(Object object);
+  }
+
+  @IgnoreJRERequirement
+  private static final class ObjectProperty extends Property {
+
+    private final MethodHandle getter;
+
+    ObjectProperty(String name, MethodHandle getter) {
+      super(name);
+      this.getter = getter;
+    }
+
+    @Override
+    Object get(Object object) {
+      try {
+        return (Object) getter.invokeExact(object);
+      } catch (Throwable e) {
+        throw failure(e);
+      }
+    }
+  }
+
+  @IgnoreJRERequirement
+  private static final class IntProperty extends PrimitiveProperty {
+
+    private final MethodHandle getter;
+
+    IntProperty(String name, MethodHandle getter) {
+      super(name);
+      this.getter = getter;
+    }
+
+    private int getInt(Object object) {
+      try {
+        return (int) getter.invokeExact(object);
+      } catch (Throwable e) {
+        throw failure(e);
+      }
+    }
+
+    @Override
+    Object get(Object object) {
+      return getInt(object);
+    }
+
+    @Override
+    String format(Object object) {
+      /* digits and the minus sign are unreserved */
+      return Integer.toString(getInt(object));
+    }
+  }
+
+  @IgnoreJRERequirement
+  private static final class LongProperty extends PrimitiveProperty {
+
+    private final MethodHandle getter;
+
+    LongProperty(String name, MethodHandle getter) {
+      super(name);
+      this.getter = getter;
+    }
+
+    private long getLong(Object object) {
+      try {
+        return (long) getter.invokeExact(object);
+      } catch (Throwable e) {
+        throw failure(e);
+      }
+    }
+
+    @Override
+    Object get(Object object) {
+      return getLong(object);
+    }
+
+    @Override
+    String format(Object object) {
+      return Long.toString(getLong(object));
+    }
+  }
+
+  @IgnoreJRERequirement
+  private static final class BooleanProperty extends PrimitiveProperty {
+
+    private final MethodHandle getter;
+
+    BooleanProperty(String name, MethodHandle getter) {
+      super(name);
+      this.getter = getter;
+    }
+
+    private boolean getBoolean(Object object) {
+      try {
+        return (boolean) getter.invokeExact(object);
+      } catch (Throwable e) {
+        throw failure(e);
+      }
+    }
+
+    @Override
+    Object get(Object object) {
+      return getBoolean(object);
+    }
+
+    @Override
+    String format(Object object) {
+      return getBoolean(object) ? "true" : "false";
+    }
+  }
+}
@@ -14,7 +14,12 @@
 package feign.template;
 
 import feign.Util;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -28,6 +33,11 @@ public final class BodyTemplate extends Template {
   private static final String JSON_TOKEN_START_ENCODED = "%7B";
   private static final String JSON_TOKEN_END_ENCODED = "%7D";
   private boolean json = false;
+  /*
+   * length in bytes of the last expansion, as expansions of the same method tend to be of similar
+   * size. Racy, as it is only a hint.
+   */
+  private int sizeHint;
 
   /**
    * Create a new Body Template.
@@ -55,6 +65,7 @@ public final class BodyTemplate extends Template {
     if (value.startsWith(JSON_TOKEN_START_ENCODED) && value.endsWith(JSON_TOKEN_END_ENCODED)) {
       this.json = true;
     }
+    this.sizeHint = value.length();
   }
 
   @Override
@@ -68,5 +79,110 @@ public final class BodyTemplate extends Template {
     return expanded;
   }
 
+  /**
+   * Expand the template directly into the encoded body, without creating the intermediate
+   * {@link String}: literals and expanded values are encoded as they are produced. The buffer is
+   * sized from the previous expansion of this template, so a method sending bodies of a stable size
+   * encodes them into a single, exactly sized array.
+   *
+   * @param variables containing the values for expansion.
+   * @param charset to encode the body with.
+   * @return the encoded body, or {@literal null} if the entire template is unresolved.
+   */
+  public byte[] expand(Map<String, ?> variables, Charset charset) {
+    EncodingSink sink = new EncodingSink(charset.newEncoder(), this.sizeHint, this.json);
+    if (!this.expand(variables, new StringBuilder(), sink::append)) {
+      return null;
+    }
+    byte[] encoded = sink.finish();
+    this.sizeHint = encoded.length;
+    return encoded;
+  }
+
+  /**
+   * Encodes characters as they are appended, restoring json start and end tokens on the way. Tokens
+   * may be split between two appends, so a partial token is held back until the next one.
+   */
+  private static final class EncodingSink {
+
+    private final CharsetEncoder encoder;
+    private final boolean json;
+    private final CharBuffer chars = CharBuffer.allocate(1024);
+    private ByteBuffer bytes;
+    /* characters of an encoded token held back: 1 for "%", 2 for "%7" */
+    private int pending;
+
+    EncodingSink(CharsetEncoder encoder, int sizeHint, boolean json) {
+      /* replace malformed and unmappable characters, as String#getBytes does */
+      this.encoder = encoder.onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      this.json = json;
+      this.bytes = ByteBuffer.allocate(Math.max(sizeHint, 16));
+    }
+
+    void append(CharSequence value) {
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (!this.json) {
+          put(c);
+        } else if (this.pending == 2 && (c == 'B' || c == 'D')) {
+          put(c == 'B' ? '{' : '}');
+          this.pending = 0;
+        } else if (this.pending == 1 && c == '7') {
+          this.pending = 2;
+        } else {
+          releasePending();
+          if (c == '%') {
+            this.pending = 1;
+          } else {
+            put(c);
+          }
+        }
+      }
+    }
+
+    byte[] finish() {
+      releasePending();
+      encode(true);
+      while (this.encoder.flush(this.bytes).isOverflow()) {
+        grow();
+      }
+      byte[] array = this.bytes.array();
+      int length = this.bytes.position();
+      return length == array.length ? array : Arrays.copyOf(array, length);
+    }
+
+    private void releasePending() {
+      if (this.pending > 0) {
+        put('%');
+        if (this.pending == 2) {
+          put('7');
+        }
+        this.pending = 0;
+      }
+    }
+
+    private void put(char c) {
+      if (!this.chars.hasRemaining()) {
+        encode(false);
+      }
+      this.chars.put(c);
+    }
+
+    private void encode(boolean endOfInput) {
+      this.chars.flip();
+      while (this.encoder.encode(this.chars, this.bytes, endOfInput).isOverflow()) {
+        grow();
+      }
+      /* an unpaired high surrogate stays in the buffer, until the next character is known */
+      this.chars.compact();
+    }
 
+    private void grow() {
+      ByteBuffer grown = ByteBuffer.allocate(this.bytes.capacity() * 2);
+      this.bytes.flip();
+      grown.put(this.bytes);
+      this.bytes = grown;
+    }
+  }
 }
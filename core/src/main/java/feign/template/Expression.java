@@ -13,6 +13,9 @@
  */
 package feign.template;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
@@ -35,12 +38,52 @@ abstract class Expression implements TemplateChunk {
     Optional.ofNullable(pattern).ifPresent(s -> this.pattern = Pattern.compile(s));
   }
 
-  abstract String expand(Object variable, boolean encode);
+  String expand(Object variable, boolean encode) {
+    StringBuilder expanded = new StringBuilder();
+    this.expand(variable, encode, expanded);
+    return expanded.toString();
+  }
+
+  /**
+   * Expand the variable, appending the result to {@code buffer}.
+   *
+   * @param variable to expand.
+   * @param encode if the value should be pct-encoded.
+   * @param buffer to append to.
+   */
+  abstract void expand(Object variable, boolean encode, StringBuilder buffer);
+
+  /**
+   * Expand the expression with the {@code variables}, appending the result to {@code buffer}.
+   *
+   * @param variables containing the values for expansion.
+   * @param encode if the values should be pct-encoded.
+   * @param buffer to append to.
+   * @return {@literal true} if a variable of the expression is defined, otherwise nothing is
+   *         appended.
+   */
+  boolean expand(Map<String, ?> variables, boolean encode, StringBuilder buffer) {
+    Object value = variables.get(this.name);
+    if (value == null) {
+      return false;
+    }
+    this.expand(value, encode, buffer);
+    return true;
+  }
 
   public String getName() {
     return this.name;
   }
 
+  /**
+   * Names of all the variables in this expression.
+   *
+   * @return the variable names, in order.
+   */
+  List<String> getVariables() {
+    return (this.name != null) ? Collections.singletonList(this.name) : Collections.emptyList();
+  }
+
   Pattern getPattern() {
     return pattern;
   }
@@ -52,7 +95,7 @@ abstract class Expression implements TemplateChunk {
    * @param value to check.
    * @return true if it matches.
    */
-  boolean matches(String value) {
+  boolean matches(CharSequence value) {
     if (pattern == null) {
       return true;
     }
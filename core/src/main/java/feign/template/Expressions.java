@@ -13,32 +13,30 @@
  */
 package feign.template;
 
-import java.util.LinkedHashMap;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import feign.Util;
 
+/**
+ * Parses <a href="https://tools.ietf.org/html/rfc6570">RFC 6570</a> expressions, up to Level 4.
+ * Each expression is compiled once, when the template is parsed, into an {@link Expression} that
+ * expands its variables without any further parsing.
+ *
+ * <p>
+ * In addition to the specification, an expression made of a single variable may declare a regular
+ * expression its value must match, ex. {@code {id:[0-9]+}}. A modifier made only of digits, ex.
+ * {@code {id:3}}, is a prefix length, as defined by the specification.
+ * </p>
+ */
 public final class Expressions {
-  private static Map<Pattern, Class<? extends Expression>> expressions;
 
-  static {
-    expressions = new LinkedHashMap<>();
-
-    /*
-     * basic pattern for variable names. this is compliant with RFC 6570 Simple Expressions ONLY
-     * with the following additional values allowed without required pct-encoding:
-     *
-     * - brackets - dashes
-     *
-     * see https://tools.ietf.org/html/rfc6570#section-2.3 for more information.
-     */
-
-    expressions.put(Pattern.compile("^([+#./;?&]?)(.*)$"),
-        SimpleExpression.class);
-  }
+  /* prefix lengths are limited to 4 digits, see RFC 6570 section 2.4.1 */
+  private static final int MAX_PREFIX_DIGITS = 4;
 
   public static Expression create(final String value) {
 
@@ -48,32 +46,19 @@ public final class Expressions {
       throw new IllegalArgumentException("an expression is required.");
     }
 
-    Optional<Entry<Pattern, Class<? extends Expression>>> matchedExpressionEntry =
-        expressions.entrySet()
-            .stream()
-            .filter(entry -> entry.getKey().matcher(expression).matches())
-            .findFirst();
-
-    if (!matchedExpressionEntry.isPresent()) {
-      /* not a valid expression */
-      return null;
-    }
-
-    Entry<Pattern, Class<? extends Expression>> matchedExpression = matchedExpressionEntry.get();
-    Pattern expressionPattern = matchedExpression.getKey();
+    Operator operator = Operator.of(expression.charAt(0));
+    String variableList =
+        (operator == Operator.SIMPLE) ? expression : expression.substring(1);
 
-    /* create a new regular expression matcher for the expression */
-    String variableName = null;
-    String variablePattern = null;
-    Matcher matcher = expressionPattern.matcher(expression);
-    if (matcher.matches()) {
-      /* we have a valid variable expression, extract the name from the first group */
-      variableName = matcher.group(2).trim();
-      if (variableName.contains(":")) {
-        /* split on the colon */
-        String[] parts = variableName.split(":");
-        variableName = parts[0];
-        variablePattern = parts[1];
+    int colon = variableList.indexOf(':');
+    if (colon >= 0 && prefixLength(variableList, colon + 1) < 0) {
+      /* a single variable, with a pattern the value must match */
+      String variableName = variableList.substring(0, colon).trim();
+      int end = variableList.indexOf(':', colon + 1);
+      String variablePattern =
+          variableList.substring(colon + 1, (end < 0) ? variableList.length() : end);
+      if (variablePattern.isEmpty()) {
+        variablePattern = null;
       }
 
       /* look for nested expressions */
@@ -81,9 +66,28 @@ public final class Expressions {
         /* nested, literal */
         return null;
       }
+      if (operator == Operator.SIMPLE) {
+        return new SimpleExpression(variableName, variablePattern);
+      }
+      return new OperatorExpression(expression, operator,
+          Collections.singletonList(new VariableSpec(variableName, false, 0)), variablePattern);
+    }
+
+    List<VariableSpec> variables = new ArrayList<>();
+    for (String spec : variableList.split(",", -1)) {
+      VariableSpec variable = VariableSpec.parse(spec.trim());
+      if (variable == null) {
+        /* not a valid variable, treat the expression as a literal */
+        return null;
+      }
+      variables.add(variable);
     }
 
-    return new SimpleExpression(variableName, variablePattern);
+    if (operator == Operator.SIMPLE && variables.size() == 1
+        && !variables.get(0).explode && variables.get(0).prefix == 0) {
+      return new SimpleExpression(variables.get(0).name, null);
+    }
+    return new OperatorExpression(expression, operator, variables, null);
   }
 
   private static String stripBraces(String expression) {
@@ -96,6 +100,128 @@ public final class Expressions {
     return expression;
   }
 
+  /**
+   * Reads the prefix length modifier starting at {@code index}, up to the next variable.
+   *
+   * @return the prefix length, or -1 if the modifier isn't one.
+   */
+  private static int prefixLength(String variableList, int index) {
+    int end = variableList.indexOf(',', index);
+    if (end < 0) {
+      end = variableList.length();
+    }
+    String modifier = variableList.substring(index, end).trim();
+    if (modifier.isEmpty() || modifier.length() > MAX_PREFIX_DIGITS
+        || modifier.charAt(0) == '0') {
+      return -1;
+    }
+    for (int i = 0; i < modifier.length(); i++) {
+      if (!Character.isDigit(modifier.charAt(i))) {
+        return -1;
+      }
+    }
+    return Integer.parseInt(modifier);
+  }
+
+  /**
+   * Expression operators, see <a href="https://tools.ietf.org/html/rfc6570#appendix-A">RFC 6570
+   * Appendix A</a>.
+   */
+  enum Operator {
+    SIMPLE("", ",", false, "", false), RESERVED("", ",", false, "", true), FRAGMENT("#", ",", false,
+        "", true), LABEL(".", ".", false, "", false), PATH_SEGMENT("/", "/", false, "",
+            false), PATH_PARAMETER(";", ";", true, "", false), FORM_QUERY("?", "&", true, "=",
+                false), FORM_CONTINUATION("&", "&", true, "=", false);
+
+    /* appended before the first defined variable */
+    final String first;
+    final String separator;
+    /* if variables are expanded as name=value pairs */
+    final boolean named;
+    /* appended after the name of a variable with an empty value */
+    final String ifEmpty;
+    /* if reserved characters and pct-encoded triplets are kept as is */
+    final boolean allowReserved;
+
+    Operator(String first, String separator, boolean named, String ifEmpty,
+        boolean allowReserved) {
+      this.first = first;
+      this.separator = separator;
+      this.named = named;
+      this.ifEmpty = ifEmpty;
+      this.allowReserved = allowReserved;
+    }
+
+    static Operator of(char operator) {
+      switch (operator) {
+        case '+':
+          return RESERVED;
+        case '#':
+          return FRAGMENT;
+        case '.':
+          return LABEL;
+        case '/':
+          return PATH_SEGMENT;
+        case ';':
+          return PATH_PARAMETER;
+        case '?':
+          return FORM_QUERY;
+        case '&':
+          return FORM_CONTINUATION;
+        default:
+          return SIMPLE;
+      }
+    }
+  }
+
+  /**
+   * A variable of an expression, with its modifiers.
+   */
+  static final class VariableSpec {
+
+    final String name;
+    final boolean explode;
+    /* maximum number of characters of the value to expand, 0 for all of them */
+    final int prefix;
+
+    VariableSpec(String name, boolean explode, int prefix) {
+      this.name = name;
+      this.explode = explode;
+      this.prefix = prefix;
+    }
+
+    /**
+     * Parses a variable, ex. {@code list*} or {@code var:3}.
+     *
+     * @return the variable, or {@literal null} if {@code spec} isn't a variable.
+     */
+    static VariableSpec parse(String spec) {
+      String name = spec;
+      boolean explode = false;
+      int prefix = 0;
+      int colon = spec.indexOf(':');
+      if (colon >= 0) {
+        prefix = prefixLength(spec, colon + 1);
+        name = spec.substring(0, colon).trim();
+      } else if (spec.endsWith("*")) {
+        explode = true;
+        name = spec.substring(0, spec.length() - 1).trim();
+      }
+      if (name.isEmpty() || prefix < 0 || name.contains("{")) {
+        return null;
+      }
+      return new VariableSpec(name, explode, prefix);
+    }
+
+    String truncate(String value) {
+      if (this.prefix == 0 || value.length() <= this.prefix
+          || value.codePointCount(0, value.length()) <= this.prefix) {
+        return value;
+      }
+      return value.substring(0, value.offsetByCodePoints(0, this.prefix));
+    }
+  }
+
   /**
    * Expression that adheres to Simple String Expansion as outlined in <a
    * href="https://tools.ietf.org/html/rfc6570#section-3.2.2>Simple String Expansion (Level 1)</a>
@@ -110,50 +236,268 @@ public final class Expressions {
       return UriUtils.encode(value.toString(), Util.UTF_8);
     }
 
+    void encode(Object value, StringBuilder buffer) {
+      if (isIntegral(value)) {
+        /* digits and the minus sign are unreserved, nothing to encode */
+        buffer.append(((Number) value).longValue());
+      } else {
+        UriUtils.encode(value.toString(), Util.UTF_8, buffer);
+      }
+    }
+
     @Override
-    String expand(Object variable, boolean encode) {
-      StringBuilder expanded = new StringBuilder();
+    void expand(Object variable, boolean encode, StringBuilder buffer) {
+      int start = buffer.length();
       if (Iterable.class.isAssignableFrom(variable.getClass())) {
-        expanded.append(this.expandIterable((Iterable<?>) variable));
+        this.expandIterable((Iterable<?>) variable, buffer);
+      } else if (variable instanceof Map) {
+        this.expandMap((Map<?, ?>) variable, encode, buffer);
+      } else if (encode) {
+        this.encode(variable, buffer);
       } else {
-        expanded.append((encode) ? encode(variable) : variable);
+        buffer.append(variable);
       }
 
-      /* return the string value of the variable */
-      String result = expanded.toString();
-      if (!this.matches(result)) {
-        throw new IllegalArgumentException("Value " + expanded
+      /* check the value of the variable */
+      if (this.getPattern() != null
+          && !this.matches(CharBuffer.wrap(buffer, start, buffer.length()))) {
+        throw new IllegalArgumentException("Value " + buffer.substring(start)
             + " does not match the expression pattern: " + this.getPattern());
       }
-      return result;
     }
 
-
-    private String expandIterable(Iterable<?> values) {
-      StringBuilder result = new StringBuilder();
+    /*
+     * appends each value once, reserving room for all of them based on the first, so that large
+     * collections expand in linear time
+     */
+    private void expandIterable(Iterable<?> values, StringBuilder buffer) {
+      int start = buffer.length();
+      int remaining = values instanceof Collection ? ((Collection<?>) values).size() : 0;
       for (Object value : values) {
+        remaining--;
         if (value == null) {
           /* skip */
           continue;
         }
 
         /* expand the value */
-        String expanded = this.encode(value);
-        if (expanded.isEmpty()) {
-          /* always append the separator */
-          result.append(",");
+        if (isIntegral(value)) {
+          appendSeparator(buffer, start);
+          buffer.append(((Number) value).longValue());
         } else {
-          if (result.length() != 0) {
-            if (!result.toString().equalsIgnoreCase(",")) {
-              result.append(",");
-            }
+          String unencoded = value.toString();
+          if (unencoded.isEmpty()) {
+            /* always append the separator */
+            buffer.append(",");
+          } else {
+            appendSeparator(buffer, start);
+            UriUtils.encode(unencoded, Util.UTF_8, buffer);
+          }
+        }
+
+        if (remaining > 0) {
+          buffer.ensureCapacity(buffer.length() + (buffer.length() - start + 1) * remaining);
+          remaining = 0;
+        }
+      }
+    }
+
+    private static void appendSeparator(StringBuilder buffer, int start) {
+      int length = buffer.length() - start;
+      if (length != 0) {
+        if (length != 1 || buffer.charAt(start) != ',') {
+          buffer.append(",");
+        }
+      }
+    }
+
+    private static boolean isIntegral(Object value) {
+      return value instanceof Long || value instanceof Integer || value instanceof Short
+          || value instanceof Byte;
+    }
+
+    /* associative arrays expand to their keys and values, ex. semi,%3B,dot,. */
+    private void expandMap(Map<?, ?> values, boolean encode, StringBuilder buffer) {
+      int start = buffer.length();
+      for (Entry<?, ?> entry : values.entrySet()) {
+        if (entry.getValue() == null) {
+          continue;
+        }
+        if (buffer.length() > start) {
+          buffer.append(",");
+        }
+        OperatorExpression.append(entry.getKey().toString(), encode, false, buffer);
+        buffer.append(",");
+        OperatorExpression.append(entry.getValue().toString(), encode, false, buffer);
+      }
+    }
+  }
+
+  /**
+   * Expression with an operator, variable list or modifiers, as outlined in
+   * <a href="https://tools.ietf.org/html/rfc6570#section-3.2">Expression Expansion (Level 4)</a>.
+   */
+  static final class OperatorExpression extends Expression {
+
+    private final String expression;
+    private final Operator operator;
+    private final VariableSpec[] variables;
+
+    OperatorExpression(String expression, Operator operator, List<VariableSpec> variables,
+        String pattern) {
+      super(variables.get(0).name, pattern);
+      this.expression = expression;
+      this.operator = operator;
+      this.variables = variables.toArray(new VariableSpec[0]);
+    }
+
+    @Override
+    void expand(Object variable, boolean encode, StringBuilder buffer) {
+      buffer.append(this.operator.first);
+      this.expandVariable(this.variables[0], variable, encode, buffer);
+    }
+
+    @Override
+    boolean expand(Map<String, ?> variables, boolean encode, StringBuilder buffer) {
+      boolean defined = false;
+      for (VariableSpec variable : this.variables) {
+        Object value = variables.get(variable.name);
+        if (isUndefined(value)) {
+          continue;
+        }
+        buffer.append(defined ? this.operator.separator : this.operator.first);
+        this.expandVariable(variable, value, encode, buffer);
+        defined = true;
+      }
+      return defined;
+    }
+
+    private void expandVariable(VariableSpec variable,
+                                Object value,
+                                boolean encode,
+                                StringBuilder buffer) {
+      int start = buffer.length();
+      if (value instanceof Iterable) {
+        this.expandList(variable, (Iterable<?>) value, encode, buffer);
+      } else if (value instanceof Map) {
+        this.expandMap(variable, (Map<?, ?>) value, encode, buffer);
+      } else {
+        String string = variable.truncate(value.toString());
+        if (this.operator.named) {
+          buffer.append(variable.name);
+          if (string.isEmpty()) {
+            buffer.append(this.operator.ifEmpty);
+            return;
+          }
+          buffer.append('=');
+          start = buffer.length();
+        }
+        append(string, encode, this.operator.allowReserved, buffer);
+      }
+
+      /* check the value of the variable */
+      if (this.getPattern() != null
+          && !this.matches(CharBuffer.wrap(buffer, start, buffer.length()))) {
+        throw new IllegalArgumentException("Value " + buffer.substring(start)
+            + " does not match the expression pattern: " + this.getPattern());
+      }
+    }
+
+    private void expandList(VariableSpec variable,
+                            Iterable<?> values,
+                            boolean encode,
+                            StringBuilder buffer) {
+      if (!variable.explode && this.operator.named) {
+        buffer.append(variable.name).append('=');
+      }
+      boolean first = true;
+      for (Object value : values) {
+        if (value == null) {
+          continue;
+        }
+        if (!first) {
+          buffer.append(variable.explode ? this.operator.separator : ",");
+        }
+        first = false;
+        String string = value.toString();
+        if (variable.explode && this.operator.named) {
+          buffer.append(variable.name);
+          if (string.isEmpty()) {
+            buffer.append(this.operator.ifEmpty);
+            continue;
           }
-          result.append(expanded);
+          buffer.append('=');
+        }
+        append(string, encode, this.operator.allowReserved, buffer);
+      }
+    }
+
+    private void expandMap(VariableSpec variable,
+                           Map<?, ?> values,
+                           boolean encode,
+                           StringBuilder buffer) {
+      if (!variable.explode && this.operator.named) {
+        buffer.append(variable.name).append('=');
+      }
+      boolean first = true;
+      for (Entry<?, ?> entry : values.entrySet()) {
+        if (entry.getValue() == null) {
+          continue;
+        }
+        if (!first) {
+          buffer.append(variable.explode ? this.operator.separator : ",");
         }
+        first = false;
+        String value = entry.getValue().toString();
+        append(entry.getKey().toString(), encode, this.operator.allowReserved, buffer);
+        if (!variable.explode) {
+          buffer.append(',');
+        } else if (this.operator.named && value.isEmpty()) {
+          buffer.append(this.operator.ifEmpty);
+          continue;
+        } else {
+          buffer.append('=');
+        }
+        append(value, encode, this.operator.allowReserved, buffer);
       }
+    }
 
-      /* return the expanded value */
-      return result.toString();
+    /* null values and empty lists or maps are undefined, see RFC 6570 section 2.3 */
+    private static boolean isUndefined(Object value) {
+      if (value == null) {
+        return true;
+      }
+      if (value instanceof Iterable) {
+        return !((Iterable<?>) value).iterator().hasNext();
+      }
+      return value instanceof Map && ((Map<?, ?>) value).isEmpty();
+    }
+
+    static void append(String value,
+                       boolean encode,
+                       boolean allowReserved,
+                       StringBuilder buffer) {
+      if (!encode) {
+        buffer.append(value);
+      } else if (allowReserved) {
+        UriUtils.encode(value, Util.UTF_8, true, buffer);
+      } else {
+        UriUtils.encode(value, Util.UTF_8, buffer);
+      }
+    }
+
+    @Override
+    List<String> getVariables() {
+      List<String> names = new ArrayList<>(this.variables.length);
+      for (VariableSpec variable : this.variables) {
+        names.add(variable.name);
+      }
+      return names;
+    }
+
+    @Override
+    public String getValue() {
+      return "{" + this.expression + "}";
     }
   }
 }
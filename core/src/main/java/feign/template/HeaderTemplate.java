@@ -139,16 +139,37 @@ public final class HeaderTemplate extends Template {
   }
 
   @Override
-  public String expand(Map<String, ?> variables) {
-    String result = super.expand(variables);
+  public boolean expand(Map<String, ?> variables, StringBuilder buffer) {
+    int start = buffer.length();
+    if (!super.expand(variables, buffer)) {
+      return false;
+    }
 
     /* remove any trailing commas */
-    while (result.endsWith(",")) {
-      result = result.replaceAll(",$", "");
+    int end = buffer.length();
+    while (end > start && buffer.charAt(end - 1) == ',') {
+      end--;
     }
+    buffer.setLength(end);
 
     /* space all the commas now */
-    result = result.replaceAll(",", ", ");
-    return result;
+    int commas = 0;
+    for (int i = start; i < end; i++) {
+      if (buffer.charAt(i) == ',') {
+        commas++;
+      }
+    }
+    if (commas > 0) {
+      /* shift the values right, from the end, making room for the spaces */
+      buffer.setLength(end + commas);
+      for (int read = end - 1, write = end + commas - 1; read >= start; read--) {
+        char c = buffer.charAt(read);
+        if (c == ',') {
+          buffer.setCharAt(write--, ' ');
+        }
+        buffer.setCharAt(write--, c);
+      }
+    }
+    return true;
   }
 }
@@ -20,7 +20,6 @@ import feign.template.Template.ExpansionOptions;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -38,6 +37,9 @@ public final class QueryTemplate {
   private List<Template> values;
   private final Template name;
   private final CollectionFormat collectionFormat;
+  /* the pct-encoded name and separator, as CollectionFormat#join writes them */
+  private final String encodedName;
+  private final String encodedSeparator;
   private boolean pure = false;
 
   /**
@@ -90,6 +92,50 @@ public final class QueryTemplate {
     return new QueryTemplate(name, remaining, charset, collectionFormat, decodeSlash);
   }
 
+  /**
+   * Create a new Query Template out of a name and values that are already pct-encoded, as
+   * {@link UriUtils#encode(String)} encodes them. They are taken as literals, without looking for
+   * expressions or encoding them again.
+   *
+   * @param encodedName of the query parameter.
+   * @param encodedValues of the query parameter.
+   * @param charset for the template.
+   * @param collectionFormat to use.
+   * @param decodeSlash if slash characters should be decoded
+   * @return a QueryTemplate
+   */
+  public static QueryTemplate literal(String encodedName,
+                                      Iterable<String> encodedValues,
+                                      Charset charset,
+                                      CollectionFormat collectionFormat,
+                                      boolean decodeSlash) {
+    if (Util.isBlank(encodedName)) {
+      throw new IllegalArgumentException("name is required.");
+    }
+
+    if (encodedValues == null) {
+      throw new IllegalArgumentException("values are required");
+    }
+
+    List<Template> values = new ArrayList<>();
+    for (String value : encodedValues) {
+      if (Util.isNotBlank(value)) {
+        values.add(literalTemplate(value, ExpansionOptions.REQUIRED, charset, decodeSlash));
+      }
+    }
+    return new QueryTemplate(
+        literalTemplate(encodedName, ExpansionOptions.ALLOW_UNRESOLVED, charset, decodeSlash),
+        encodedName, values, collectionFormat);
+  }
+
+  private static Template literalTemplate(String encoded,
+                                          ExpansionOptions expansionOptions,
+                                          Charset charset,
+                                          boolean decodeSlash) {
+    return new Template(expansionOptions, EncodingOptions.REQUIRED, !decodeSlash, charset,
+        Collections.singletonList(Literal.create(encoded)));
+  }
+
   /**
    * Append a value to the Query Template.
    *
@@ -126,6 +172,12 @@ public final class QueryTemplate {
     this.name = new Template(name, ExpansionOptions.ALLOW_UNRESOLVED, EncodingOptions.REQUIRED,
         !decodeSlash, charset);
     this.collectionFormat = collectionFormat;
+    this.encodedName = this.name.isLiteral()
+        ? UriUtils.encode(this.name.toString(), StandardCharsets.UTF_8)
+        : null;
+    this.encodedSeparator = collectionFormat.separator() != null
+        ? UriUtils.encode(collectionFormat.separator(), StandardCharsets.UTF_8)
+        : null;
 
     /* parse each value into a template chunk for resolution later */
     for (String value : values) {
@@ -150,10 +202,26 @@ public final class QueryTemplate {
     }
   }
 
+  private QueryTemplate(Template name,
+      String encodedName,
+      List<Template> values,
+      CollectionFormat collectionFormat) {
+    this.values = new CopyOnWriteArrayList<>(values);
+    this.name = name;
+    this.collectionFormat = collectionFormat;
+    this.encodedName = encodedName;
+    this.encodedSeparator = collectionFormat.separator() != null
+        ? UriUtils.encode(collectionFormat.separator(), StandardCharsets.UTF_8)
+        : null;
+    this.pure = this.values.isEmpty();
+  }
+
   public List<String> getValues() {
-    return Collections.unmodifiableList(this.values.stream()
-        .map(Template::toString)
-        .collect(Collectors.toList()));
+    List<String> values = new ArrayList<>(this.values.size());
+    for (Template template : this.values) {
+      values.add(template.toString());
+    }
+    return Collections.unmodifiableList(values);
   }
 
   public List<String> getVariables() {
@@ -181,16 +249,39 @@ public final class QueryTemplate {
    * @return the expanded template.
    */
   public String expand(Map<String, ?> variables) {
-    String name = this.name.expand(variables);
+    StringBuilder expanded = new StringBuilder();
+    if (!this.expand(variables, expanded)) {
+      return null;
+    }
+    return expanded.toString();
+  }
 
+  /**
+   * Expand this template, appending the result to {@code buffer}. See {@link #expand(Map)}.
+   *
+   * @param variables containing the values for expansion.
+   * @param buffer to append the expanded template to.
+   * @return {@literal true} if the template was appended, {@literal false} if all values remain
+   *         unresolved, in which case the buffer is left untouched.
+   */
+  public boolean expand(Map<String, ?> variables, StringBuilder buffer) {
     if (this.pure) {
-      return name;
+      return this.name.expand(variables, buffer);
     }
 
-    List<String> expanded = new ArrayList<>();
+    String name = this.encodedName;
+    if (name == null) {
+      name = UriUtils.encode(this.name.expand(variables), StandardCharsets.UTF_8);
+    }
+
+    int start = buffer.length();
+    int count = 0;
     for (Template template : this.values) {
-      String result = template.expand(variables);
-      if (result == null) {
+      int mark = buffer.length();
+      this.appendSeparator(name, count, buffer);
+      int valueStart = buffer.length();
+      if (!template.expand(variables, buffer)) {
+        buffer.setLength(mark);
         continue;
       }
 
@@ -198,15 +289,45 @@ public final class QueryTemplate {
        * check for an iterable result, and if one is there, we need to split it into individual
        * values
        */
-      if (result.contains(",")) {
-        /* we need to split it */
-        expanded.addAll(Arrays.asList(result.split(",")));
+      if (buffer.indexOf(",", valueStart) < 0) {
+        count++;
       } else {
-        expanded.add(result);
+        /* we need to split it, in a single pass as String#split would, without trailing values */
+        String result = buffer.substring(valueStart);
+        buffer.setLength(mark);
+        int end = result.length();
+        while (end > 0 && result.charAt(end - 1) == ',') {
+          end--;
+        }
+        int from = 0;
+        while (from <= end && end > 0) {
+          int to = result.indexOf(',', from);
+          if (to < 0 || to > end) {
+            to = end;
+          }
+          this.appendSeparator(name, count++, buffer);
+          buffer.append(result, from, to);
+          from = to + 1;
+        }
       }
     }
 
-    return this.queryString(name, Collections.unmodifiableList(expanded));
+    /* when all values are unresolved, there is nothing to append */
+    return buffer.length() > start;
+  }
+
+  /**
+   * Appends what precedes a value, {@code name=} for the first one.
+   */
+  private void appendSeparator(String name, int count, StringBuilder buffer) {
+    if (count == 0) {
+      buffer.append(name).append('=');
+    } else if (this.encodedSeparator == null) {
+      /* exploded */
+      buffer.append('&').append(name).append('=');
+    } else {
+      buffer.append(this.encodedSeparator);
+    }
   }
 
 
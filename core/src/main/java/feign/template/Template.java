@@ -19,6 +19,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -38,6 +39,8 @@ public class Template {
   private final boolean encodeSlash;
   private final Charset charset;
   private final List<TemplateChunk> templateChunks = new ArrayList<>();
+  /* computed once the chunks are known, as the chunks never change */
+  private final boolean literal;
 
   /**
    * Create a new Template.
@@ -59,6 +62,7 @@ public class Template {
     this.encodeSlash = encodeSlash;
     this.charset = charset;
     this.parseTemplate();
+    this.literal = this.hasNoExpressions();
   }
 
   /**
@@ -78,6 +82,7 @@ public class Template {
     this.encodeSlash = encodeSlash;
     this.charset = charset;
     this.template = this.toString();
+    this.literal = this.hasNoExpressions();
   }
 
   /**
@@ -87,61 +92,117 @@ public class Template {
    * @return a fully qualified URI with the variables expanded.
    */
   public String expand(Map<String, ?> variables) {
+    StringBuilder resolved = new StringBuilder();
+    if (!this.expand(variables, resolved)) {
+      /* entire template is unresolved */
+      return null;
+    }
+    return resolved.toString();
+  }
+
+  /**
+   * Expand the template, appending the result to {@code buffer}. Allows several templates to be
+   * expanded into the same buffer, without intermediate Strings.
+   *
+   * @param variables containing the values for expansion.
+   * @param buffer to append the expanded template to.
+   * @return {@literal true} if any part of the template was resolved, {@literal false} if the
+   *         entire template is unresolved.
+   */
+  public boolean expand(Map<String, ?> variables, StringBuilder buffer) {
     if (variables == null) {
       throw new IllegalArgumentException("variable map is required.");
     }
 
     /* resolve all expressions within the template */
-    StringBuilder resolved = null;
+    boolean resolved = false;
     for (TemplateChunk chunk : this.templateChunks) {
-      String expanded;
       if (chunk instanceof Expression) {
-        expanded = this.resolveExpression((Expression) chunk, variables);
+        resolved |= this.resolveExpression((Expression) chunk, variables, buffer);
       } else {
         /* chunk is a literal value */
-        expanded = chunk.getValue();
-      }
-      if (expanded == null) {
-        continue;
+        buffer.append(chunk.getValue());
+        resolved = true;
       }
-
-      /* append it to the result */
-      if (resolved == null) {
-        resolved = new StringBuilder();
-      }
-      resolved.append(expanded);
     }
+    return resolved;
+  }
 
-    if (resolved == null) {
-      /* entire template is unresolved */
-      return null;
+  /**
+   * Expand the template a chunk at a time, passing each literal and each expanded expression to
+   * {@code sink} as soon as it is known, instead of collecting them in one buffer.
+   *
+   * @param variables containing the values for expansion.
+   * @param scratch to expand expressions into, reused for each of them.
+   * @param sink receiving the expanded chunks, in order. Must not keep the chunk it is given.
+   * @return {@literal true} if any part of the template was resolved.
+   */
+  boolean expand(Map<String, ?> variables, StringBuilder scratch, Consumer<CharSequence> sink) {
+    if (variables == null) {
+      throw new IllegalArgumentException("variable map is required.");
     }
 
-    return resolved.toString();
+    boolean resolved = false;
+    for (TemplateChunk chunk : this.templateChunks) {
+      if (chunk instanceof Expression) {
+        scratch.setLength(0);
+        if (this.resolveExpression((Expression) chunk, variables, scratch)) {
+          sink.accept(scratch);
+          resolved = true;
+        }
+      } else {
+        sink.accept(chunk.getValue());
+        resolved = true;
+      }
+    }
+    return resolved;
   }
 
   protected String resolveExpression(
                                      Expression expression,
                                      Map<String, ?> variables) {
-    String resolved = null;
-    Object value = variables.get(expression.getName());
-    if (value != null) {
-      String expanded = expression.expand(
-          value, this.encode.isEncodingRequired());
-      if (expanded != null) {
-        if (!this.encodeSlash) {
-          logger.fine("Explicit slash decoding specified, decoding all slashes in uri");
-          expanded = expanded.replaceAll("%2F", "/");
-        }
-        resolved = expanded;
+    StringBuilder resolved = new StringBuilder();
+    if (!this.resolveExpression(expression, variables, resolved)) {
+      return null;
+    }
+    return resolved.toString();
+  }
+
+  private boolean resolveExpression(Expression expression,
+                                    Map<String, ?> variables,
+                                    StringBuilder buffer) {
+    int start = buffer.length();
+    if (expression.expand(variables, this.encode.isEncodingRequired(), buffer)) {
+      if (!this.encodeSlash) {
+        logger.fine("Explicit slash decoding specified, decoding all slashes in uri");
+        decodeSlashes(buffer, start);
       }
-    } else {
-      if (this.allowUnresolved) {
-        /* unresolved variables are treated as literals */
-        resolved = encodeLiteral(expression.toString());
+      return true;
+    }
+    if (this.allowUnresolved) {
+      /* unresolved variables are treated as literals */
+      buffer.append(encodeLiteral(expression.toString()));
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Replaces each {@code %2F} after {@code start} with a slash, in place.
+   */
+  private static void decodeSlashes(StringBuilder buffer, int start) {
+    int length = buffer.length();
+    int write = start;
+    for (int read = start; read < length; read++) {
+      char c = buffer.charAt(read);
+      if (c == '%' && read + 2 < length
+          && buffer.charAt(read + 1) == '2' && buffer.charAt(read + 2) == 'F') {
+        c = '/';
+        read += 2;
       }
+      buffer.setCharAt(write++, c);
     }
-    return resolved;
+    buffer.setLength(write);
   }
 
   /**
@@ -162,8 +223,7 @@ public class Template {
   public List<String> getVariables() {
     return this.templateChunks.stream()
         .filter(templateChunk -> Expression.class.isAssignableFrom(templateChunk.getClass()))
-        .map(templateChunk -> ((Expression) templateChunk).getName())
-        .filter(Objects::nonNull)
+        .flatMap(templateChunk -> ((Expression) templateChunk).getVariables().stream())
         .collect(Collectors.toList());
   }
 
@@ -190,7 +250,16 @@ public class Template {
    * @return true if this template is made up entirely of literal strings.
    */
   public boolean isLiteral() {
-    return this.getVariables().isEmpty();
+    return this.literal;
+  }
+
+  private boolean hasNoExpressions() {
+    for (TemplateChunk chunk : this.templateChunks) {
+      if (chunk instanceof Expression) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
@@ -229,8 +298,15 @@ public class Template {
 
   @Override
   public String toString() {
-    return this.templateChunks.stream()
-        .map(TemplateChunk::getValue).collect(Collectors.joining());
+    if (this.templateChunks.size() == 1) {
+      /* ex. the literal values of a query map */
+      return this.templateChunks.get(0).getValue();
+    }
+    StringBuilder value = new StringBuilder();
+    for (TemplateChunk chunk : this.templateChunks) {
+      value.append(chunk.getValue());
+    }
+    return value.toString();
   }
 
   public boolean encodeLiteral() {
@@ -14,32 +14,44 @@
 package feign.template;
 
 import feign.Util;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.Charset;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class UriUtils {
 
-  private static final Pattern PCT_ENCODED_PATTERN = Pattern.compile("%[0-9A-Fa-f][0-9A-Fa-f]");
+  /* classes of the ascii characters, see RFC 3986 section 2 */
+  private static final byte OTHER = 0;
+  private static final byte UNRESERVED = 1;
+  private static final byte RESERVED = 2;
+  private static final byte[] ASCII = new byte[128];
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+  static {
+    for (int c = 0; c < ASCII.length; c++) {
+      ASCII[c] = isUnreserved(c) ? UNRESERVED : isReserved(c) ? RESERVED : OTHER;
+    }
+  }
 
   /**
    * Determines if the value is already pct-encoded.
    *
    * @param value to check.
+   * @param charset of the value, ascii characters are expected to be single bytes.
    * @return {@literal true} if the value is already pct-encoded
    */
   public static boolean isEncoded(String value, Charset charset) {
-    for (byte b : value.getBytes(charset)) {
-      if (!isUnreserved((char) b) && b != '%') {
+    boolean pctEncoded = false;
+    for (int i = 0, length = value.length(); i < length; i++) {
+      char c = value.charAt(i);
+      if (c == '%') {
+        pctEncoded |= isPctEncoded(value, i);
+      } else if (c >= ASCII.length || ASCII[c] != UNRESERVED) {
         /* break if there are any unreserved character */
         return false;
       }
     }
-    return PCT_ENCODED_PATTERN.matcher(value).find();
+    return pctEncoded;
   }
 
   /**
@@ -63,6 +75,21 @@ public class UriUtils {
     return encodeChunk(value, charset, false);
   }
 
+  /**
+   * Uri Encode the value into {@code encoded}, as {@link #encode(String, Charset)} does.
+   *
+   * @param value to encode.
+   * @param charset to use.
+   * @param encoded to append the encoded value to.
+   * @return {@code encoded}
+   */
+  public static StringBuilder encode(String value, Charset charset, StringBuilder encoded) {
+    if (isEncoded(value, charset)) {
+      return encoded.append(value);
+    }
+    return appendEncoded(value, 0, value.length(), charset, false, encoded);
+  }
+
   public static String encode(String value, boolean allowReservedCharacters) {
     return encodeInternal(value, Util.UTF_8, allowReservedCharacters);
   }
@@ -71,6 +98,22 @@ public class UriUtils {
     return encodeInternal(value, charset, allowReservedCharacters);
   }
 
+  /**
+   * Uri Encode the value into {@code encoded}, as {@link #encode(String, Charset, boolean)} does.
+   *
+   * @param value to encode.
+   * @param charset to use.
+   * @param allowReservedCharacters if reserved characters should be preserved.
+   * @param encoded to append the encoded value to.
+   * @return {@code encoded}
+   */
+  public static StringBuilder encode(String value,
+                                     Charset charset,
+                                     boolean allowReservedCharacters,
+                                     StringBuilder encoded) {
+    return encodeInternal(value, charset, allowReservedCharacters, encoded);
+  }
+
   /**
    * Uri Decode the value.
    *
@@ -111,34 +154,40 @@ public class UriUtils {
   public static String encodeInternal(String value,
                                       Charset charset,
                                       boolean allowReservedCharacters) {
-    /* value is encoded, we need to split it up and skip the parts that are already encoded */
-    Matcher matcher = PCT_ENCODED_PATTERN.matcher(value);
-
-    if (!matcher.find()) {
-      return encodeChunk(value, charset, true);
+    if (isUnreserved(value)) {
+      /* nothing to encode, nor any pct-encoded value to skip */
+      return value;
     }
+    return encodeInternal(value, charset, allowReservedCharacters,
+        new StringBuilder(value.length() + 16)).toString();
+  }
 
+  private static StringBuilder encodeInternal(String value,
+                                              Charset charset,
+                                              boolean allowReservedCharacters,
+                                              StringBuilder encoded) {
     int length = value.length();
-    StringBuilder encoded = new StringBuilder(length + 8);
-    int index = 0;
-    do {
-      /* split out the value before the encoded value */
-      String before = value.substring(index, matcher.start());
-
-      /* encode it */
-      encoded.append(encodeChunk(before, charset, allowReservedCharacters));
-
-      /* append the encoded value */
-      encoded.append(matcher.group());
-
-      /* update the string search index */
-      index = matcher.end();
-    } while (matcher.find());
+    int index = value.indexOf('%');
+    while (index >= 0 && !isPctEncoded(value, index)) {
+      index = value.indexOf('%', index + 1);
+    }
+    if (index < 0) {
+      /* nothing is pct-encoded yet, reserved characters are always preserved */
+      return appendEncoded(value, 0, length, charset, true, encoded);
+    }
 
-    /* append the rest of the string */
-    String tail = value.substring(index, length);
-    encoded.append(encodeChunk(tail, charset, allowReservedCharacters));
-    return encoded.toString();
+    /* value is encoded, skip the parts that are already encoded and encode the others */
+    int start = 0;
+    while (index >= 0) {
+      appendEncoded(value, start, index, charset, allowReservedCharacters, encoded);
+      encoded.append(value, index, index + 3);
+      start = index + 3;
+      index = value.indexOf('%', start);
+      while (index >= 0 && !isPctEncoded(value, index)) {
+        index = value.indexOf('%', index + 1);
+      }
+    }
+    return appendEncoded(value, start, length, charset, allowReservedCharacters, encoded);
   }
 
   /**
@@ -149,43 +198,148 @@ public class UriUtils {
    * @return an encoded uri chunk.
    */
   private static String encodeChunk(String value, Charset charset, boolean allowReserved) {
-    if (isEncoded(value, charset)) {
+    if (isUnreserved(value) || isEncoded(value, charset)) {
       return value;
     }
+    return appendEncoded(value, 0, value.length(), charset, allowReserved,
+        new StringBuilder(value.length() + 16)).toString();
+  }
 
-    byte[] data = value.getBytes(charset);
-    try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-      for (byte b : data) {
-        if (isUnreserved((char) b)) {
-          bos.write(b);
-        } else if (isReserved((char) b) && allowReserved) {
-          bos.write(b);
+  /**
+   * Encodes the characters of {@code value} between {@code start} and {@code end}, in a single
+   * pass. Ascii characters are classified with a lookup table, others are pct-encoded as the bytes
+   * of their {@code charset} representation.
+   */
+  private static StringBuilder appendEncoded(String value,
+                                             int start,
+                                             int end,
+                                             Charset charset,
+                                             boolean allowReserved,
+                                             StringBuilder encoded) {
+    boolean utf8 = Util.UTF_8.equals(charset);
+    int i = start;
+    while (i < end) {
+      char c = value.charAt(i);
+      if (c < ASCII.length) {
+        /* copy runs of characters that are kept as is at once */
+        int runEnd = i;
+        while (runEnd < end && isKept(value.charAt(runEnd), allowReserved)) {
+          runEnd++;
+        }
+        if (runEnd > i) {
+          encoded.append(value, i, runEnd);
+          i = runEnd;
         } else {
-          pctEncode(b, bos);
+          pctEncode((byte) c, encoded);
+          i++;
+        }
+      } else if (utf8) {
+        i = appendUtf8(value, i, end, allowReserved, encoded);
+      } else {
+        int runEnd = i + 1;
+        while (runEnd < end && value.charAt(runEnd) >= ASCII.length) {
+          runEnd++;
         }
+        for (byte b : value.substring(i, runEnd).getBytes(charset)) {
+          if (b >= 0) {
+            appendAscii((char) b, allowReserved, encoded);
+          } else {
+            pctEncode(b, encoded);
+          }
+        }
+        i = runEnd;
       }
-      return new String(bos.toByteArray(), charset);
-    } catch (IOException ioe) {
-      throw new IllegalStateException("Error occurred during encoding of the uri: "
-          + ioe.getMessage(), ioe);
+    }
+    return encoded;
+  }
+
+  private static boolean isKept(char c, boolean allowReserved) {
+    if (c >= ASCII.length) {
+      return false;
+    }
+    byte type = ASCII[c];
+    return type == UNRESERVED || (type == RESERVED && allowReserved);
+  }
+
+  private static void appendAscii(char c, boolean allowReserved, StringBuilder encoded) {
+    if (isKept(c, allowReserved)) {
+      encoded.append(c);
+    } else {
+      pctEncode((byte) c, encoded);
     }
   }
 
+  /**
+   * Encodes the non ascii character at {@code index} as utf-8.
+   *
+   * @return the index of the next character.
+   */
+  private static int appendUtf8(String value,
+                                int index,
+                                int end,
+                                boolean allowReserved,
+                                StringBuilder encoded) {
+    char c = value.charAt(index);
+    int codePoint;
+    if (Character.isHighSurrogate(c) && index + 1 < end
+        && Character.isLowSurrogate(value.charAt(index + 1))) {
+      codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+    } else if (Character.isSurrogate(c)) {
+      /* malformed, replaced as String.getBytes does */
+      appendAscii('?', allowReserved, encoded);
+      return index + 1;
+    } else {
+      codePoint = c;
+    }
+    if (codePoint < 0x800) {
+      pctEncode((byte) (0xC0 | (codePoint >> 6)), encoded);
+    } else if (codePoint < 0x10000) {
+      pctEncode((byte) (0xE0 | (codePoint >> 12)), encoded);
+      pctEncode((byte) (0x80 | ((codePoint >> 6) & 0x3F)), encoded);
+    } else {
+      pctEncode((byte) (0xF0 | (codePoint >> 18)), encoded);
+      pctEncode((byte) (0x80 | ((codePoint >> 12) & 0x3F)), encoded);
+      pctEncode((byte) (0x80 | ((codePoint >> 6) & 0x3F)), encoded);
+    }
+    pctEncode((byte) (0x80 | (codePoint & 0x3F)), encoded);
+    return index + Character.charCount(codePoint);
+  }
+
   /**
    * Percent Encode the provided byte.
    *
    * @param data to encode
-   * @param bos with the output stream to use.
+   * @param encoded to append to.
+   */
+  private static void pctEncode(byte data, StringBuilder encoded) {
+    encoded.append('%').append(HEX[(data >> 4) & 0xF]).append(HEX[data & 0xF]);
+  }
+
+  /**
+   * Determines if a pct-encoded triplet, ex. {@code %2F}, starts at {@code index}.
    */
-  private static void pctEncode(byte data, ByteArrayOutputStream bos) {
-    bos.write('%');
-    char hex1 = Character.toUpperCase(Character.forDigit((data >> 4) & 0xF, 16));
-    char hex2 = Character.toUpperCase(Character.forDigit(data & 0xF, 16));
-    bos.write(hex1);
-    bos.write(hex2);
+  private static boolean isPctEncoded(String value, int index) {
+    return index + 2 < value.length()
+        && value.charAt(index) == '%'
+        && isHexDigit(value.charAt(index + 1))
+        && isHexDigit(value.charAt(index + 2));
   }
 
+  /* ASCII only, unlike Character.digit which accepts ex. fullwidth digits */
+  private static boolean isHexDigit(char c) {
+    return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
 
+  /* the common case, ex. ids: nothing to encode */
+  private static boolean isUnreserved(String value) {
+    for (int i = 0, length = value.length(); i < length; i++) {
+      char c = value.charAt(i);
+      if (c >= ASCII.length || ASCII[c] != UNRESERVED) {
+        return false;
+      }
+    }
+    return true;
+  }
 
   private static boolean isAlpha(int c) {
     return (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z');
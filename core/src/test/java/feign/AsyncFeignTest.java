@@ -103,6 +103,45 @@ public class AsyncFeignTest {
     assertEquals("foo", response.body().toString());
   }
 
+  @Test
+  public void virtualThreadsFallBackWhenUnsupported() throws Throwable {
+    server.enqueue(new MockResponse().setBody("foo"));
+
+    server.enqueue(new MockResponse().setBody("bar"));
+
+    TestInterfaceAsync api = AsyncFeign.<Void>asyncBuilder()
+        .virtualThreads()
+        .target(TestInterfaceAsync.class, "http://localhost:" + server.getPort());
+
+    Response response = unwrap(api.response());
+    assertEquals("foo", response.body().toString());
+
+    /* the same client, recording the thread it runs on */
+    AtomicReference<Thread> executing = new AtomicReference<>();
+    Client delegate = new Client.Default(null, null);
+    TestInterfaceAsync recorded = AsyncFeign.<Void>asyncBuilder()
+        .client(AsyncClient.Default.virtualThreadPerRequest((request, options) -> {
+          executing.set(Thread.currentThread());
+          return delegate.execute(request, options);
+        }))
+        .target(TestInterfaceAsync.class, "http://localhost:" + server.getPort());
+
+    assertEquals("bar", unwrap(recorded.response()).body().toString());
+    Thread thread = executing.get();
+    assertNotSame(Thread.currentThread(), thread);
+    assertEquals(VirtualThreads.isSupported(), isVirtual(thread));
+    /* otherwise the shared pool of AsyncFeign, whose threads are daemons */
+    assertTrue(thread.isDaemon());
+  }
+
+  private static boolean isVirtual(Thread thread) throws Exception {
+    try {
+      return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
   @Test
   public void postFormParams() throws Exception {
     server.enqueue(new MockResponse().setBody("foo"));
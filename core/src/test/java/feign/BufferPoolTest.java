@@ -0,0 +1,213 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static feign.Util.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+public class BufferPoolTest {
+
+  private final BufferPool pool = new BufferPool.Default(8 * 1024);
+
+  @Test
+  public void reusesReleasedBuffersOfTheSameSizeClass() {
+    byte[] buffer = pool.acquire(1500);
+    assertThat(buffer).hasSize(2048);
+
+    pool.release(buffer);
+
+    assertThat(pool.acquire(1025)).isSameAs(buffer);
+    assertThat(pool.acquire(2048)).isNotSameAs(buffer);
+  }
+
+  @Test
+  public void doesntPoolBuffersLargerThanItsMaximum() {
+    byte[] buffer = pool.acquire(10000);
+    assertThat(buffer).hasSize(10000);
+
+    pool.release(buffer);
+    byte[] odd = new byte[3000];
+    pool.release(odd);
+
+    assertThat(pool.acquire(10000)).isNotSameAs(buffer);
+    assertThat(pool.acquire(3000)).isNotSameAs(odd);
+  }
+
+  @Test
+  public void outputStreamGrowsAndReleasesItsBuffers() throws IOException {
+    byte[] data = new byte[5000];
+    Arrays.fill(data, (byte) 'a');
+
+    PooledOutputStream out = new PooledOutputStream(pool, 0);
+    out.write(data, 0, 100);
+    out.readFrom(new ByteArrayInputStream(data));
+    out.write('b');
+
+    assertThat(out.size()).isEqualTo(5101);
+    byte[] written = out.toByteArray();
+    assertThat(written).hasSize(5101);
+    assertThat(written[5100]).isEqualTo((byte) 'b');
+
+    out.close();
+    /* the 1, 2 and 4 KiB buffers it filled are back in the pool */
+    byte[] released = pool.acquire(4 * 1024);
+    assertThat(released[0]).isEqualTo((byte) 'a');
+    assertThatThrownBy(() -> out.write('c')).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  public void responseBodyReleasesItsBufferWhenClosed() throws IOException {
+    PooledOutputStream out = new PooledOutputStream(pool, 0);
+    out.write("foo".getBytes(UTF_8));
+    Response.Body body = out.toResponseBody();
+
+    assertThat(body.length()).isEqualTo(3);
+    assertThat(body.isRepeatable()).isTrue();
+    assertThat(Util.toString(body.asReader(UTF_8))).isEqualTo("foo");
+    InputStream in = body.asInputStream();
+    assertThat(in.read()).isEqualTo('f');
+
+    body.close();
+
+    assertThat(pool.acquire(1024)).startsWith("foo".getBytes(UTF_8));
+    assertThatThrownBy(in::read).isInstanceOf(IOException.class);
+    assertThatThrownBy(body::asInputStream).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  public void responseBodyByteBufferOutlivesIt() throws IOException {
+    PooledOutputStream out = new PooledOutputStream(pool, 0);
+    out.write("foo".getBytes(UTF_8));
+    Response.Body body = out.toResponseBody();
+
+    ByteBuffer buffer = body.asByteBuffer();
+    body.close();
+    pool.acquire(1024)[0] = 'x';
+
+    assertThat(buffer.remaining()).isEqualTo(3);
+    assertThat(buffer.get(0)).isEqualTo((byte) 'f');
+  }
+
+  @Test
+  public void responseBodyReadsAcrossBuffers() throws IOException {
+    byte[] data = new byte[3000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    PooledOutputStream out = new PooledOutputStream(pool, 0);
+    out.readFrom(new ByteArrayInputStream(data));
+    Response.Body body = out.toResponseBody();
+
+    InputStream in = body.asInputStream();
+    assertThat(in.skip(1020)).isEqualTo(1020);
+    in.mark(0);
+    byte[] read = new byte[10];
+    assertThat(in.read(read)).isEqualTo(10);
+    assertThat(read).isEqualTo(Arrays.copyOfRange(data, 1020, 1030));
+    in.reset();
+    assertThat(in.read()).isEqualTo(data[1020] & 0xff);
+    assertThat(Util.toByteArray(body.asInputStream())).isEqualTo(data);
+  }
+
+  @Test
+  public void returnedResponsesDontKeepPooledBodies() throws IOException {
+    byte[] data = new byte[10000];
+    Arrays.fill(data, (byte) 'a');
+    Api api = Feign.builder()
+        .logLevel(Logger.Level.HEADERS)
+        .logger(new Logger() {
+          @Override
+          protected void log(String configKey, String format, Object... args) {}
+        })
+        .client((request, options) -> Response.builder()
+            .status(200)
+            .headers(Collections.emptyMap())
+            .request(request)
+            .body(new ByteArrayInputStream(data), null)
+            .build())
+        .target(Api.class, "http://localhost");
+
+    Response response = api.get();
+    response.close();
+
+    assertThat(Util.toByteArray(response.body().asInputStream())).isEqualTo(data);
+    assertThat(api.getString()).hasSize(10000);
+  }
+
+  @Test
+  public void decodedLoggedResponsesBorrowPooledBodies() throws IOException {
+    AtomicReference<Response.Body> decoded = new AtomicReference<>();
+    Api api = Feign.builder()
+        .logLevel(Logger.Level.HEADERS)
+        .logger(new Logger() {
+          @Override
+          protected void log(String configKey, String format, Object... args) {}
+        })
+        .client((request, options) -> Response.builder()
+            .status(200)
+            .headers(Collections.emptyMap())
+            .request(request)
+            .body(new ByteArrayInputStream("foo".getBytes(UTF_8)), null)
+            .build())
+        .decoder((response, type) -> {
+          decoded.set(response.body());
+          return Util.toString(response.body().asReader(UTF_8));
+        })
+        .target(Api.class, "http://localhost");
+
+    assertThat(api.getString()).isEqualTo("foo");
+    assertThat(decoded.get()).isInstanceOf(PooledBody.class);
+    /* closed once decoded, its buffers are back in the pool */
+    assertThatThrownBy(decoded.get()::asInputStream).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  public void rebufferedResponsesAreReadableAfterClose() throws IOException {
+    Logger logger = new Logger() {
+      @Override
+      protected void log(String configKey, String format, Object... args) {}
+    };
+    Response response = Response.builder()
+        .status(200)
+        .headers(Collections.emptyMap())
+        .request(Request.create(Request.HttpMethod.GET, "http://localhost",
+            Collections.emptyMap(), null, UTF_8, null))
+        .body(new ByteArrayInputStream("foo".getBytes(UTF_8)), null)
+        .build();
+
+    Response rebuffered =
+        logger.logAndRebufferResponse("Api#get()", Logger.Level.FULL, response, 0);
+    rebuffered.close();
+
+    assertThat(Util.toString(rebuffered.body().asReader(UTF_8))).isEqualTo("foo");
+  }
+
+  interface Api {
+
+    @RequestLine("GET /")
+    Response get();
+
+    @RequestLine("GET /")
+    String getString();
+  }
+}
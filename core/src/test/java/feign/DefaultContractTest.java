@@ -23,7 +23,12 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
+import feign.Request.HttpMethod;
+import java.io.File;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -414,6 +419,53 @@ public class DefaultContractTest {
     }
   }
 
+  @Test
+  public void downloadToParameter() throws Exception {
+    final MethodMetadata md =
+        parseAndValidateMetadata(DownloadToInterface.class, "download", String.class, Path.class);
+
+    assertThat(md.downloadToIndex()).isEqualTo(1);
+    assertThat(md.downloadSync()).isTrue();
+    assertThat(md.bodyIndex()).isNull();
+  }
+
+  @Test
+  public void contractsNotHandlingDownloadToRejectIt() throws Exception {
+    Contract unaware = new Contract.BaseContract() {
+      @Override
+      protected void processAnnotationOnClass(MethodMetadata data, Class<?> clz) {}
+
+      @Override
+      protected void processAnnotationOnMethod(MethodMetadata data,
+                                               Annotation annotation,
+                                               Method method) {
+        data.template().method(HttpMethod.GET);
+      }
+
+      @Override
+      protected boolean processAnnotationsOnParameter(MethodMetadata data,
+                                                      Annotation[] annotations,
+                                                      int paramIndex) {
+        return false;
+      }
+    };
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("DownloadTo is not supported by");
+    unaware.parseAndValidateMetadata(DownloadToInterface.class);
+  }
+
+  @Test
+  public void downloadToRequiresPathReturnType() throws Exception {
+    try {
+      parseAndValidateMetadata(DownloadToInterface.class, "downloadToString", File.class);
+      Fail.failBecauseExceptionWasNotThrown(IllegalStateException.class);
+    } catch (final IllegalStateException ex) {
+      assertThat(ex).hasMessage("Method with a DownloadTo parameter must return a Path: "
+          + "DownloadToInterface#downloadToString(File)");
+    }
+  }
+
   @Test
   public void headerMapSubclass() throws Exception {
     final MethodMetadata md =
@@ -553,6 +605,15 @@ public class DefaultContractTest {
     void headerMapSubClass(@HeaderMap SubClassHeaders httpHeaders);
   }
 
+  interface DownloadToInterface {
+
+    @RequestLine("GET /{name}")
+    Path download(@Param("name") String name, @DownloadTo(sync = true) Path file);
+
+    @RequestLine("GET /")
+    String downloadToString(@DownloadTo File file);
+  }
+
   interface HeaderParams {
 
     @RequestLine("POST /")
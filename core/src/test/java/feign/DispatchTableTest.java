@@ -0,0 +1,99 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import feign.InvocationHandlerFactory.MethodHandler;
+
+public class DispatchTableTest {
+
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  interface Api {
+
+    String one();
+
+    String two(String value);
+
+    String two(int value);
+  }
+
+  @Test
+  public void assignsSlotsInIterationOrder() throws Exception {
+    Method one = Api.class.getMethod("one");
+    Method two = Api.class.getMethod("two", String.class);
+    Method twoInt = Api.class.getMethod("two", int.class);
+    DispatchTable table = DispatchTable.of(Arrays.asList(twoInt, one, two));
+
+    assertThat(table.size()).isEqualTo(3);
+    assertThat(table.slot(twoInt)).isZero();
+    assertThat(table.slot(one)).isEqualTo(1);
+    assertThat(table.slot(two)).isEqualTo(2);
+    assertThat(table.method(2)).isSameAs(two);
+  }
+
+  @Test
+  public void resolvesCopiesOfTheSameMethod() throws Exception {
+    DispatchTable table = DispatchTable.of(Arrays.asList(Api.class.getMethods()));
+
+    /* getMethod returns a new copy on each call */
+    for (int i = 0; i < 100; i++) {
+      Method two = Api.class.getMethod("two", String.class);
+      assertThat(table.method(table.slot(two))).isEqualTo(two);
+    }
+  }
+
+  @Test
+  public void resolvesObjectMethods() throws Exception {
+    DispatchTable table = DispatchTable.of(Arrays.asList(Api.class.getMethods()));
+
+    assertThat(table.slot(Object.class.getMethod("equals", Object.class)))
+        .isEqualTo(DispatchTable.EQUALS);
+    assertThat(table.slot(Object.class.getMethod("hashCode")))
+        .isEqualTo(DispatchTable.HASH_CODE);
+    assertThat(table.slot(Object.class.getMethod("toString")))
+        .isEqualTo(DispatchTable.TO_STRING);
+  }
+
+  @Test
+  public void handlersAreIndexedBySlot() throws Throwable {
+    Map<Method, MethodHandler> dispatch = new LinkedHashMap<>();
+    for (Method method : Api.class.getMethods()) {
+      dispatch.put(method, argv -> method.toGenericString());
+    }
+    DispatchTable table = DispatchTable.of(dispatch.keySet());
+    MethodHandler[] handlers = DispatchTable.handlers(table, dispatch);
+
+    Method one = Api.class.getMethod("one");
+    assertThat(handlers[table.slot(one)].invoke(null)).isEqualTo(one.toGenericString());
+  }
+
+  @Test
+  public void unknownMethod() throws Exception {
+    DispatchTable table = DispatchTable.of(Arrays.asList(Api.class.getMethods()));
+
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("No dispatch for");
+
+    table.slot(Runnable.class.getMethod("run"));
+  }
+}
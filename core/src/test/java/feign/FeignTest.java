@@ -28,10 +28,15 @@ import org.assertj.core.util.Maps;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import feign.codec.DecodeException;
 import feign.codec.Decoder;
@@ -46,6 +51,7 @@ import static org.assertj.core.data.MapEntry.entry;
 import static org.hamcrest.CoreMatchers.isA;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 @SuppressWarnings("deprecation")
 public class FeignTest {
@@ -194,6 +200,25 @@ public class FeignTest {
         .hasHeaders(entry("X-Forwarded-For", Collections.singletonList("origin.host.com")));
   }
 
+  @Test
+  public void interceptorsDoNotLeakIntoLiteralRequests() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo"));
+    server.enqueue(new MockResponse().setBody("foo"));
+    AtomicInteger calls = new AtomicInteger();
+
+    TestInterface api = new TestInterfaceBuilder()
+        .requestInterceptor(template -> template.header("X-Call", "" + calls.incrementAndGet()))
+        .target("http://localhost:" + server.getPort());
+
+    api.post();
+    api.post();
+
+    assertThat(server.takeRequest())
+        .hasHeaders(entry("X-Call", Collections.singletonList("1")));
+    assertThat(server.takeRequest())
+        .hasHeaders(entry("X-Call", Collections.singletonList("2")));
+  }
+
   @Test
   public void multipleInterceptor() throws Exception {
     server.enqueue(new MockResponse().setBody("foo"));
@@ -631,6 +656,48 @@ public class FeignTest {
     api.post();
   }
 
+  @Test
+  public void doesntRetryBodyThatCantBeReplayed() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(503).setBody("foo 1"));
+    server.enqueue(new MockResponse().setResponseCode(503).setBody("foo 2"));
+
+    TestInterface api = Feign.builder()
+        .retryer(new Retryer.Default(1, 1, 2))
+        .errorDecoder((methodKey, response) -> new RetryableException(response.status(),
+            "play it again sam!", HttpMethod.POST, null, response.request()))
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    try {
+      api.upload(new ByteArrayInputStream("foo".getBytes(UTF_8)));
+      fail("should have thrown");
+    } catch (RetryableException e) {
+      assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+    assertThat(server.takeRequest().getBody().readUtf8()).isEqualTo("foo");
+  }
+
+  @Test
+  public void retriesFileBody() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(503).setBody("foo 1"));
+    server.enqueue(new MockResponse().setBody("foo 2"));
+    Path file = Files.createTempFile("upload", ".txt");
+    try {
+      Files.write(file, "foo".getBytes(UTF_8));
+
+      TestInterface api = Feign.builder()
+          .retryer(new Retryer.Default(1, 1, 2))
+          .errorDecoder((methodKey, response) -> new RetryableException(response.status(),
+              "play it again sam!", HttpMethod.POST, null, response.request()))
+          .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+      assertThat(api.uploadFile(file)).isEqualTo("foo 2");
+    } finally {
+      Files.delete(file);
+    }
+    assertThat(server.takeRequest().getBody().readUtf8()).isEqualTo("foo");
+    assertThat(server.takeRequest().getBody().readUtf8()).isEqualTo("foo");
+  }
+
   @Test
   public void whenReturnTypeIsResponseNoErrorHandling() {
     Map<String, Collection<String>> headers = new LinkedHashMap<>();
@@ -924,6 +991,12 @@ public class FeignTest {
     @RequestLine("POST /")
     String post() throws TestInterfaceException;
 
+    @RequestLine("POST /")
+    String upload(InputStream body);
+
+    @RequestLine("POST /")
+    String uploadFile(Path file);
+
     @RequestLine("POST /")
     @Body("%7B\"customer_name\": \"{customer_name}\", \"user_name\": \"{user_name}\", \"password\": \"{password}\"%7D")
     void login(
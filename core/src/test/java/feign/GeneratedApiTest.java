@@ -0,0 +1,114 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import feign.Target.HardCodedTarget;
+
+public class GeneratedApiTest {
+
+  interface Echo {
+
+    @RequestLine("GET /echo/{value}")
+    Response echo(@Param("value") String value);
+
+    default Response echoTwice(String value) {
+      return echo(value + value);
+    }
+  }
+
+  interface NotGenerated {
+
+    @RequestLine("GET /")
+    Response get();
+  }
+
+  private final AtomicReference<Request> lastRequest = new AtomicReference<>();
+
+  private final Client client = (request, options) -> {
+    lastRequest.set(request);
+    return Response.builder()
+        .status(200)
+        .headers(Collections.emptyMap())
+        .request(request)
+        .build();
+  };
+
+  @Test
+  public void usesGeneratedImplementationWhenPresent() {
+    Echo api = Feign.builder().client(client).target(Echo.class, "http://localhost");
+
+    assertThat(api).isInstanceOf(GeneratedApiTest_EchoGeneratedApi.class);
+    assertThat(Proxy.isProxyClass(api.getClass())).isFalse();
+
+    api.echo("foo");
+    assertThat(lastRequest.get().url()).isEqualTo("http://localhost/echo/foo");
+  }
+
+  @Test
+  public void generatedImplementationInheritsDefaultMethods() {
+    Echo api = Feign.builder().client(client).target(Echo.class, "http://localhost");
+
+    api.echoTwice("foo");
+    assertThat(lastRequest.get().url()).isEqualTo("http://localhost/echo/foofoo");
+  }
+
+  @Test
+  public void equalsHashCodeAndToStringDelegateToTarget() {
+    Target<Echo> target = new HardCodedTarget<>(Echo.class, "http://localhost");
+    Feign feign = Feign.builder().client(client).build();
+
+    Echo api = feign.newInstance(target);
+    Echo other = feign.newInstance(new HardCodedTarget<>(Echo.class, "http://localhost"));
+
+    assertThat(api).isEqualTo(other);
+    assertThat(api.hashCode()).isEqualTo(target.hashCode());
+    assertThat(api.toString()).isEqualTo(target.toString());
+    assertThat(api)
+        .isNotEqualTo(feign.newInstance(new HardCodedTarget<>(Echo.class, "http://remote")));
+  }
+
+  @Test
+  public void customInvocationHandlerFactoryFallsBackToProxy() {
+    Echo api = Feign.builder()
+        .client(client)
+        .invocationHandlerFactory(
+            (target, dispatch) -> new ReflectiveFeign.FeignInvocationHandler(target, dispatch))
+        .target(Echo.class, "http://localhost");
+
+    assertThat(Proxy.isProxyClass(api.getClass())).isTrue();
+
+    api.echoTwice("bar");
+    assertThat(lastRequest.get().url()).isEqualTo("http://localhost/echo/barbar");
+  }
+
+  @Test
+  public void generatedNameIncludesEnclosingTypes() {
+    assertThat(GeneratedApi.generatedName(Echo.class))
+        .isEqualTo("feign.GeneratedApiTest_EchoGeneratedApi");
+    assertThat(GeneratedApi.generatedName(Client.class)).isEqualTo("feign.ClientGeneratedApi");
+  }
+
+  @Test
+  public void usesProxyWhenNothingWasGenerated() {
+    NotGenerated api =
+        Feign.builder().client(client).target(NotGenerated.class, "http://localhost");
+
+    assertThat(Proxy.isProxyClass(api.getClass())).isTrue();
+  }
+}
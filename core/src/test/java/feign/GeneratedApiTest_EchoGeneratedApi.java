@@ -0,0 +1,47 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Map;
+import feign.InvocationHandlerFactory.MethodHandler;
+
+/**
+ * What {@code feign-apt-client-generator} emits for {@link GeneratedApiTest.Echo}.
+ */
+public final class GeneratedApiTest_EchoGeneratedApi extends GeneratedApi
+    implements GeneratedApiTest.Echo {
+
+  private static final Method echoMethod =
+      method(GeneratedApiTest.Echo.class, "echo", String.class);
+
+  private final MethodHandler echoHandler;
+
+  public GeneratedApiTest_EchoGeneratedApi(Target<?> target, Map<Method, MethodHandler> dispatch) {
+    super(target);
+    this.echoHandler = handler(dispatch, echoMethod);
+  }
+
+  @Override
+  public Response echo(String arg0) {
+    try {
+      return (Response) echoHandler.invoke(new Object[] {arg0});
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new UndeclaredThrowableException(e);
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import feign.Request.HttpMethod;
+
+public class HttpHeadersTest {
+
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void lookupsIgnoreCase() {
+    HttpHeaders headers = HttpHeaders.builder()
+        .add("Content-Type", "application/json")
+        .add("X-Custom", "foo")
+        .build();
+
+    assertThat(headers.get("content-type")).containsExactly("application/json");
+    assertThat(headers.get("CONTENT-TYPE")).containsExactly("application/json");
+    assertThat(headers.firstValue("x-custom")).isEqualTo("foo");
+    assertThat(headers.containsKey("X-CUSTOM")).isTrue();
+    assertThat(headers.containsKey("Accept")).isFalse();
+    assertThat(headers.firstValue("Accept")).isNull();
+    assertThat(headers.get(1)).isNull();
+  }
+
+  @Test
+  public void keepsOrderAndMergesNamesVaryingInCase() {
+    HttpHeaders headers = HttpHeaders.builder()
+        .add("Set-Cookie", "a=1")
+        .add("Accept", "*/*")
+        .add("set-cookie", Arrays.asList("b=2", "c=3"))
+        .build();
+
+    assertThat(headers).containsExactly(
+        entry("Set-Cookie", Arrays.asList("a=1", "b=2", "c=3")),
+        entry("Accept", Collections.singletonList("*/*")));
+    assertThat(headers.firstValue("SET-COOKIE")).isEqualTo("a=1");
+  }
+
+  @Test
+  public void lowerCasesAndSortsNames() {
+    HttpHeaders headers = HttpHeaders.builder()
+        .lowerCaseNames()
+        .sortedNames()
+        .add("X-Trace", "1")
+        .add("Content-Type", "text/plain")
+        .add("accept", "*/*")
+        .build();
+
+    assertThat(headers.keySet()).containsExactly("accept", "content-type", "x-trace");
+    assertThat(headers.hasLowerCaseSortedNames()).isTrue();
+  }
+
+  @Test
+  public void forEachValueVisitsEachValueInOrder() {
+    HttpHeaders headers = HttpHeaders.builder()
+        .add("Accept", Arrays.asList("text/plain", "application/json"))
+        .add("Empty", Collections.emptyList())
+        .add("Host", "example.com")
+        .build();
+
+    List<String> visited = new ArrayList<>();
+    headers.forEachValue((name, value) -> visited.add(name + ": " + value));
+
+    assertThat(visited)
+        .containsExactly("Accept: text/plain", "Accept: application/json", "Host: example.com");
+    assertThat(headers.get("Empty")).isEmpty();
+    assertThat(headers.firstValue("Empty")).isNull();
+  }
+
+  @Test
+  public void setReplacesAndRemoveDeletes() {
+    HttpHeaders headers = HttpHeaders.builder()
+        .add("content-length", "3")
+        .add("Accept", "*/*")
+        .set("Content-Length", "5")
+        .remove("ACCEPT")
+        .build();
+
+    assertThat(headers).containsExactly(entry("Content-Length", Collections.singletonList("5")));
+  }
+
+  @Test
+  public void keepsNullValues() {
+    HttpHeaders headers = HttpHeaders.builder()
+        .add("Foo", (String) null)
+        .add("Bar", Collections.singletonList(null))
+        .build();
+
+    assertThat(headers.get("foo")).containsExactly((String) null);
+    assertThat(headers.get("bar")).containsExactly((String) null);
+  }
+
+  @Test
+  public void isEqualToMapsWithTheSameHeaders() {
+    Map<String, Collection<String>> expected = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    expected.put("Accept", Collections.singletonList("*/*"));
+    expected.put("Cookie", Arrays.asList("a=1", "b=2"));
+
+    HttpHeaders headers = HttpHeaders.of(expected);
+
+    assertThat(headers).isEqualTo(expected);
+    assertThat(expected).isEqualTo(headers);
+    assertThat(headers.hashCode()).isEqualTo(expected.hashCode());
+    assertThat(HttpHeaders.of(headers)).isSameAs(headers);
+  }
+
+  @Test
+  public void findsEachOfManyHeaders() {
+    HttpHeaders.Builder builder = HttpHeaders.builder();
+    for (int i = 0; i < 100; i++) {
+      builder.add("X-Header-" + i, String.valueOf(i));
+    }
+    HttpHeaders headers = builder.build();
+
+    assertThat(headers).hasSize(100);
+    for (int i = 0; i < 100; i++) {
+      assertThat(headers.firstValue("x-header-" + i)).isEqualTo(String.valueOf(i));
+    }
+  }
+
+  @Test
+  public void isImmutable() {
+    HttpHeaders headers = HttpHeaders.builder().add("Accept", "*/*").build();
+
+    thrown.expect(UnsupportedOperationException.class);
+
+    headers.put("Accept", Collections.singletonList("text/plain"));
+  }
+
+  @Test
+  public void valuesAreImmutable() {
+    HttpHeaders headers = HttpHeaders.builder().add("Accept", Arrays.asList("a", "b")).build();
+
+    thrown.expect(UnsupportedOperationException.class);
+
+    headers.get("Accept").add("c");
+  }
+
+  @Test
+  public void requestHeadersIgnoreCase() {
+    Map<String, Collection<String>> headers = new LinkedHashMap<>();
+    headers.put("Content-Type", Collections.singletonList("application/json"));
+
+    Request request =
+        Request.create(HttpMethod.GET, "/api", headers, null, Util.UTF_8, null);
+
+    assertThat(request.headers().get("content-type")).containsExactly("application/json");
+    assertThat(request.httpHeaders().firstValue("CONTENT-TYPE")).isEqualTo("application/json");
+  }
+
+  @Test
+  public void responseReusesNormalizedHeaders() {
+    HttpHeaders headers = HttpHeaders.builder().lowerCaseNames().sortedNames()
+        .add("Content-Type", "application/json")
+        .build();
+
+    Response response = Response.builder()
+        .status(200)
+        .headers(headers)
+        .request(Request.create(HttpMethod.GET, "/api", Collections.emptyMap(), null, Util.UTF_8,
+            null))
+        .build();
+
+    assertThat(response.headers()).isSameAs(headers);
+    assertThat(response.httpHeaders().firstValue("Content-Type")).isEqualTo("application/json");
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class LazyMethodHandlerTest {
+
+  interface Api {
+
+    @RequestLine("GET /{id}")
+    Response get(@Param(value = "id", expander = Unusable.class) String id);
+
+    @RequestLine("GET /")
+    Response list();
+  }
+
+  public static class Unusable implements Param.Expander {
+
+    public Unusable() {
+      throw new UnsupportedOperationException("not today");
+    }
+
+    @Override
+    public String expand(Object value) {
+      return value.toString();
+    }
+  }
+
+  private final Client client = (request, options) -> Response.builder()
+      .status(200)
+      .headers(Collections.emptyMap())
+      .request(request)
+      .build();
+
+  @Test
+  public void createsHandlerOnFirstInvocationOnly() throws Throwable {
+    AtomicInteger created = new AtomicInteger();
+    LazyMethodHandler handler = new LazyMethodHandler(() -> {
+      created.incrementAndGet();
+      return argv -> argv[0];
+    });
+
+    assertThat(handler.isInitialized()).isFalse();
+    assertThat(created).hasValue(0);
+
+    assertThat(handler.invoke(new Object[] {"foo"})).isEqualTo("foo");
+    assertThat(handler.invoke(new Object[] {"bar"})).isEqualTo("bar");
+    assertThat(handler.isInitialized()).isTrue();
+    assertThat(created).hasValue(1);
+  }
+
+  @Test
+  public void concurrentFirstInvocationsCreateOneHandler() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    LazyMethodHandler handler = new LazyMethodHandler(() -> {
+      created.incrementAndGet();
+      return argv -> null;
+    });
+    int threads = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      for (int i = 0; i < threads; i++) {
+        executor.submit(() -> {
+          start.await();
+          try {
+            return handler.invoke(new Object[0]);
+          } catch (Throwable e) {
+            throw new AssertionError(e);
+          }
+        });
+      }
+      start.countDown();
+    } finally {
+      executor.shutdown();
+      assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    assertThat(created).hasValue(1);
+  }
+
+  @Test
+  public void lazyApiOnlyInitializesMethodsInUse() {
+    Api api = Feign.builder()
+        .client(client)
+        .lazyMethodHandlers()
+        .target(Api.class, "http://localhost");
+
+    assertThat(api.list().request().url()).isEqualTo("http://localhost/");
+    assertThatThrownBy(() -> api.get("foo"))
+        .isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  public void eagerApiFailsWhenBuilt() {
+    assertThatThrownBy(() -> Feign.builder()
+        .client(client)
+        .target(Api.class, "http://localhost"))
+            .isInstanceOf(UnsupportedOperationException.class);
+  }
+}
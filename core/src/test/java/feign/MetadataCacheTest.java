@@ -0,0 +1,139 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import feign.MetadataCache.ParsedMethod;
+import feign.Target.HardCodedTarget;
+
+public class MetadataCacheTest {
+
+  interface Api {
+
+    @RequestLine("GET /{id}")
+    Response get(@Param(value = "id", expander = UpperCase.class) String id);
+  }
+
+  public static class UpperCase implements Param.Expander {
+
+    @Override
+    public String expand(Object value) {
+      return value.toString().toUpperCase();
+    }
+  }
+
+  private final AtomicInteger parses = new AtomicInteger();
+
+  private final Contract delegate = new Contract.Default();
+
+  private final Contract contract = targetType -> {
+    parses.incrementAndGet();
+    return delegate.parseAndValidateMetadata(targetType);
+  };
+
+  private final Client client = (request, options) -> Response.builder()
+      .status(200)
+      .headers(Collections.emptyMap())
+      .request(request)
+      .build();
+
+  @Test
+  public void parsesOncePerContractAndType() {
+    List<ParsedMethod> first = MetadataCache.parse(contract, Api.class);
+
+    assertThat(MetadataCache.parse(contract, Api.class)).isSameAs(first);
+    assertThat(parses).hasValue(1);
+    assertThat(MetadataCache.parse(delegate, Api.class)).isNotSameAs(first);
+  }
+
+  @Test
+  public void sharesExpanders() {
+    ParsedMethod first = MetadataCache.parse(contract, Api.class).get(0);
+    ParsedMethod second = MetadataCache.parse(contract, Api.class).get(0);
+
+    assertThat(first.indexToExpander().get(0))
+        .isInstanceOf(UpperCase.class)
+        .isSameAs(second.indexToExpander().get(0));
+  }
+
+  @Test
+  public void rebindingDoesNotParseAgain() {
+    Feign feign = Feign.builder().contract(contract).client(client).build();
+    Api api = null;
+    for (int i = 0; i < 3; i++) {
+      api = feign.newInstance(new HardCodedTarget<>(Api.class, "http://tenant" + i));
+    }
+
+    assertThat(parses).hasValue(1);
+    assertThat(api.get("foo").request().url()).isEqualTo("http://tenant2/FOO");
+  }
+
+  @Test
+  public void doesntHoldApisOfOtherClassLoaders() throws Exception {
+    /* like the contract of Feign.builder(), shared by every api */
+    Contract shared = new Contract.Default();
+    WeakReference<Class<?>> api = parseInIsolatedLoader(shared);
+
+    for (int i = 0; i < 10 && api.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertThat(api.get()).isNull();
+  }
+
+  private static WeakReference<Class<?>> parseInIsolatedLoader(Contract contract)
+      throws Exception {
+    Class<?> type = Class.forName(Api.class.getName(), false, new IsolatingClassLoader());
+    assertThat(type).isNotSameAs(Api.class);
+    MetadataCache.parse(contract, type).get(0).indexToExpander();
+    return new WeakReference<>(type);
+  }
+
+  /* defines Api again, as a web application's class loader would */
+  static final class IsolatingClassLoader extends ClassLoader {
+
+    IsolatingClassLoader() {
+      super(MetadataCacheTest.class.getClassLoader());
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      /* with the classes nested with it, which must agree on their nesting */
+      if (!name.startsWith(MetadataCacheTest.class.getName())) {
+        return super.loadClass(name, resolve);
+      }
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> result = findLoadedClass(name);
+        if (result == null) {
+          try (InputStream in =
+              getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+            byte[] bytes = Util.toByteArray(in);
+            result = defineClass(name, bytes, 0, bytes.length);
+          } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+          }
+        }
+        return result;
+      }
+    }
+  }
+}
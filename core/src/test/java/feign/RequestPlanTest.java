@@ -0,0 +1,304 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Test;
+import feign.Target.HardCodedTarget;
+
+/**
+ * Checks that {@link RequestPlan} creates the same requests as resolving the method's
+ * {@link RequestTemplate}.
+ */
+public class RequestPlanTest {
+
+  interface Api {
+
+    @RequestLine("GET /")
+    void root();
+
+    @RequestLine("GET")
+    void empty();
+
+    @RequestLine("GET /path/{id}/items?limit={limit}&sort=name#section")
+    void pathAndQuery(@Param("id") String id, @Param("limit") Integer limit);
+
+    @RequestLine("GET {path}")
+    void leadingExpression(@Param("path") String path);
+
+    @RequestLine(value = "GET /files/{name}", decodeSlash = false)
+    void slashes(@Param("name") String name);
+
+    @RequestLine("GET /search?q={q}&flag&empty={empty}")
+    void pureAndUnresolved(@Param("q") String q, @Param("empty") String empty);
+
+    @RequestLine("GET /items?id={ids}")
+    void exploded(@Param("ids") List<String> ids);
+
+    @RequestLine(value = "GET /items?id={ids}", collectionFormat = CollectionFormat.CSV)
+    void csv(@Param("ids") List<String> ids);
+
+    @RequestLine("GET /items?{name}={value}&other=1")
+    void expressionName(@Param("name") String name, @Param("value") String value);
+
+    @RequestLine("GET /items?a={first}&b={second}")
+    void sameArgumentTwice(@Param("first") String first, @Param("second") String second);
+
+    @RequestLine("POST /headers")
+    @Headers({"Accept: application/json", "X-Token: {token}", "X-Missing: {missing}",
+        "X-List: {list}"})
+    void headers(@Param("token") String token,
+                 @Param("missing") String missing,
+                 @Param("list") List<String> list);
+
+    @RequestLine("POST /body")
+    @Headers("Content-Type: application/json")
+    @Body("%7B\"user\": \"{user}\", \"password\": \"{password}\"%7D")
+    void bodyTemplate(@Param("user") String user, @Param("password") String password);
+
+    @RequestLine("POST /body")
+    @Body("literal")
+    void literalBody();
+
+    @RequestLine("GET /expand/{date}")
+    void expander(@Param(value = "date", expander = UpperCase.class) String date);
+
+    @RequestLine("GET /encoded/{value}?q={value}")
+    void encoded(@Param("value") String value);
+  }
+
+  public static class UpperCase implements Param.Expander {
+
+    @Override
+    public String expand(Object value) {
+      return value.toString().toUpperCase();
+    }
+  }
+
+  private final List<MethodMetadata> metadata =
+      new Contract.Default().parseAndValidateMetadata(Api.class);
+
+  @Test
+  public void literals() {
+    assertSameRequest("http://localhost", "root");
+    assertSameRequest("http://localhost/", "root");
+    assertSameRequest("http://localhost/api", "empty");
+    assertSameRequest("http://localhost/api#top", "root");
+    assertSameRequest("http://localhost", "literalBody");
+  }
+
+  @Test
+  public void pathAndQuery() {
+    assertSameRequest("http://localhost", "pathAndQuery", "a b", 10);
+    assertSameRequest("http://localhost", "pathAndQuery", "ünicode/ü", null);
+    assertSameRequest("http://localhost", "pathAndQuery", null, null);
+    assertSameRequest("https://host:8443/base", "pathAndQuery", "x", 1);
+    assertSameRequest("http://localhost", "leadingExpression", "relative");
+    assertSameRequest("http://localhost", "leadingExpression", (Object) null);
+    assertSameRequest("http://localhost", "slashes", "a/b/c");
+    assertSameRequest("http://localhost", "encoded", "already%20encoded");
+    assertSameRequest("http://localhost", "encoded", "100%");
+    assertSameRequest("http://localhost", "encoded", "a&b=c");
+  }
+
+  @Test
+  public void queries() {
+    assertSameRequest("http://localhost", "pureAndUnresolved", "feign", null);
+    assertSameRequest("http://localhost", "pureAndUnresolved", "", "");
+    assertSameRequest("http://localhost", "pureAndUnresolved", null, "x");
+    assertSameRequest("http://localhost", "exploded", Arrays.asList("1", "2", "3"));
+    assertSameRequest("http://localhost", "exploded", Arrays.asList("1", null, "", "a,b"));
+    assertSameRequest("http://localhost", "exploded", Collections.emptyList());
+    assertSameRequest("http://localhost", "csv", Arrays.asList("1", "2", "3"));
+    assertSameRequest("http://localhost", "expressionName", "other", "2");
+    assertSameRequest("http://localhost", "expressionName", "key", "value");
+    assertSameRequest("http://localhost", "expressionName", null, "value");
+    assertSameRequest("http://localhost", "sameArgumentTwice", "1", "1");
+  }
+
+  @Test
+  public void headersAndBody() {
+    assertSameRequest("http://localhost", "headers", "secret", null,
+        Arrays.asList("a", "b"));
+    assertSameRequest("http://localhost", "headers", null, null, Collections.emptyList());
+    assertSameRequest("http://localhost", "bodyTemplate", "denominator", "secret");
+    assertSameRequest("http://localhost", "bodyTemplate", "denominator", null);
+  }
+
+  @Test
+  public void expanders() {
+    assertSameRequest("http://localhost", "expander", "monday");
+  }
+
+  @Test
+  public void targetsWithQueriesAreNotPlanned() {
+    assertThat(RequestPlan.compile(metadata("root"),
+        new HardCodedTarget<>(Api.class, "http://localhost?key=value"),
+        Collections.emptyMap())).isNull();
+  }
+
+  @Test
+  public void customTargetsAreNotPlanned() {
+    Target<Api> target = new HardCodedTarget<Api>(Api.class, "http://localhost") {
+      @Override
+      public Request apply(RequestTemplate input) {
+        input.header("X-Custom", "true");
+        return super.apply(input);
+      }
+    };
+    assertThat(RequestPlan.compile(metadata("root"), target, Collections.emptyMap())).isNull();
+  }
+
+  @Test
+  public void templateIsMaterializedWhenAskedFor() {
+    MethodMetadata md = metadata("pathAndQuery");
+    Target<Api> target = new HardCodedTarget<>(Api.class, "http://localhost");
+    Object[] argv = {"1", 2};
+    Request request = RequestPlan.compile(md, target, Collections.emptyMap())
+        .request(argv, args -> {
+          RequestTemplate template = resolve(md, target, args);
+          target.apply(template);
+          return template;
+        });
+
+    assertThat(request.requestTemplate()).isNotNull();
+    assertThat(request.requestTemplate()).isSameAs(request.requestTemplate());
+    assertThat(request.requestTemplate().url()).isEqualTo(request.url());
+    assertThat(request.requestTemplate().methodMetadata()).isSameAs(md);
+  }
+
+  @Test
+  public void methodMetadataAndHeadersDontMaterializeTheTemplate() {
+    MethodMetadata md = metadata("pathAndQuery");
+    Target<Api> target = new HardCodedTarget<>(Api.class, "http://localhost");
+    AtomicInteger materialized = new AtomicInteger();
+    Request request = RequestPlan.compile(md, target, Collections.emptyMap())
+        .request(new Object[] {"1", 2}, args -> {
+          materialized.incrementAndGet();
+          RequestTemplate template = resolve(md, target, args);
+          target.apply(template);
+          return template;
+        });
+
+    Request conditional = request.withHeaders(
+        Collections.singletonMap("If-None-Match", Collections.singletonList("\"1\"")));
+
+    assertThat(request.methodMetadata()).isSameAs(md);
+    assertThat(conditional.methodMetadata()).isSameAs(md);
+    assertThat(conditional.headers()).containsOnlyKeys("If-None-Match");
+    assertThat(materialized).hasValue(0);
+    assertThat(conditional.requestTemplate().url()).isEqualTo(request.url());
+  }
+
+  @Test
+  public void literalRequestsAreShared() {
+    MethodMetadata md = metadata("literalBody");
+    Target<Api> target = new HardCodedTarget<>(Api.class, "http://localhost");
+    RequestPlan plan = RequestPlan.compile(md, target, Collections.emptyMap());
+    assertThat(plan.isLiteral()).isTrue();
+
+    Function<Object[], RequestTemplate> resolve = args -> {
+      RequestTemplate template = resolve(md, target, args);
+      target.apply(template);
+      return template;
+    };
+    Request first = plan.request(null, resolve);
+    Request second = plan.request(null, resolve);
+
+    assertThat(second.url()).isSameAs(first.url());
+    assertThat(second.requestBody()).isSameAs(first.requestBody());
+    assertThat(first.requestTemplate().url()).isEqualTo("http://localhost/body");
+    /* each call may change its template */
+    first.requestTemplate().header("X-Changed", "true");
+    assertThat(second.requestTemplate()).isNotSameAs(first.requestTemplate());
+    assertThat(second.requestTemplate().headers()).doesNotContainKey("X-Changed");
+  }
+
+  @Test
+  public void requestsWithExpressionsAreNotLiteral() {
+    assertThat(RequestPlan.compile(metadata("headers"),
+        new HardCodedTarget<>(Api.class, "http://localhost"), Collections.emptyMap())
+        .isLiteral()).isFalse();
+    assertThat(RequestPlan.compile(metadata("pathAndQuery"),
+        new HardCodedTarget<>(Api.class, "http://localhost"), Collections.emptyMap())
+        .isLiteral()).isFalse();
+  }
+
+  private void assertSameRequest(String url, String methodName, Object... argv) {
+    MethodMetadata md = metadata(methodName);
+    Target<Api> target = new HardCodedTarget<>(Api.class, url);
+    Map<Integer, Param.Expander> expanders = new LinkedHashMap<>();
+    if (md.indexToExpanderClass().containsKey(0)) {
+      expanders.put(0, new UpperCase());
+    }
+
+    Request expected = target.apply(resolve(md, target, argv));
+    RequestPlan plan = RequestPlan.compile(md, target, expanders);
+    assertThat(plan).isNotNull();
+    Request actual = plan.request(argv, args -> {
+      throw new AssertionError("template should not be needed");
+    });
+    if (actual == null) {
+      /* the plan deferred to the template, which is fine as long as it is rare */
+      return;
+    }
+
+    assertThat(actual.httpMethod()).isEqualTo(expected.httpMethod());
+    assertThat(actual.url()).isEqualTo(expected.url());
+    assertThat(actual.headers()).isEqualTo(expected.headers());
+    assertThat(actual.headers().keySet()).containsExactlyElementsOf(expected.headers().keySet());
+    assertThat(actual.body()).isEqualTo(expected.body());
+    assertThat(actual.charset()).isEqualTo(expected.charset());
+  }
+
+  /**
+   * What {@code ReflectiveFeign} does without a plan.
+   */
+  private static RequestTemplate resolve(MethodMetadata md, Target<?> target, Object[] argv) {
+    RequestTemplate mutable = RequestTemplate.from(md.template());
+    mutable.feignTarget(target);
+    Map<String, Object> variables = new LinkedHashMap<>();
+    for (Map.Entry<Integer, Collection<String>> entry : md.indexToName().entrySet()) {
+      Object value = argv[entry.getKey()];
+      if (value != null) {
+        if (md.indexToExpanderClass().containsKey(entry.getKey())) {
+          value = new UpperCase().expand(value);
+        }
+        for (String name : entry.getValue()) {
+          variables.put(name, value);
+        }
+      }
+    }
+    return mutable.resolve(variables);
+  }
+
+  private MethodMetadata metadata(String methodName) {
+    for (MethodMetadata md : metadata) {
+      Method method = md.method();
+      if (method.getName().equals(methodName)) {
+        return md;
+      }
+    }
+    throw new IllegalArgumentException(methodName);
+  }
+}
@@ -494,4 +494,84 @@ public class RequestTemplateTest {
     template = template.resolve(Collections.singletonMap("url", "https://www.google.com"));
     assertThat(template.url()).isEqualToIgnoringCase("/get?url=https%3A%2F%2Fwww.google.com");
   }
+
+  @Test
+  public void expandOperatorExpressions() {
+    RequestTemplate template = new RequestTemplate().method(HttpMethod.GET)
+        .uri("/repos{/owner,repo}/commits{?author,page}{#section}");
+
+    assertThat(template.variables()).containsExactly("owner", "repo", "author", "page", "section");
+
+    Map<String, Object> variables = new LinkedHashMap<>();
+    variables.put("owner", "OpenFeign");
+    variables.put("repo", "feign");
+    variables.put("page", 2);
+    assertThat(template.resolve(variables))
+        .hasUrl("/repos/OpenFeign/feign/commits?page=2");
+  }
+
+  @Test
+  public void expandFormContinuationInQueryString() {
+    RequestTemplate template = new RequestTemplate().method(HttpMethod.GET)
+        .uri("/search?fixed=yes{&q,page}");
+
+    assertThat(template.resolve(mapOf("q", "feign", "page", 3)))
+        .hasUrl("/search?fixed=yes&q=feign&page=3");
+  }
+
+  @Test
+  public void copiesDoNotSeeEachOthersChanges() {
+    RequestTemplate original = new RequestTemplate().method(HttpMethod.GET)
+        .uri("/search?q=feign")
+        .header("Accept", "application/json");
+
+    RequestTemplate copy = RequestTemplate.from(original)
+        .header("X-Trace", "1")
+        .query("page", "2");
+    original.removeHeader("Accept");
+    original.query("q", Collections.emptyList());
+
+    assertThat(copy)
+        .hasQueries(entry("q", asList("feign")), entry("page", asList("2")))
+        .hasHeaders(entry("Accept", asList("application/json")), entry("X-Trace", asList("1")));
+    assertThat(original.queries()).isEmpty();
+    assertThat(original.headers()).isEmpty();
+  }
+
+  @Test
+  public void copiesOfFrozenTemplatesDoNotSeeEachOthersChanges() {
+    RequestTemplate frozen = new RequestTemplate().method(HttpMethod.GET)
+        .uri("/search?q=feign")
+        .header("Accept", "application/json")
+        .freeze();
+
+    RequestTemplate first = RequestTemplate.from(frozen)
+        .header("X-Trace", "1")
+        .query("page", "2");
+    RequestTemplate second = RequestTemplate.from(frozen);
+    RequestTemplate copyOfSecond = RequestTemplate.from(second);
+    second.removeHeader("Accept");
+
+    assertThat(first)
+        .hasQueries(entry("q", asList("feign")), entry("page", asList("2")))
+        .hasHeaders(entry("Accept", asList("application/json")), entry("X-Trace", asList("1")));
+    assertThat(second.headers()).isEmpty();
+    assertThat(copyOfSecond.headers()).containsExactly(entry("Accept", asList("application/json")));
+    assertThat(frozen.queries()).containsExactly(entry("q", asList("feign")));
+    assertThat(frozen.headers()).containsExactly(entry("Accept", asList("application/json")));
+  }
+
+  @Test
+  public void resolvingDoesNotChangeTheTemplate() {
+    RequestTemplate template = new RequestTemplate().method(HttpMethod.GET)
+        .uri("/search?q={q}")
+        .header("X-Q", "{q}");
+
+    RequestTemplate resolved = template.resolve(mapOf("q", "feign"));
+    resolved.header("X-Trace", "1");
+
+    assertThat(resolved).hasUrl("/search?q=feign");
+    assertThat(template.queries()).containsExactly(entry("q", asList("{q}")));
+    assertThat(template.headers()).containsExactly(entry("X-Q", asList("{q}")));
+  }
 }
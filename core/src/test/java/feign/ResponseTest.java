@@ -16,6 +16,10 @@ package feign;
 import feign.Request.HttpMethod;
 import org.assertj.core.util.Lists;
 import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -107,4 +111,44 @@ public class ResponseTest {
       assertThat(response.status()).isEqualTo(statusCode);
     });
   }
+
+  @Test
+  public void byteArrayBodyIsReadAsByteBufferAndChannel() throws IOException {
+    Response.Body body = responseWithBody().body("foo", Util.UTF_8).build().body();
+
+    ByteBuffer buffer = body.asByteBuffer();
+    assertThat(new String(buffer.array(), buffer.position(), buffer.remaining(), Util.UTF_8))
+        .isEqualTo("foo");
+
+    ReadableByteChannel channel = body.asChannel();
+    ByteBuffer read = ByteBuffer.allocate(2);
+    assertThat(channel.read(read)).isEqualTo(2);
+    read.clear();
+    assertThat(channel.read(read)).isEqualTo(1);
+    assertThat(read.get(0)).isEqualTo((byte) 'o');
+    assertThat(channel.read(read)).isEqualTo(-1);
+  }
+
+  @Test
+  public void inputStreamBodyIsReadAsByteBufferWhateverItsLength() throws IOException {
+    /* a length the server may claim, without allocating it */
+    for (Integer length : Arrays.asList(null, 2, 3, 5, Integer.MAX_VALUE)) {
+      Response.Body body = responseWithBody()
+          .body(new ByteArrayInputStream("foo".getBytes(Util.UTF_8)), length)
+          .build()
+          .body();
+
+      ByteBuffer buffer = body.asByteBuffer();
+      byte[] read = new byte[buffer.remaining()];
+      buffer.get(read);
+      assertThat(new String(read, Util.UTF_8)).isEqualTo("foo");
+    }
+  }
+
+  private static Response.Builder responseWithBody() {
+    return Response.builder()
+        .status(200)
+        .headers(Collections.emptyMap())
+        .request(Request.create(HttpMethod.GET, "/api", Collections.emptyMap(), null, Util.UTF_8));
+  }
 }
@@ -0,0 +1,362 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.ByteArrayInputStream;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Rule;
+import org.junit.Test;
+import feign.AsyncClient;
+import feign.AsyncFeign;
+import feign.Client;
+import feign.Feign;
+import feign.Headers;
+import feign.Param;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.RequestLine;
+import feign.Response;
+import feign.Util;
+
+public class CachingClientTest {
+
+  public interface Api {
+
+    @RequestLine("GET /")
+    String get();
+
+    @RequestLine("GET /")
+    Response response();
+
+    @RequestLine("GET /")
+    @Headers("Accept: {accept}")
+    String get(@Param("accept") String accept);
+
+    @RequestLine("GET /")
+    @Headers({"Accept: {accept}", "If-None-Match: {etag}"})
+    Response conditional(@Param("accept") String accept, @Param("etag") String etag);
+
+    @RequestLine("GET /{path}")
+    String path(@Param("path") String path);
+
+    @RequestLine("GET /")
+    @Headers("Authorization: {credential}")
+    String authorized(@Param("credential") String credential);
+
+    @RequestLine("POST /")
+    String post(String body);
+  }
+
+  public interface AsyncApi {
+
+    @RequestLine("GET /")
+    CompletableFuture<String> get();
+  }
+
+  static final class MutableClock extends Clock {
+
+    long millis = System.currentTimeMillis();
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+
+    void advance(long duration, TimeUnit unit) {
+      millis += unit.toMillis(duration);
+    }
+  }
+
+  @Rule
+  public final MockWebServer server = new MockWebServer();
+
+  private final MutableClock clock = new MutableClock();
+  private final ResponseCache cache = new ResponseCache(1024 * 1024, clock);
+
+  private Api api() {
+    return Feign.builder()
+        .client(new CachingClient(new Client.Default(null, null), cache))
+        .target(Api.class, "http://localhost:" + server.getPort());
+  }
+
+  private String httpDate(long millis) {
+    return DateTimeFormatter.RFC_1123_DATE_TIME
+        .format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+  }
+
+  @Test
+  public void freshResponseIsServedFromCache() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo").addHeader("Cache-Control", "max-age=60"));
+    Api api = api();
+
+    assertThat(api.get()).isEqualTo("foo");
+    clock.advance(10, TimeUnit.SECONDS);
+    Response cached = api.response();
+
+    assertThat(server.getRequestCount()).isEqualTo(1);
+    assertThat(cached.body().isRepeatable()).isTrue();
+    assertThat(Util.toString(cached.body().asReader(Util.UTF_8))).isEqualTo("foo");
+    assertThat(cached.headers().get("Age")).containsExactly("10");
+    assertThat(cache.hitCount()).isEqualTo(1);
+    assertThat(cache.missCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void staleResponseIsRevalidatedWithItsETag() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo")
+        .addHeader("Cache-Control", "max-age=10")
+        .addHeader("ETag", "\"v1\""));
+    server.enqueue(new MockResponse().setResponseCode(304)
+        .addHeader("Cache-Control", "max-age=10"));
+    Api api = api();
+
+    assertThat(api.get()).isEqualTo("foo");
+    clock.advance(20, TimeUnit.SECONDS);
+    assertThat(api.get()).isEqualTo("foo");
+    /* the revalidation made it fresh again */
+    assertThat(api.get()).isEqualTo("foo");
+
+    server.takeRequest();
+    assertThat(server.takeRequest().getHeader("If-None-Match")).isEqualTo("\"v1\"");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+    assertThat(cache.revalidationCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void lastModifiedIsRevalidatedWithIfModifiedSince() throws Exception {
+    String lastModified = httpDate(clock.millis() - TimeUnit.DAYS.toMillis(1));
+    server.enqueue(new MockResponse().setBody("foo").addHeader("Last-Modified", lastModified));
+    server.enqueue(new MockResponse().setBody("bar"));
+    Api api = api();
+
+    assertThat(api.get()).isEqualTo("foo");
+    assertThat(api.get()).isEqualTo("bar");
+
+    server.takeRequest();
+    assertThat(server.takeRequest().getHeader("If-Modified-Since")).isEqualTo(lastModified);
+  }
+
+  @Test
+  public void expiresIsRelativeToDate() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo")
+        .addHeader("Date", httpDate(clock.millis()))
+        .addHeader("Expires", httpDate(clock.millis() + TimeUnit.MINUTES.toMillis(1))));
+    server.enqueue(new MockResponse().setBody("bar"));
+    Api api = api();
+
+    assertThat(api.get()).isEqualTo("foo");
+    clock.advance(30, TimeUnit.SECONDS);
+    assertThat(api.get()).isEqualTo("foo");
+    clock.advance(31, TimeUnit.SECONDS);
+    assertThat(api.get()).isEqualTo("bar");
+  }
+
+  @Test
+  public void noStoreIsNotCached() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo").addHeader("Cache-Control", "no-store"));
+    server.enqueue(new MockResponse().setBody("bar"));
+    Api api = api();
+
+    assertThat(api.get()).isEqualTo("foo");
+    assertThat(api.get()).isEqualTo("bar");
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void varyingRequestHeadersMiss() throws Exception {
+    server.enqueue(new MockResponse().setBody("json")
+        .addHeader("Cache-Control", "max-age=60")
+        .addHeader("Vary", "Accept"));
+    server.enqueue(new MockResponse().setBody("xml"));
+    Api api = api();
+
+    assertThat(api.get("application/json")).isEqualTo("json");
+    assertThat(api.get("application/json")).isEqualTo("json");
+    assertThat(api.get("application/xml")).isEqualTo("xml");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void uncacheableResponsesKeepOtherVariants() throws Exception {
+    server.enqueue(new MockResponse().setBody("json")
+        .addHeader("Cache-Control", "max-age=60")
+        .addHeader("Vary", "Accept"));
+    server.enqueue(new MockResponse().setBody("xml").addHeader("Cache-Control", "no-store"));
+    Api api = api();
+
+    assertThat(api.get("application/json")).isEqualTo("json");
+    assertThat(api.get("application/xml")).isEqualTo("xml");
+    assertThat(api.get("application/json")).isEqualTo("json");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void notModifiedToTheCallersConditionalRequestKeepsEntries() throws Exception {
+    server.enqueue(new MockResponse().setBody("json")
+        .addHeader("Cache-Control", "max-age=60")
+        .addHeader("Vary", "Accept"));
+    server.enqueue(new MockResponse().setResponseCode(304));
+    Api api = api();
+
+    assertThat(api.get("application/json")).isEqualTo("json");
+    try (Response response = api.conditional("application/xml", "\"v1\"")) {
+      assertThat(response.status()).isEqualTo(304);
+    }
+    assertThat(api.get("application/json")).isEqualTo("json");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void uncacheableResponsesReplaceTheirVariant() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo").addHeader("Cache-Control", "max-age=60"));
+    server.enqueue(new MockResponse().setBody("bar").addHeader("Cache-Control", "no-store"));
+    Api api = api();
+
+    assertThat(api.get()).isEqualTo("foo");
+    assertThat(cache.size()).isEqualTo(1);
+    clock.advance(61, TimeUnit.SECONDS);
+    assertThat(api.get()).isEqualTo("bar");
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void unsafeRequestsInvalidate() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo").addHeader("Cache-Control", "max-age=60"));
+    server.enqueue(new MockResponse().setBody("created"));
+    server.enqueue(new MockResponse().setBody("bar"));
+    Api api = api();
+
+    assertThat(api.get()).isEqualTo("foo");
+    assertThat(api.post("baz")).isEqualTo("created");
+    assertThat(api.get()).isEqualTo("bar");
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() throws Exception {
+    ResponseCache small = new ResponseCache(1000, clock);
+    Api api = Feign.builder()
+        .client(new CachingClient(new Client.Default(null, null), small))
+        .target(Api.class, "http://localhost:" + server.getPort());
+    for (int i = 0; i < 8; i++) {
+      server.enqueue(new MockResponse().setBody(new String(new char[150]).replace('\0', 'x'))
+          .addHeader("Cache-Control", "max-age=60"));
+      api.path("" + i);
+    }
+
+    assertThat(small.weight()).isLessThanOrEqualTo(1000);
+    assertThat(small.evictionCount()).isPositive();
+    server.enqueue(new MockResponse().setBody("refetched"));
+    assertThat(api.path("0")).isEqualTo("refetched");
+  }
+
+  @Test
+  public void authorizedResponsesAreNotSharedByDefault() throws Exception {
+    server.enqueue(new MockResponse().setBody("alice").addHeader("Cache-Control", "max-age=60"));
+    server.enqueue(new MockResponse().setBody("bob").addHeader("Cache-Control", "max-age=60"));
+    Api api = api();
+
+    assertThat(api.authorized("Bearer alice")).isEqualTo("alice");
+    assertThat(api.authorized("Bearer bob")).isEqualTo("bob");
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void authorizedRequestsSkipPrivateEntries() throws Exception {
+    server.enqueue(new MockResponse().setBody("anonymous")
+        .addHeader("Cache-Control", "max-age=60"));
+    server.enqueue(new MockResponse().setBody("alice"));
+    Api api = api();
+
+    assertThat(api.get()).isEqualTo("anonymous");
+    assertThat(api.authorized("Bearer alice")).isEqualTo("alice");
+    assertThat(api.get()).isEqualTo("anonymous");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void publicAuthorizedResponsesAreCached() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo")
+        .addHeader("Cache-Control", "public, max-age=60"));
+    Api api = api();
+
+    assertThat(api.authorized("Bearer alice")).isEqualTo("foo");
+    assertThat(api.authorized("Bearer alice")).isEqualTo("foo");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void unstorableResponsesAreNotBuffered() throws Exception {
+    Request request = Request.create(HttpMethod.GET, "http://localhost/", Collections.emptyMap(),
+        null, Util.UTF_8, null);
+    Response response = Response.builder()
+        .status(200)
+        .headers(Collections.emptyMap())
+        .body(new ByteArrayInputStream("foo".getBytes(Util.UTF_8)), 3)
+        .request(request)
+        .build();
+
+    Response result = cache.update(cache.lookup(request), response);
+    assertThat(result.body().isRepeatable()).isFalse();
+    assertThat(Util.toString(result.body().asReader(Util.UTF_8))).isEqualTo("foo");
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void largeBodiesOfUnknownLengthPassThrough() throws Exception {
+    ResponseCache small = new ResponseCache(400, clock);
+    Api api = Feign.builder()
+        .client(new CachingClient(new Client.Default(null, null), small))
+        .target(Api.class, "http://localhost:" + server.getPort());
+    String body = new String(new char[1000]).replace('\0', 'x');
+    server.enqueue(new MockResponse().setChunkedBody(body, 64)
+        .addHeader("Cache-Control", "max-age=60"));
+
+    assertThat(api.get()).isEqualTo(body);
+    assertThat(small.size()).isZero();
+  }
+
+  @Test
+  public void asyncFreshHitSkipsNetwork() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo").addHeader("Cache-Control", "max-age=60"));
+    AsyncApi api = AsyncFeign.<Void>asyncBuilder()
+        .client(new CachingAsyncClient<>(new AsyncClient.Pseudo<>(new Client.Default(null, null)),
+            cache))
+        .target(AsyncApi.class, "http://localhost:" + server.getPort());
+
+    assertThat(api.get().get(5, TimeUnit.SECONDS)).isEqualTo("foo");
+    assertThat(api.get().get(5, TimeUnit.SECONDS)).isEqualTo("foo");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+}
@@ -19,6 +19,7 @@ import static org.assertj.core.api.Assertions.entry;
 import static org.junit.Assert.assertEquals;
 import feign.Client;
 import feign.CollectionFormat;
+import feign.DownloadTo;
 import feign.Feign.Builder;
 import feign.FeignException;
 import feign.Headers;
@@ -30,6 +31,9 @@ import feign.Util;
 import feign.assertj.MockWebServerAssertions;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -383,6 +387,74 @@ public abstract class AbstractClientTest {
         .hasOneOfPath("/?foo=bar,baz", "/?foo=bar%2Cbaz");
   }
 
+  @Test
+  public void postsStreamingBodyOfUnknownLength() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo"));
+
+    TestInterface api = newBuilder()
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    assertEquals("foo",
+        api.postStream(new ByteArrayInputStream("streamed body".getBytes(UTF_8))));
+
+    RecordedRequest recordedRequest = server.takeRequest();
+    assertThat(recordedRequest.getMethod()).isEqualToIgnoringCase("POST");
+    assertThat(recordedRequest.getBody().readUtf8()).isEqualTo("streamed body");
+  }
+
+  @Test
+  public void postsStreamingBodyOfKnownLength() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo"));
+
+    TestInterface api = newBuilder()
+        .encoder((object, bodyType, template) -> {
+          byte[] data = ((String) object).getBytes(UTF_8);
+          template.body(out -> out.write(data), data.length, true);
+        })
+        .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+    assertEquals("foo", api.postForString("streamed body"));
+
+    RecordedRequest recordedRequest = server.takeRequest();
+    assertThat(recordedRequest.getHeader("Content-Length")).isEqualTo("13");
+    assertThat(recordedRequest.getBody().readUtf8()).isEqualTo("streamed body");
+  }
+
+  @Test
+  public void postsFile() throws Exception {
+    server.enqueue(new MockResponse().setBody("foo"));
+    Path file = Files.createTempFile("upload", ".txt");
+    try {
+      Files.write(file, "file body".getBytes(UTF_8));
+
+      TestInterface api = newBuilder()
+          .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+      assertEquals("foo", api.postFile(file));
+    } finally {
+      Files.delete(file);
+    }
+
+    RecordedRequest recordedRequest = server.takeRequest();
+    assertThat(recordedRequest.getHeader("Content-Length")).isEqualTo("9");
+    assertThat(recordedRequest.getBody().readUtf8()).isEqualTo("file body");
+  }
+
+  @Test
+  public void downloadsToFile() throws Exception {
+    server.enqueue(new MockResponse().setBody("downloaded body"));
+    Path file = Files.createTempFile("download", ".txt");
+    try {
+      TestInterface api = newBuilder()
+          .target(TestInterface.class, "http://localhost:" + server.getPort());
+
+      assertThat(api.download(file)).isEqualTo(file);
+      assertThat(new String(Files.readAllBytes(file), UTF_8)).isEqualTo("downloaded body");
+    } finally {
+      Files.delete(file);
+    }
+  }
+
   @SuppressWarnings("UnusedReturnValue")
   public interface TestInterface {
 
@@ -427,6 +499,15 @@ public abstract class AbstractClientTest {
     @RequestLine("PATCH")
     String noPatchBody();
 
+    @RequestLine("POST /")
+    String postStream(InputStream body);
+
+    @RequestLine("POST /")
+    String postFile(Path file);
+
+    @RequestLine("GET /")
+    Path download(@DownloadTo Path file);
+
     @RequestLine("POST /?foo=bar&foo=baz&qux=")
     @Headers({"Foo: Bar", "Foo: Baz", "Qux: ", "Content-Type: {contentType}"})
     Response postWithContentType(String body, @Param("contentType") String contentType);
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.coalescing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import feign.Client;
+import feign.Feign;
+import feign.Param;
+import feign.RequestLine;
+import feign.Response;
+import feign.RetryableException;
+import feign.Retryer;
+import feign.Util;
+
+public class CoalescingCapabilityTest {
+
+  interface Api {
+
+    @RequestLine("GET /{id}")
+    String get(@Param("id") String id);
+
+    @RequestLine("GET /{id}")
+    Response response(@Param("id") String id);
+
+    @RequestLine("POST /")
+    String post();
+  }
+
+  private static final int CALLERS = 8;
+
+  private final AtomicInteger calls = new AtomicInteger();
+  private final CountDownLatch entered = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+  /* holds requests until released */
+  private final Client slowClient = (request, options) -> {
+    calls.incrementAndGet();
+    entered.countDown();
+    try {
+      release.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    }
+    return Response.builder()
+        .status(200)
+        .headers(Collections.emptyMap())
+        .body(request.url(), Util.UTF_8)
+        .request(request)
+        .build();
+  };
+
+  private final Api api = Feign.builder()
+      .client(slowClient)
+      .addCapability(new CoalescingCapability())
+      .target(Api.class, "http://localhost");
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /* lets the callers join the first request, before releasing it */
+  private void releaseOnceJoined() throws InterruptedException {
+    assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+    Thread.sleep(200);
+    release.countDown();
+  }
+
+  @Test
+  public void concurrentIdenticalCallsShareOneRequest() throws Exception {
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < CALLERS; i++) {
+      results.add(executor.submit(() -> api.get("foo")));
+    }
+    releaseOnceJoined();
+
+    for (Future<String> result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("http://localhost/foo");
+    }
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  public void eachCallerGetsItsOwnRepeatableBody() throws Exception {
+    List<Future<Response>> results = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      results.add(executor.submit(() -> api.response("foo")));
+    }
+    releaseOnceJoined();
+
+    Response first = results.get(0).get(5, TimeUnit.SECONDS);
+    Response second = results.get(1).get(5, TimeUnit.SECONDS);
+    assertThat(first.body()).isNotSameAs(second.body());
+    assertThat(first.body().isRepeatable()).isTrue();
+    assertThat(Util.toString(first.body().asReader(Util.UTF_8))).isEqualTo("http://localhost/foo");
+    assertThat(Util.toString(second.body().asReader(Util.UTF_8)))
+        .isEqualTo("http://localhost/foo");
+  }
+
+  @Test
+  public void differentRequestsAreNotShared() throws Exception {
+    Future<String> foo = executor.submit(() -> api.get("foo"));
+    Future<String> bar = executor.submit(() -> api.get("bar"));
+    release.countDown();
+
+    assertThat(foo.get(5, TimeUnit.SECONDS)).isEqualTo("http://localhost/foo");
+    assertThat(bar.get(5, TimeUnit.SECONDS)).isEqualTo("http://localhost/bar");
+    assertThat(calls).hasValue(2);
+  }
+
+  @Test
+  public void requestsWithABodyAreNotShared() throws Exception {
+    release.countDown();
+
+    api.post();
+    api.post();
+
+    assertThat(calls).hasValue(2);
+  }
+
+  @Test
+  public void failuresReachEveryCaller() throws Exception {
+    Client failing = (request, options) -> {
+      calls.incrementAndGet();
+      entered.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      throw new IOException("connection reset");
+    };
+    Api api = Feign.builder()
+        .client(failing)
+        .retryer(Retryer.NEVER_RETRY)
+        .addCapability(new CoalescingCapability())
+        .target(Api.class, "http://localhost");
+
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < CALLERS; i++) {
+      results.add(executor.submit(() -> api.get("foo")));
+    }
+    releaseOnceJoined();
+
+    for (Future<String> result : results) {
+      assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+          .hasCauseInstanceOf(RetryableException.class)
+          .hasRootCauseInstanceOf(IOException.class);
+    }
+    assertThat(calls).hasValue(1);
+  }
+}
@@ -19,6 +19,8 @@ import static org.junit.Assert.assertNull;
 import feign.Request.HttpMethod;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -26,8 +28,10 @@ import java.util.Map;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.w3c.dom.Document;
 import feign.Request;
+import feign.RequestTemplate;
 import feign.Response;
 import feign.Util;
 
@@ -37,6 +41,9 @@ public class DefaultDecoderTest {
   @Rule
   public final ExpectedException thrown = ExpectedException.none();
 
+  @Rule
+  public final TemporaryFolder tmp = new TemporaryFolder();
+
   private final Decoder decoder = new Decoder.Default();
 
   @Test
@@ -55,6 +62,29 @@ public class DefaultDecoderTest {
     assertEquals("response body", new String((byte[]) decodedObject, UTF_8));
   }
 
+  @Test
+  public void testDecodesToTemporaryFile() throws Exception {
+    Path file = (Path) decoder.decode(knownResponse(), Path.class);
+    try {
+      assertEquals("response body", new String(Files.readAllBytes(file), UTF_8));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testDecodesToFileOfTheRequest() throws Exception {
+    Path file = tmp.newFile().toPath();
+    Files.write(file, "previous content, longer than the body".getBytes(UTF_8));
+    Response response = knownResponse().toBuilder()
+        .request(Request.create(HttpMethod.GET, "/api", Collections.emptyMap(),
+            Request.Body.empty(), new RequestTemplate().downloadTo(file)))
+        .build();
+
+    assertEquals(file, decoder.decode(response, Path.class));
+    assertEquals("response body", new String(Files.readAllBytes(file), UTF_8));
+  }
+
   @Test
   public void testDecodesNullBodyToNull() throws Exception {
     assertNull(decoder.decode(nullBodyResponse(), Document.class));
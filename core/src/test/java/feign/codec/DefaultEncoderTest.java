@@ -16,10 +16,19 @@ package feign.codec;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Date;
+import feign.Request;
 import feign.RequestTemplate;
 import static feign.Util.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -28,6 +37,9 @@ public class DefaultEncoderTest {
   @Rule
   public final ExpectedException thrown = ExpectedException.none();
 
+  @Rule
+  public final TemporaryFolder tmp = new TemporaryFolder();
+
   private final Encoder encoder = new Encoder.Default();
 
   @Test
@@ -46,6 +58,42 @@ public class DefaultEncoderTest {
     assertTrue(Arrays.equals(content, template.body()));
   }
 
+  @Test
+  public void testEncodesFilesAsReplayableStreamingBodies() throws Exception {
+    Path path = tmp.newFile().toPath();
+    Files.write(path, "file content".getBytes(UTF_8));
+
+    for (Object file : Arrays.asList(path, path.toFile())) {
+      RequestTemplate template = new RequestTemplate();
+      encoder.encode(file, file.getClass(), template);
+
+      Request.Body body = template.requestBody();
+      assertThat(body.isStreaming()).isTrue();
+      assertThat(body.isReplayable()).isTrue();
+      assertThat(template.headers().get("Content-Length")).containsExactly("12");
+      assertThat(write(body)).isEqualTo("file content");
+      assertThat(write(body)).isEqualTo("file content");
+    }
+  }
+
+  @Test
+  public void testEncodesFileChannelFromItsPosition() throws Exception {
+    File file = tmp.newFile();
+    Files.write(file.toPath(), "skipped, file content".getBytes(UTF_8));
+
+    try (FileChannel channel = FileChannel.open(file.toPath())) {
+      channel.position(9);
+      RequestTemplate template = new RequestTemplate();
+      encoder.encode(channel, FileChannel.class, template);
+
+      Request.Body body = template.requestBody();
+      assertThat(body.contentLength()).isEqualTo(12);
+      assertThat(write(body)).isEqualTo("file content");
+      assertThat(write(body)).isEqualTo("file content");
+      assertThat(channel.position()).isEqualTo(9);
+    }
+  }
+
   @Test
   public void testRefusesToEncodeOtherTypes() throws Exception {
     thrown.expect(EncodeException.class);
@@ -53,4 +101,10 @@ public class DefaultEncoderTest {
 
     encoder.encode(new Date(), Date.class, new RequestTemplate());
   }
+
+  private static String write(Request.Body body) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    body.writeTo(out);
+    return new String(out.toByteArray(), UTF_8);
+  }
 }
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.hedging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import feign.AsyncClient;
+import feign.AsyncFeign;
+import feign.Client;
+import feign.Feign;
+import feign.RequestLine;
+import feign.Response;
+import feign.Util;
+
+public class HedgingCapabilityTest {
+
+  public interface Api {
+
+    @Idempotent
+    @RequestLine("GET /")
+    String get();
+
+    @RequestLine("POST /")
+    String post();
+  }
+
+  public interface AsyncApi {
+
+    @Idempotent
+    @RequestLine("GET /")
+    CompletableFuture<String> get();
+  }
+
+  private final AtomicInteger calls = new AtomicInteger();
+  private final CountDownLatch slowCallInterrupted = new CountDownLatch(1);
+
+  /* the first call hangs until interrupted, the others answer right away */
+  private final Client firstCallHangs = (request, options) -> {
+    if (calls.incrementAndGet() == 1) {
+      try {
+        Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+        return response(request, "slow");
+      } catch (InterruptedException e) {
+        slowCallInterrupted.countDown();
+        throw new IOException(e);
+      }
+    }
+    return response(request, "fast");
+  };
+
+  private static Response response(feign.Request request, String body) {
+    return Response.builder()
+        .status(200)
+        .headers(Collections.emptyMap())
+        .body(body, Util.UTF_8)
+        .request(request)
+        .build();
+  }
+
+  private HedgingCapability.Builder hedging() {
+    return HedgingCapability.builder().delay(20, TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  public void hedgesSlowIdempotentCalls() throws InterruptedException {
+    Api api = Feign.builder()
+        .client(firstCallHangs)
+        .addCapability(hedging().build())
+        .target(Api.class, "http://localhost");
+
+    assertThat(api.get()).isEqualTo("fast");
+    assertThat(calls).hasValue(2);
+    assertThat(slowCallInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void doesNotHedgeOtherMethods() {
+    Client client = (request, options) -> {
+      calls.incrementAndGet();
+      return response(request, "ok");
+    };
+    Api api = Feign.builder()
+        .client(client)
+        .addCapability(hedging().delay(0, TimeUnit.MILLISECONDS).build())
+        .target(Api.class, "http://localhost");
+
+    assertThat(api.post()).isEqualTo("ok");
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  public void doesNotHedgeFastCalls() throws InterruptedException {
+    Client client = (request, options) -> {
+      calls.incrementAndGet();
+      return response(request, "ok");
+    };
+    Api api = Feign.builder()
+        .client(client)
+        .addCapability(hedging().delay(1, TimeUnit.SECONDS).build())
+        .target(Api.class, "http://localhost");
+
+    assertThat(api.get()).isEqualTo("ok");
+    Thread.sleep(50);
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  public void budgetLimitsHedges() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    Client client = (request, options) -> {
+      calls.incrementAndGet();
+      try {
+        release.await(50, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return response(request, "ok");
+    };
+    Api api = Feign.builder()
+        .client(client)
+        .addCapability(hedging().delay(1, TimeUnit.MILLISECONDS).budget(0, 1).build())
+        .target(Api.class, "http://localhost");
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(api.get()).isEqualTo("ok");
+    }
+    /* one hedge in the initial burst, then nothing is deposited */
+    assertThat(calls).hasValue(4);
+  }
+
+  @Test
+  public void hedgesAsyncClients() throws Exception {
+    AsyncApi api = AsyncFeign.<Void>asyncBuilder()
+        .client(new AsyncClient.Default<>(firstCallHangs,
+            Executors.newCachedThreadPool()))
+        .addCapability(hedging().build())
+        .target(AsyncApi.class, "http://localhost");
+
+    assertThat(api.get().get(5, TimeUnit.SECONDS)).isEqualTo("fast");
+    assertThat(slowCallInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void percentileFollowsObservedLatencies() {
+    LatencyWindow window = new LatencyWindow(0.95);
+    for (int i = 1; i < LatencyWindow.MINIMUM_SAMPLES; i++) {
+      window.record(i);
+    }
+    assertThat(window.percentileNanos()).isEqualTo(-1);
+
+    for (int i = LatencyWindow.MINIMUM_SAMPLES; i <= 100; i++) {
+      window.record(i);
+    }
+    assertThat(window.percentileNanos()).isBetween(90L, 96L);
+  }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import feign.Client;
+import feign.Feign;
+import feign.FeignException;
+import feign.Param;
+import feign.RequestLine;
+import feign.Response;
+import feign.Util;
+import feign.codec.Decoder;
+
+public class PartitioningCapabilityTest {
+
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  public interface Api {
+
+    @RequestLine("GET /items?id={ids}")
+    List<Long> items(@Param("ids") @Partitioned List<Long> ids);
+
+    @RequestLine("GET /items?id={ids}")
+    Set<Long> itemSet(@Param("ids") @Partitioned Set<Long> ids);
+
+    @RequestLine("DELETE /items?id={ids}")
+    void delete(@Param("ids") @Partitioned Collection<Long> ids);
+  }
+
+  public interface Unmergeable {
+
+    @RequestLine("GET /items?id={ids}")
+    String items(@Param("ids") @Partitioned List<Long> ids);
+  }
+
+  private final List<String> urls = Collections.synchronizedList(new ArrayList<>());
+
+  /* answers with the ids it was sent, one per line */
+  private final Client echo = (request, options) -> {
+    urls.add(request.url());
+    String query = request.url().substring(request.url().indexOf('?') + 1);
+    if (query.contains("id=13&")) {
+      return Response.builder()
+          .status(500)
+          .headers(Collections.emptyMap())
+          .request(request)
+          .build();
+    }
+    return Response.builder()
+        .status(200)
+        .headers(Collections.emptyMap())
+        .body(query.replace("id=", "").replace('&', '\n'), Util.UTF_8)
+        .request(request)
+        .build();
+  };
+
+  private final Decoder decoder = (response, type) -> {
+    List<Long> ids = new ArrayList<>();
+    for (String line : Util.toString(response.body().asReader(Util.UTF_8)).split("\n")) {
+      ids.add(Long.valueOf(line));
+    }
+    return ids;
+  };
+
+  private <T> T target(Class<T> type) {
+    return Feign.builder()
+        .client(echo)
+        .decoder(decoder)
+        .addCapability(PartitioningCapability.builder().maxSize(10).build())
+        .target(type, "http://localhost");
+  }
+
+  private static List<Long> ids(long from, long to) {
+    return LongStream.range(from, to).boxed().collect(Collectors.toList());
+  }
+
+  @Test
+  public void splitsLargeCollectionsAndMergesResultsInOrder() {
+    List<Long> result = target(Api.class).items(ids(100, 125));
+
+    assertThat(result).isEqualTo(ids(100, 125));
+    assertThat(urls).hasSize(3);
+    assertThat(urls)
+        .allSatisfy(url -> assertThat(url.split("&").length).isLessThanOrEqualTo(10));
+  }
+
+  @Test
+  public void sendsSmallCollectionsAsIs() {
+    assertThat(target(Api.class).items(ids(0, 10))).isEqualTo(ids(0, 10));
+
+    assertThat(urls).hasSize(1);
+  }
+
+  @Test
+  public void mergesSetsIntoSets() {
+    Set<Long> ids = new LinkedHashSet<>(ids(20, 35));
+
+    assertThat(target(Api.class).itemSet(ids)).containsExactlyElementsOf(ids);
+    assertThat(urls).hasSize(2);
+  }
+
+  @Test
+  public void sendsEveryPartitionOfVoidMethods() {
+    target(Api.class).delete(ids(20, 45));
+
+    assertThat(urls).hasSize(3);
+  }
+
+  @Test
+  public void failingPartitionFailsTheCall() {
+    thrown.expect(FeignException.InternalServerError.class);
+
+    target(Api.class).items(ids(0, 30));
+  }
+
+  @Test
+  public void rejectsResultsThatCantBeMerged() {
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("can't be merged");
+
+    target(Unmergeable.class);
+  }
+}
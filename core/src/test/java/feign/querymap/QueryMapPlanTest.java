@@ -0,0 +1,175 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.querymap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import feign.Client;
+import feign.Feign;
+import feign.Param;
+import feign.QueryMap;
+import feign.QueryMapEncoder;
+import feign.Request;
+import feign.RequestLine;
+import feign.Response;
+import feign.codec.EncodeException;
+
+public class QueryMapPlanTest {
+
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  interface SearchApi {
+
+    @RequestLine("GET /search?q=feign")
+    Response search(@QueryMap Filter filter);
+  }
+
+  static class BaseFilter {
+    String sort = "name,asc";
+  }
+
+  static class Filter extends BaseFilter {
+    @Param("first name")
+    String firstName = "J\u00f6rg & Co";
+    int page = 2;
+    long since = -5L;
+    boolean active = true;
+    short shortValue = 7;
+    double ratio = 0.5;
+    char initial = 'j';
+    String missing;
+    List<String> tags = Arrays.asList("a/b", null, "{c}");
+    String[] ids = {"1", "2"};
+  }
+
+  public static class Bean {
+    public String getName() {
+      return "bean";
+    }
+
+    public int getCount() {
+      return 3;
+    }
+
+    public String getMissing() {
+      return null;
+    }
+  }
+
+  public static class FailingBean {
+    public String getName() {
+      throw new IllegalStateException("boom");
+    }
+  }
+
+  static class Shadowing {
+    @Param("value")
+    String first = "first";
+    @Param("value")
+    String second;
+  }
+
+  @Test
+  public void writesFieldsInDeclarationOrderWithEncodedNamesAndValues() {
+    List<String> written = new ArrayList<>();
+    QueryMapPlan.ofFields(Filter.class).encode(new Filter(),
+        (name, values) -> written.add(name + "=" + values));
+
+    assertThat(written).containsExactly(
+        "first%20name=[J%C3%B6rg%20%26%20Co]",
+        "page=[2]",
+        "since=[-5]",
+        "active=[true]",
+        "shortValue=[7]",
+        "ratio=[0.5]",
+        "initial=[j]",
+        "tags=[a%2Fb, null, %7Bc%7D]",
+        "ids=[1, 2]",
+        "sort=[name%2Casc]");
+  }
+
+  @Test
+  public void mapsFieldsLeavingOutNulls() {
+    Map<String, Object> map = QueryMapPlan.ofFields(Filter.class).toMap(new Filter());
+
+    assertThat(map)
+        .contains(entry("first name", "J\u00f6rg & Co"), entry("page", 2), entry("since", -5L),
+            entry("active", true), entry("shortValue", (short) 7))
+        .doesNotContainKey("missing");
+  }
+
+  @Test
+  public void lastValueThatIsNotNullWinsForSharedNames() {
+    Shadowing shadowing = new Shadowing();
+    assertThat(QueryMapPlan.ofFields(Shadowing.class).toMap(shadowing))
+        .containsExactly(entry("value", "first"));
+
+    shadowing.second = "second";
+    assertThat(QueryMapPlan.ofFields(Shadowing.class).toMap(shadowing))
+        .containsExactly(entry("value", "second"));
+  }
+
+  @Test
+  public void readsBeanProperties() {
+    List<String> written = new ArrayList<>();
+    QueryMapPlan.ofBeanProperties(Bean.class).encode(new Bean(),
+        (name, values) -> written.add(name + "=" + values));
+
+    assertThat(written).containsExactlyInAnyOrder("name=[bean]", "count=[3]");
+  }
+
+  @Test
+  public void failingGetterThrowsEncodeException() {
+    thrown.expect(EncodeException.class);
+    thrown.expectMessage("Failure encoding object into query map");
+
+    QueryMapPlan.ofBeanProperties(FailingBean.class).toMap(new FailingBean());
+  }
+
+  @Test
+  public void writesTheSameQueryAsTheEncodedMap() {
+    /* a subclass might override encode, so it takes the map based path */
+    QueryMapEncoder mapBased = new FieldQueryMapEncoder() {};
+
+    assertThat(search(new FieldQueryMapEncoder())).isEqualTo(search(mapBased));
+  }
+
+  private static String search(QueryMapEncoder queryMapEncoder) {
+    AtomicReference<Request> request = new AtomicReference<>();
+    Client client = (r, options) -> {
+      request.set(r);
+      return Response.builder()
+          .status(200)
+          .headers(Collections.emptyMap())
+          .request(r)
+          .build();
+    };
+    Feign.builder()
+        .client(client)
+        .queryMapEncoder(queryMapEncoder)
+        .target(SearchApi.class, "http://localhost")
+        .search(new Filter());
+    return request.get().url();
+  }
+}
@@ -14,8 +14,13 @@
 package feign.template;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import org.junit.Test;
+import feign.Util;
 
 public class BodyTemplateTest {
 
@@ -29,4 +34,61 @@ public class BodyTemplateTest {
         .isEqualToIgnoringCase(
             "{\"resize\": {\"method\": \"fit\",\"width\": 100,\"height\": 100}}");
   }
+
+  @Test
+  public void expandsDirectlyToBytes() {
+    String bodyTemplate =
+        "%7B\"resize\": %7B\"method\": \"fit\",\"width\": {size},\"height\": {size}%7D%7D";
+    BodyTemplate template = BodyTemplate.create(bodyTemplate);
+    byte[] expanded = template.expand(Collections.singletonMap("size", "100"), Util.UTF_8);
+    assertThat(new String(expanded, Util.UTF_8))
+        .isEqualTo("{\"resize\": {\"method\": \"fit\",\"width\": 100,\"height\": 100}}");
+  }
+
+  @Test
+  public void restoresJsonTokensSplitBetweenChunks() {
+    BodyTemplate template = BodyTemplate.create("%7B{a}{b}{c}%7D");
+    Map<String, Object> variables = new HashMap<>();
+    variables.put("a", "x%");
+    variables.put("b", "7");
+    variables.put("c", "D%7");
+
+    assertBytesMatchString(template, variables, Util.UTF_8);
+  }
+
+  @Test
+  public void bytesMatchTheExpandedString() {
+    Map<String, Object> variables = new HashMap<>();
+    variables.put("name", "caf\u00e9 \ud83d\ude00 \u65e5\u672c");
+    variables.put("high", "\ud83d");
+    variables.put("low", "\ude00");
+    variables.put("percent", "100%");
+
+    for (Charset charset : new Charset[] {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1,
+        StandardCharsets.UTF_16}) {
+      assertBytesMatchString(
+          BodyTemplate.create("%7B\"name\": \"{name}\", \"pair\": \"{high}{low}\"%7D"),
+          variables, charset);
+      assertBytesMatchString(BodyTemplate.create("{percent}7B {missing} {high}"), variables,
+          charset);
+    }
+  }
+
+  @Test
+  public void growsBeyondTheSizeOfThePreviousExpansion() {
+    BodyTemplate template = BodyTemplate.create("{\"items\": [{items}]}");
+    StringBuilder items = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      assertBytesMatchString(template, Collections.singletonMap("items", items), Util.UTF_8);
+      items.append(i).append(",\u00e9");
+    }
+    assertBytesMatchString(template, Collections.singletonMap("items", "1"), Util.UTF_8);
+  }
+
+  private static void assertBytesMatchString(BodyTemplate template,
+                                             Map<String, ?> variables,
+                                             Charset charset) {
+    assertThat(template.expand(variables, charset))
+        .isEqualTo(template.expand(variables).getBytes(charset));
+  }
 }
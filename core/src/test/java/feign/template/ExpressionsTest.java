@@ -0,0 +1,137 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.template;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import feign.Util;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Examples from <a href="https://tools.ietf.org/html/rfc6570#section-3.2">RFC 6570 section 3.2</a>.
+ */
+public class ExpressionsTest {
+
+  private static final Map<String, Object> VARIABLES = new LinkedHashMap<>();
+
+  static {
+    Map<String, String> keys = new LinkedHashMap<>();
+    keys.put("semi", ";");
+    keys.put("dot", ".");
+    keys.put("comma", ",");
+
+    VARIABLES.put("var", "value");
+    VARIABLES.put("hello", "Hello World!");
+    VARIABLES.put("path", "/foo/bar");
+    VARIABLES.put("empty", "");
+    VARIABLES.put("x", "1024");
+    VARIABLES.put("y", "768");
+    VARIABLES.put("list", Arrays.asList("red", "green", "blue"));
+    VARIABLES.put("keys", keys);
+    VARIABLES.put("emptyList", Collections.emptyList());
+  }
+
+  private static String expand(String template) {
+    return UriTemplate.create(template, Util.UTF_8).expand(VARIABLES);
+  }
+
+  @Test
+  public void simpleExpansion() {
+    assertThat(expand("{var}")).isEqualTo("value");
+    assertThat(expand("{hello}")).isEqualTo("Hello%20World%21");
+    assertThat(expand("{x,y}")).isEqualTo("1024,768");
+    assertThat(expand("{x,undef,y}")).isEqualTo("1024,768");
+    assertThat(expand("{var:3}")).isEqualTo("val");
+    assertThat(expand("{list}")).isEqualTo("red,green,blue");
+    assertThat(expand("{list*}")).isEqualTo("red,green,blue");
+    assertThat(expand("{keys}")).isEqualTo("semi,%3B,dot,.,comma,%2C");
+    assertThat(expand("{keys*}")).isEqualTo("semi=%3B,dot=.,comma=%2C");
+  }
+
+  @Test
+  public void reservedExpansion() {
+    assertThat(expand("{+path}/here")).isEqualTo("/foo/bar/here");
+    assertThat(expand("{+hello}")).isEqualTo("Hello%20World!");
+    assertThat(expand("{+path:6}/here")).isEqualTo("/foo/b/here");
+    assertThat(expand("{+keys*}")).isEqualTo("semi=;,dot=.,comma=,");
+  }
+
+  @Test
+  public void fragmentExpansion() {
+    assertThat(expand("X{#var}")).isEqualTo("X#value");
+    assertThat(expand("X{#hello}")).isEqualTo("X#Hello%20World!");
+    assertThat(expand("{#path:6}/here")).isEqualTo("#/foo/b/here");
+    assertThat(expand("{#list*}")).isEqualTo("#red,green,blue");
+  }
+
+  @Test
+  public void labelExpansion() {
+    assertThat(expand("X{.var}")).isEqualTo("X.value");
+    assertThat(expand("X{.x,y}")).isEqualTo("X.1024.768");
+    assertThat(expand("X{.list}")).isEqualTo("X.red,green,blue");
+    assertThat(expand("X{.list*}")).isEqualTo("X.red.green.blue");
+    assertThat(expand("X{.empty_keys}")).isEqualTo("X");
+  }
+
+  @Test
+  public void pathSegmentExpansion() {
+    assertThat(expand("{/var:1,var}")).isEqualTo("/v/value");
+    assertThat(expand("{/list*}")).isEqualTo("/red/green/blue");
+    assertThat(expand("{/list*,path:4}")).isEqualTo("/red/green/blue/%2Ffoo");
+    assertThat(expand("{/keys*}")).isEqualTo("/semi=%3B/dot=./comma=%2C");
+  }
+
+  @Test
+  public void pathParameterExpansion() {
+    assertThat(expand("{;x,y}")).isEqualTo(";x=1024;y=768");
+    assertThat(expand("{;x,y,empty}")).isEqualTo(";x=1024;y=768;empty");
+    assertThat(expand("{;list*}")).isEqualTo(";list=red;list=green;list=blue");
+    assertThat(expand("{;keys*}")).isEqualTo(";semi=%3B;dot=.;comma=%2C");
+  }
+
+  @Test
+  public void formQueryExpansion() {
+    assertThat(expand("{?x,y}")).isEqualTo("?x=1024&y=768");
+    assertThat(expand("{?x,y,empty}")).isEqualTo("?x=1024&y=768&empty=");
+    assertThat(expand("{?list}")).isEqualTo("?list=red,green,blue");
+    assertThat(expand("{?keys}")).isEqualTo("?keys=semi,%3B,dot,.,comma,%2C");
+    assertThat(expand("{?keys*}")).isEqualTo("?semi=%3B&dot=.&comma=%2C");
+    assertThat(expand("?fixed=yes{&x}")).isEqualTo("?fixed=yes&x=1024");
+    assertThat(expand("{&list*}")).isEqualTo("&list=red&list=green&list=blue");
+  }
+
+  @Test
+  public void undefinedVariablesAreSkipped() {
+    assertThat(expand("/items{?undef,emptyList}")).isEqualTo("/items");
+    assertThat(expand("/items{?undef,x}")).isEqualTo("/items?x=1024");
+  }
+
+  @Test
+  public void expressionsAreCompiledOnce() {
+    UriTemplate template = UriTemplate.create("/repos{/owner,repo}{?page,sort}", Util.UTF_8);
+    assertThat(template.getVariables()).containsExactly("owner", "repo", "page", "sort");
+    assertThat(template.toString()).isEqualTo("/repos{/owner,repo}{?page,sort}");
+  }
+
+  @Test
+  public void patternsStillApplyToOperators() {
+    assertThat(expand("{/x:[0-9]+}")).isEqualTo("/1024");
+    assertThatThrownBy(() -> expand("{/var:[0-9]+}"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -19,6 +19,8 @@ import static org.junit.Assert.assertThat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -111,4 +113,23 @@ public class HeaderTemplateTest {
     assertThat(new ArrayList<>(headerTemplateWithSecondOrdering.getValues()),
         equalTo(Arrays.asList("test 2", "test 1")));
   }
+
+  @Test
+  public void it_should_expand_into_buffer() {
+    HeaderTemplate headerTemplate =
+        HeaderTemplate.create("Accept", Arrays.asList("{first}", "{second}", "{third}"));
+    StringBuilder buffer = new StringBuilder("existing,");
+
+    assertEquals(true, headerTemplate.expand(
+        Collections.singletonMap("first", "text/plain"), buffer));
+    assertEquals("existing,Accept text/plain", buffer.toString());
+
+    buffer.setLength(0);
+    Map<String, String> variables = new HashMap<>();
+    variables.put("first", "a");
+    variables.put("second", "b");
+    variables.put("third", "c");
+    headerTemplate.expand(variables, buffer);
+    assertEquals("Accept a, b, c", buffer.toString());
+  }
 }
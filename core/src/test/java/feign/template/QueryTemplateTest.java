@@ -19,6 +19,9 @@ import feign.CollectionFormat;
 import feign.Util;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import org.junit.Test;
 
 public class QueryTemplateTest {
@@ -213,4 +216,47 @@ public class QueryTemplateTest {
     /* dollar will be pct-encoded */
     assertThat(expanded).isEqualToIgnoringCase("%24collection=1%2C2");
   }
+
+  @Test
+  public void expandIntoBuffer() {
+    QueryTemplate template = QueryTemplate.create("name", Arrays.asList("{first}", "{last}"),
+        Util.UTF_8, CollectionFormat.PIPES);
+    StringBuilder buffer = new StringBuilder("/?");
+
+    assertThat(template.expand(Collections.singletonMap("first", Arrays.asList("a b", "c")),
+        buffer)).isTrue();
+    assertThat(buffer.toString()).isEqualTo("/?name=a%20b%7Cc");
+  }
+
+  @Test
+  public void expandUnresolvedIntoBuffer() {
+    QueryTemplate template =
+        QueryTemplate.create("name", Collections.singletonList("{value}"), Util.UTF_8);
+    StringBuilder buffer = new StringBuilder("/?");
+
+    assertThat(template.expand(Collections.emptyMap(), buffer)).isFalse();
+    assertThat(buffer.toString()).isEqualTo("/?");
+  }
+
+  @Test
+  public void expandLargeCollectionOfNumbers() {
+    List<Long> ids = LongStream.range(-5, 20000).boxed().collect(Collectors.toList());
+    QueryTemplate template =
+        QueryTemplate.create("id", Collections.singletonList("{ids}"), Util.UTF_8);
+
+    String expanded = template.expand(Collections.singletonMap("ids", ids));
+
+    assertThat(expanded).isEqualTo(ids.stream()
+        .map(id -> "id=" + id)
+        .collect(Collectors.joining("&")));
+  }
+
+  @Test
+  public void expandCollectionWithBlanksBetweenAndAfterValues() {
+    QueryTemplate template =
+        QueryTemplate.create("people", Collections.singletonList("{people}"), Util.UTF_8);
+    String expanded = template.expand(
+        Collections.singletonMap("people", Arrays.asList("Jason", "", 3, "", "")));
+    assertThat(expanded).isEqualTo("people=Jason&people=&people=3");
+  }
 }
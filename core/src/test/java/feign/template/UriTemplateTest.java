@@ -299,4 +299,18 @@ public class UriTemplateTest {
     String expanded = uriTemplate.expand(Collections.singletonMap("url", "https://www.google.com"));
     assertThat(expanded).isEqualToIgnoringCase("/get?url=https%3A%2F%2Fwww.google.com");
   }
+
+  @Test
+  public void expandIntoSharedBuffer() {
+    UriTemplate path = UriTemplate.create("/users/{user}/repos/{repo}", false, Util.UTF_8);
+    UriTemplate unresolved = UriTemplate.create("{missing}", Util.UTF_8);
+    Map<String, Object> variables = new LinkedHashMap<>();
+    variables.put("user", "a/b");
+    variables.put("repo", "feign");
+
+    StringBuilder buffer = new StringBuilder("https://api.example.com");
+    assertThat(path.expand(variables, buffer)).isTrue();
+    assertThat(unresolved.expand(variables, buffer)).isFalse();
+    assertThat(buffer.toString()).isEqualTo("https://api.example.com/users/a/b/repos/feign");
+  }
 }
@@ -14,8 +14,11 @@
 package feign.template;
 
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import java.nio.charset.Charset;
+import java.util.Random;
 import org.junit.Test;
 
 public class UriUtilsTest {
@@ -41,4 +44,67 @@ public class UriUtilsTest {
     String encoded = UriUtils.encode(withReserved, UTF_8, true);
     assertThat(encoded).isEqualTo("/api/user@host:port#section[a-z]/data");
   }
+
+  @Test
+  public void unreservedValuesAreNotCopied() {
+    String id = "user-42_a.b~c";
+    assertThat(UriUtils.encode(id, UTF_8)).isSameAs(id);
+    assertThat(UriUtils.encode(id, UTF_8, true)).isSameAs(id);
+    assertThat(UriUtils.encode(id, UTF_8, false)).isSameAs(id);
+  }
+
+  @Test
+  public void pctEncodeNonAscii() {
+    assertThat(UriUtils.encode("caf\u00e9 \u20ac \ud83d\ude00", UTF_8))
+        .isEqualTo("caf%C3%A9%20%E2%82%AC%20%F0%9F%98%80");
+    assertThat(UriUtils.encode("caf\u00e9", ISO_8859_1)).isEqualTo("caf%E9");
+  }
+
+  @Test
+  public void onlyAsciiHexDigitsArePctEncoded() {
+    /* fullwidth digits aren't hex digits, the % must be encoded */
+    assertThat(UriUtils.encode("%\uff11\uff12", UTF_8)).isEqualTo("%25%EF%BC%91%EF%BC%92");
+    assertThat(UriUtils.encode("%1a%2F", UTF_8)).isEqualTo("%1a%2F");
+  }
+
+  @Test
+  public void pctEncodeIntoBuilder() {
+    StringBuilder builder = new StringBuilder("q=");
+    UriUtils.encode("a b", UTF_8, builder);
+    UriUtils.encode("&c%20d/", UTF_8, false, builder.append('&'));
+    assertThat(builder.toString()).isEqualTo("q=a%20b&%26c%20d%2F");
+  }
+
+  /**
+   * the table driven encoder must match the byte buffer one it replaced, quirks included.
+   */
+  @Test
+  public void matchesLegacyEncoder() {
+    Random random = new Random(1234);
+    String alphabet = "aZ09-._~%%%2fF:/?#[]@!$&'()*+,;= \"<>^`{|}\u00e9\u00ff\u0100\u20ac"
+        + "\ud83d\ude00\ud83d\ude00\ud800\udc00";
+    for (int i = 0; i < 20_000; i++) {
+      StringBuilder value = new StringBuilder();
+      for (int j = random.nextInt(12); j > 0; j--) {
+        value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+      }
+      assertMatchesLegacy(value.toString(), UTF_8);
+      assertMatchesLegacy(value.toString(), ISO_8859_1);
+    }
+  }
+
+  private static void assertMatchesLegacy(String value, Charset charset) {
+    assertThat(UriUtils.isEncoded(value, charset))
+        .as(value).isEqualTo(LegacyUriUtils.isEncoded(value, charset));
+    assertThat(UriUtils.encode(value, charset))
+        .as(value).isEqualTo(LegacyUriUtils.encode(value, charset));
+    assertThat(UriUtils.encode(value, charset, new StringBuilder()).toString())
+        .as(value).isEqualTo(LegacyUriUtils.encode(value, charset));
+    for (boolean allowReserved : new boolean[] {true, false}) {
+      assertThat(UriUtils.encode(value, charset, allowReserved))
+          .as(value).isEqualTo(LegacyUriUtils.encode(value, charset, allowReserved));
+      assertThat(UriUtils.encode(value, charset, allowReserved, new StringBuilder()).toString())
+          .as(value).isEqualTo(LegacyUriUtils.encode(value, charset, allowReserved));
+    }
+  }
 }
@@ -15,10 +15,9 @@ package feign.metrics4;
 
 
 import java.lang.reflect.Method;
-import java.net.URI;
-import java.net.URISyntaxException;
 import com.codahale.metrics.MetricRegistry;
 import feign.MethodMetadata;
+import feign.RequestUrl;
 import feign.Target;
 
 public final class FeignMetricName {
@@ -45,14 +44,8 @@ public final class FeignMetricName {
   }
 
   private String extractHost(final String targetUrl) {
-    try {
-      return new URI(targetUrl).getHost();
-    } catch (final URISyntaxException e) {
-      // can't get the host, in that case, just read first 20 chars from url
-      return targetUrl.length() <= 20
-          ? targetUrl
-          : targetUrl.substring(0, 20);
-    }
+    String host = RequestUrl.parse(targetUrl).host();
+    return host == null || host.isEmpty() ? null : host;
   }
 
 
@@ -15,9 +15,8 @@ package feign.metrics5;
 
 
 import java.lang.reflect.Method;
-import java.net.URI;
-import java.net.URISyntaxException;
 import feign.MethodMetadata;
+import feign.RequestUrl;
 import feign.Target;
 import io.dropwizard.metrics5.MetricName;
 import io.dropwizard.metrics5.MetricRegistry;
@@ -49,14 +48,8 @@ public final class FeignMetricName {
   }
 
   private String extractHost(final String targetUrl) {
-    try {
-      return new URI(targetUrl).getHost();
-    } catch (final URISyntaxException e) {
-      // can't get the host, in that case, just read first 20 chars from url
-      return targetUrl.length() <= 20
-          ? targetUrl
-          : targetUrl.substring(0, 20);
-    }
+    String host = RequestUrl.parse(targetUrl).host();
+    return host == null || host.isEmpty() ? null : host;
   }
 
 
@@ -15,6 +15,7 @@ package feign.metrics5;
 
 import static feign.Util.UTF_8;
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.function.Supplier;
 import feign.Response.Body;
@@ -55,6 +56,14 @@ public final class MeteredBody implements Body {
     return input;
   }
 
+  @Override
+  public ByteBuffer asByteBuffer() throws IOException {
+    final ByteBuffer buffer = delegate.asByteBuffer();
+    final long read = buffer.remaining();
+    count = () -> read;
+    return buffer;
+  }
+
   @Override
   public Reader asReader() throws IOException {
     return new InputStreamReader(asInputStream(), UTF_8);
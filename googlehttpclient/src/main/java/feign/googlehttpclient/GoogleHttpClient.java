@@ -13,6 +13,7 @@
  */
 package feign.googlehttpclient;
 
+import com.google.api.client.http.AbstractHttpContent;
 import com.google.api.client.http.ByteArrayContent;
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpContent;
@@ -23,9 +24,9 @@ import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpResponse;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.Map;
-import java.util.HashMap;
 import feign.Client;
 import feign.Request;
 import feign.Response;
@@ -67,15 +68,16 @@ public class GoogleHttpClient implements Client {
       throws IOException {
     // Setup the request body
     HttpContent content = null;
-    if (inputRequest.length() > 0) {
-      final Collection<String> contentTypeValues = inputRequest.headers().get("Content-Type");
-      String contentType = null;
-      if (contentTypeValues != null && contentTypeValues.size() > 0) {
-        contentType = contentTypeValues.iterator().next();
-      } else {
+    final Request.Body body = inputRequest.requestBody();
+    final boolean streaming = body != null && body.isStreaming();
+    if (inputRequest.length() > 0 || streaming) {
+      String contentType = inputRequest.httpHeaders().firstValue("Content-Type");
+      if (contentType == null) {
         contentType = "application/octet-stream";
       }
-      content = new ByteArrayContent(contentType, inputRequest.body());
+      content = streaming
+          ? new StreamingContent(contentType, body)
+          : new ByteArrayContent(contentType, inputRequest.body());
     }
 
     // Build the request
@@ -88,7 +90,7 @@ public class GoogleHttpClient implements Client {
       headers.set(header.getKey(), header.getValue());
     }
     // Some servers don't do well with no Accept header
-    if (inputRequest.headers().get("Accept") == null) {
+    if (!inputRequest.httpHeaders().containsKey("Accept")) {
       headers.setAccept("*/*");
     }
     request.setHeaders(headers);
@@ -101,6 +103,32 @@ public class GoogleHttpClient implements Client {
     return request;
   }
 
+  /* writes a streaming body directly to the connection */
+  private static final class StreamingContent extends AbstractHttpContent {
+
+    private final Request.Body body;
+
+    StreamingContent(String mediaType, Request.Body body) {
+      super(mediaType);
+      this.body = body;
+    }
+
+    @Override
+    public long getLength() {
+      return body.contentLength();
+    }
+
+    @Override
+    public boolean retrySupported() {
+      return body.isReplayable();
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+      body.writeTo(out);
+    }
+  }
+
   private final Response convertResponse(final Request inputRequest,
                                          final HttpResponse inputResponse)
       throws IOException {
@@ -118,11 +146,13 @@ public class GoogleHttpClient implements Client {
         .build();
   }
 
-  private final Map<String, Collection<String>> toMap(final HttpHeaders headers) {
-    final Map<String, Collection<String>> map = new HashMap<String, Collection<String>>();
+  private final feign.HttpHeaders toMap(final HttpHeaders headers) {
+    final feign.HttpHeaders.Builder result =
+        feign.HttpHeaders.builder().lowerCaseNames().sortedNames();
     for (final String header : headers.keySet()) {
-      map.put(header, headers.getHeaderStringValues(header));
+      result.add(header, headers.getHeaderStringValues(header));
     }
-    return map;
+    return result.build();
   }
+
 }
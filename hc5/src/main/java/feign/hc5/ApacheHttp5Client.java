@@ -20,18 +20,17 @@ import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.*;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
 import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
-import org.apache.hc.core5.net.URIBuilder;
-import org.apache.hc.core5.net.URLEncodedUtils;
 import java.io.*;
-import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.util.*;
 import feign.*;
+import feign.HttpHeaders;
 
 /**
  * This module directs Feign's http requests to Apache's
@@ -64,7 +63,8 @@ public final class ApacheHttp5Client implements Client {
     } catch (final URISyntaxException e) {
       throw new IOException("URL '" + request.url() + "' couldn't be parsed into a URI", e);
     }
-    final HttpHost target = HttpHost.create(URI.create(request.url()));
+    final RequestUrl url = request.requestUrl();
+    final HttpHost target = new HttpHost(url.scheme(), url.host(), url.port());
     final HttpClientContext context = configureTimeouts(options);
 
     final ClassicHttpResponse httpResponse =
@@ -91,44 +91,29 @@ public final class ApacheHttp5Client implements Client {
     final ClassicRequestBuilder requestBuilder =
         ClassicRequestBuilder.create(request.httpMethod().name());
 
-    final URI uri = new URIBuilder(request.url()).build();
-
-    requestBuilder.setUri(uri.getScheme() + "://" + uri.getAuthority() + uri.getRawPath());
-
-    // request query params
-    final List<NameValuePair> queryParams =
-        URLEncodedUtils.parse(uri, requestBuilder.getCharset());
-    for (final NameValuePair queryParam : queryParams) {
-      requestBuilder.addParameter(queryParam);
-    }
+    // the query is already encoded, send it as is
+    requestBuilder.setUri(request.requestUrl().toURIWithoutFragment());
 
     // request headers
-    boolean hasAcceptHeader = false;
-    for (final Map.Entry<String, Collection<String>> headerEntry : request.headers().entrySet()) {
-      final String headerName = headerEntry.getKey();
-      if (headerName.equalsIgnoreCase(ACCEPT_HEADER_NAME)) {
-        hasAcceptHeader = true;
-      }
-
-      if (headerName.equalsIgnoreCase(Util.CONTENT_LENGTH)) {
-        // The 'Content-Length' header is always set by the Apache client and it
-        // doesn't like us to set it as well.
-        continue;
-      }
-
-      for (final String headerValue : headerEntry.getValue()) {
+    final HttpHeaders headers = request.httpHeaders();
+    headers.forEachValue((headerName, headerValue) -> {
+      // The 'Content-Length' header is always set by the Apache client and it
+      // doesn't like us to set it as well.
+      if (!headerName.equalsIgnoreCase(Util.CONTENT_LENGTH)) {
         requestBuilder.addHeader(headerName, headerValue);
       }
-    }
+    });
     // some servers choke on the default accept string, so we'll set it to anything
-    if (!hasAcceptHeader) {
+    if (!headers.containsKey(ACCEPT_HEADER_NAME)) {
       requestBuilder.addHeader(ACCEPT_HEADER_NAME, "*/*");
     }
 
     // request body
-    // final Body requestBody = request.requestBody();
+    final Request.Body requestBody = request.requestBody();
     byte[] data = request.body();
-    if (data != null) {
+    if (requestBody != null && requestBody.isStreaming()) {
+      requestBuilder.setEntity(new StreamingEntity(requestBody, getContentType(request)));
+    } else if (data != null) {
       HttpEntity entity;
       if (request.isBinary()) {
         entity = new ByteArrayEntity(data, null);
@@ -145,18 +130,52 @@ public final class ApacheHttp5Client implements Client {
     return requestBuilder.build();
   }
 
+  /* writes a streaming body directly to the connection */
+  static final class StreamingEntity extends AbstractHttpEntity {
+
+    private final Request.Body body;
+
+    StreamingEntity(Request.Body body, ContentType contentType) {
+      super(contentType, null, body.contentLength() < 0);
+      this.body = body;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+      return body.isReplayable();
+    }
+
+    @Override
+    public long getContentLength() {
+      return body.contentLength();
+    }
+
+    @Override
+    public InputStream getContent() {
+      throw new UnsupportedOperationException("streaming body can only be written");
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+      body.writeTo(out);
+    }
+
+    @Override
+    public boolean isStreaming() {
+      return false;
+    }
+
+    @Override
+    public void close() {}
+  }
+
   private ContentType getContentType(Request request) {
     ContentType contentType = null;
-    for (final Map.Entry<String, Collection<String>> entry : request.headers().entrySet()) {
-      if (entry.getKey().equalsIgnoreCase("Content-Type")) {
-        final Collection<String> values = entry.getValue();
-        if (values != null && !values.isEmpty()) {
-          contentType = ContentType.parse(values.iterator().next());
-          if (contentType.getCharset() == null) {
-            contentType = contentType.withCharset(request.charset());
-          }
-          break;
-        }
+    final String value = request.httpHeaders().firstValue("Content-Type");
+    if (value != null) {
+      contentType = ContentType.parse(value);
+      if (contentType.getCharset() == null) {
+        contentType = contentType.withCharset(request.charset());
       }
     }
     return contentType;
@@ -167,23 +186,15 @@ public final class ApacheHttp5Client implements Client {
 
     final String reason = httpResponse.getReasonPhrase();
 
-    final Map<String, Collection<String>> headers = new HashMap<String, Collection<String>>();
+    final HttpHeaders.Builder headers = HttpHeaders.builder().lowerCaseNames().sortedNames();
     for (final Header header : httpResponse.getHeaders()) {
-      final String name = header.getName();
-      final String value = header.getValue();
-
-      Collection<String> headerValues = headers.get(name);
-      if (headerValues == null) {
-        headerValues = new ArrayList<String>();
-        headers.put(name, headerValues);
-      }
-      headerValues.add(value);
+      headers.add(header.getName(), header.getValue());
     }
 
     return Response.builder()
         .status(statusCode)
         .reason(reason)
-        .headers(headers)
+        .headers(headers.build())
         .request(request)
         .body(toFeignBody(httpResponse))
         .build();
@@ -15,6 +15,7 @@ package feign.hc5;
 
 import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
 import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
 import org.apache.hc.client5.http.config.Configurable;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
@@ -23,10 +24,19 @@ import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.support.classic.AbstractClassicEntityProducer;
 import org.apache.hc.core5.io.CloseMode;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import feign.*;
+import feign.HttpHeaders;
 import feign.Request.Options;
 
 /**
@@ -64,6 +74,7 @@ public final class AsyncApacheHttp5Client implements AsyncClient<HttpClientConte
                                              Options options,
                                              Optional<HttpClientContext> requestContext) {
     final SimpleHttpRequest httpUriRequest = toClassicHttpRequest(request, options);
+    final Request.Body requestBody = request.requestBody();
 
     final CompletableFuture<Response> result = new CompletableFuture<>();
     final FutureCallback<SimpleHttpResponse> callback = new FutureCallback<SimpleHttpResponse>() {
@@ -84,9 +95,17 @@ public final class AsyncApacheHttp5Client implements AsyncClient<HttpClientConte
       }
     };
 
-    client.execute(httpUriRequest,
-        configureTimeouts(options, requestContext.orElseGet(HttpClientContext::new)),
-        callback);
+    final HttpClientContext context =
+        configureTimeouts(options, requestContext.orElseGet(HttpClientContext::new));
+    if (requestBody != null && requestBody.isStreaming()) {
+      // SimpleHttpRequest only holds bytes, so the body is produced alongside it
+      client.execute(
+          new BasicRequestProducer(httpUriRequest,
+              new StreamingEntityProducer(requestBody, getContentType(request))),
+          SimpleResponseConsumer.create(), context, callback);
+    } else {
+      client.execute(httpUriRequest, context, callback);
+    }
 
     return result;
   }
@@ -111,25 +130,16 @@ public final class AsyncApacheHttp5Client implements AsyncClient<HttpClientConte
         new SimpleHttpRequest(request.httpMethod().name(), request.url());
 
     // request headers
-    boolean hasAcceptHeader = false;
-    for (final Map.Entry<String, Collection<String>> headerEntry : request.headers().entrySet()) {
-      final String headerName = headerEntry.getKey();
-      if (headerName.equalsIgnoreCase(ACCEPT_HEADER_NAME)) {
-        hasAcceptHeader = true;
-      }
-
-      if (headerName.equalsIgnoreCase(Util.CONTENT_LENGTH)) {
-        // The 'Content-Length' header is always set by the Apache client and it
-        // doesn't like us to set it as well.
-        continue;
-      }
-
-      for (final String headerValue : headerEntry.getValue()) {
+    final HttpHeaders headers = request.httpHeaders();
+    headers.forEachValue((headerName, headerValue) -> {
+      // The 'Content-Length' header is always set by the Apache client and it
+      // doesn't like us to set it as well.
+      if (!headerName.equalsIgnoreCase(Util.CONTENT_LENGTH)) {
         httpRequest.addHeader(headerName, headerValue);
       }
-    }
+    });
     // some servers choke on the default accept string, so we'll set it to anything
-    if (!hasAcceptHeader) {
+    if (!headers.containsKey(ACCEPT_HEADER_NAME)) {
       httpRequest.addHeader(ACCEPT_HEADER_NAME, "*/*");
     }
 
@@ -145,43 +155,111 @@ public final class AsyncApacheHttp5Client implements AsyncClient<HttpClientConte
 
   private ContentType getContentType(Request request) {
     ContentType contentType = null;
-    for (final Map.Entry<String, Collection<String>> entry : request.headers().entrySet()) {
-      if (entry.getKey().equalsIgnoreCase("Content-Type")) {
-        final Collection<String> values = entry.getValue();
-        if (values != null && !values.isEmpty()) {
-          contentType = ContentType.parse(values.iterator().next());
-          if (contentType.getCharset() == null) {
-            contentType = contentType.withCharset(request.charset());
-          }
-          break;
-        }
+    final String value = request.httpHeaders().firstValue("Content-Type");
+    if (value != null) {
+      contentType = ContentType.parse(value);
+      if (contentType.getCharset() == null) {
+        contentType = contentType.withCharset(request.charset());
       }
     }
     return contentType;
   }
 
+  /**
+   * Runs the body's writer on another thread, which blocks while the client drains what it wrote to
+   * the connection.
+   */
+  static final class StreamingEntityProducer implements AsyncEntityProducer {
+
+    private final Request.Body body;
+    private final AsyncEntityProducer delegate;
+
+    StreamingEntityProducer(Request.Body body, ContentType contentType) {
+      this.body = body;
+      this.delegate = new AbstractClassicEntityProducer(4096, contentType,
+          LazyInitializedExecutor.executor) {
+        @Override
+        protected void produceData(ContentType contentType, OutputStream out)
+            throws IOException {
+          body.writeTo(out);
+        }
+      };
+    }
+
+    @Override
+    public boolean isRepeatable() {
+      return false;
+    }
+
+    @Override
+    public long getContentLength() {
+      return body.contentLength();
+    }
+
+    @Override
+    public boolean isChunked() {
+      return body.contentLength() < 0;
+    }
+
+    @Override
+    public String getContentType() {
+      return delegate.getContentType();
+    }
+
+    @Override
+    public String getContentEncoding() {
+      return delegate.getContentEncoding();
+    }
+
+    @Override
+    public Set<String> getTrailerNames() {
+      return delegate.getTrailerNames();
+    }
+
+    @Override
+    public int available() {
+      return delegate.available();
+    }
+
+    @Override
+    public void produce(DataStreamChannel channel) throws IOException {
+      delegate.produce(channel);
+    }
+
+    @Override
+    public void failed(Exception cause) {
+      delegate.failed(cause);
+    }
+
+    @Override
+    public void releaseResources() {
+      delegate.releaseResources();
+    }
+  }
+
+  private static class LazyInitializedExecutor {
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+      final Thread result = new Thread(r, "feign-hc5-body");
+      result.setDaemon(true);
+      return result;
+    });
+  }
+
   Response toFeignResponse(SimpleHttpResponse httpResponse, Request request) {
     final int statusCode = httpResponse.getCode();
 
     final String reason = httpResponse.getReasonPhrase();
 
-    final Map<String, Collection<String>> headers = new HashMap<String, Collection<String>>();
+    final HttpHeaders.Builder headers = HttpHeaders.builder().lowerCaseNames().sortedNames();
     for (final Header header : httpResponse.getHeaders()) {
-      final String name = header.getName();
-      final String value = header.getValue();
-
-      Collection<String> headerValues = headers.get(name);
-      if (headerValues == null) {
-        headerValues = new ArrayList<String>();
-        headers.put(name, headerValues);
-      }
-      headerValues.add(value);
+      headers.add(header.getName(), header.getValue());
     }
 
     return Response.builder()
         .status(statusCode)
         .reason(reason)
-        .headers(headers)
+        .headers(headers.build())
         .request(request)
         .body(httpResponse
             .getBodyBytes())
@@ -13,6 +13,7 @@
  */
 package feign.hc5;
 
+import static feign.Util.UTF_8;
 import static feign.assertj.MockWebServerAssertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.data.MapEntry.entry;
@@ -42,6 +43,7 @@ import feign.querymap.BeanQueryMapEncoder;
 import feign.querymap.FieldQueryMapEncoder;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import okio.Buffer;
 
 public class AsyncApacheHttp5ClientTest {
@@ -777,6 +779,40 @@ public class AsyncApacheHttp5ClientTest {
     checkCFCompletedSoon(cf);
   }
 
+  @Test
+  public void postsStreamingBodyOfUnknownLength() throws Throwable {
+    server.enqueue(new MockResponse().setBody("foo"));
+
+    final TestInterfaceAsync api = new TestInterfaceAsyncBuilder()
+        .encoder((object, bodyType, template) -> template.body(
+            out -> out.write(((String) object).getBytes(UTF_8)), -1, false))
+        .target("http://localhost:" + server.getPort());
+
+    assertEquals("foo", unwrap(api.body("streamed body")));
+
+    final RecordedRequest recordedRequest = server.takeRequest();
+    assertThat(recordedRequest.getHeader("Transfer-Encoding")).isEqualTo("chunked");
+    assertThat(recordedRequest.getBody().readUtf8()).isEqualTo("streamed body");
+  }
+
+  @Test
+  public void postsStreamingBodyOfKnownLength() throws Throwable {
+    server.enqueue(new MockResponse().setBody("foo"));
+
+    final TestInterfaceAsync api = new TestInterfaceAsyncBuilder()
+        .encoder((object, bodyType, template) -> {
+          final byte[] data = ((String) object).getBytes(UTF_8);
+          template.body(out -> out.write(data), data.length, true);
+        })
+        .target("http://localhost:" + server.getPort());
+
+    assertEquals("foo", unwrap(api.body("streamed body")));
+
+    final RecordedRequest recordedRequest = server.takeRequest();
+    assertThat(recordedRequest.getHeader("Content-Length")).isEqualTo("13");
+    assertThat(recordedRequest.getBody().readUtf8()).isEqualTo("streamed body");
+  }
+
   public interface TestInterfaceAsync {
 
     @RequestLine("POST /")
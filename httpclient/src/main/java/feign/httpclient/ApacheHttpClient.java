@@ -16,15 +16,13 @@ package feign.httpclient;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
-import org.apache.http.NameValuePair;
 import org.apache.http.StatusLine;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.Configurable;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
-import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
@@ -33,16 +31,12 @@ import org.apache.http.util.EntityUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.nio.charset.Charset;
-import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import feign.Client;
+import feign.HttpHeaders;
 import feign.Request;
 import feign.Response;
 import feign.Util;
@@ -97,42 +91,28 @@ public final class ApacheHttpClient implements Client {
                 .build();
     requestBuilder.setConfig(requestConfig);
 
-    URI uri = new URIBuilder(request.url()).build();
-
-    requestBuilder.setUri(uri.getScheme() + "://" + uri.getAuthority() + uri.getRawPath());
-
-    // request query params
-    List<NameValuePair> queryParams =
-        URLEncodedUtils.parse(uri, requestBuilder.getCharset());
-    for (NameValuePair queryParam : queryParams) {
-      requestBuilder.addParameter(queryParam);
-    }
+    // the query is already encoded, send it as is
+    requestBuilder.setUri(request.requestUrl().toURIWithoutFragment());
 
     // request headers
-    boolean hasAcceptHeader = false;
-    for (Map.Entry<String, Collection<String>> headerEntry : request.headers().entrySet()) {
-      String headerName = headerEntry.getKey();
-      if (headerName.equalsIgnoreCase(ACCEPT_HEADER_NAME)) {
-        hasAcceptHeader = true;
-      }
-
-      if (headerName.equalsIgnoreCase(Util.CONTENT_LENGTH)) {
-        // The 'Content-Length' header is always set by the Apache client and it
-        // doesn't like us to set it as well.
-        continue;
-      }
-
-      for (String headerValue : headerEntry.getValue()) {
+    HttpHeaders headers = request.httpHeaders();
+    headers.forEachValue((headerName, headerValue) -> {
+      // The 'Content-Length' header is always set by the Apache client and it
+      // doesn't like us to set it as well.
+      if (!headerName.equalsIgnoreCase(Util.CONTENT_LENGTH)) {
         requestBuilder.addHeader(headerName, headerValue);
       }
-    }
+    });
     // some servers choke on the default accept string, so we'll set it to anything
-    if (!hasAcceptHeader) {
+    if (!headers.containsKey(ACCEPT_HEADER_NAME)) {
       requestBuilder.addHeader(ACCEPT_HEADER_NAME, "*/*");
     }
 
     // request body
-    if (request.body() != null) {
+    Request.Body requestBody = request.requestBody();
+    if (requestBody != null && requestBody.isStreaming()) {
+      requestBuilder.setEntity(new StreamingEntity(requestBody));
+    } else if (request.body() != null) {
       HttpEntity entity = null;
       if (request.charset() != null) {
         ContentType contentType = getContentType(request);
@@ -150,19 +130,51 @@ public final class ApacheHttpClient implements Client {
     return requestBuilder.build();
   }
 
+  /* writes a streaming body directly to the connection */
+  static final class StreamingEntity extends AbstractHttpEntity {
+
+    private final Request.Body body;
+
+    StreamingEntity(Request.Body body) {
+      this.body = body;
+      setChunked(body.contentLength() < 0);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+      return body.isReplayable();
+    }
+
+    @Override
+    public long getContentLength() {
+      return body.contentLength();
+    }
+
+    @Override
+    public InputStream getContent() {
+      throw new UnsupportedOperationException("streaming body can only be written");
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+      body.writeTo(out);
+    }
+
+    @Override
+    public boolean isStreaming() {
+      return false;
+    }
+  }
+
   private ContentType getContentType(Request request) {
     ContentType contentType = null;
-    for (Map.Entry<String, Collection<String>> entry : request.headers().entrySet())
-      if (entry.getKey().equalsIgnoreCase("Content-Type")) {
-        Collection<String> values = entry.getValue();
-        if (values != null && !values.isEmpty()) {
-          contentType = ContentType.parse(values.iterator().next());
-          if (contentType.getCharset() == null) {
-            contentType = contentType.withCharset(request.charset());
-          }
-          break;
-        }
+    String value = request.httpHeaders().firstValue("Content-Type");
+    if (value != null) {
+      contentType = ContentType.parse(value);
+      if (contentType.getCharset() == null) {
+        contentType = contentType.withCharset(request.charset());
       }
+    }
     return contentType;
   }
 
@@ -172,23 +184,15 @@ public final class ApacheHttpClient implements Client {
 
     String reason = statusLine.getReasonPhrase();
 
-    Map<String, Collection<String>> headers = new HashMap<String, Collection<String>>();
+    HttpHeaders.Builder headers = HttpHeaders.builder().lowerCaseNames().sortedNames();
     for (Header header : httpResponse.getAllHeaders()) {
-      String name = header.getName();
-      String value = header.getValue();
-
-      Collection<String> headerValues = headers.get(name);
-      if (headerValues == null) {
-        headerValues = new ArrayList<String>();
-        headers.put(name, headerValues);
-      }
-      headerValues.add(value);
+      headers.add(header.getName(), header.getValue());
     }
 
     return Response.builder()
         .status(statusCode)
         .reason(reason)
-        .headers(headers)
+        .headers(headers.build())
         .request(request)
         .body(toFeignBody(httpResponse))
         .build();
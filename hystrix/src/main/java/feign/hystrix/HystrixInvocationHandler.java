@@ -25,6 +25,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import feign.DispatchTable;
 import feign.InvocationHandlerFactory.MethodHandler;
 import feign.Target;
 import feign.Util;
@@ -36,18 +37,28 @@ import static feign.Util.checkNotNull;
 final class HystrixInvocationHandler implements InvocationHandler {
 
   private final Target<?> target;
-  private final Map<Method, MethodHandler> dispatch;
+  private final DispatchTable table;
+  private final MethodHandler[] handlers;
   private final FallbackFactory<?> fallbackFactory; // Nullable
-  private final Map<Method, Method> fallbackMethodMap;
-  private final Map<Method, Setter> setterMethodMap;
+  private final Method[] fallbackMethods;
+  private final Setter[] setters;
 
   HystrixInvocationHandler(Target<?> target, Map<Method, MethodHandler> dispatch,
       SetterFactory setterFactory, FallbackFactory<?> fallbackFactory) {
     this.target = checkNotNull(target, "target");
-    this.dispatch = checkNotNull(dispatch, "dispatch");
+    this.table = DispatchTable.of(checkNotNull(dispatch, "dispatch").keySet());
+    this.handlers = DispatchTable.handlers(table, dispatch);
     this.fallbackFactory = fallbackFactory;
-    this.fallbackMethodMap = toFallbackMethod(dispatch);
-    this.setterMethodMap = toSetters(setterFactory, target, dispatch.keySet());
+    this.fallbackMethods = toSlots(table, toFallbackMethod(dispatch), new Method[table.size()]);
+    this.setters = toSlots(table, toSetters(setterFactory, target, dispatch.keySet()),
+        new Setter[table.size()]);
+  }
+
+  private static <V> V[] toSlots(DispatchTable table, Map<Method, V> values, V[] slots) {
+    for (int slot = 0; slot < slots.length; slot++) {
+      slots[slot] = values.get(table.method(slot));
+    }
+    return slots;
   }
 
   /**
@@ -87,26 +98,30 @@ final class HystrixInvocationHandler implements InvocationHandler {
       throws Throwable {
     // early exit if the invoked method is from java.lang.Object
     // code is the same as ReflectiveFeign.FeignInvocationHandler
-    if ("equals".equals(method.getName())) {
-      try {
-        Object otherHandler =
-            args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0]) : null;
-        return equals(otherHandler);
-      } catch (IllegalArgumentException e) {
-        return false;
-      }
-    } else if ("hashCode".equals(method.getName())) {
-      return hashCode();
-    } else if ("toString".equals(method.getName())) {
-      return toString();
+    final int slot = table.slot(method);
+    switch (slot) {
+      case DispatchTable.EQUALS:
+        try {
+          Object otherHandler =
+              args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0]) : null;
+          return equals(otherHandler);
+        } catch (IllegalArgumentException e) {
+          return false;
+        }
+      case DispatchTable.HASH_CODE:
+        return hashCode();
+      case DispatchTable.TO_STRING:
+        return toString();
+      default:
+        break;
     }
 
     HystrixCommand<Object> hystrixCommand =
-        new HystrixCommand<Object>(setterMethodMap.get(method)) {
+        new HystrixCommand<Object>(setters[slot]) {
           @Override
           protected Object run() throws Exception {
             try {
-              return HystrixInvocationHandler.this.dispatch.get(method).invoke(args);
+              return handlers[slot].invoke(args);
             } catch (Exception e) {
               throw e;
             } catch (Throwable t) {
@@ -121,7 +136,7 @@ final class HystrixInvocationHandler implements InvocationHandler {
             }
             try {
               Object fallback = fallbackFactory.create(getExecutionException());
-              Object result = fallbackMethodMap.get(method).invoke(fallback, args);
+              Object result = fallbackMethods[slot].invoke(fallback, args);
               if (isReturnsHystrixCommand(method)) {
                 return ((HystrixCommand) result).execute();
               } else if (isReturnsObservable(method)) {
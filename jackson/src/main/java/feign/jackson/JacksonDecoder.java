@@ -14,16 +14,17 @@
 package feign.jackson;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
-import java.io.BufferedReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import java.io.IOException;
-import java.io.Reader;
+import java.io.PushbackInputStream;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import feign.Response;
-import feign.Util;
 import feign.codec.Decoder;
 
 public class JacksonDecoder implements Decoder {
@@ -45,20 +46,31 @@ public class JacksonDecoder implements Decoder {
 
   @Override
   public Object decode(Response response, Type type) throws IOException {
-    if (response.body() == null)
+    Response.Body body = response.body();
+    if (body == null)
       return null;
-    Reader reader = response.body().asReader(Util.UTF_8);
-    if (!reader.markSupported()) {
-      reader = new BufferedReader(reader, 1);
-    }
+    JavaType javaType = mapper.constructType(type);
     try {
+      // Bytes are parsed as is, rather than decoded to chars by a Reader first
+      if (body.isRepeatable()) {
+        ByteBuffer buffer = body.asByteBuffer();
+        if (!buffer.hasRemaining()) {
+          return null; // Eagerly returning null avoids "No content to map due to end-of-input"
+        }
+        if (buffer.hasArray()) {
+          return mapper.readValue(buffer.array(), buffer.arrayOffset() + buffer.position(),
+              buffer.remaining(), javaType);
+        }
+        return mapper.readValue(new ByteBufferBackedInputStream(buffer), javaType);
+      }
+      PushbackInputStream in = new PushbackInputStream(body.asInputStream(), 1);
       // Read the first byte to see if we have any data
-      reader.mark(1);
-      if (reader.read() == -1) {
-        return null; // Eagerly returning null avoids "No content to map due to end-of-input"
+      int first = in.read();
+      if (first == -1) {
+        return null;
       }
-      reader.reset();
-      return mapper.readValue(reader, mapper.constructType(type));
+      in.unread(first);
+      return mapper.readValue(in, javaType);
     } catch (RuntimeJsonMappingException e) {
       if (e.getCause() != null && e.getCause() instanceof IOException) {
         throw IOException.class.cast(e.getCause());
@@ -14,13 +14,15 @@
 package feign.jackson;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Collections;
+import feign.PooledOutputStream;
 import feign.RequestTemplate;
 import feign.codec.EncodeException;
 import feign.codec.Encoder;
@@ -47,10 +49,14 @@ public class JacksonEncoder implements Encoder {
 
   @Override
   public void encode(Object object, Type bodyType, RequestTemplate template) {
-    try {
-      JavaType javaType = mapper.getTypeFactory().constructType(bodyType);
-      template.body(mapper.writerFor(javaType).writeValueAsBytes(object), Util.UTF_8);
-    } catch (JsonProcessingException e) {
+    JavaType javaType = mapper.getTypeFactory().constructType(bodyType);
+    /* the buffer is borrowed, only the body is allocated */
+    try (PooledOutputStream out = new PooledOutputStream()) {
+      mapper.writerFor(javaType)
+          .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+          .writeValue(out, object);
+      template.body(out.toByteArray(), Util.UTF_8);
+    } catch (IOException e) {
       throw new EncodeException(e.getMessage(), e);
     }
   }
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2012-2020 The Feign Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package feign.jackson;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import feign.Experimental;
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+
+/**
+ * Jackson encoder which writes the body directly to the connection when the request is sent,
+ * instead of holding it in memory, for large bodies such as exports. The body is sent chunked, as
+ * its length isn't known up front, and is serialized again if the request is retried.
+ * <p>
+ * Serialization failures surface as an {@link EncodeException} when the request is sent, rather
+ * than when it is built, and aren't retried. Failures writing to the connection are retried like
+ * any other.
+ * </p>
+ */
+@Experimental
+public class JacksonStreamingEncoder implements Encoder {
+
+  private final ObjectMapper mapper;
+
+  public JacksonStreamingEncoder() {
+    this(Collections.<Module>emptyList());
+  }
+
+  public JacksonStreamingEncoder(Iterable<Module> modules) {
+    this(new ObjectMapper()
+        .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+        .configure(SerializationFeature.INDENT_OUTPUT, true)
+        .registerModules(modules));
+  }
+
+  public JacksonStreamingEncoder(ObjectMapper mapper) {
+    this.mapper = mapper;
+  }
+
+  @Override
+  public void encode(Object object, Type bodyType, RequestTemplate template) {
+    /* the client closes the connection's stream */
+    ObjectWriter writer = mapper.writerFor(mapper.getTypeFactory().constructType(bodyType))
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    template.body(out -> {
+      try {
+        writer.writeValue(out, object);
+      } catch (JsonProcessingException e) {
+        /* an IOException would be retried, but the object won't serialize any better next time */
+        throw new EncodeException(e.getMessage(), e);
+      }
+    }, -1, true);
+  }
+}
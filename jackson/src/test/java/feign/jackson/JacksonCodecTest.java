@@ -15,6 +15,7 @@ package feign.jackson;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationContext;
@@ -25,7 +26,10 @@ import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import feign.Request;
 import feign.Request.HttpMethod;
 import feign.Util;
+import feign.codec.EncodeException;
 import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -43,6 +47,7 @@ import static feign.assertj.FeignAssertions.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 @SuppressWarnings("deprecation")
 public class JacksonCodecTest {
@@ -105,6 +110,28 @@ public class JacksonCodecTest {
         new JacksonDecoder().decode(response, new TypeReference<List<Zone>>() {}.getType()));
   }
 
+  @Test
+  public void decodesStreamedBody() throws Exception {
+    List<Zone> zones = new LinkedList<>();
+    zones.add(new Zone("denominator.io."));
+    zones.add(new Zone("denominator.io.", "ABCD"));
+
+    Response response = Response.builder()
+        .status(200)
+        .reason("OK")
+        .request(Request.create(HttpMethod.GET, "/api", Collections.emptyMap(), null, Util.UTF_8))
+        .headers(Collections.emptyMap())
+        .body(new ByteArrayInputStream(zonesJson.getBytes(UTF_8)), null)
+        .build();
+    assertEquals(zones,
+        new JacksonDecoder().decode(response, new TypeReference<List<Zone>>() {}.getType()));
+
+    Response empty = response.toBuilder()
+        .body(new ByteArrayInputStream(new byte[0]), null)
+        .build();
+    assertNull(new JacksonDecoder().decode(empty, String.class));
+  }
+
   @Test
   public void nullBodyDecodesToNull() throws Exception {
     Response response = Response.builder()
@@ -169,6 +196,46 @@ public class JacksonCodecTest {
         + "} ]");
   }
 
+  @Test
+  public void streamingEncoderWritesBodyWhenSent() throws IOException {
+    List<Zone> zones = new LinkedList<Zone>();
+    zones.add(new Zone("denominator.io."));
+    zones.add(new Zone("denominator.io.", "ABCD"));
+
+    RequestTemplate template = new RequestTemplate();
+    new JacksonStreamingEncoder().encode(zones, new TypeReference<List<Zone>>() {}.getType(),
+        template);
+
+    Request.Body body = template.requestBody();
+    assertTrue(body.isStreaming());
+    assertTrue(body.isReplayable());
+    assertEquals(-1, body.contentLength());
+    assertNull(template.body());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    body.writeTo(out);
+    assertEquals(""
+        + "[ {" + System.lineSeparator()
+        + "  \"name\" : \"denominator.io.\"" + System.lineSeparator()
+        + "}, {" + System.lineSeparator()
+        + "  \"name\" : \"denominator.io.\"," + System.lineSeparator()
+        + "  \"id\" : \"ABCD\"" + System.lineSeparator()
+        + "} ]", new String(out.toByteArray(), UTF_8));
+  }
+
+  @Test
+  public void streamingEncoderFailsToSerializeWithoutRetrying() throws Exception {
+    RequestTemplate template = new RequestTemplate();
+    new JacksonStreamingEncoder().encode(new Object(), Object.class, template);
+
+    try {
+      template.requestBody().writeTo(new ByteArrayOutputStream());
+      fail("expected EncodeException");
+    } catch (EncodeException e) {
+      assertTrue(e.getCause() instanceof JsonProcessingException);
+    }
+  }
+
   @Test
   public void decodesIterator() throws Exception {
     List<Zone> zones = new LinkedList<Zone>();
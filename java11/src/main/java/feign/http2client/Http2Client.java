@@ -14,12 +14,17 @@
 package feign.http2client;
 
 import feign.Client;
+import feign.HttpHeaders;
 import feign.Request;
 import feign.Request.Options;
 import feign.Response;
 import feign.Util;
-import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
@@ -33,8 +38,10 @@ import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
 import java.time.Duration;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Http2Client implements Client {
 
@@ -55,9 +62,10 @@ public class Http2Client implements Client {
   public Response execute(Request request, Options options) throws IOException {
     final HttpRequest httpRequest = newRequestBuilder(request, options).build();
 
-    HttpResponse<byte[]> httpResponse;
+    /* streamed, instead of buffered whole before feign sees it */
+    HttpResponse<InputStream> httpResponse;
     try {
-      httpResponse = client.send(httpRequest, BodyHandlers.ofByteArray());
+      httpResponse = client.send(httpRequest, BodyHandlers.ofInputStream());
     } catch (final InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new IOException("Invalid uri " + request.url(), e);
@@ -66,12 +74,14 @@ public class Http2Client implements Client {
     final OptionalLong length = httpResponse.headers().firstValueAsLong("Content-Length");
 
     final Response response = Response.builder()
-        .body(new ByteArrayInputStream(httpResponse.body()),
-            length.isPresent() ? (int) length.getAsLong() : null)
+        .body(httpResponse.body(),
+            length.isPresent() && length.getAsLong() <= Integer.MAX_VALUE
+                ? (int) length.getAsLong()
+                : null)
         .reason(httpResponse.headers().firstValue("Reason-Phrase").orElse("OK"))
         .request(request)
         .status(httpResponse.statusCode())
-        .headers(castMapCollectType(httpResponse.headers().map()))
+        .headers(toHeaders(httpResponse.headers().map()))
         .build();
     return response;
   }
@@ -79,14 +89,17 @@ public class Http2Client implements Client {
   private Builder newRequestBuilder(Request request, Options options) throws IOException {
     URI uri;
     try {
-      uri = new URI(request.url());
+      uri = request.requestUrl().toURI();
     } catch (final URISyntaxException e) {
       throw new IOException("Invalid uri " + request.url(), e);
     }
 
     final BodyPublisher body;
+    final Request.Body requestBody = request.requestBody();
     final byte[] data = request.body();
-    if (data == null) {
+    if (requestBody != null && requestBody.isStreaming()) {
+      body = streaming(requestBody);
+    } else if (data == null) {
       body = BodyPublishers.noBody();
     } else {
       body = BodyPublishers.ofByteArray(data);
@@ -97,10 +110,7 @@ public class Http2Client implements Client {
         .timeout(Duration.ofMillis(options.readTimeoutMillis()))
         .version(Version.HTTP_2);
 
-    final Map<String, Collection<String>> headers = filterRestrictedHeaders(request.headers());
-    if (!headers.isEmpty()) {
-      requestBuilder.headers(asString(headers));
-    }
+    requestBuilder.headers(asString(request.httpHeaders()));
 
     switch (request.httpMethod()) {
       case GET:
@@ -118,6 +128,77 @@ public class Http2Client implements Client {
 
   }
 
+  /**
+   * The client pulls the body from an {@link InputStream}, so a streaming body is written to a pipe
+   * by another thread. A failure to write it fails the read, instead of truncating the body.
+   */
+  private static BodyPublisher streaming(Request.Body body) {
+    final BodyPublisher publisher = BodyPublishers.ofInputStream(() -> pipe(body));
+    final long length = body.contentLength();
+    if (length == 0) {
+      return BodyPublishers.noBody();
+    }
+    return length < 0 ? publisher : BodyPublishers.fromPublisher(publisher, length);
+  }
+
+  private static InputStream pipe(Request.Body body) {
+    final PipedInputStream in = new PipedInputStream(PIPE_SIZE);
+    final PipedOutputStream out;
+    try {
+      out = new PipedOutputStream(in);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    final CompletableFuture<Void> written = new CompletableFuture<>();
+    LazyInitializedExecutor.executor.execute(() -> {
+      try {
+        body.writeTo(out);
+        written.complete(null);
+      } catch (final Throwable e) {
+        /* before closing the pipe, so the reader sees the failure rather than its end */
+        written.completeExceptionally(e);
+      } finally {
+        try {
+          out.close();
+        } catch (final IOException suppressed) { // NOPMD
+        }
+      }
+    });
+    return new FilterInputStream(in) {
+      @Override
+      public int read() throws IOException {
+        return checkWritten(super.read());
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        return checkWritten(super.read(b, off, len));
+      }
+
+      private int checkWritten(int read) throws IOException {
+        if (read == -1 && written.isCompletedExceptionally()) {
+          try {
+            written.join();
+          } catch (final CompletionException e) {
+            throw new IOException("Failed writing the request body", e.getCause());
+          }
+        }
+        return read;
+      }
+    };
+  }
+
+  private static final int PIPE_SIZE = 8192;
+
+  private static class LazyInitializedExecutor {
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+      final Thread result = new Thread(r, "feign-http2client-body");
+      result.setDaemon(true);
+      return result;
+    });
+  }
+
   /**
    * There is a bunch o headers that the http2 client do not allow to be set.
    *
@@ -133,32 +214,28 @@ public class Http2Client implements Client {
     DISALLOWED_HEADERS_SET = Collections.unmodifiableSet(treeSet);
   }
 
-  private Map<String, Collection<String>> filterRestrictedHeaders(Map<String, Collection<String>> headers) {
-    final Map<String, Collection<String>> filteredHeaders = headers.keySet()
-        .stream()
-        .filter(headerName -> !DISALLOWED_HEADERS_SET.contains(headerName))
-        .collect(Collectors.toMap(
-            Function.identity(),
-            headers::get));
-
-    filteredHeaders.computeIfAbsent("Accept", key -> List.of("*/*"));
-
-    return filteredHeaders;
-  }
-
-  private Map<String, Collection<String>> castMapCollectType(Map<String, List<String>> map) {
-    final Map<String, Collection<String>> result = new HashMap<>();
-    map.forEach((key, value) -> result.put(key, new HashSet<>(value)));
-    return result;
+  /**
+   * Flattens the headers the http2 client allows into name, value pairs, adding a default Accept.
+   */
+  private String[] asString(HttpHeaders headers) {
+    final List<String> result = new ArrayList<>();
+    headers.forEachValue((name, value) -> {
+      if (!DISALLOWED_HEADERS_SET.contains(name)) {
+        result.add(name);
+        result.add(value);
+      }
+    });
+    if (!headers.containsKey("Accept")) {
+      result.add("Accept");
+      result.add("*/*");
+    }
+    return result.toArray(new String[0]);
   }
 
-  private String[] asString(Map<String, Collection<String>> headers) {
-    return headers.entrySet().stream()
-        .flatMap(entry -> entry.getValue()
-            .stream()
-            .map(value -> Arrays.asList(entry.getKey(), value))
-            .flatMap(List::stream))
-        .toArray(String[]::new);
+  private HttpHeaders toHeaders(Map<String, List<String>> map) {
+    final HttpHeaders.Builder result = HttpHeaders.builder().lowerCaseNames().sortedNames();
+    map.forEach(result::add);
+    return result.build();
   }
 
 }
@@ -24,6 +24,7 @@ import java.net.URI;
 import java.util.*;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
+import feign.DownloadTo;
 import feign.MethodMetadata;
 import feign.Response;
 
@@ -630,6 +631,24 @@ public class JAXRSContractTest {
     Response get();
   }
 
+  @Test
+  public void downloadToParameter() throws Exception {
+    final MethodMetadata md =
+        parseAndValidateMetadata(DownloadToInterface.class, "download", String.class,
+            java.nio.file.Path.class);
+
+    assertThat(md.downloadToIndex()).isEqualTo(1);
+    assertThat(md.bodyIndex()).isNull();
+  }
+
+  interface DownloadToInterface {
+
+    @GET
+    @Path("/{name}")
+    java.nio.file.Path download(@PathParam("name") String name,
+                                @DownloadTo java.nio.file.Path file);
+  }
+
   protected MethodMetadata parseAndValidateMetadata(Class<?> targetType,
                                                     String method,
                                                     Class<?>... parameterTypes)
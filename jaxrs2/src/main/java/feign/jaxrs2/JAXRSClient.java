@@ -16,11 +16,7 @@ package feign.jaxrs2;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
-import java.util.Collection;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.*;
@@ -55,7 +51,7 @@ public class JAXRSClient implements Client {
         .build()
         .target(request.url())
         .request()
-        .headers(toMultivaluedMap(request.headers()))
+        .headers(toMultivaluedMap(request.httpHeaders()))
         .method(request.httpMethod().name(), createRequestEntity(request));
 
     return feign.Response.builder()
@@ -68,15 +64,23 @@ public class JAXRSClient implements Client {
         .build();
   }
 
-  private Entity<byte[]> createRequestEntity(feign.Request request) {
-    if (request.body() == null) {
+  private Entity<?> createRequestEntity(feign.Request request) {
+    final feign.Request.Body body = request.requestBody();
+    final boolean streaming = body != null && body.isStreaming();
+    if (request.body() == null && !streaming) {
       return null;
     }
 
+    MediaType mediaType = mediaType(request.httpHeaders());
+    if (streaming) {
+      /* written directly to the connection */
+      return Entity.entity((StreamingOutput) body::writeTo,
+          new Variant(mediaType != null ? mediaType : MediaType.APPLICATION_OCTET_STREAM_TYPE,
+              locale(request.httpHeaders()), encoding(request.charset())));
+    }
     return Entity.entity(
         request.body(),
-        new Variant(mediaType(request.headers()), locale(request.headers()),
-            encoding(request.charset())));
+        new Variant(mediaType, locale(request.httpHeaders()), encoding(request.charset())));
   }
 
   private Integer integerHeader(Response response, String header) {
@@ -100,34 +104,31 @@ public class JAXRSClient implements Client {
     return charset.name();
   }
 
-  private String locale(Map<String, Collection<String>> headers) {
-    if (!headers.containsKey(HttpHeaders.CONTENT_LANGUAGE))
-      return null;
-
-    return headers.get(HttpHeaders.CONTENT_LANGUAGE).iterator().next();
+  private String locale(feign.HttpHeaders headers) {
+    return headers.firstValue(HttpHeaders.CONTENT_LANGUAGE);
   }
 
-  private MediaType mediaType(Map<String, Collection<String>> headers) {
-    if (!headers.containsKey(HttpHeaders.CONTENT_TYPE))
+  private MediaType mediaType(feign.HttpHeaders headers) {
+    final String contentType = headers.firstValue(HttpHeaders.CONTENT_TYPE);
+    if (contentType == null)
       return null;
 
-    return MediaType.valueOf(headers.get(HttpHeaders.CONTENT_TYPE).iterator().next());
+    return MediaType.valueOf(contentType);
   }
 
-  private MultivaluedMap<String, Object> toMultivaluedMap(Map<String, Collection<String>> headers) {
+  private MultivaluedMap<String, Object> toMultivaluedMap(feign.HttpHeaders headers) {
     final MultivaluedHashMap<String, Object> mvHeaders = new MultivaluedHashMap<>();
 
-    headers.forEach((key, value1) -> value1
-        .forEach(value -> mvHeaders.add(key, value)));
+    headers.forEachValue(mvHeaders::add);
 
     return mvHeaders;
   }
 
-  private Map<String, Collection<String>> toMap(MultivaluedMap<String, String> headers) {
-    return headers.entrySet().stream()
-        .collect(Collectors.toMap(
-            Entry::getKey,
-            Entry::getValue));
+  private feign.HttpHeaders toMap(MultivaluedMap<String, String> headers) {
+    final feign.HttpHeaders.Builder result =
+        feign.HttpHeaders.builder().lowerCaseNames().sortedNames();
+    headers.forEach(result::add);
+    return result.build();
   }
 
 }
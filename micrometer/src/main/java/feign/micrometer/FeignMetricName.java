@@ -15,12 +15,11 @@ package feign.micrometer;
 
 
 import java.lang.reflect.Method;
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import feign.MethodMetadata;
+import feign.RequestUrl;
 import feign.Target;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.config.NamingConvention;
@@ -57,13 +56,10 @@ public final class FeignMetricName {
   }
 
   private String extractHost(final String targetUrl) {
-    try {
-      String host = new URI(targetUrl).getHost();
-      if (host != null)
-        return host;
-    } catch (final URISyntaxException e) {
+    String host = RequestUrl.parse(targetUrl).host();
+    if (host != null && !host.isEmpty()) {
+      return host;
     }
-
     // can't get the host, in that case, just read first 20 chars from url
     return targetUrl.length() <= 20
         ? targetUrl
@@ -17,12 +17,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.nio.charset.Charset;
-import java.util.Collection;
-import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import feign.Client;
+import feign.HttpHeaders;
 import feign.Request.HttpMethod;
 import okhttp3.*;
+import okio.BufferedSink;
 
 /**
  * This module directs Feign's http requests to
@@ -49,26 +49,28 @@ public final class OkHttpClient implements Client {
     Request.Builder requestBuilder = new Request.Builder();
     requestBuilder.url(input.url());
 
-    MediaType mediaType = null;
-    boolean hasAcceptHeader = false;
-    for (String field : input.headers().keySet()) {
-      if (field.equalsIgnoreCase("Accept")) {
-        hasAcceptHeader = true;
-      }
+    HttpHeaders headers = input.httpHeaders();
+    headers.forEachValue(requestBuilder::addHeader);
+    // Some servers choke on the default accept string.
+    if (!headers.containsKey("Accept")) {
+      requestBuilder.addHeader("Accept", "*/*");
+    }
 
-      for (String value : input.headers().get(field)) {
-        requestBuilder.addHeader(field, value);
-        if (field.equalsIgnoreCase("Content-Type")) {
-          mediaType = MediaType.parse(value);
-          if (input.charset() != null) {
-            mediaType.charset(input.charset());
-          }
-        }
+    MediaType mediaType = null;
+    String contentType = headers.firstValue("Content-Type");
+    if (contentType != null) {
+      mediaType = MediaType.parse(contentType);
+      if (input.charset() != null) {
+        mediaType.charset(input.charset());
       }
     }
-    // Some servers choke on the default accept string.
-    if (!hasAcceptHeader) {
-      requestBuilder.addHeader("Accept", "*/*");
+
+    feign.Request.Body requestBody = input.requestBody();
+    if (requestBody != null && requestBody.isStreaming()) {
+      requestBuilder.removeHeader("Content-Type");
+      requestBuilder.method(input.httpMethod().name(),
+          new StreamingRequestBody(mediaType, requestBody));
+      return requestBuilder.build();
     }
 
     byte[] inputBody = input.body();
@@ -89,19 +91,55 @@ public final class OkHttpClient implements Client {
     return requestBuilder.build();
   }
 
+  /* writes a streaming body directly to the connection */
+  private static final class StreamingRequestBody extends RequestBody {
+
+    private final MediaType mediaType;
+    private final feign.Request.Body body;
+
+    StreamingRequestBody(MediaType mediaType, feign.Request.Body body) {
+      this.mediaType = mediaType;
+      this.body = body;
+    }
+
+    @Override
+    public MediaType contentType() {
+      return mediaType;
+    }
+
+    @Override
+    public long contentLength() {
+      return body.contentLength();
+    }
+
+    @Override
+    public boolean isOneShot() {
+      return !body.isReplayable();
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+      body.writeTo(sink.outputStream());
+    }
+  }
+
   private static feign.Response toFeignResponse(Response response, feign.Request request)
       throws IOException {
     return feign.Response.builder()
         .status(response.code())
         .reason(response.message())
         .request(request)
-        .headers(toMap(response.headers()))
+        .headers(toHeaders(response.headers()))
         .body(toBody(response.body()))
         .build();
   }
 
-  private static Map<String, Collection<String>> toMap(Headers headers) {
-    return (Map) headers.toMultimap();
+  private static HttpHeaders toHeaders(Headers headers) {
+    HttpHeaders.Builder result = HttpHeaders.builder().lowerCaseNames().sortedNames();
+    for (int i = 0; i < headers.size(); i++) {
+      result.add(headers.name(i), headers.value(i));
+    }
+    return result.build();
   }
 
   private static feign.Response.Body toBody(final ResponseBody input) throws IOException {
@@ -13,6 +13,7 @@
  */
 package feign.reactive;
 
+import feign.DispatchTable;
 import feign.InvocationHandlerFactory.MethodHandler;
 import feign.Target;
 import java.lang.reflect.InvocationHandler;
@@ -26,30 +27,35 @@ import org.reactivestreams.Subscription;
 public abstract class ReactiveInvocationHandler implements InvocationHandler {
 
   private final Target<?> target;
-  private final Map<Method, MethodHandler> dispatch;
+  private final DispatchTable table;
+  private final MethodHandler[] handlers;
 
   public ReactiveInvocationHandler(Target<?> target,
       Map<Method, MethodHandler> dispatch) {
     this.target = target;
-    this.dispatch = dispatch;
+    this.table = DispatchTable.of(dispatch.keySet());
+    this.handlers = DispatchTable.handlers(table, dispatch);
   }
 
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-    if ("equals".equals(method.getName())) {
-      try {
-        Object otherHandler =
-            args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0]) : null;
-        return equals(otherHandler);
-      } catch (IllegalArgumentException e) {
-        return false;
-      }
-    } else if ("hashCode".equals(method.getName())) {
-      return hashCode();
-    } else if ("toString".equals(method.getName())) {
-      return toString();
+    int slot = this.table.slot(method);
+    switch (slot) {
+      case DispatchTable.EQUALS:
+        try {
+          Object otherHandler =
+              args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0]) : null;
+          return equals(otherHandler);
+        } catch (IllegalArgumentException e) {
+          return false;
+        }
+      case DispatchTable.HASH_CODE:
+        return hashCode();
+      case DispatchTable.TO_STRING:
+        return toString();
+      default:
+        return this.invoke(method, this.handlers[slot], args);
     }
-    return this.invoke(method, this.dispatch.get(method), args);
   }
 
   @Override
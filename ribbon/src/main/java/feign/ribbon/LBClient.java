@@ -26,12 +26,12 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import feign.Client;
+import feign.HttpHeaders;
 import feign.Request;
 import feign.Response;
 import feign.Util;
@@ -97,6 +97,9 @@ public final class LBClient extends
   public RequestSpecificRetryHandler getRequestSpecificRetryHandler(
                                                                     RibbonRequest request,
                                                                     IClientConfig requestConfig) {
+    if (!request.isReplayable()) {
+      return new RequestSpecificRetryHandler(false, false, this.getRetryHandler(), requestConfig);
+    }
     if (clientConfig.get(CommonClientConfigKey.OkToRetryOnAllOperations, false)) {
       return new RequestSpecificRetryHandler(true, true, this.getRetryHandler(), requestConfig);
     }
@@ -118,17 +121,27 @@ public final class LBClient extends
       setUri(uri);
     }
 
-    @SuppressWarnings("deprecation")
     Request toRequest() {
-      // add header "Content-Length" according to the request body
-      final byte[] body = request.body();
-      final int bodyLength = body != null ? body.length : 0;
-      // create a new Map to avoid side effect, not to change the old headers
-      Map<String, Collection<String>> headers = new LinkedHashMap<String, Collection<String>>();
-      headers.putAll(request.headers());
-      headers.put(Util.CONTENT_LENGTH, Collections.singletonList(String.valueOf(bodyLength)));
-      return Request.create(request.httpMethod(), getUri().toASCIIString(), headers, body,
-          request.charset());
+      // add header "Content-Length" according to the request body, which may be streamed
+      final Request.Body body = request.requestBody();
+      final long bodyLength = body != null ? body.contentLength() : 0;
+      // create new headers to avoid side effect, not to change the old headers
+      HttpHeaders.Builder headers = HttpHeaders.builder()
+          .addAll(request.headers())
+          .remove(Util.CONTENT_LENGTH);
+      if (bodyLength >= 0) {
+        headers.set(Util.CONTENT_LENGTH, String.valueOf(bodyLength));
+      }
+      return Request.create(request.httpMethod(), getUri().toASCIIString(), headers.build(),
+          body != null ? body : Request.Body.empty(), null);
+    }
+
+    /**
+     * False if the body can only be sent once, so the request can't be retried on another server.
+     */
+    boolean isReplayable() {
+      final Request.Body body = request.requestBody();
+      return body == null || body.isReplayable();
     }
 
     Client client() {
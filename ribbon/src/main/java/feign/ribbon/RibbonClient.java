@@ -18,6 +18,7 @@ import com.netflix.client.config.CommonClientConfigKey;
 import com.netflix.client.config.DefaultClientConfigImpl;
 import feign.Client;
 import feign.Request;
+import feign.RequestUrl;
 import feign.Response;
 import java.io.IOException;
 import java.net.URI;
@@ -72,9 +73,9 @@ public class RibbonClient implements Client {
   @Override
   public Response execute(Request request, Request.Options options) throws IOException {
     try {
-      URI asUri = URI.create(request.url());
-      String clientName = asUri.getHost();
-      URI uriWithoutHost = cleanUrl(request.url(), clientName);
+      RequestUrl url = request.requestUrl();
+      String clientName = url.host();
+      URI uriWithoutHost = cleanUrl(url);
       LBClient.RibbonRequest ribbonRequest =
           new LBClient.RibbonRequest(delegate, request, uriWithoutHost);
       return lbClient(clientName).executeWithLoadBalancer(ribbonRequest,
@@ -94,8 +95,21 @@ public class RibbonClient implements Client {
     }
   }
 
-  static URI cleanUrl(String originalUrl, String host) {
-    return URI.create(originalUrl.replaceFirst(host, ""));
+  /* the url with an empty host, which the load balancer replaces with the chosen server */
+  static URI cleanUrl(RequestUrl url) {
+    StringBuilder result = new StringBuilder(url.toString().length())
+        .append(url.scheme()).append("://");
+    if (url.userInfo() != null) {
+      result.append(url.userInfo()).append('@');
+    }
+    if (url.port() != -1) {
+      result.append(':').append(url.port());
+    }
+    result.append(url.rawPathAndQuery());
+    if (url.rawFragment() != null) {
+      result.append('#').append(url.rawFragment());
+    }
+    return URI.create(result.toString());
   }
 
   private LBClient lbClient(String clientName) {
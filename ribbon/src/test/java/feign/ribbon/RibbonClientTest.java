@@ -14,6 +14,7 @@
 package feign.ribbon;
 
 import static com.netflix.config.ConfigurationManager.getConfigInstance;
+import static feign.Util.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertEquals;
@@ -22,7 +23,9 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
 import java.util.Collection;
@@ -38,11 +41,13 @@ import com.netflix.client.config.IClientConfig;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.SocketPolicy;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import feign.Client;
 import feign.Feign;
 import feign.Param;
 import feign.Request;
 import feign.Response;
+import feign.RequestUrl;
 import feign.RequestLine;
 import feign.RetryableException;
 import feign.Retryer;
@@ -104,6 +109,33 @@ public class RibbonClientTest {
     // assertEquals(target.lb().getLoadBalancerStats().getSingleServerStat())
   }
 
+  @Test
+  public void postsStreamingBody() throws IOException, InterruptedException {
+    server1.enqueue(new MockResponse().setBody("success!"));
+    server1.enqueue(new MockResponse().setBody("success!"));
+
+    getConfigInstance().setProperty(serverListKey(), hostAndPort(server1.url("").url()));
+
+    TestInterface api = Feign.builder().client(RibbonClient.create())
+        .target(TestInterface.class, "http://" + client());
+
+    api.upload(new ByteArrayInputStream("streamed body".getBytes(UTF_8)));
+    RecordedRequest unknownLength = server1.takeRequest();
+    assertEquals("chunked", unknownLength.getHeader("Transfer-Encoding"));
+    assertEquals("streamed body", unknownLength.getBody().readUtf8());
+
+    Feign.builder().client(RibbonClient.create())
+        .encoder((object, bodyType, template) -> {
+          byte[] data = ((String) object).getBytes(UTF_8);
+          template.body(out -> out.write(data), data.length, true);
+        })
+        .target(TestInterface.class, "http://" + client())
+        .postString("streamed body");
+    RecordedRequest knownLength = server1.takeRequest();
+    assertEquals("13", knownLength.getHeader("Content-Length"));
+    assertEquals("streamed body", knownLength.getBody().readUtf8());
+  }
+
   @Test
   public void ioExceptionRetry() throws IOException, InterruptedException {
     server1.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
@@ -360,16 +392,22 @@ public class RibbonClientTest {
 
   @Test
   public void testCleanUrlWithMatchingHostAndPart() throws IOException {
-    URI uri = RibbonClient.cleanUrl("http://questions/questions/answer/123", "questions");
+    URI uri = RibbonClient.cleanUrl(RequestUrl.parse("http://questions/questions/answer/123"));
     assertEquals("http:///questions/answer/123", uri.toString());
   }
 
   @Test
   public void testCleanUrl() throws IOException {
-    URI uri = RibbonClient.cleanUrl("http://myservice/questions/answer/123", "myservice");
+    URI uri = RibbonClient.cleanUrl(RequestUrl.parse("http://myservice/questions/answer/123"));
     assertEquals("http:///questions/answer/123", uri.toString());
   }
 
+  @Test
+  public void testCleanUrlKeepsPortAndQuery() throws IOException {
+    URI uri = RibbonClient.cleanUrl(RequestUrl.parse("http://myservice:8080/answer?id=1%202"));
+    assertEquals("http://:8080/answer?id=1%202", uri.toString());
+  }
+
   private String client() {
     return testName.getMethodName();
   }
@@ -393,5 +431,11 @@ public class RibbonClientTest {
 
     @RequestLine("GET /")
     Response get();
+
+    @RequestLine("POST /")
+    void upload(InputStream body);
+
+    @RequestLine("POST /")
+    void postString(String body);
   }
 }